@@ -0,0 +1,30 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Caches the rendered markup of Byline components, so that unchanged bylines do not
+ * re-execute their script (and the nested image component) on every uncached request.
+ */
+public interface BylineFragmentCache {
+
+    /**
+     * @param resource the byline resource
+     * @param variant the selectors and extension the resource is rendered with
+     * @return the key under which the markup of the resource is cached,
+     *         or null if the markup of the resource must not be cached
+     */
+    FragmentKey getKey(Resource resource, String variant);
+
+    /**
+     * @param key a key obtained from {@link #getKey(Resource, String)}
+     * @return the cached markup, or null if there is none
+     */
+    String get(FragmentKey key);
+
+    /**
+     * @param key a key obtained from {@link #getKey(Resource, String)}
+     * @param markup the rendered markup
+     */
+    void put(FragmentKey key, String markup);
+}
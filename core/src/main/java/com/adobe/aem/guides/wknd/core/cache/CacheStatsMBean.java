@@ -0,0 +1,34 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of a {@link WeightedLruCache} owned by one of the WKND caching services.
+ */
+@Description("WKND cache statistics")
+public interface CacheStatsMBean {
+
+    @Description("Number of lookups served from the cache")
+    long getHitCount();
+
+    @Description("Number of lookups that were not served from the cache")
+    long getMissCount();
+
+    @Description("Ratio of hits to lookups")
+    double getHitRatio();
+
+    @Description("Number of entries evicted to stay within the size bound")
+    long getEvictionCount();
+
+    @Description("Number of cached entries")
+    int getSize();
+
+    @Description("Current weight of all cached entries")
+    long getWeight();
+
+    @Description("Maximum weight of all cached entries")
+    long getMaxWeight();
+
+    @Description("Removes all entries from the cache")
+    void clear();
+}
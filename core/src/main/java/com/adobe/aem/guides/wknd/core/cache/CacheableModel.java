@@ -0,0 +1,19 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a Sling Model adaptable from {@link org.apache.sling.api.resource.Resource} into the {@link ModelCache}.
+ * Instances of such models are shared across requests and threads, so the output of the model must only
+ * depend on the properties of its resource, and the model must not keep references to the resource,
+ * the resource resolver or anything else bound to the request that created it.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CacheableModel {
+}
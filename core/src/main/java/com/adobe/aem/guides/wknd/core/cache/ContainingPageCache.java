@@ -0,0 +1,16 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Caches the path of the page containing a resource across requests, so that models
+ * rendered many times per page do not repeat the walk up the resource tree.
+ */
+public interface ContainingPageCache {
+
+    /**
+     * @param resource the resource
+     * @return the path of the page containing the resource, or an empty string if there is none
+     */
+    String getContainingPagePath(Resource resource);
+}
@@ -0,0 +1,120 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import java.util.Objects;
+
+/**
+ * Identifies one rendering of a component resource: the resource path, the rendering variant
+ * (selectors and extension), the last modification of the resource, the version of the
+ * person record the component refers to and the last modification of the DAM asset it
+ * refers to.
+ */
+public final class FragmentKey {
+
+    private final String path;
+
+    private final String variant;
+
+    private final long lastModified;
+
+    private final String personName;
+
+    private final long personVersion;
+
+    private final String fileReference;
+
+    private final long fileLastModified;
+
+    public FragmentKey(String path, String variant, long lastModified, String personName, long personVersion) {
+        this(path, variant, lastModified, personName, personVersion, null, 0L);
+    }
+
+    public FragmentKey(String path, String variant, long lastModified, String personName, long personVersion,
+            String fileReference, long fileLastModified) {
+        this.path = path;
+        this.variant = variant;
+        this.lastModified = lastModified;
+        this.personName = personName;
+        this.personVersion = personVersion;
+        this.fileReference = fileReference;
+        this.fileLastModified = fileLastModified;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getVariant() {
+        return variant;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the name of the referenced person, or null if the component does not refer to one
+     */
+    public String getPersonName() {
+        return personName;
+    }
+
+    public long getPersonVersion() {
+        return personVersion;
+    }
+
+    /**
+     * @return the path of the referenced DAM asset, or null if the component does not refer to one
+     */
+    public String getFileReference() {
+        return fileReference;
+    }
+
+    public long getFileLastModified() {
+        return fileLastModified;
+    }
+
+    /**
+     * @param changedPath a path that changed
+     * @return true if a change at the given path affects the resource or the DAM asset identified
+     *         by this key
+     */
+    public boolean isAffectedBy(String changedPath) {
+        return isAffectedBy(path, changedPath)
+                || fileReference != null && isAffectedBy(fileReference, changedPath);
+    }
+
+    private static boolean isAffectedBy(String path, String changedPath) {
+        return path.equals(changedPath)
+                || path.startsWith(changedPath + "/")
+                || changedPath.startsWith(path + "/");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FragmentKey)) {
+            return false;
+        }
+        final FragmentKey other = (FragmentKey) o;
+        return lastModified == other.lastModified
+                && personVersion == other.personVersion
+                && fileLastModified == other.fileLastModified
+                && path.equals(other.path)
+                && variant.equals(other.variant)
+                && Objects.equals(personName, other.personName)
+                && Objects.equals(fileReference, other.fileReference);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, variant, lastModified, personName, personVersion, fileReference, fileLastModified);
+    }
+
+    @Override
+    public String toString() {
+        return path + "." + variant + "@" + lastModified + "/" + personName + "@" + personVersion
+                + "/" + fileReference + "@" + fileLastModified;
+    }
+}
@@ -0,0 +1,21 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Shares instances of {@link CacheableModel cacheable} Sling Models across requests. Instances are keyed
+ * by model class, resource path and last modification of the resource.
+ */
+public interface ModelCache {
+
+    /**
+     * Uses of model classes that are not cacheable are counted, but not served.
+     *
+     * @param resource the resource to adapt
+     * @param modelClass the model class
+     * @param <T> the model type
+     * @return the cached or newly created model, or null if the model class is not cacheable
+     *         or the model cannot be created from the resource
+     */
+    <T> T getModel(Resource resource, Class<T> modelClass);
+}
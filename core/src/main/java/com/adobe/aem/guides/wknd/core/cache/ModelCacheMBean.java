@@ -0,0 +1,13 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of the {@link ModelCache}, with statistics per model class to decide which models to opt in.
+ */
+@Description("WKND Sling Model cache statistics")
+public interface ModelCacheMBean extends CacheStatsMBean {
+
+    @Description("Hits, misses and uncached instantiations per model class")
+    String[] getModelStatistics();
+}
@@ -0,0 +1,18 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Cache in front of the publish tier that can purge responses by {@link SurrogateKeys surrogate key}.
+ */
+public interface PurgeEndpoint {
+
+    /**
+     * Purges every cached response tagged with one of the keys.
+     *
+     * @param keys the surrogate keys
+     * @throws IOException if the cache did not accept the purge
+     */
+    void purge(Collection<String> keys) throws IOException;
+}
@@ -0,0 +1,34 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import java.util.Calendar;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.wcm.api.NameConstants;
+
+/**
+ * Helpers to derive cache keys from the modification state of resources.
+ */
+public final class ResourceVersions {
+
+    private ResourceVersions() {
+        // static methods only
+    }
+
+    /**
+     * @param resource the resource
+     * @return the latest of the jcr:lastModified and cq:lastModified properties of the resource
+     *         in milliseconds, or 0 if the resource has neither
+     */
+    public static long getLastModified(Resource resource) {
+        final ValueMap properties = resource.getValueMap();
+        return Math.max(toMillis(properties.get(JcrConstants.JCR_LASTMODIFIED, Calendar.class)),
+                toMillis(properties.get(NameConstants.PN_PAGE_LAST_MOD, Calendar.class)));
+    }
+
+    private static long toMillis(Calendar calendar) {
+        return calendar != null ? calendar.getTimeInMillis() : 0L;
+    }
+}
@@ -0,0 +1,23 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+/**
+ * Purges the cached responses that depend on changed content, through the {@link PurgeEndpoint}.
+ * Content changes are purged automatically; the methods purge on request.
+ */
+public interface SurrogateKeyPurger {
+
+    /**
+     * Purges the responses that show the content of a page.
+     *
+     * @param path the path of a page or of a resource within a page
+     * @param tree true to also purge the responses of all pages below the page
+     */
+    void purgeContent(String path, boolean tree);
+
+    /**
+     * Purges the responses that show a person record.
+     *
+     * @param personName the name of the person
+     */
+    void purgePerson(String personName);
+}
@@ -0,0 +1,205 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.servlet.ServletRequest;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Surrogate keys of the content a response depends on, collected while the response is
+ * rendered and sent in the {@link #HEADER} header, so that a cache in front of the publish
+ * tier can purge exactly the responses affected by a change. A collector only exists for
+ * requests selected for tracking; it is stored as a request attribute and is meant to be
+ * used by the request thread only.
+ * <p>
+ * Keys are short hashes of what they stand for:
+ * <ul>
+ * <li>a {@link #contentKey(String) content key} per page whose content was rendered;</li>
+ * <li>a {@link #treeKey(String) tree key} for the requested page and each of its ancestors,
+ * so that removing or moving a page tree purges every response within it;</li>
+ * <li>a {@link #personKey(String) person key} per person record shown, plus
+ * {@link #PEOPLE_KEY} for changes of all person records.</li>
+ * </ul>
+ * Every response also carries {@link #SITE_KEY}. A response with more keys than the collector
+ * accepts carries {@link #OVERFLOW_KEY} instead of the keys beyond the limit, and purges always
+ * include that key.
+ */
+public final class SurrogateKeys {
+
+    /** Request attribute holding the collector of a tracked request. */
+    public static final String ATTR_NAME = SurrogateKeys.class.getName();
+
+    public static final String HEADER = "Surrogate-Key";
+
+    /** Key of every tracked response. */
+    public static final String SITE_KEY = "wknd";
+
+    /** Key of the responses that depend on any person record. */
+    public static final String PEOPLE_KEY = "wknd-people";
+
+    /** Key of the responses whose keys did not all fit, purged with every change. */
+    public static final String OVERFLOW_KEY = "wknd-overflow";
+
+    private static final String CONTENT_PREFIX = "c";
+
+    private static final String TREE_PREFIX = "t";
+
+    private static final String PERSON_PREFIX = "u";
+
+    private static final String JCR_CONTENT = "/jcr:content";
+
+    private final Set<String> keys = new LinkedHashSet<>();
+
+    private final int maxKeys;
+
+    private boolean overflowed;
+
+    /**
+     * @param maxKeys the maximum number of keys besides {@link #SITE_KEY}
+     */
+    public SurrogateKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @param request a request
+     * @return the collector of the request, or null if the request is not tracked
+     */
+    public static SurrogateKeys from(ServletRequest request) {
+        final Object keys = request.getAttribute(ATTR_NAME);
+        return keys instanceof SurrogateKeys ? (SurrogateKeys) keys : null;
+    }
+
+    /**
+     * Records that the response of the request shows the content at the path, if the request is tracked.
+     *
+     * @param request the request
+     * @param path the path of a page or of a resource within a page
+     */
+    public static void addContent(ServletRequest request, String path) {
+        final SurrogateKeys keys = from(request);
+        if (keys != null && path != null) {
+            keys.add(contentKey(path));
+        }
+    }
+
+    /**
+     * Records that the response of the request shows a person record, if the request is tracked.
+     *
+     * @param request the request
+     * @param personName the name of the person
+     */
+    public static void addPerson(ServletRequest request, String personName) {
+        final SurrogateKeys keys = from(request);
+        if (keys != null && StringUtils.isNotBlank(personName)) {
+            keys.add(PEOPLE_KEY);
+            keys.add(personKey(personName));
+        }
+    }
+
+    /**
+     * Adds the tree keys of the path and all its ancestors.
+     *
+     * @param path the path of the requested page
+     */
+    public void addTree(String path) {
+        String current = getPagePath(path);
+        while (current.lastIndexOf('/') > 0) {
+            add(treeKey(current));
+            current = current.substring(0, current.lastIndexOf('/'));
+        }
+    }
+
+    /**
+     * @param key a surrogate key
+     */
+    public void add(String key) {
+        if (keys.contains(key)) {
+            return;
+        }
+        if (keys.size() < maxKeys) {
+            keys.add(key);
+        } else {
+            overflowed = true;
+        }
+    }
+
+    /**
+     * @return the collected keys, without {@link #SITE_KEY} and {@link #OVERFLOW_KEY}
+     */
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * @return true if keys beyond the limit were dropped
+     */
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * @return the space-separated keys for the {@link #HEADER} header
+     */
+    public String toHeaderValue() {
+        final StringBuilder value = new StringBuilder(SITE_KEY);
+        if (overflowed) {
+            value.append(' ').append(OVERFLOW_KEY);
+        }
+        for (String key : keys) {
+            value.append(' ').append(key);
+        }
+        return value.toString();
+    }
+
+    /**
+     * @param path the path of a page or of a resource within a page
+     * @return the key of the content of the page
+     */
+    public static String contentKey(String path) {
+        return CONTENT_PREFIX + hash(getPagePath(path));
+    }
+
+    /**
+     * @param path the path of a page
+     * @return the key of the page and all pages below it
+     */
+    public static String treeKey(String path) {
+        return TREE_PREFIX + hash(getPagePath(path));
+    }
+
+    /**
+     * @param personName the name of a person
+     * @return the key of the person record
+     */
+    public static String personKey(String personName) {
+        return PERSON_PREFIX + hash(personName);
+    }
+
+    /**
+     * @return the path up to the first <code>jcr:content</code>, which is the page path for
+     *         resources within a page, or the path itself
+     */
+    private static String getPagePath(String path) {
+        final int content = path.indexOf(JCR_CONTENT);
+        return content > 0 ? path.substring(0, content) : StringUtils.removeEnd(path, "/");
+    }
+
+    /**
+     * 48 bits of the 64-bit FNV-1a hash of the UTF-8 bytes, as 12 hex digits; a collision only
+     * purges a response more often than needed.
+     */
+    private static String hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        final String hex = Long.toHexString((hash >>> 16) | (1L << 48));
+        return hex.substring(1);
+    }
+}
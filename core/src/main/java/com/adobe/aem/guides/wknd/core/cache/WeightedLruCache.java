@@ -0,0 +1,171 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A thread-safe, least-recently-used cache bounded by the total weight of its entries.
+ * The weight of an entry is computed once, when it is added, by the configured weigher.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public final class WeightedLruCache<K, V> {
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ToLongBiFunction<K, V> weigher;
+
+    private final long maxWeight;
+
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxWeight the maximum total weight of all entries
+     * @param weigher computes the weight of a single entry
+     */
+    public WeightedLruCache(long maxWeight, ToLongBiFunction<K, V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the cached value, or null if there is none
+     */
+    public V get(K key) {
+        final Entry<V> entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Adds a value to the cache, evicting the least recently used entries as needed.
+     * Values heavier than the maximum weight of the cache are not cached.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        final long entryWeight = weigher.applyAsLong(key, value);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        synchronized (this) {
+            final Entry<V> previous = entries.put(key, new Entry<>(value, entryWeight));
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            final Iterator<Entry<V>> eldest = entries.values().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                weight -= eldest.next().weight;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * @param key the key of the entry to remove
+     * @return the removed value, or null if there was none
+     */
+    public synchronized V remove(K key) {
+        final Entry<V> removed = entries.remove(key);
+        if (removed == null) {
+            return null;
+        }
+        weight -= removed.weight;
+        return removed.value;
+    }
+
+    /**
+     * Removes all entries whose key matches the given predicate.
+     *
+     * @param predicate selects the keys to remove
+     * @return the number of removed entries
+     */
+    public synchronized int removeIf(Predicate<? super K> predicate) {
+        int removed = 0;
+        final Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<K, Entry<V>> entry = it.next();
+            if (predicate.test(entry.getKey())) {
+                weight -= entry.getValue().weight;
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all entries; the hit, miss and eviction counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the ratio of hits to lookups, or 0 if there were no lookups yet
+     */
+    public double getHitRatio() {
+        final long hitCount = getHitCount();
+        final long lookups = hitCount + getMissCount();
+        return lookups == 0 ? 0d : (double) hitCount / lookups;
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long weight;
+
+        private Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import java.util.List;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.cache.BylineFragmentCache;
+import com.adobe.aem.guides.wknd.core.cache.CacheStatsMBean;
+import com.adobe.aem.guides.wknd.core.cache.FragmentKey;
+import com.adobe.aem.guides.wknd.core.cache.ResourceVersions;
+import com.adobe.aem.guides.wknd.core.cache.WeightedLruCache;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.adobe.aem.guides.wknd.core.people.PersonVersionTracker;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+import com.day.cq.commons.jcr.JcrConstants;
+
+/**
+ * In-memory {@link BylineFragmentCache}, bounded by the memory used by the cached markup.
+ * Entries are dropped as soon as the byline resource, one of its ancestors or children,
+ * the referenced person record or the DAM asset of the byline image changes.
+ */
+@Component(service = { BylineFragmentCache.class, ResourceChangeHandler.class, DynamicMBean.class },
+           property = {
+                   ResourceChangeHandler.PATHS + "=/content",
+                   "jmx.objectname=com.adobe.aem.guides.wknd:type=Cache,name=BylineFragmentCache"
+           })
+@Designate(ocd = BylineFragmentCacheImpl.Config.class)
+@ServiceDescription("Caches the rendered markup of Byline components")
+public class BylineFragmentCacheImpl extends AnnotatedStandardMBean
+        implements BylineFragmentCache, CacheStatsMBean, ResourceChangeHandler {
+
+    @ObjectClassDefinition(name = "WKND Byline Fragment Cache",
+                           description = "Caches the rendered markup of Byline components")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Enabled", description = "Enable or disable the cache")
+        boolean enabled() default true;
+
+        @AttributeDefinition(name = "Maximum size (KB)",
+                             description = "Upper bound for the memory used by the cached markup")
+        long max_size_kb() default 10240;
+    }
+
+    /** Byline property holding the name of the referenced person. */
+    static final String PN_NAME = "name";
+
+    /** Byline property holding the path of the DAM asset of the byline image. */
+    static final String PN_FILE_REFERENCE = "fileReference";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private PersonVersionTracker personVersionTracker;
+
+    private volatile boolean enabled;
+
+    private volatile WeightedLruCache<FragmentKey, String> cache = newCache(0);
+
+    public BylineFragmentCacheImpl() throws NotCompliantMBeanException {
+        super(CacheStatsMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        cache = newCache(config.max_size_kb() * 1024);
+        logger.debug("BylineFragmentCacheImpl activated, enabled: {}, max size: {} KB", enabled, config.max_size_kb());
+    }
+
+    @Override
+    public FragmentKey getKey(Resource resource, String variant) {
+        if (!enabled) {
+            return null;
+        }
+        final ValueMap properties = resource.getValueMap();
+        final String personName = properties.get(PN_NAME, String.class);
+        final String fileReference = StringUtils.trimToNull(properties.get(PN_FILE_REFERENCE, String.class));
+        return new FragmentKey(resource.getPath(), variant, ResourceVersions.getLastModified(resource),
+                personName, personVersionTracker.getVersion(personName),
+                fileReference, getAssetLastModified(resource, fileReference));
+    }
+
+    private static long getAssetLastModified(Resource resource, String fileReference) {
+        if (fileReference == null) {
+            return 0L;
+        }
+        final Resource assetContent = resource.getResourceResolver()
+                .getResource(fileReference + "/" + JcrConstants.JCR_CONTENT);
+        return assetContent != null ? ResourceVersions.getLastModified(assetContent) : 0L;
+    }
+
+    @Override
+    public String get(FragmentKey key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public void put(FragmentKey key, String markup) {
+        cache.put(key, markup);
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        for (CoalescedChange change : changes) {
+            final String path = change.getPath();
+            final String personName = PeopleData.getPersonName(path);
+            final boolean allPersons = PeopleData.coversAllPersons(path);
+            final int removed = personName != null
+                    ? cache.removeIf(key -> personName.equals(key.getPersonName()))
+                    : cache.removeIf(key -> key.isAffectedBy(path) || allPersons && key.getPersonName() != null);
+            if (removed > 0) {
+                logger.debug("Removed {} cached byline fragments after {} at {}", removed, change.getTypes(), path);
+            }
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return cache.getHitRatio();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    @Override
+    public long getMaxWeight() {
+        return cache.getMaxWeight();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    private static WeightedLruCache<FragmentKey, String> newCache(long maxBytes) {
+        // Java strings take up to two bytes per character
+        return new WeightedLruCache<>(maxBytes, (key, markup) -> 2L * markup.length());
+    }
+}
@@ -0,0 +1,138 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import java.util.List;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.apache.sling.api.resource.Resource;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.cache.CacheStatsMBean;
+import com.adobe.aem.guides.wknd.core.cache.ContainingPageCache;
+import com.adobe.aem.guides.wknd.core.cache.WeightedLruCache;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * In-memory {@link ContainingPageCache}, bounded by the number of entries.
+ * Page moves are reported as a removal followed by an addition, so both change types
+ * drop every entry for a resource at or below the changed path. As the containing page
+ * is always an ancestor of the resource, this also covers pages added between a resource
+ * and its cached containing page.
+ */
+@Component(service = { ContainingPageCache.class, ResourceChangeHandler.class, DynamicMBean.class },
+           property = {
+                   ResourceChangeHandler.PATHS + "=/content",
+                   ResourceChangeHandler.CHANGES + "=ADDED",
+                   ResourceChangeHandler.CHANGES + "=REMOVED",
+                   "jmx.objectname=com.adobe.aem.guides.wknd:type=Cache,name=ContainingPageCache"
+           })
+@Designate(ocd = ContainingPageCacheImpl.Config.class)
+@ServiceDescription("Caches the containing page of resources")
+public class ContainingPageCacheImpl extends AnnotatedStandardMBean
+        implements ContainingPageCache, CacheStatsMBean, ResourceChangeHandler {
+
+    @ObjectClassDefinition(name = "WKND Containing Page Cache",
+                           description = "Caches the path of the page containing a resource")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Maximum entries", description = "Upper bound for the number of cached paths")
+        long max_entries() default 10000;
+    }
+
+    private static final String NO_PAGE = "";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private volatile WeightedLruCache<String, String> cache = newCache(0);
+
+    public ContainingPageCacheImpl() throws NotCompliantMBeanException {
+        super(CacheStatsMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        cache = newCache(config.max_entries());
+    }
+
+    @Override
+    public String getContainingPagePath(Resource resource) {
+        final String resourcePath = resource.getPath();
+        String pagePath = cache.get(resourcePath);
+        if (pagePath == null) {
+            final PageManager pageManager = resource.getResourceResolver().adaptTo(PageManager.class);
+            final Page page = pageManager != null ? pageManager.getContainingPage(resource) : null;
+            pagePath = page != null ? page.getPath() : NO_PAGE;
+            cache.put(resourcePath, pagePath);
+        }
+        return pagePath;
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        for (CoalescedChange change : changes) {
+            final String path = change.getPath();
+            final String descendants = path + "/";
+            final int removed = cache.removeIf(resourcePath -> resourcePath.equals(path)
+                    || resourcePath.startsWith(descendants));
+            if (removed > 0) {
+                logger.debug("Removed {} containing page entries after {} at {}", removed, change.getTypes(), path);
+            }
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return cache.getHitRatio();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    @Override
+    public long getMaxWeight() {
+        return cache.getMaxWeight();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    private static WeightedLruCache<String, String> newCache(long maxEntries) {
+        return new WeightedLruCache<>(maxEntries, (resourcePath, pagePath) -> 1L);
+    }
+}
@@ -0,0 +1,97 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collection;
+
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import com.adobe.aem.guides.wknd.core.cache.PurgeEndpoint;
+import com.adobe.aem.guides.wknd.core.cache.SurrogateKeys;
+
+/**
+ * {@link PurgeEndpoint} sending one POST per purge to a URL, with the space-separated keys
+ * in the <code>Surrogate-Key</code> header, as understood by common CDNs and Varnish setups.
+ * Only active when configured.
+ */
+@Component(service = PurgeEndpoint.class, configurationPolicy = ConfigurationPolicy.REQUIRE)
+@Designate(ocd = HttpPurgeEndpoint.Config.class)
+@ServiceDescription("Purges cached responses by surrogate key over HTTP")
+public class HttpPurgeEndpoint implements PurgeEndpoint {
+
+    @ObjectClassDefinition(name = "WKND HTTP Purge Endpoint",
+                           description = "Cache endpoint accepting purges by surrogate key")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Purge URL", description = "URL the purge requests are posted to")
+        String purge_url();
+
+        @AttributeDefinition(name = "Token header", description = "Header carrying the token, none if empty")
+        String token_header() default "";
+
+        @AttributeDefinition(name = "Token", description = "Credential sent in the token header")
+        String token() default "";
+
+        @AttributeDefinition(name = "Connect timeout (ms)")
+        int connect_timeout_ms() default 2000;
+
+        @AttributeDefinition(name = "Read timeout (ms)")
+        int read_timeout_ms() default 5000;
+    }
+
+    private Config config;
+
+    @Activate
+    protected void activate(final Config config) {
+        this.config = config;
+    }
+
+    @Override
+    public void purge(Collection<String> keys) throws IOException {
+        final HttpURLConnection connection = getHttpConnection(new URL(config.purge_url()));
+        connection.setRequestMethod("POST");
+        connection.setConnectTimeout(config.connect_timeout_ms());
+        connection.setReadTimeout(config.read_timeout_ms());
+        connection.setRequestProperty(SurrogateKeys.HEADER, String.join(" ", keys));
+        if (StringUtils.isNotBlank(config.token_header())) {
+            connection.setRequestProperty(config.token_header(), config.token());
+        }
+        connection.setRequestProperty("Content-Length", "0");
+        connection.setDoOutput(true);
+        connection.getOutputStream().close();
+        final int status = connection.getResponseCode();
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            drain(body);
+        }
+        if (status < 200 || status >= 300) {
+            throw new IOException("Purge of " + keys.size() + " keys failed with HTTP " + status);
+        }
+    }
+
+    /**
+     * @param url the purge endpoint
+     * @return a connection to the endpoint
+     * @throws IOException if the connection cannot be opened
+     */
+    protected HttpURLConnection getHttpConnection(URL url) throws IOException {
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        if (body != null) {
+            final byte[] buffer = new byte[1024];
+            while (body.read(buffer) >= 0) {
+                // keep the connection reusable
+            }
+        }
+    }
+}
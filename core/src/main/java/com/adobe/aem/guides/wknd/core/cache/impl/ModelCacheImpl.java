@@ -0,0 +1,220 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.models.factory.ModelFactory;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.cache.CacheableModel;
+import com.adobe.aem.guides.wknd.core.cache.ModelCache;
+import com.adobe.aem.guides.wknd.core.cache.ModelCacheMBean;
+import com.adobe.aem.guides.wknd.core.cache.ResourceVersions;
+import com.adobe.aem.guides.wknd.core.cache.WeightedLruCache;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * In-memory {@link ModelCache}, bounded by the number of cached model instances.
+ * Entries are dropped when the resource, one of its ancestors or one of its children changes.
+ */
+@Component(service = { ModelCache.class, ResourceChangeHandler.class, DynamicMBean.class },
+           property = {
+                   ResourceChangeHandler.PATHS + "=/content",
+                   "jmx.objectname=com.adobe.aem.guides.wknd:type=Cache,name=ModelCache"
+           })
+@Designate(ocd = ModelCacheImpl.Config.class)
+@ServiceDescription("Shares cacheable Sling Model instances across requests")
+public class ModelCacheImpl extends AnnotatedStandardMBean
+        implements ModelCache, ModelCacheMBean, ResourceChangeHandler {
+
+    @ObjectClassDefinition(name = "WKND Sling Model Cache",
+                           description = "Shares instances of Sling Models annotated with @CacheableModel across requests")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Enabled", description = "Enable or disable the cache")
+        boolean enabled() default true;
+
+        @AttributeDefinition(name = "Maximum entries", description = "Upper bound for the number of cached models")
+        long max_entries() default 1000;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, ModelStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Reference
+    private ModelFactory modelFactory;
+
+    private volatile boolean enabled;
+
+    private volatile WeightedLruCache<ModelKey, Object> cache = newCache(0);
+
+    public ModelCacheImpl() throws NotCompliantMBeanException {
+        super(ModelCacheMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        cache = newCache(config.max_entries());
+    }
+
+    @Override
+    public <T> T getModel(Resource resource, Class<T> modelClass) {
+        final ModelStatistics modelStatistics =
+                statistics.computeIfAbsent(modelClass.getName(), name -> new ModelStatistics());
+        if (!enabled || !modelClass.isAnnotationPresent(CacheableModel.class)) {
+            modelStatistics.uncached.increment();
+            return null;
+        }
+
+        final ModelKey key = new ModelKey(modelClass, resource.getPath(), ResourceVersions.getLastModified(resource));
+        final Object cached = cache.get(key);
+        if (cached != null) {
+            modelStatistics.hits.increment();
+            return modelClass.cast(cached);
+        }
+        modelStatistics.misses.increment();
+        final T model;
+        try {
+            model = modelFactory.createModel(resource, modelClass);
+        } catch (RuntimeException e) {
+            logger.debug("Cannot create {} from {}", modelClass.getName(), resource.getPath(), e);
+            return null;
+        }
+        cache.put(key, model);
+        return model;
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        for (CoalescedChange change : changes) {
+            final String path = change.getPath();
+            final int removed = cache.removeIf(key -> key.isAffectedBy(path));
+            if (removed > 0) {
+                logger.debug("Removed {} cached models after {} at {}", removed, change.getTypes(), path);
+            }
+        }
+    }
+
+    @Override
+    public String[] getModelStatistics() {
+        return statistics.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getKey() + ": " + entry.getValue())
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return cache.getHitRatio();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    @Override
+    public long getMaxWeight() {
+        return cache.getMaxWeight();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    private static WeightedLruCache<ModelKey, Object> newCache(long maxEntries) {
+        return new WeightedLruCache<>(maxEntries, (key, model) -> 1L);
+    }
+
+    private static final class ModelStatistics {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder uncached = new LongAdder();
+
+        @Override
+        public String toString() {
+            return "hits=" + hits.sum() + ", misses=" + misses.sum() + ", uncached=" + uncached.sum();
+        }
+    }
+
+    private static final class ModelKey {
+
+        private final Class<?> modelClass;
+
+        private final String path;
+
+        private final long lastModified;
+
+        private ModelKey(Class<?> modelClass, String path, long lastModified) {
+            this.modelClass = modelClass;
+            this.path = path;
+            this.lastModified = lastModified;
+        }
+
+        private boolean isAffectedBy(String changedPath) {
+            return path.equals(changedPath)
+                    || path.startsWith(changedPath + "/")
+                    || changedPath.startsWith(path + "/");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ModelKey)) {
+                return false;
+            }
+            final ModelKey other = (ModelKey) o;
+            return lastModified == other.lastModified && modelClass == other.modelClass && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(modelClass, path, lastModified);
+        }
+    }
+}
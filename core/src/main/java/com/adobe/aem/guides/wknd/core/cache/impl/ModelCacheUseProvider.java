@@ -0,0 +1,66 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import javax.script.Bindings;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.commons.classloader.DynamicClassLoaderManager;
+import org.apache.sling.models.factory.ModelFactory;
+import org.apache.sling.scripting.sightly.render.RenderContext;
+import org.apache.sling.scripting.sightly.use.ProviderOutcome;
+import org.apache.sling.scripting.sightly.use.UseProvider;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+
+import com.adobe.aem.guides.wknd.core.cache.ModelCache;
+
+/**
+ * HTL use provider that serves <code>data-sly-use</code> of resource-adaptable Sling Models from the
+ * {@link ModelCache}. It ranks just above the Sling Models use provider and fails for everything it
+ * does not serve, so uses with arguments, request-adaptable models and models that are not cacheable
+ * fall through to the regular providers.
+ */
+@Component(service = UseProvider.class)
+@ServiceDescription("Serves cacheable Sling Models to HTL scripts")
+@ServiceRanking(96)
+public class ModelCacheUseProvider implements UseProvider {
+
+    @Reference
+    private ModelCache modelCache;
+
+    @Reference
+    private ModelFactory modelFactory;
+
+    @Reference
+    private DynamicClassLoaderManager classLoaderManager;
+
+    @Override
+    public ProviderOutcome provide(String identifier, RenderContext renderContext, Bindings arguments) {
+        if (arguments != null && !arguments.isEmpty()) {
+            return ProviderOutcome.failure();
+        }
+        final Class<?> modelClass = loadClass(identifier);
+        final Object resource = renderContext.getBindings().get(SlingBindings.RESOURCE);
+        if (modelClass == null || !(resource instanceof Resource)
+                || !modelFactory.isModelClass(modelClass)
+                || !modelFactory.canCreateFromAdaptable(resource, modelClass)) {
+            return ProviderOutcome.failure();
+        }
+        final Object model = modelCache.getModel((Resource) resource, modelClass);
+        return model != null ? ProviderOutcome.success(model) : ProviderOutcome.failure();
+    }
+
+    private Class<?> loadClass(String identifier) {
+        if (identifier == null || identifier.endsWith(".js") || identifier.endsWith(".html")
+                || identifier.indexOf('/') >= 0) {
+            return null;
+        }
+        try {
+            return classLoaderManager.getDynamicClassLoader().loadClass(identifier);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+}
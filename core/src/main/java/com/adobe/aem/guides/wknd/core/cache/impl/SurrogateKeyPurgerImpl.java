@@ -0,0 +1,146 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.cache.PurgeEndpoint;
+import com.adobe.aem.guides.wknd.core.cache.SurrogateKeyPurger;
+import com.adobe.aem.guides.wknd.core.cache.SurrogateKeys;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+
+/**
+ * {@link SurrogateKeyPurger} that maps the content changes delivered by the change pipeline to
+ * surrogate keys:
+ * <ul>
+ * <li>a changed person record purges its person key, a change of all records
+ * {@link SurrogateKeys#PEOPLE_KEY};</li>
+ * <li>a change within the content of a page, or of the properties of a page node only, purges
+ * the content key of the page;</li>
+ * <li>an added or removed page purges the tree key as well, i.e. every page below it;</li>
+ * <li>a change covering the whole site purges {@link SurrogateKeys#SITE_KEY}.</li>
+ * </ul>
+ * Changes are handled anywhere below {@value #CONTENT_ROOT}, not only below the site, as the
+ * responses are also tagged with the content keys of the resources they include from other
+ * roots, e.g. experience fragments.
+ * Every purge includes {@link SurrogateKeys#OVERFLOW_KEY}. Nothing is purged without a
+ * {@link PurgeEndpoint}.
+ */
+@Component(service = { SurrogateKeyPurger.class, ResourceChangeHandler.class },
+           property = ResourceChangeHandler.PATHS + "=" + SurrogateKeyPurgerImpl.CONTENT_ROOT)
+@Designate(ocd = SurrogateKeyPurgerImpl.Config.class)
+@ServiceDescription("Purges cached responses by the surrogate keys of changed content")
+public class SurrogateKeyPurgerImpl implements SurrogateKeyPurger, ResourceChangeHandler {
+
+    static final String CONTENT_ROOT = "/content";
+
+    @ObjectClassDefinition(name = "WKND Surrogate Key Purger",
+                           description = "Purges the cached responses tagged with the keys of changed content")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Enabled", description = "Purge cached responses for content changes")
+        boolean enabled() default true;
+
+        @AttributeDefinition(name = "Maximum keys per request", description = "Keys sent in one purge request")
+        int max_keys_per_request() default 256;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC,
+               policyOption = ReferencePolicyOption.GREEDY)
+    private volatile PurgeEndpoint purgeEndpoint;
+
+    private boolean enabled;
+
+    private int maxKeysPerRequest;
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        maxKeysPerRequest = Math.max(1, config.max_keys_per_request());
+    }
+
+    @Override
+    public void purgeContent(String path, boolean tree) {
+        final Set<String> keys = new LinkedHashSet<>();
+        keys.add(SurrogateKeys.contentKey(path));
+        if (tree) {
+            keys.add(SurrogateKeys.treeKey(path));
+        }
+        purge(keys);
+    }
+
+    @Override
+    public void purgePerson(String personName) {
+        purge(Collections.singleton(SurrogateKeys.personKey(personName)));
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        if (!enabled) {
+            return;
+        }
+        final Set<String> keys = new LinkedHashSet<>();
+        for (CoalescedChange change : changes) {
+            addKeys(change, keys);
+        }
+        purge(keys);
+    }
+
+    private static void addKeys(CoalescedChange change, Set<String> keys) {
+        final String path = change.getPath();
+        final String personName = PeopleData.getPersonName(path);
+        if (personName != null) {
+            keys.add(SurrogateKeys.personKey(personName));
+        } else if (PeopleData.DATA_ROOT.equals(path)) {
+            keys.add(SurrogateKeys.PEOPLE_KEY);
+        } else if (PeopleData.coversAllPersons(path)) {
+            keys.add(SurrogateKeys.SITE_KEY);
+        } else if (path.contains("/jcr:content")
+                || change.getTypes().equals(Collections.singleton(ChangeType.CHANGED))) {
+            keys.add(SurrogateKeys.contentKey(path));
+        } else {
+            keys.add(SurrogateKeys.contentKey(path));
+            keys.add(SurrogateKeys.treeKey(path));
+        }
+    }
+
+    private void purge(Set<String> keys) {
+        final PurgeEndpoint endpoint = purgeEndpoint;
+        if (endpoint == null || keys.isEmpty()) {
+            return;
+        }
+        keys.add(SurrogateKeys.OVERFLOW_KEY);
+        final List<String> all = new ArrayList<>(keys);
+        for (int from = 0; from < all.size(); from += maxKeysPerRequest) {
+            final Collection<String> chunk = all.subList(from, Math.min(all.size(), from + maxKeysPerRequest));
+            try {
+                endpoint.purge(chunk);
+                logger.debug("Purged surrogate keys {}", chunk);
+            } catch (IOException e) {
+                logger.warn("Cannot purge {} surrogate keys", chunk.size(), e);
+            }
+        }
+    }
+}
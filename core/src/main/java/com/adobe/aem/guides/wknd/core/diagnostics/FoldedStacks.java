@@ -0,0 +1,99 @@
+package com.adobe.aem.guides.wknd.core.diagnostics;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregates stack samples in the folded format read by flame graph tools such as
+ * <code>flamegraph.pl</code> and speedscope: one line per distinct stack, frames from the
+ * outermost to the innermost separated by semicolons, followed by the number of samples.
+ * Stacks are cut at a maximum depth, keeping the outermost frames, and the number of
+ * distinct stacks is bounded; further stacks are counted under {@link #OTHER}.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class FoldedStacks {
+
+    /** Stack collecting the samples beyond the bound of distinct stacks. */
+    public static final String OTHER = "[other stacks]";
+
+    private static final String TRUNCATED = "[truncated]";
+
+    private final int maxDepth;
+
+    private final int maxStacks;
+
+    private final Map<String, int[]> counts = new LinkedHashMap<>();
+
+    private int sampleCount;
+
+    /**
+     * @param maxDepth the maximum number of frames kept per stack
+     * @param maxStacks the maximum number of distinct stacks
+     */
+    public FoldedStacks(int maxDepth, int maxStacks) {
+        this.maxDepth = Math.max(1, maxDepth);
+        this.maxStacks = Math.max(1, maxStacks);
+    }
+
+    /**
+     * @param stack a stack trace as returned by {@link Thread#getStackTrace()}, innermost frame first
+     */
+    public void add(StackTraceElement[] stack) {
+        final String folded = fold(stack);
+        int[] count = counts.get(folded);
+        if (count == null) {
+            if (counts.size() < maxStacks) {
+                count = new int[1];
+                counts.put(folded, count);
+            } else {
+                count = counts.computeIfAbsent(OTHER, key -> new int[1]);
+            }
+        }
+        count[0]++;
+        sampleCount++;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return the number of samples per folded stack, sorted by stack
+     */
+    public Map<String, Integer> getCounts() {
+        final Map<String, Integer> sorted = new TreeMap<>();
+        counts.forEach((stack, count) -> sorted.put(stack, count[0]));
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    /**
+     * Writes the stacks in folded format, one per line.
+     *
+     * @param out the target
+     * @throws IOException if writing fails
+     */
+    public void write(Appendable out) throws IOException {
+        for (Map.Entry<String, Integer> entry : getCounts().entrySet()) {
+            out.append(entry.getKey()).append(' ').append(String.valueOf(entry.getValue())).append('\n');
+        }
+    }
+
+    private String fold(StackTraceElement[] stack) {
+        final StringBuilder folded = new StringBuilder();
+        final int depth = Math.min(stack.length, maxDepth);
+        for (int i = stack.length - 1; i >= stack.length - depth; i--) {
+            if (folded.length() > 0) {
+                folded.append(';');
+            }
+            folded.append(stack[i].getClassName()).append('.').append(stack[i].getMethodName());
+        }
+        if (stack.length > depth) {
+            folded.append(';').append(TRUNCATED);
+        }
+        return folded.toString();
+    }
+}
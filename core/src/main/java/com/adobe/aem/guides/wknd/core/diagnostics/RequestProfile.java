@@ -0,0 +1,233 @@
+package com.adobe.aem.guides.wknd.core.diagnostics;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.servlet.ServletRequest;
+
+/**
+ * Inclusion tree of a profiled request: every HTL use, resource inclusion and timed model
+ * adaptation is a node with its total time and its self time, i.e. the total time minus the
+ * total time of its children. A profile only exists for requests selected for profiling; it is
+ * stored as a request attribute and is meant to be used by the request thread only.
+ * <p>
+ * Model adaptations are not timed in general: Sling Models offers no hook around the creation
+ * of a model, and neither the adapter manager nor the implementation pickers see how long it
+ * takes. Models used with {@code data-sly-use} are timed as HTL uses, and only the adaptations
+ * wrapped in {@link #time} are timed as models, currently the Image of the Byline. Models
+ * adapted elsewhere with {@code adaptTo} or the {@code ModelFactory} count towards the self time
+ * of the enclosing node.
+ */
+public final class RequestProfile {
+
+    /** Request attribute holding the profile of a profiled request. */
+    public static final String ATTR_NAME = RequestProfile.class.getName();
+
+    public static final String KIND_REQUEST = "request";
+
+    public static final String KIND_RESOURCE = "resource";
+
+    public static final String KIND_USE = "use";
+
+    public static final String KIND_MODEL = "model";
+
+    private final Node root;
+
+    private final Deque<Node> open = new ArrayDeque<>();
+
+    public RequestProfile(String name) {
+        root = new Node(KIND_REQUEST, name);
+        open.push(root);
+    }
+
+    /**
+     * @param request a request
+     * @return the profile of the request, or null if the request is not profiled
+     */
+    public static RequestProfile from(ServletRequest request) {
+        final Object profile = request.getAttribute(ATTR_NAME);
+        return profile instanceof RequestProfile ? (RequestProfile) profile : null;
+    }
+
+    /**
+     * Times the given work as a node of the profile of the request, if the request is profiled.
+     *
+     * @param request the request
+     * @param kind the kind of work, e.g. {@link #KIND_MODEL}
+     * @param name the name of the work
+     * @param work the work
+     * @param <T> the result type
+     * @return the result of the work
+     */
+    public static <T> T time(ServletRequest request, String kind, String name, Supplier<T> work) {
+        final RequestProfile profile = from(request);
+        if (profile == null) {
+            return work.get();
+        }
+        final Node node = profile.enter(kind, name);
+        try {
+            return work.get();
+        } finally {
+            profile.exit(node);
+        }
+    }
+
+    /**
+     * Starts a child node of the innermost open node.
+     *
+     * @param kind the kind of work
+     * @param name the name of the work
+     * @return the node to pass to {@link #exit(Node)}
+     */
+    public Node enter(String kind, String name) {
+        final Node node = new Node(kind, name);
+        open.peek().children.add(node);
+        open.push(node);
+        return node;
+    }
+
+    /**
+     * Ends the given node and every node opened after it and not ended.
+     *
+     * @param node the node returned by {@link #enter(String, String)}
+     */
+    public void exit(Node node) {
+        final long now = System.nanoTime();
+        while (open.size() > 1) {
+            final Node closed = open.pop();
+            closed.end(now);
+            if (closed == node) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ends the root node.
+     */
+    public void finish() {
+        exit(root);
+        root.end(System.nanoTime());
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * @param maxEntries the maximum number of entries
+     * @return a single line with the total time and the work with the highest self time,
+     *         summed up per kind and name, e.g. <code>total=85.1ms; use:com.Foo=12.0ms/3</code>
+     */
+    public String toSummary(int maxEntries) {
+        final Map<String, long[]> selfTimes = new HashMap<>();
+        collect(root, selfTimes);
+        final List<Map.Entry<String, long[]>> entries = new ArrayList<>(selfTimes.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        final StringBuilder summary = new StringBuilder("total=").append(millis(root.getTotalNanos()));
+        for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(maxEntries, entries.size()))) {
+            summary.append("; ").append(entry.getKey()).append('=').append(millis(entry.getValue()[0]))
+                    .append('/').append(entry.getValue()[1]);
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Writes the tree, one node per line with its total and self time, children indented.
+     *
+     * @param out the target
+     * @throws IOException if writing fails
+     */
+    public void writeTree(Appendable out) throws IOException {
+        write(root, 0, out);
+    }
+
+    private static void collect(Node node, Map<String, long[]> selfTimes) {
+        if (!KIND_REQUEST.equals(node.kind)) {
+            final long[] entry = selfTimes.computeIfAbsent(node.kind + ":" + node.name, key -> new long[2]);
+            entry[0] += node.getSelfNanos();
+            entry[1]++;
+        }
+        for (Node child : node.children) {
+            collect(child, selfTimes);
+        }
+    }
+
+    private static void write(Node node, int depth, Appendable out) throws IOException {
+        out.append(String.format(Locale.ROOT, "%10s %10s ", millis(node.getTotalNanos()), millis(node.getSelfNanos())));
+        for (int i = 0; i < depth; i++) {
+            out.append("  ");
+        }
+        out.append(node.kind).append(' ').append(node.name).append('\n');
+        for (Node child : node.children) {
+            write(child, depth + 1, out);
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * A timed piece of work.
+     */
+    public static final class Node {
+
+        private final String kind;
+
+        private final String name;
+
+        private final long start = System.nanoTime();
+
+        private long end = -1;
+
+        private final List<Node> children = new ArrayList<>();
+
+        private Node(String kind, String name) {
+            this.kind = kind;
+            this.name = name;
+        }
+
+        private void end(long now) {
+            if (end < 0) {
+                end = now;
+            }
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * @return the time from the start to the end of the node, or to now if it is not ended
+         */
+        public long getTotalNanos() {
+            return (end < 0 ? System.nanoTime() : end) - start;
+        }
+
+        public long getSelfNanos() {
+            long self = getTotalNanos();
+            for (Node child : children) {
+                self -= child.getTotalNanos();
+            }
+            return self;
+        }
+    }
+}
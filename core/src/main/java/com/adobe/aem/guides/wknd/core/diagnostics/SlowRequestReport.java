@@ -0,0 +1,73 @@
+package com.adobe.aem.guides.wknd.core.diagnostics;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Stack samples of a request that exceeded the slow request threshold.
+ */
+public final class SlowRequestReport {
+
+    private final String id;
+    private final String method;
+    private final String path;
+    private final long startMillis;
+    private final long durationMillis;
+    private final FoldedStacks stacks;
+
+    public SlowRequestReport(String id, String method, String path, long startMillis, long durationMillis,
+                             FoldedStacks stacks) {
+        this.id = id;
+        this.method = method;
+        this.path = path;
+        this.startMillis = startMillis;
+        this.durationMillis = durationMillis;
+        this.stacks = stacks;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getSampleCount() {
+        return stacks.getSampleCount();
+    }
+
+    /**
+     * @return the number of samples per folded stack
+     */
+    public Map<String, Integer> getStacks() {
+        return stacks.getCounts();
+    }
+
+    /**
+     * Writes the samples in folded stack format.
+     *
+     * @param out the target
+     * @throws IOException if writing fails
+     */
+    public void writeFolded(Appendable out) throws IOException {
+        stacks.write(out);
+    }
+
+    @Override
+    public String toString() {
+        return id + ": " + method + " " + path + " took " + durationMillis + "ms, " + getSampleCount() + " samples";
+    }
+}
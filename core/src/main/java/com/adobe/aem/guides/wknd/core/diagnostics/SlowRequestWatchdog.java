@@ -0,0 +1,39 @@
+package com.adobe.aem.guides.wknd.core.diagnostics;
+
+import java.util.List;
+
+/**
+ * Watches in-flight requests and samples the stack of the request thread once a request
+ * runs longer than a threshold. Samples of slow requests are kept as {@link SlowRequestReport}s.
+ */
+public interface SlowRequestWatchdog {
+
+    /**
+     * Handle of a watched request, to be closed by the request thread when the request is done.
+     */
+    interface Watch extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Starts watching the current thread.
+     *
+     * @param method the request method
+     * @param path the request path
+     * @return the handle to close when the request is done
+     */
+    Watch watch(String method, String path);
+
+    /**
+     * @return the reports of the most recent slow requests, newest first
+     */
+    List<SlowRequestReport> getReports();
+
+    /**
+     * @param id the report id
+     * @return the report, or null if there is no such report (anymore)
+     */
+    SlowRequestReport getReport(String id);
+}
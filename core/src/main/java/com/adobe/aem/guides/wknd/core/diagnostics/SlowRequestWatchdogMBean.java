@@ -0,0 +1,25 @@
+package com.adobe.aem.guides.wknd.core.diagnostics;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of the {@link SlowRequestWatchdog}.
+ */
+@Description("WKND slow request watchdog")
+public interface SlowRequestWatchdogMBean {
+
+    @Description("Number of requests currently watched")
+    int getInFlightCount();
+
+    @Description("Number of requests that exceeded the threshold")
+    long getSlowRequestCount();
+
+    @Description("Number of stack samples taken")
+    long getSampleCount();
+
+    @Description("Number of samples skipped to stay within the overhead budget or the sampling caps")
+    long getSkippedSampleCount();
+
+    @Description("Summaries of the most recent slow requests, newest first")
+    String[] getReportSummaries();
+}
@@ -0,0 +1,64 @@
+package com.adobe.aem.guides.wknd.core.diagnostics.impl;
+
+import java.util.List;
+
+import javax.script.Bindings;
+import javax.servlet.ServletRequest;
+
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.scripting.sightly.render.RenderContext;
+import org.apache.sling.scripting.sightly.use.ProviderOutcome;
+import org.apache.sling.scripting.sightly.use.UseProvider;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.FieldOption;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.RequestProfile;
+
+/**
+ * HTL use provider that times every <code>data-sly-use</code> of profiled requests. It ranks above
+ * all other use providers; for profiled requests it asks the other providers in ranking order, as
+ * the HTL engine would, and times the provider that succeeds. For all other requests it fails
+ * right away, leaving the use to the other providers.
+ */
+@Component(service = UseProvider.class)
+@ServiceDescription("Times HTL uses of profiled requests")
+@ServiceRanking(Integer.MAX_VALUE)
+public class ProfilingUseProvider implements UseProvider {
+
+    /** Ordered by ascending ranking, as defined for field references. */
+    @Reference(service = UseProvider.class,
+               cardinality = ReferenceCardinality.MULTIPLE,
+               policy = ReferencePolicy.DYNAMIC,
+               policyOption = ReferencePolicyOption.GREEDY,
+               fieldOption = FieldOption.REPLACE,
+               target = "(!(component.name=com.adobe.aem.guides.wknd.core.diagnostics.impl.ProfilingUseProvider))")
+    private volatile List<UseProvider> delegates;
+
+    @Override
+    public ProviderOutcome provide(String identifier, RenderContext renderContext, Bindings arguments) {
+        final Object request = renderContext.getBindings().get(SlingBindings.REQUEST);
+        final RequestProfile profile = request instanceof ServletRequest
+                ? RequestProfile.from((ServletRequest) request) : null;
+        final List<UseProvider> providers = delegates;
+        if (profile == null || providers == null) {
+            return ProviderOutcome.failure();
+        }
+
+        final RequestProfile.Node node = profile.enter(RequestProfile.KIND_USE, identifier);
+        try {
+            ProviderOutcome outcome = ProviderOutcome.failure();
+            for (int i = providers.size() - 1; i >= 0 && !outcome.isSuccess(); i--) {
+                outcome = providers.get(i).provide(identifier, renderContext, arguments);
+            }
+            return outcome;
+        } finally {
+            profile.exit(node);
+        }
+    }
+}
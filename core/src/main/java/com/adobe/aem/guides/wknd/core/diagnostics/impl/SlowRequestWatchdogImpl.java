@@ -0,0 +1,274 @@
+package com.adobe.aem.guides.wknd.core.diagnostics.impl;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.FoldedStacks;
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestReport;
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestWatchdog;
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestWatchdogMBean;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * {@link SlowRequestWatchdog} with a single sampler thread. Every sample interval the sampler
+ * looks at the watched requests and takes a stack sample of each request past the threshold.
+ * Sampling is capped by the number of requests sampled at the same time, the samples per request
+ * and the share of wall-clock time the sampler may spend sampling; ticks over the budget are skipped.
+ * Note that {@link Thread#getStackTrace()} briefly stops the sampled thread at a safepoint.
+ */
+@Component(service = { SlowRequestWatchdog.class, DynamicMBean.class },
+           property = "jmx.objectname=com.adobe.aem.guides.wknd:type=Diagnostics,name=SlowRequestWatchdog")
+@Designate(ocd = SlowRequestWatchdogImpl.Config.class)
+@ServiceDescription("Samples the stacks of slow requests")
+public class SlowRequestWatchdogImpl extends AnnotatedStandardMBean
+        implements SlowRequestWatchdog, SlowRequestWatchdogMBean {
+
+    @ObjectClassDefinition(name = "WKND Slow Request Watchdog",
+                           description = "Samples the thread stacks of requests that exceed a time budget")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Threshold (ms)", description = "Requests running longer than this are sampled")
+        long threshold_ms() default 1000;
+
+        @AttributeDefinition(name = "Sample interval (ms)", description = "Time between two samples of a slow request")
+        long sample_interval_ms() default 5;
+
+        @AttributeDefinition(name = "Maximum sampled requests",
+                             description = "Maximum number of requests sampled at the same time")
+        int max_sampled_requests() default 4;
+
+        @AttributeDefinition(name = "Maximum samples per request")
+        int max_samples() default 2000;
+
+        @AttributeDefinition(name = "Maximum stack depth", description = "Frames kept per sample, from the outermost")
+        int max_stack_depth() default 256;
+
+        @AttributeDefinition(name = "Maximum reports", description = "Number of slow request reports kept")
+        int max_reports() default 20;
+
+        @AttributeDefinition(name = "Overhead budget (%)",
+                             description = "Share of wall-clock time the sampler thread may spend taking samples")
+        double overhead_budget_percent() default 1.0;
+    }
+
+    private static final int MAX_STACKS = 500;
+
+    private static final long BUDGET_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Set<WatchImpl> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Deque<SlowRequestReport> reports = new ConcurrentLinkedDeque<>();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final AtomicLong slowRequests = new AtomicLong();
+
+    private final AtomicLong samples = new AtomicLong();
+
+    private final AtomicLong skippedSamples = new AtomicLong();
+
+    private volatile Config config;
+
+    private long thresholdNanos;
+
+    private ScheduledExecutorService sampler;
+
+    private long windowStart;
+
+    private long windowBusyNanos;
+
+    public SlowRequestWatchdogImpl() throws NotCompliantMBeanException {
+        super(SlowRequestWatchdogMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        this.config = config;
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.threshold_ms());
+        windowStart = System.nanoTime();
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "wknd-slow-request-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = Math.max(1, config.sample_interval_ms());
+        sampler.scheduleAtFixedRate(this::sample, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        sampler.shutdownNow();
+        inFlight.clear();
+    }
+
+    @Override
+    public Watch watch(String method, String path) {
+        final WatchImpl watch = new WatchImpl(Thread.currentThread(), method, path);
+        inFlight.add(watch);
+        return watch;
+    }
+
+    @Override
+    public List<SlowRequestReport> getReports() {
+        return new ArrayList<>(reports);
+    }
+
+    @Override
+    public SlowRequestReport getReport(String id) {
+        for (SlowRequestReport report : reports) {
+            if (report.getId().equals(id)) {
+                return report;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public long getSlowRequestCount() {
+        return slowRequests.get();
+    }
+
+    @Override
+    public long getSampleCount() {
+        return samples.get();
+    }
+
+    @Override
+    public long getSkippedSampleCount() {
+        return skippedSamples.get();
+    }
+
+    @Override
+    public String[] getReportSummaries() {
+        return reports.stream().map(SlowRequestReport::toString).toArray(String[]::new);
+    }
+
+    /**
+     * One sampler tick, only ever run by the sampler thread.
+     */
+    void sample() {
+        final long tickStart = System.nanoTime();
+        if (tickStart - windowStart > BUDGET_WINDOW_NANOS) {
+            windowStart = tickStart;
+            windowBusyNanos = 0;
+        }
+        final long budgetNanos = (long) (BUDGET_WINDOW_NANOS * config.overhead_budget_percent() / 100);
+        int sampling = 0;
+        for (WatchImpl watch : inFlight) {
+            if (tickStart - watch.startNanos < thresholdNanos) {
+                continue;
+            }
+            if (windowBusyNanos + (System.nanoTime() - tickStart) > budgetNanos
+                    || sampling >= config.max_sampled_requests()) {
+                skippedSamples.incrementAndGet();
+                continue;
+            }
+            sampling++;
+            if (watch.sample(config.max_samples())) {
+                samples.incrementAndGet();
+            } else {
+                skippedSamples.incrementAndGet();
+            }
+        }
+        windowBusyNanos += System.nanoTime() - tickStart;
+    }
+
+    private void finish(WatchImpl watch) {
+        if (!inFlight.remove(watch)) {
+            return;
+        }
+        final long durationNanos = System.nanoTime() - watch.startNanos;
+        if (durationNanos < thresholdNanos) {
+            return;
+        }
+        slowRequests.incrementAndGet();
+        final SlowRequestReport report;
+        synchronized (watch) {
+            watch.closed = true;
+            report = new SlowRequestReport(Long.toString(ids.incrementAndGet()), watch.method, watch.path,
+                    watch.startMillis, TimeUnit.NANOSECONDS.toMillis(durationNanos), watch.getStacks());
+        }
+        reports.addFirst(report);
+        final Iterator<SlowRequestReport> oldest = reports.descendingIterator();
+        while (reports.size() > config.max_reports() && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+        logger.info("Slow request {}", report);
+    }
+
+    private final class WatchImpl implements Watch {
+
+        private final Thread thread;
+
+        private final String method;
+
+        private final String path;
+
+        private final long startNanos = System.nanoTime();
+
+        private final long startMillis = System.currentTimeMillis();
+
+        private FoldedStacks stacks;
+
+        private boolean closed;
+
+        private WatchImpl(Thread thread, String method, String path) {
+            this.thread = thread;
+            this.method = method;
+            this.path = path;
+        }
+
+        private synchronized boolean sample(int maxSamples) {
+            if (closed) {
+                return false;
+            }
+            if (stacks == null) {
+                stacks = new FoldedStacks(config.max_stack_depth(), MAX_STACKS);
+            }
+            if (stacks.getSampleCount() >= maxSamples) {
+                return false;
+            }
+            stacks.add(thread.getStackTrace());
+            return true;
+        }
+
+        private FoldedStacks getStacks() {
+            return stacks != null ? stacks : new FoldedStacks(1, 1);
+        }
+
+        @Override
+        public void close() {
+            finish(this);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.adobe.aem.guides.wknd.core.dispatcher;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of the dispatcher flush service.
+ */
+@Description("WKND dispatcher flush")
+public interface DispatcherFlushMBean {
+
+    @Description("Number of flush requests waiting for the next batch")
+    int getPendingCount();
+
+    @Description("Number of flush requests queued")
+    long getRequestedCount();
+
+    @Description("Number of queued flush requests merged into a pending request for the same handle")
+    long getDeduplicatedCount();
+
+    @Description("Number of flush requests the endpoint accepted")
+    long getSentCount();
+
+    @Description("Number of flush requests sent again after a failed attempt")
+    long getRetryCount();
+
+    @Description("Number of flush requests given up after the last retry")
+    long getFailedCount();
+
+    @Description("Number of times the pending requests overflowed and were replaced by one invalidation of the content root")
+    long getOverflowCount();
+
+    @Description("Last error returned by the flush endpoint")
+    String getLastError();
+
+    @Description("Most recently flushed handles, newest first")
+    String[] getRecentlyFlushedHandles();
+}
@@ -0,0 +1,24 @@
+package com.adobe.aem.guides.wknd.core.dispatcher;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sends {@link FlushRequest}s to the dispatcher flush endpoint. Requests are queued,
+ * deduplicated per handle and sent in batches at a limited rate.
+ */
+public interface DispatcherFlushService {
+
+    /**
+     * Queues the requests for the next batch.
+     *
+     * @param requests the invalidations to send
+     */
+    void flush(Collection<FlushRequest> requests);
+
+    /**
+     * @return the requests the endpoint accepted most recently, newest first; activated
+     *         handles are candidates for warming the cache again
+     */
+    List<FlushRequest> getRecentlyFlushed();
+}
@@ -0,0 +1,115 @@
+package com.adobe.aem.guides.wknd.core.dispatcher;
+
+/**
+ * Invalidation of one handle in the dispatcher cache. Requests with the resource-only scope
+ * remove the cached files of the handle (<code>handle.*</code> and the <code>handle/</code>
+ * directory, which holds the renderings with suffixes) without touching the
+ * <code>.stat</code> files, so the rest of the cache stays valid.
+ */
+public final class FlushRequest {
+
+    /**
+     * The dispatcher action, sent as <code>CQ-Action</code>.
+     */
+    public enum Action {
+
+        /** The handle changed: its cached files are removed and re-rendered on the next request. */
+        ACTIVATE("Activate"),
+
+        /** The handle is gone: its cached files are removed. */
+        DELETE("Delete");
+
+        private final String headerValue;
+
+        Action(String headerValue) {
+            this.headerValue = headerValue;
+        }
+
+        public String getHeaderValue() {
+            return headerValue;
+        }
+    }
+
+    private final String handle;
+
+    private final Action action;
+
+    private final boolean resourceOnly;
+
+    public FlushRequest(String handle, Action action, boolean resourceOnly) {
+        this.handle = handle;
+        this.action = action;
+        this.resourceOnly = resourceOnly;
+    }
+
+    /**
+     * @param handle the changed handle
+     * @return a resource-only activation of the handle
+     */
+    public static FlushRequest activate(String handle) {
+        return new FlushRequest(handle, Action.ACTIVATE, true);
+    }
+
+    /**
+     * @param handle the removed handle
+     * @return a resource-only deletion of the handle
+     */
+    public static FlushRequest delete(String handle) {
+        return new FlushRequest(handle, Action.DELETE, true);
+    }
+
+    /**
+     * @return the repository path whose cached renderings are invalidated
+     */
+    public String getHandle() {
+        return handle;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return true if only the files of the handle are invalidated, false if the request also
+     *         touches the <code>.stat</code> files and with them every file below the stat file level
+     */
+    public boolean isResourceOnly() {
+        return resourceOnly;
+    }
+
+    /**
+     * @param other a request for the same handle
+     * @return a request doing the work of both: a deletion wins over an activation, a wide
+     *         invalidation wins over a resource-only one
+     */
+    public FlushRequest merge(FlushRequest other) {
+        final Action mergedAction = action == Action.DELETE || other.action == Action.DELETE ? Action.DELETE : Action.ACTIVATE;
+        final boolean mergedResourceOnly = resourceOnly && other.resourceOnly;
+        if (mergedAction == action && mergedResourceOnly == resourceOnly) {
+            return this;
+        }
+        return new FlushRequest(handle, mergedAction, mergedResourceOnly);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FlushRequest)) {
+            return false;
+        }
+        final FlushRequest other = (FlushRequest) obj;
+        return handle.equals(other.handle) && action == other.action && resourceOnly == other.resourceOnly;
+    }
+
+    @Override
+    public int hashCode() {
+        return (handle.hashCode() * 31 + action.hashCode()) * 31 + Boolean.hashCode(resourceOnly);
+    }
+
+    @Override
+    public String toString() {
+        return action.getHeaderValue() + " " + handle + (resourceOnly ? "" : " (stat files)");
+    }
+}
@@ -0,0 +1,385 @@
+package com.adobe.aem.guides.wknd.core.dispatcher.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.dispatcher.DispatcherFlushMBean;
+import com.adobe.aem.guides.wknd.core.dispatcher.DispatcherFlushService;
+import com.adobe.aem.guides.wknd.core.dispatcher.FlushRequest;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.aem.guides.wknd.core.util.RateLimiter;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * Invalidates the dispatcher cache for the content changes delivered by the change pipeline.
+ * Changes are mapped to the affected handles by the {@link InvalidationMapper}; the requests
+ * are merged per handle until the next batch and sent one handle per request, rate limited,
+ * with exponential backoff between attempts. A batch sends at most the configured number of
+ * requests; the rest stay pending, merged with later requests, so a burst of changes is
+ * drained as resource-only invalidations at the configured rate.
+ * <p>
+ * Only when more requests are pending than the configured limit, they are dropped and replaced
+ * by a single invalidation of the content root through the stat files.
+ * <p>
+ * The service is disabled by default, also on publish, where the flush URL has to be set for
+ * the environment before it is enabled. The stat-file invalidation of the farm is unchanged:
+ * the dispatcher flush agent still invalidates on every activation and the farm's
+ * <code>/invalidate</code> rules still apply to it, so the targeted invalidations only pay off
+ * once the flush agent is disabled or limited to the paths this service does not cover.
+ */
+@Component(service = { DispatcherFlushService.class, ResourceChangeHandler.class, DynamicMBean.class },
+           property = {
+                   ResourceChangeHandler.PATHS + "=" + InvalidationMapper.CONTENT_ROOT,
+                   "jmx.objectname=com.adobe.aem.guides.wknd:type=Dispatcher,name=DispatcherFlush"
+           })
+@Designate(ocd = DispatcherFlushServiceImpl.Config.class)
+@ServiceDescription("Sends targeted dispatcher cache invalidations for content changes")
+public class DispatcherFlushServiceImpl extends AnnotatedStandardMBean
+        implements DispatcherFlushService, ResourceChangeHandler, DispatcherFlushMBean {
+
+    @ObjectClassDefinition(name = "WKND Dispatcher Flush",
+                           description = "Sends targeted, batched invalidations to the dispatcher flush endpoint")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Enabled", description = "Send invalidations for content changes")
+        boolean enabled() default false;
+
+        @AttributeDefinition(name = "Flush URL", description = "Dispatcher flush endpoint")
+        String flush_url() default "http://localhost:80/dispatcher/invalidate.cache";
+
+        @AttributeDefinition(name = "Batch interval (ms)", description = "Time pending requests are collected and merged before they are sent")
+        long batch_interval_ms() default 1000;
+
+        @AttributeDefinition(name = "Maximum batch size", description = "Requests sent per batch, the rest stay pending for the next batch")
+        int max_batch_size() default 100;
+
+        @AttributeDefinition(name = "Maximum pending requests", description = "Pending requests beyond which the content root is invalidated instead")
+        int max_pending() default 5000;
+
+        @AttributeDefinition(name = "Maximum pages per change", description = "Pages of a changed tree invalidated one by one before the tree is invalidated through the stat files")
+        int max_pages_per_change() default 100;
+
+        @AttributeDefinition(name = "Requests per second", description = "Sustained rate of flush requests, 0 for no limit")
+        double requests_per_second() default 20;
+
+        @AttributeDefinition(name = "Burst", description = "Number of flush requests sent at once after a quiet period")
+        int burst() default 5;
+
+        @AttributeDefinition(name = "Maximum retries", description = "Attempts after the first failed one")
+        int max_retries() default 3;
+
+        @AttributeDefinition(name = "Retry backoff (ms)", description = "Wait before the first retry, doubled for each further retry")
+        long retry_backoff_ms() default 250;
+
+        @AttributeDefinition(name = "Connect timeout (ms)")
+        int connect_timeout_ms() default 2000;
+
+        @AttributeDefinition(name = "Read timeout (ms)")
+        int read_timeout_ms() default 5000;
+
+        @AttributeDefinition(name = "Recent requests", description = "Number of accepted requests kept for cache warming and JMX")
+        int recent_requests() default 1000;
+    }
+
+    static final String HEADER_ACTION = "CQ-Action";
+
+    static final String HEADER_HANDLE = "CQ-Handle";
+
+    static final String HEADER_SCOPE = "CQ-Action-Scope";
+
+    static final String SCOPE_RESOURCE_ONLY = "ResourceOnly";
+
+    private static final String SUBSERVICE = "dataread";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, FlushRequest> pending = new LinkedHashMap<>();
+
+    private final Deque<FlushRequest> recent = new ArrayDeque<>();
+
+    private final AtomicLong requested = new AtomicLong();
+
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong overflows = new AtomicLong();
+
+    private volatile String lastError;
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    private Config config;
+
+    private InvalidationMapper mapper;
+
+    private RateLimiter rateLimiter;
+
+    private ScheduledExecutorService flusher;
+
+    private volatile boolean running;
+
+    public DispatcherFlushServiceImpl() throws NotCompliantMBeanException {
+        super(DispatcherFlushMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        this.config = config;
+        mapper = new InvalidationMapper(config.max_pages_per_change());
+        rateLimiter = new RateLimiter(config.requests_per_second(), config.burst());
+        running = true;
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "wknd-dispatcher-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = Math.max(1, config.batch_interval_ms());
+        flusher.scheduleWithFixedDelay(this::sendPending, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        running = false;
+        flusher.shutdownNow();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        if (!config.enabled()) {
+            return;
+        }
+        final Map<String, Object> param = new HashMap<>();
+        param.put(ResourceResolverFactory.SUBSERVICE, SUBSERVICE);
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(param)) {
+            flush(mapper.map(resolver, changes));
+        } catch (LoginException e) {
+            logger.error("Cannot map {} changes to dispatcher invalidations", changes.size(), e);
+        }
+    }
+
+    @Override
+    public void flush(Collection<FlushRequest> requests) {
+        if (!config.enabled() || requests.isEmpty()) {
+            return;
+        }
+        synchronized (pending) {
+            for (FlushRequest request : requests) {
+                requested.incrementAndGet();
+                if (pending.merge(request.getHandle(), request, FlushRequest::merge) != request) {
+                    deduplicated.incrementAndGet();
+                }
+            }
+            if (pending.size() > config.max_pending()) {
+                overflows.incrementAndGet();
+                logger.warn("Dropping {} pending dispatcher invalidations over the limit of {}, invalidating {} through the stat files instead",
+                        pending.size(), config.max_pending(), InvalidationMapper.CONTENT_ROOT);
+                pending.clear();
+                pending.put(InvalidationMapper.CONTENT_ROOT,
+                        new FlushRequest(InvalidationMapper.CONTENT_ROOT, FlushRequest.Action.ACTIVATE, false));
+            }
+        }
+    }
+
+    @Override
+    public List<FlushRequest> getRecentlyFlushed() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    /**
+     * Sends the oldest pending requests, at most one batch of them.
+     */
+    void sendPending() {
+        final List<FlushRequest> batch = new ArrayList<>();
+        synchronized (pending) {
+            final int size = Math.min(pending.size(), Math.max(1, config.max_batch_size()));
+            for (Iterator<FlushRequest> requests = pending.values().iterator(); batch.size() < size; ) {
+                batch.add(requests.next());
+                requests.remove();
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        logger.debug("Sending {} dispatcher invalidations", batch.size());
+        try {
+            for (FlushRequest request : batch) {
+                if (!running) {
+                    return;
+                }
+                sendWithRetries(request);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendWithRetries(FlushRequest request) throws InterruptedException {
+        long backoff = config.retry_backoff_ms();
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire();
+            final String error = send(request);
+            if (error == null) {
+                sent.incrementAndGet();
+                remember(request);
+                return;
+            }
+            lastError = request + ": " + error;
+            if (attempt >= config.max_retries() || !running) {
+                failed.incrementAndGet();
+                logger.warn("Giving up dispatcher invalidation {} after {} attempts: {}", request, attempt + 1, error);
+                return;
+            }
+            retries.incrementAndGet();
+            TimeUnit.MILLISECONDS.sleep(backoff);
+            backoff *= 2;
+        }
+    }
+
+    /**
+     * @return null if the endpoint accepted the request, the error otherwise
+     */
+    private String send(FlushRequest request) {
+        try {
+            final HttpURLConnection connection = getHttpConnection(new URL(config.flush_url()));
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(config.connect_timeout_ms());
+            connection.setReadTimeout(config.read_timeout_ms());
+            connection.setRequestProperty(HEADER_ACTION, request.getAction().getHeaderValue());
+            connection.setRequestProperty(HEADER_HANDLE, request.getHandle());
+            if (request.isResourceOnly()) {
+                connection.setRequestProperty(HEADER_SCOPE, SCOPE_RESOURCE_ONLY);
+            }
+            connection.setRequestProperty("Content-Length", "0");
+            connection.setDoOutput(true);
+            connection.getOutputStream().close();
+            final int status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                drain(body);
+            }
+            return status >= 200 && status < 300 ? null : "HTTP " + status;
+        } catch (IOException e) {
+            return e.toString();
+        }
+    }
+
+    /**
+     * @param url the flush endpoint
+     * @return a connection to the endpoint
+     * @throws IOException if the connection cannot be opened
+     */
+    protected HttpURLConnection getHttpConnection(URL url) throws IOException {
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private void remember(FlushRequest request) {
+        synchronized (recent) {
+            recent.addFirst(request);
+            while (recent.size() > config.recent_requests()) {
+                recent.removeLast();
+            }
+        }
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        if (body != null) {
+            final byte[] buffer = new byte[1024];
+            while (body.read(buffer) >= 0) {
+                // keep the connection reusable
+            }
+        }
+    }
+
+    @Override
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    @Override
+    public long getRequestedCount() {
+        return requested.get();
+    }
+
+    @Override
+    public long getDeduplicatedCount() {
+        return deduplicated.get();
+    }
+
+    @Override
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    @Override
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    @Override
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+
+    @Override
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String[] getRecentlyFlushedHandles() {
+        final List<FlushRequest> requests = getRecentlyFlushed();
+        final String[] handles = new String[requests.size()];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = requests.get(i).toString();
+        }
+        return handles;
+    }
+}
@@ -0,0 +1,214 @@
+package com.adobe.aem.guides.wknd.core.dispatcher.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.jcr.query.Query;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.AbstractResourceVisitor;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+
+import com.adobe.aem.guides.wknd.core.dispatcher.FlushRequest;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Maps content changes to the handles whose cached renderings they affect:
+ * <ul>
+ * <li>a change inside the content of a page invalidates the page and the Byline components
+ * at or around the changed resource, which are cached with their own selectors
+ * (<code>model.json</code>);</li>
+ * <li>a change of a page tree invalidates each page of the tree with its Bylines, or the whole
+ * tree through the stat files if it has more pages than the configured limit or lost resources
+ * that cannot be enumerated anymore;</li>
+ * <li>a removed page tree is deleted from the cache;</li>
+ * <li>a change of a person record invalidates every Byline referencing the person and the pages
+ * containing them.</li>
+ * </ul>
+ * All requests but the tree fallback are resource-only, so the rest of the cache stays valid.
+ */
+class InvalidationMapper {
+
+    static final String CONTENT_ROOT = "/content/wknd";
+
+    static final String BYLINE_RESOURCE_TYPE = "wknd/components/byline";
+
+    private static final String PN_NAME = "name";
+
+    private static final String CONTENT_SEGMENT = "/" + JcrConstants.JCR_CONTENT;
+
+    private final int maxPagesPerChange;
+
+    InvalidationMapper(int maxPagesPerChange) {
+        this.maxPagesPerChange = maxPagesPerChange;
+    }
+
+    /**
+     * @param resolver a resolver able to read the content and the person records
+     * @param changes the coalesced changes
+     * @return the flush requests, at most one per handle
+     */
+    List<FlushRequest> map(ResourceResolver resolver, List<CoalescedChange> changes) {
+        final Map<String, FlushRequest> requests = new LinkedHashMap<>();
+        final Set<String> personNames = new LinkedHashSet<>();
+        boolean allPersons = false;
+        for (CoalescedChange change : changes) {
+            final String path = change.getPath();
+            final String personName = PeopleData.getPersonName(path);
+            if (personName != null) {
+                personNames.add(personName);
+                continue;
+            }
+            if (PeopleData.coversAllPersons(path)) {
+                allPersons = true;
+                if (PeopleData.DATA_ROOT.equals(path)) {
+                    continue;
+                }
+            }
+            if (change.covers(CONTENT_ROOT)) {
+                mapContentChange(resolver, CONTENT_ROOT, change, requests);
+            } else if (path.startsWith(CONTENT_ROOT + "/")) {
+                mapContentChange(resolver, path, change, requests);
+            }
+        }
+        if (allPersons) {
+            addBylines(resolver, findBylines(resolver, null), requests);
+        } else {
+            for (String personName : personNames) {
+                addBylines(resolver, findBylines(resolver, personName), requests);
+            }
+        }
+        return new ArrayList<>(requests.values());
+    }
+
+    /**
+     * Finds the Byline components of the site.
+     *
+     * @param resolver the resolver to query with
+     * @param personName the person the Bylines reference, or null for all Bylines
+     * @return the Byline resources
+     */
+    protected Iterator<Resource> findBylines(ResourceResolver resolver, String personName) {
+        final StringBuilder statement = new StringBuilder("SELECT * FROM [nt:unstructured] AS byline")
+                .append(" WHERE ISDESCENDANTNODE(byline, '").append(escape(CONTENT_ROOT)).append("')")
+                .append(" AND byline.[sling:resourceType] = '").append(BYLINE_RESOURCE_TYPE).append('\'');
+        if (personName != null) {
+            statement.append(" AND byline.[").append(PN_NAME).append("] = '").append(escape(personName)).append('\'');
+        }
+        return resolver.findResources(statement.toString(), Query.JCR_SQL2);
+    }
+
+    private void mapContentChange(ResourceResolver resolver, String path, CoalescedChange change,
+                                  Map<String, FlushRequest> requests) {
+        final int contentIndex = path.indexOf(CONTENT_SEGMENT);
+        final Resource resource = resolver.getResource(path);
+        if (contentIndex >= 0 && (path.length() == contentIndex + CONTENT_SEGMENT.length()
+                || path.charAt(contentIndex + CONTENT_SEGMENT.length()) == '/')) {
+            final String pagePath = path.substring(0, contentIndex);
+            add(requests, resolver.getResource(pagePath) != null ? FlushRequest.activate(pagePath) : FlushRequest.delete(pagePath));
+            if (resource == null) {
+                add(requests, FlushRequest.delete(path));
+            }
+            addEnclosingByline(resolver, path, pagePath + CONTENT_SEGMENT, requests);
+            if (resource != null) {
+                addBylinesBelow(resource, requests);
+            }
+            return;
+        }
+        if (resource == null) {
+            add(requests, FlushRequest.delete(path));
+            return;
+        }
+        final List<Page> pages = new ArrayList<>();
+        final PageManager pageManager = resolver.adaptTo(PageManager.class);
+        if (change.getTypes().contains(ChangeType.REMOVED) || pageManager == null
+                || !collectPages(pageManager, resource, pages)) {
+            add(requests, new FlushRequest(path, FlushRequest.Action.ACTIVATE, false));
+            return;
+        }
+        for (Page page : pages) {
+            add(requests, FlushRequest.activate(page.getPath()));
+            final Resource content = page.getContentResource();
+            if (content != null) {
+                addBylinesBelow(content, requests);
+            }
+        }
+    }
+
+    /**
+     * Collects the pages at and below the resource, without descending into page content
+     * or the person records.
+     *
+     * @return false if there are more pages than the limit
+     */
+    private boolean collectPages(PageManager pageManager, Resource resource, List<Page> pages) {
+        if (JcrConstants.JCR_CONTENT.equals(resource.getName()) || PeopleData.DATA_ROOT.equals(resource.getPath())) {
+            return true;
+        }
+        final Page page = pageManager.getPage(resource.getPath());
+        if (page != null) {
+            if (pages.size() >= maxPagesPerChange) {
+                return false;
+            }
+            pages.add(page);
+        }
+        for (Resource child : resource.getChildren()) {
+            if (!collectPages(pageManager, child, pages)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addEnclosingByline(ResourceResolver resolver, String path, String contentPath, Map<String, FlushRequest> requests) {
+        for (String candidate = path; candidate.startsWith(contentPath + "/"); candidate = StringUtils.substringBeforeLast(candidate, "/")) {
+            final Resource resource = resolver.getResource(candidate);
+            if (resource != null && BYLINE_RESOURCE_TYPE.equals(resource.getResourceType())) {
+                add(requests, FlushRequest.activate(candidate));
+                return;
+            }
+        }
+    }
+
+    private void addBylinesBelow(Resource resource, Map<String, FlushRequest> requests) {
+        new AbstractResourceVisitor() {
+            @Override
+            protected void visit(Resource candidate) {
+                if (BYLINE_RESOURCE_TYPE.equals(candidate.getResourceType())) {
+                    add(requests, FlushRequest.activate(candidate.getPath()));
+                }
+            }
+        }.accept(resource);
+    }
+
+    private void addBylines(ResourceResolver resolver, Iterator<Resource> bylines, Map<String, FlushRequest> requests) {
+        final PageManager pageManager = resolver.adaptTo(PageManager.class);
+        while (bylines.hasNext()) {
+            final Resource byline = bylines.next();
+            add(requests, FlushRequest.activate(byline.getPath()));
+            final Page page = pageManager != null ? pageManager.getContainingPage(byline) : null;
+            if (page != null) {
+                add(requests, FlushRequest.activate(page.getPath()));
+            }
+        }
+    }
+
+    private static void add(Map<String, FlushRequest> requests, FlushRequest request) {
+        requests.merge(request.getHandle(), request, FlushRequest::merge);
+    }
+
+    private static String escape(String value) {
+        return value.replace("'", "''");
+    }
+}
@@ -0,0 +1,93 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.wrappers.SlingHttpServletResponseWrapper;
+
+/**
+ * Response wrapper that keeps everything written to the writer in memory instead of
+ * sending it to the client, so a filter can inspect or store the output before writing it.
+ * Output written to the output stream is passed through and makes the response
+ * {@link #isComplete() incomplete}.
+ */
+class BufferingResponseWrapper extends SlingHttpServletResponseWrapper {
+
+    private final StringWriter buffer = new StringWriter();
+
+    private final PrintWriter writer = new PrintWriter(buffer);
+
+    private boolean outputStreamUsed;
+
+    private int status = HttpServletResponse.SC_OK;
+
+    BufferingResponseWrapper(SlingHttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        outputStreamUsed = true;
+        return super.getOutputStream();
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        status = sc;
+        super.setStatus(sc);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        status = sc;
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        status = sc;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void flushBuffer() {
+        writer.flush();
+    }
+
+    @Override
+    public void resetBuffer() {
+        writer.flush();
+        buffer.getBuffer().setLength(0);
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        super.reset();
+    }
+
+    /**
+     * @return everything written to the writer so far
+     */
+    String getBufferedContent() {
+        writer.flush();
+        return buffer.toString();
+    }
+
+    /**
+     * @return true if the whole output went through the writer and the response was successful
+     */
+    boolean isComplete() {
+        return !outputStreamUsed && status == HttpServletResponse.SC_OK;
+    }
+}
@@ -0,0 +1,93 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.component.propertytypes.ServiceVendor;
+
+import com.adobe.aem.guides.wknd.core.cache.BylineFragmentCache;
+import com.adobe.aem.guides.wknd.core.cache.FragmentKey;
+import com.day.cq.wcm.api.WCMMode;
+
+/**
+ * Component filter that serves the markup of Byline components from the {@link BylineFragmentCache}.
+ * On a miss the byline is rendered as usual and its markup is stored in the cache.
+ * Only renderings without WCM mode are cached, authoring markup is always rendered.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_COMPONENT,
+                   "sling.filter.resourceTypes=" + BylineFragmentCacheFilter.RESOURCE_TYPE
+           })
+@ServiceDescription("Serves Byline markup from the fragment cache")
+@ServiceRanking(-1000)
+@ServiceVendor("Adobe")
+public class BylineFragmentCacheFilter implements Filter {
+
+    static final String RESOURCE_TYPE = "wknd/components/byline";
+
+    @Reference
+    private BylineFragmentCache cache;
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
+        final FragmentKey key = isCacheable(slingRequest)
+                ? cache.getKey(slingRequest.getResource(), getVariant(slingRequest.getRequestPathInfo()))
+                : null;
+        if (key == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final String cached = cache.get(key);
+        if (cached != null) {
+            response.getWriter().write(cached);
+            return;
+        }
+
+        final BufferingResponseWrapper bufferingResponse =
+                new BufferingResponseWrapper((SlingHttpServletResponse) response);
+        filterChain.doFilter(request, bufferingResponse);
+        final String markup = bufferingResponse.getBufferedContent();
+        response.getWriter().write(markup);
+        if (bufferingResponse.isComplete()) {
+            cache.put(key, markup);
+        }
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    private static boolean isCacheable(SlingHttpServletRequest request) {
+        return HttpConstants.METHOD_GET.equals(request.getMethod())
+                && WCMMode.fromRequest(request) == WCMMode.DISABLED;
+    }
+
+    private static String getVariant(RequestPathInfo pathInfo) {
+        final String selectors = pathInfo.getSelectorString();
+        return selectors != null ? selectors + "." + pathInfo.getExtension() : String.valueOf(pathInfo.getExtension());
+    }
+}
@@ -0,0 +1,92 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.component.propertytypes.ServiceVendor;
+
+/**
+ * Request filter that sets the <code>Cache-Control</code> header of anonymous GET and HEAD
+ * requests from the first matching {@link CacheControlRule}. The header is set before the
+ * request is processed, so servlets that know better can still replace it. The rules are
+ * compiled into a {@link CacheControlPolicy} whenever a rule is added or removed.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_REQUEST,
+           })
+@ServiceDescription("Sets Cache-Control headers from the configured rules")
+@ServiceRanking(-600)
+@ServiceVendor("Adobe")
+public class CacheControlFilter implements Filter {
+
+    static final String HEADER_CACHE_CONTROL = "Cache-Control";
+
+    private final Set<CacheControlRule> rules = new LinkedHashSet<>();
+
+    private volatile CacheControlPolicy policy = CacheControlPolicy.EMPTY;
+
+    @Reference(service = CacheControlRule.class,
+               cardinality = ReferenceCardinality.MULTIPLE,
+               policy = ReferencePolicy.DYNAMIC)
+    protected void bindRule(CacheControlRule rule) {
+        synchronized (rules) {
+            rules.add(rule);
+            policy = new CacheControlPolicy(rules);
+        }
+    }
+
+    protected void unbindRule(CacheControlRule rule) {
+        synchronized (rules) {
+            rules.remove(rule);
+            policy = new CacheControlPolicy(rules);
+        }
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
+        final String method = slingRequest.getMethod();
+        if ((HttpConstants.METHOD_GET.equals(method) || HttpConstants.METHOD_HEAD.equals(method))
+                && slingRequest.getAuthType() == null) {
+            final Resource resource = slingRequest.getResource();
+            final RequestPathInfo pathInfo = slingRequest.getRequestPathInfo();
+            final CacheControlRule rule = policy.find(resource.getResourceType(), resource.getPath(),
+                    pathInfo.getSelectors(), pathInfo.getExtension());
+            if (rule != null && rule.getHeaderValue() != null) {
+                ((SlingHttpServletResponse) response).setHeader(HEADER_CACHE_CONTROL, rule.getHeaderValue());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
@@ -0,0 +1,65 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable lookup structure over the {@link CacheControlRule}s. The rules are ordered once
+ * and grouped by resource type, with the rules for any resource type merged into every group,
+ * so a request only tries the rules of its resource type, in order, and the first match wins.
+ */
+final class CacheControlPolicy {
+
+    static final CacheControlPolicy EMPTY = new CacheControlPolicy(Collections.emptyList());
+
+    private static final Comparator<CacheControlRule> ORDER = Comparator
+            .comparingInt(CacheControlRule::getRanking)
+            .thenComparingInt(CacheControlRule::getSpecificity)
+            .thenComparingInt(CacheControlRule::getPathLength)
+            .reversed();
+
+    private final Map<String, List<CacheControlRule>> byResourceType = new HashMap<>();
+
+    private final List<CacheControlRule> anyResourceType = new ArrayList<>();
+
+    CacheControlPolicy(Collection<CacheControlRule> rules) {
+        final List<CacheControlRule> ordered = new ArrayList<>(rules);
+        ordered.sort(ORDER);
+        for (CacheControlRule rule : ordered) {
+            if (rule.getResourceType() != null) {
+                byResourceType.computeIfAbsent(rule.getResourceType(), type -> new ArrayList<>());
+            } else {
+                anyResourceType.add(rule);
+            }
+        }
+        for (Map.Entry<String, List<CacheControlRule>> group : byResourceType.entrySet()) {
+            for (CacheControlRule rule : ordered) {
+                if (rule.getResourceType() == null || rule.getResourceType().equals(group.getKey())) {
+                    group.getValue().add(rule);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param resourceType the resource type of the requested resource
+     * @param resourcePath the path of the requested resource
+     * @param selectors the request selectors
+     * @param extension the request extension, or null
+     * @return the first matching rule, or null if none matches
+     */
+    CacheControlRule find(String resourceType, String resourcePath, String[] selectors, String extension) {
+        final List<CacheControlRule> rules = byResourceType.getOrDefault(resourceType, anyResourceType);
+        for (CacheControlRule rule : rules) {
+            if (rule.matches(resourcePath, selectors, extension)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,191 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+/**
+ * One rule of the {@link CacheControlFilter}, configured as a factory configuration. A rule
+ * matches a request by resource type, resource path glob, selector and extension, each of which
+ * matches anything when empty, and gives the <code>Cache-Control</code> header of the matching
+ * responses. A rule without directives sends no header, which excludes the requests it matches
+ * from the rules tried after it. The path glob and the header value are compiled once when the
+ * rule is activated.
+ */
+@Component(service = CacheControlRule.class, configurationPolicy = ConfigurationPolicy.REQUIRE)
+@Designate(ocd = CacheControlRule.Config.class, factory = true)
+public class CacheControlRule {
+
+    @ObjectClassDefinition(name = "WKND Cache-Control Rule",
+                           description = "Cache-Control header of the responses matching a resource type, path, selector and extension")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Resource type", description = "Resource type of the requested resource, any if empty")
+        String resource_type() default "";
+
+        @AttributeDefinition(name = "Path", description = "Glob of the requested resource path, any if empty; "
+                + "* matches within a path segment, ** across segments")
+        String path() default "";
+
+        @AttributeDefinition(name = "Selector", description = "Selector the request must have, any if empty")
+        String selector() default "";
+
+        @AttributeDefinition(name = "Extension", description = "Request extension, any if empty")
+        String extension() default "";
+
+        @AttributeDefinition(name = "max-age", description = "Seconds browsers may cache the response, not sent if negative")
+        int max_age() default -1;
+
+        @AttributeDefinition(name = "s-maxage", description = "Seconds shared caches may cache the response, not sent if negative")
+        int s_maxage() default -1;
+
+        @AttributeDefinition(name = "stale-while-revalidate", description = "Seconds a stale response may be served while it is revalidated, not sent if negative")
+        int stale_while_revalidate() default -1;
+
+        @AttributeDefinition(name = "stale-if-error", description = "Seconds a stale response may be served when revalidation fails, not sent if negative")
+        int stale_if_error() default -1;
+
+        @AttributeDefinition(name = "Ranking", description = "Rules of higher ranking are tried first; "
+                + "among equal rankings, rules with more criteria are tried first")
+        int ranking() default 0;
+
+        String webconsole_configurationFactory_nameHint() default "{resource.type} {path} {selector} {extension}";
+    }
+
+    private String resourceType;
+
+    private Pattern path;
+
+    private String pathGlob;
+
+    private String selector;
+
+    private String extension;
+
+    private String headerValue;
+
+    private int ranking;
+
+    @Activate
+    protected void activate(final Config config) {
+        resourceType = StringUtils.trimToNull(config.resource_type());
+        pathGlob = StringUtils.trimToNull(config.path());
+        path = pathGlob != null ? compileGlob(pathGlob) : null;
+        selector = StringUtils.trimToNull(config.selector());
+        extension = StringUtils.trimToNull(config.extension());
+        ranking = config.ranking();
+
+        final List<String> directives = new ArrayList<>();
+        addDirective(directives, "max-age", config.max_age());
+        addDirective(directives, "s-maxage", config.s_maxage());
+        addDirective(directives, "stale-while-revalidate", config.stale_while_revalidate());
+        addDirective(directives, "stale-if-error", config.stale_if_error());
+        headerValue = directives.isEmpty() ? null : String.join(", ", directives);
+    }
+
+    /**
+     * @return the resource type, or null if the rule matches any
+     */
+    String getResourceType() {
+        return resourceType;
+    }
+
+    /**
+     * @return the <code>Cache-Control</code> value, or null if the rule sends none
+     */
+    String getHeaderValue() {
+        return headerValue;
+    }
+
+    int getRanking() {
+        return ranking;
+    }
+
+    /**
+     * @return the number of criteria of the rule
+     */
+    int getSpecificity() {
+        return (resourceType != null ? 1 : 0) + (path != null ? 1 : 0) + (selector != null ? 1 : 0)
+                + (extension != null ? 1 : 0);
+    }
+
+    int getPathLength() {
+        return pathGlob != null ? pathGlob.length() : 0;
+    }
+
+    /**
+     * Matches the request without its resource type, which the filter looks up beforehand.
+     *
+     * @param resourcePath the path of the requested resource
+     * @param selectors the request selectors
+     * @param requestExtension the request extension, or null
+     * @return true if the request matches
+     */
+    boolean matches(String resourcePath, String[] selectors, String requestExtension) {
+        if (extension != null && !extension.equals(requestExtension)) {
+            return false;
+        }
+        if (selector != null && !contains(selectors, selector)) {
+            return false;
+        }
+        return path == null || path.matcher(resourcePath).matches();
+    }
+
+    /**
+     * Compiles a glob to a pattern: <code>**</code> matches any characters, <code>*</code> and
+     * <code>?</code> match within a path segment. A trailing <code>/**</code> also matches the
+     * path before it.
+     */
+    static Pattern compileGlob(String glob) {
+        final StringBuilder regex = new StringBuilder();
+        String rest = glob;
+        String suffix = "";
+        if (rest.endsWith("/**")) {
+            rest = rest.substring(0, rest.length() - 3);
+            suffix = "(/.*)?";
+        }
+        int i = 0;
+        while (i < rest.length()) {
+            final char c = rest.charAt(i);
+            if (c == '*' && i + 1 < rest.length() && rest.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i += 2;
+                continue;
+            }
+            if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if (Character.isLetterOrDigit(c) || c == '/') {
+                regex.append(c);
+            } else {
+                regex.append('\\').append(c);
+            }
+            i++;
+        }
+        return Pattern.compile(regex.append(suffix).toString());
+    }
+
+    private static void addDirective(List<String> directives, String name, int seconds) {
+        if (seconds >= 0) {
+            directives.add(name + "=" + seconds);
+        }
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (String candidate : values) {
+            if (value.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,149 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Finds the resources a rendered page loads, with the same rules as the integration tests'
+ * <code>HtmlUnitClient.getResourceRefs</code>: the sources of <code>script</code> and
+ * <code>img</code> tags, stylesheet <code>link</code> tags and the renditions of core image
+ * components given by <code>data-cmp-src</code> and <code>data-cmp-widths</code>.
+ * <p>
+ * The markup is scanned with patterns rather than parsed, which is enough for the markup the
+ * components render. Only resources of the same origin are kept, and resources below the
+ * page itself are dropped, as they are specific to the page rather than to its template.
+ */
+final class CriticalResourceExtractor {
+
+    private static final Pattern TAG = Pattern.compile("<(script|link|img|div)\\b([^>]*)>", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern ATTRIBUTE = Pattern.compile(
+            "([\\w:-]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))");
+
+    private static final String WIDTH_PLACEHOLDER = "{.width}";
+
+    private CriticalResourceExtractor() {
+        // static methods only
+    }
+
+    /**
+     * @param html the rendered page
+     * @param requestUri the URI the page was requested with, to resolve relative references
+     * @param pagePrefixes paths below which resources belong to the page only
+     * @return the resources in the order of the markup, stylesheets first, then scripts, then images
+     */
+    static List<PreloadLink> extract(String html, String requestUri, String... pagePrefixes) {
+        final URI base = URI.create(requestUri);
+        final Set<PreloadLink> styles = new LinkedHashSet<>();
+        final Set<PreloadLink> scripts = new LinkedHashSet<>();
+        final Set<PreloadLink> images = new LinkedHashSet<>();
+        final Matcher tag = TAG.matcher(html);
+        while (tag.find()) {
+            final String name = tag.group(1).toLowerCase(Locale.ROOT);
+            final Map<String, String> attributes = parseAttributes(tag.group(2));
+            if ("script".equals(name)) {
+                add(scripts, base, attributes.get("src"), PreloadLink.AS_SCRIPT, null, pagePrefixes);
+            } else if ("link".equals(name)) {
+                if ("stylesheet".equalsIgnoreCase(StringUtils.trim(attributes.get("rel")))) {
+                    add(styles, base, attributes.get("href"), PreloadLink.AS_STYLE, null, pagePrefixes);
+                }
+            } else if ("img".equals(name)) {
+                add(images, base, attributes.get("src"), PreloadLink.AS_IMAGE, null, pagePrefixes);
+            } else if (StringUtils.contains(attributes.get("class"), "cmp-image")) {
+                addRenditions(images, base, attributes.get("data-cmp-src"), attributes.get("data-cmp-widths"), pagePrefixes);
+            }
+        }
+        final List<PreloadLink> links = new ArrayList<>(styles);
+        links.addAll(scripts);
+        links.addAll(images);
+        return links;
+    }
+
+    private static void addRenditions(Set<PreloadLink> images, URI base, String src, String widths,
+                                      String[] pagePrefixes) {
+        if (StringUtils.isBlank(src)) {
+            return;
+        }
+        if (StringUtils.isBlank(widths)) {
+            // happens with SVG and GIFs
+            add(images, base, src.replace(WIDTH_PLACEHOLDER, ""), PreloadLink.AS_IMAGE, null, pagePrefixes);
+            return;
+        }
+        final StringBuilder srcset = new StringBuilder();
+        String smallest = null;
+        for (String width : StringUtils.split(widths, ',')) {
+            final String trimmed = width.trim();
+            final String href = resolve(base, src.replace(WIDTH_PLACEHOLDER, "." + trimmed), pagePrefixes);
+            if (href == null) {
+                return;
+            }
+            if (smallest == null) {
+                smallest = href;
+            } else {
+                srcset.append(", ");
+            }
+            srcset.append(href).append(' ').append(trimmed).append('w');
+        }
+        if (smallest != null) {
+            images.add(new PreloadLink(smallest, PreloadLink.AS_IMAGE, srcset.toString()));
+        }
+    }
+
+    private static void add(Set<PreloadLink> links, URI base, String ref, String as, String srcset,
+                            String[] pagePrefixes) {
+        final String href = resolve(base, ref, pagePrefixes);
+        if (href != null) {
+            links.add(new PreloadLink(href, as, srcset));
+        }
+    }
+
+    /**
+     * @return the reference resolved to an absolute path, or null if it is empty, of another
+     *         origin or below the page
+     */
+    private static String resolve(URI base, String ref, String[] pagePrefixes) {
+        if (StringUtils.isBlank(ref)) {
+            return null;
+        }
+        final URI resolved;
+        try {
+            resolved = base.resolve(new URI(ref.trim().replace("&amp;", "&")));
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+        if (resolved.getScheme() != null || resolved.getRawAuthority() != null || resolved.getRawPath() == null) {
+            return null;
+        }
+        final String path = resolved.getRawPath();
+        for (String prefix : pagePrefixes) {
+            if (path.startsWith(prefix + "/") || path.startsWith(prefix + ".")) {
+                return null;
+            }
+        }
+        return resolved.toString();
+    }
+
+    private static Map<String, String> parseAttributes(String attributes) {
+        final Map<String, String> values = new HashMap<>();
+        final Matcher attribute = ATTRIBUTE.matcher(attributes);
+        while (attribute.find()) {
+            String value = attribute.group(2);
+            if (value == null) {
+                value = attribute.group(3) != null ? attribute.group(3) : attribute.group(4);
+            }
+            values.putIfAbsent(attribute.group(1).toLowerCase(Locale.ROOT), value);
+        }
+        return values;
+    }
+}
@@ -22,18 +22,30 @@ import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.resource.Resource;
 import org.apache.sling.engine.EngineConstants;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.osgi.service.component.propertytypes.ServiceDescription;
 import org.osgi.service.component.propertytypes.ServiceRanking;
 import org.osgi.service.component.propertytypes.ServiceVendor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.aem.guides.wknd.core.logging.AccessLog;
+import com.adobe.aem.guides.wknd.core.metrics.RequestTimingRegistry;
+
 /**
- * Simple servlet filter component that logs incoming requests.
+ * Request filter that logs incoming requests and records their end-to-end latency
+ * in the {@link RequestTimingRegistry}, per resource type and per selector and extension.
+ * When an asynchronous {@link AccessLog} is configured, finished requests are handed to it
+ * instead of being logged on the request thread.
  */
 @Component(service = Filter.class,
            property = {
@@ -44,18 +56,42 @@ import org.slf4j.LoggerFactory;
 @ServiceVendor("Adobe")
 public class LoggingFilter implements Filter {
 
+    private static final String NONE = "(none)";
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile RequestTimingRegistry timingRegistry;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile AccessLog accessLog;
+
     @Override
     public void doFilter(final ServletRequest request, final ServletResponse response,
                          final FilterChain filterChain) throws IOException, ServletException {
 
         final SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
-        logger.debug("request for {}, with selector {}", slingRequest
-                .getRequestPathInfo().getResourcePath(), slingRequest
-                .getRequestPathInfo().getSelectorString());
+        final AccessLog asyncLog = accessLog;
+        if (asyncLog == null && logger.isDebugEnabled()) {
+            logger.debug("request for {}, with selector {}", slingRequest
+                    .getRequestPathInfo().getResourcePath(), slingRequest
+                    .getRequestPathInfo().getSelectorString());
+        }
 
-        filterChain.doFilter(request, response);
+        final long startMillis = asyncLog != null ? System.currentTimeMillis() : 0;
+        final long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            final long duration = System.nanoTime() - start;
+            final RequestTimingRegistry registry = timingRegistry;
+            if (registry != null) {
+                registry.record(getResourceType(slingRequest), getSelectorsAndExtension(slingRequest), duration);
+            }
+            if (asyncLog != null) {
+                asyncLog.log(slingRequest, ((HttpServletResponse) response).getStatus(), startMillis, duration);
+            }
+        }
     }
 
     @Override
@@ -66,4 +102,19 @@ public class LoggingFilter implements Filter {
     public void destroy() {
     }
 
+    private static String getResourceType(SlingHttpServletRequest request) {
+        final Resource resource = request.getResource();
+        return resource != null ? resource.getResourceType() : NONE;
+    }
+
+    private static String getSelectorsAndExtension(SlingHttpServletRequest request) {
+        final RequestPathInfo pathInfo = request.getRequestPathInfo();
+        final String selectors = pathInfo.getSelectorString();
+        final String extension = pathInfo.getExtension();
+        if (selectors == null) {
+            return extension != null ? extension : NONE;
+        }
+        return selectors + "." + extension;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.util.Objects;
+
+/**
+ * A resource to preload, as the value of a <code>Link</code> header. Immutable.
+ */
+final class PreloadLink {
+
+    static final String AS_STYLE = "style";
+
+    static final String AS_SCRIPT = "script";
+
+    static final String AS_IMAGE = "image";
+
+    private final String href;
+
+    private final String as;
+
+    private final String imageSrcset;
+
+    /**
+     * @param href the URI reference of the resource
+     * @param as the destination of the resource, one of the <code>AS_</code> constants
+     * @param imageSrcset the responsive renditions of an image, or null
+     */
+    PreloadLink(String href, String as, String imageSrcset) {
+        this.href = href;
+        this.as = as;
+        this.imageSrcset = imageSrcset;
+    }
+
+    String getHref() {
+        return href;
+    }
+
+    String getAs() {
+        return as;
+    }
+
+    String getImageSrcset() {
+        return imageSrcset;
+    }
+
+    /**
+     * @return the value of the <code>Link</code> header
+     */
+    String toHeaderValue() {
+        final StringBuilder value = new StringBuilder()
+                .append('<').append(href).append(">; rel=preload; as=").append(as);
+        if (imageSrcset != null) {
+            value.append("; imagesrcset=\"").append(imageSrcset).append('"');
+        }
+        return value.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PreloadLink)) {
+            return false;
+        }
+        final PreloadLink other = (PreloadLink) o;
+        return href.equals(other.href) && as.equals(other.as) && Objects.equals(imageSrcset, other.imageSrcset);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(href, as, imageSrcset);
+    }
+
+    @Override
+    public String toString() {
+        return toHeaderValue();
+    }
+}
@@ -0,0 +1,209 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.component.propertytypes.ServiceVendor;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.day.cq.wcm.api.NameConstants;
+import com.day.cq.wcm.api.WCMMode;
+
+/**
+ * Request filter that sends <code>Link: rel=preload</code> headers for the critical resources
+ * of HTML pages, before the page is rendered, so that the browser, or a CDN turning the
+ * headers into <code>103 Early Hints</code>, can fetch them while the markup is produced.
+ * <p>
+ * The resources are learned per page template: the first page of a template, and the first
+ * page after the learned set expired, is rendered into a buffer and scanned by the
+ * {@link CriticalResourceExtractor}. Only one request learns a template at a time; the
+ * others send the links learned before, if any.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_REQUEST,
+           })
+@Designate(ocd = PreloadLinkFilter.Config.class)
+@ServiceDescription("Sends preload links for the critical resources of page templates")
+@ServiceRanking(-700)
+@ServiceVendor("Adobe")
+public class PreloadLinkFilter implements Filter {
+
+    static final String HEADER_LINK = "Link";
+
+    @ObjectClassDefinition(name = "WKND Preload Link Filter",
+                           description = "Learns the critical resources of each page template and sends them as preload links")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Enabled", description = "Send preload links for HTML pages")
+        boolean enabled() default true;
+
+        @AttributeDefinition(name = "Maximum links", description = "Preload links sent per page")
+        int max_links() default 10;
+
+        @AttributeDefinition(name = "Maximum images", description = "Images among the preload links, the first ones of the page")
+        int max_images() default 2;
+
+        @AttributeDefinition(name = "Relearn interval (s)", description = "Age after which the resources of a template are learned again, e.g. for new clientlib versions")
+        long relearn_interval_seconds() default 3600;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, LearnedResources> templates = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    private volatile int maxLinks;
+
+    private volatile int maxImages;
+
+    private volatile long relearnIntervalMillis;
+
+    @Activate
+    @Modified
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        maxLinks = config.max_links();
+        maxImages = config.max_images();
+        relearnIntervalMillis = TimeUnit.SECONDS.toMillis(config.relearn_interval_seconds());
+        templates.clear();
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
+        final String template = enabled && isPageRequest(slingRequest) ? getTemplate(slingRequest.getResource()) : null;
+        if (template == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final SlingHttpServletResponse slingResponse = (SlingHttpServletResponse) response;
+        final LearnedResources learned = templates.computeIfAbsent(template, t -> new LearnedResources());
+        for (PreloadLink link : learned.links) {
+            slingResponse.addHeader(HEADER_LINK, link.toHeaderValue());
+        }
+        if (!learned.isDue(System.currentTimeMillis(), relearnIntervalMillis) || !learned.learning.compareAndSet(false, true)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            final BufferingResponseWrapper bufferingResponse = new BufferingResponseWrapper(slingResponse);
+            filterChain.doFilter(request, bufferingResponse);
+            final String content = bufferingResponse.getBufferedContent();
+            if (bufferingResponse.isComplete() && StringUtils.startsWith(slingResponse.getContentType(), "text/html")) {
+                learn(template, content, slingRequest);
+            }
+            if (!content.isEmpty()) {
+                slingResponse.getWriter().write(content);
+            }
+        } finally {
+            learned.learning.set(false);
+        }
+    }
+
+    private void learn(String template, String html, SlingHttpServletRequest request) {
+        final String requestUri = request.getRequestURI();
+        final String pagePath = request.getResource().getPath();
+        final List<PreloadLink> links = select(CriticalResourceExtractor.extract(html, requestUri,
+                pagePath, StringUtils.substringBeforeLast(requestUri, ".")));
+        templates.put(template, new LearnedResources(links, System.currentTimeMillis()));
+        logger.debug("Learned {} preload links for template {} from {}", links.size(), template, pagePath);
+    }
+
+    private List<PreloadLink> select(List<PreloadLink> candidates) {
+        final List<PreloadLink> links = new ArrayList<>();
+        int images = 0;
+        for (PreloadLink link : candidates) {
+            if (links.size() >= maxLinks) {
+                break;
+            }
+            if (PreloadLink.AS_IMAGE.equals(link.getAs()) && images++ >= maxImages) {
+                continue;
+            }
+            links.add(link);
+        }
+        return Collections.unmodifiableList(links);
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    private static boolean isPageRequest(SlingHttpServletRequest request) {
+        return HttpConstants.METHOD_GET.equals(request.getMethod())
+                && "html".equals(request.getRequestPathInfo().getExtension())
+                && WCMMode.fromRequest(request) == WCMMode.DISABLED;
+    }
+
+    /**
+     * @return the template of the page resource or of the content of a page, or null for other resources
+     */
+    private static String getTemplate(Resource resource) {
+        final Resource content = NameConstants.NN_CONTENT.equals(resource.getName())
+                ? resource : resource.getChild(NameConstants.NN_CONTENT);
+        return content != null ? content.getValueMap().get(NameConstants.PN_TEMPLATE, String.class) : null;
+    }
+
+    /**
+     * Preload links learned for a template. A new instance replaces the previous one after
+     * each learning, so the links can be read without locking.
+     */
+    private static final class LearnedResources {
+
+        private final List<PreloadLink> links;
+
+        private final long learnedMillis;
+
+        private final AtomicBoolean learning = new AtomicBoolean();
+
+        LearnedResources() {
+            this(Collections.emptyList(), 0);
+        }
+
+        LearnedResources(List<PreloadLink> links, long learnedMillis) {
+            this.links = links;
+            this.learnedMillis = learnedMillis;
+        }
+
+        boolean isDue(long nowMillis, long intervalMillis) {
+            return learnedMillis == 0 || nowMillis - learnedMillis >= intervalMillis;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.component.propertytypes.ServiceVendor;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.RequestProfile;
+
+/**
+ * Component filter that times every resource inclusion, e.g. <code>data-sly-resource</code>,
+ * of requests profiled by the {@link ProfilingFilter}. Runs before all other component filters,
+ * so cached fragments show up as inclusions with no children.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_COMPONENT,
+           })
+@ServiceDescription("Times resource inclusions of profiled requests")
+@ServiceRanking(Integer.MAX_VALUE)
+@ServiceVendor("Adobe")
+public class ProfilingComponentFilter implements Filter {
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final RequestProfile profile = RequestProfile.from(request);
+        if (profile == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final Resource resource = ((SlingHttpServletRequest) request).getResource();
+        final RequestProfile.Node node = profile.enter(RequestProfile.KIND_RESOURCE,
+                resource.getPath() + " [" + resource.getResourceType() + "]");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            profile.exit(node);
+        }
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
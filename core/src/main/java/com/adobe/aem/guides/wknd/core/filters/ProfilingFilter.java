@@ -0,0 +1,115 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.component.propertytypes.ServiceVendor;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.RequestProfile;
+
+/**
+ * Request filter that profiles requests on demand. When profiling is enabled, requests with the
+ * <code>profile</code> selector or the {@value #HEADER} request header get a {@link RequestProfile};
+ * the response is buffered so the profile summary can be sent in the {@value #HEADER} response header.
+ * With the selector, HTML responses also get the full inclusion tree appended as an HTML comment.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_REQUEST,
+           })
+@Designate(ocd = ProfilingFilter.Config.class)
+@ServiceDescription("Profiles model adaptations and inclusions of a request")
+@ServiceRanking(-680)
+@ServiceVendor("Adobe")
+public class ProfilingFilter implements Filter {
+
+    @ObjectClassDefinition(name = "WKND Request Profiler",
+                           description = "Times HTL uses, resource inclusions and model adaptations of selected requests")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Enabled",
+                             description = "Allow profiling with the profile selector or the X-WKND-Profile request header")
+        boolean enabled() default false;
+
+        @AttributeDefinition(name = "Summary entries", description = "Number of entries in the response header summary")
+        int summary_entries() default 10;
+    }
+
+    static final String HEADER = "X-WKND-Profile";
+
+    static final String SELECTOR = "profile";
+
+    private volatile boolean enabled;
+
+    private volatile int summaryEntries;
+
+    @Activate
+    @Modified
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        summaryEntries = config.summary_entries();
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
+        final boolean selected = ArrayUtils.contains(slingRequest.getRequestPathInfo().getSelectors(), SELECTOR);
+        if (!enabled || !(selected || slingRequest.getHeader(HEADER) != null)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final RequestProfile profile = new RequestProfile(slingRequest.getMethod() + " " + slingRequest.getRequestURI());
+        request.setAttribute(RequestProfile.ATTR_NAME, profile);
+        final BufferingResponseWrapper bufferingResponse =
+                new BufferingResponseWrapper((SlingHttpServletResponse) response);
+        try {
+            filterChain.doFilter(request, bufferingResponse);
+        } finally {
+            profile.finish();
+            request.removeAttribute(RequestProfile.ATTR_NAME);
+        }
+
+        final SlingHttpServletResponse slingResponse = (SlingHttpServletResponse) response;
+        if (!slingResponse.isCommitted()) {
+            slingResponse.setHeader(HEADER, profile.toSummary(summaryEntries));
+        }
+        response.getWriter().write(bufferingResponse.getBufferedContent());
+        final String contentType = response.getContentType();
+        if (selected && contentType != null && contentType.startsWith("text/html")) {
+            final StringBuilder tree = new StringBuilder();
+            profile.writeTree(tree);
+            // "--" must not occur within an HTML comment
+            response.getWriter().write("\n<!-- WKND request profile (total, self)\n"
+                    + tree.toString().replace("--", "- -") + "-->\n");
+        }
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
@@ -0,0 +1,56 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.component.propertytypes.ServiceVendor;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestWatchdog;
+
+/**
+ * Request filter that registers every request with the {@link SlowRequestWatchdog}, which
+ * samples the request thread once the request exceeds its time budget. Runs just before
+ * the {@link LoggingFilter}, so the samples cover the same work as the request timings.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_REQUEST,
+           })
+@ServiceDescription("Watches requests for the slow request sampler")
+@ServiceRanking(-690)
+@ServiceVendor("Adobe")
+public class SlowRequestFilter implements Filter {
+
+    @Reference
+    private SlowRequestWatchdog watchdog;
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
+        try (SlowRequestWatchdog.Watch watch = watchdog.watch(slingRequest.getMethod(), slingRequest.getRequestURI())) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
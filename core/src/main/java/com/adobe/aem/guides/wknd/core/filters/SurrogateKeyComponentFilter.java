@@ -0,0 +1,62 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.component.propertytypes.ServiceVendor;
+
+import com.adobe.aem.guides.wknd.core.cache.SurrogateKeys;
+
+/**
+ * Component filter that adds the page of every resource inclusion, e.g. of an experience
+ * fragment, to the {@link SurrogateKeys} of requests tracked by the {@link SurrogateKeyFilter}.
+ * Runs before the {@link BylineFragmentCacheFilter}, so bylines served from the fragment cache
+ * still add the person they show.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_COMPONENT,
+           })
+@ServiceDescription("Collects the surrogate keys of resource inclusions")
+@ServiceRanking(Integer.MAX_VALUE - 1)
+@ServiceVendor("Adobe")
+public class SurrogateKeyComponentFilter implements Filter {
+
+    /** Byline property with the name of the shown person. */
+    private static final String PN_PERSON_NAME = "name";
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final SurrogateKeys keys = SurrogateKeys.from(request);
+        if (keys != null) {
+            final Resource resource = ((SlingHttpServletRequest) request).getResource();
+            keys.add(SurrogateKeys.contentKey(resource.getPath()));
+            if (BylineFragmentCacheFilter.RESOURCE_TYPE.equals(resource.getResourceType())) {
+                SurrogateKeys.addPerson(request, resource.getValueMap().get(PN_PERSON_NAME, String.class));
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
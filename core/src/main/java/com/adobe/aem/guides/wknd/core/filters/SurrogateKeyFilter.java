@@ -0,0 +1,130 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.component.propertytypes.ServiceVendor;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import com.adobe.aem.guides.wknd.core.cache.SurrogateKeys;
+
+/**
+ * Request filter that collects the {@link SurrogateKeys} of GET and HEAD requests for content
+ * below the configured root and sends them in the <code>Surrogate-Key</code> header. The keys
+ * are only known once the response is rendered, so output written to the writer is buffered
+ * until then; responses written to the output stream get the header only if they are not
+ * committed yet. Only the renditions with the configured extensions are tagged, and so
+ * buffered; everything else is passed through.
+ * <p>
+ * The filter is disabled by default and only enabled on publish, where a CDN purges by key.
+ * <p>
+ * Included resources are added by the {@link SurrogateKeyComponentFilter}, models add the
+ * person records they show.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_REQUEST,
+           })
+@Designate(ocd = SurrogateKeyFilter.Config.class)
+@ServiceDescription("Tags responses with the surrogate keys of the content they depend on")
+@ServiceRanking(-650)
+@ServiceVendor("Adobe")
+public class SurrogateKeyFilter implements Filter {
+
+    @ObjectClassDefinition(name = "WKND Surrogate Key Filter",
+                           description = "Sends the keys of the content each response depends on, for purges by key")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Enabled", description = "Collect and send surrogate keys")
+        boolean enabled() default false;
+
+        @AttributeDefinition(name = "Root path", description = "Only requests for resources below this path are tagged")
+        String root_path() default "/content/wknd";
+
+        @AttributeDefinition(name = "Extensions", description = "Only requests with one of these extensions are tagged")
+        String[] extensions() default { "html", "json" };
+
+        @AttributeDefinition(name = "Maximum keys", description = "Keys per response beyond which the response is purged with every change")
+        int max_keys() default 100;
+    }
+
+    private boolean enabled;
+
+    private String rootPath;
+
+    private Set<String> extensions;
+
+    private int maxKeys;
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        rootPath = config.root_path();
+        extensions = new HashSet<>(Arrays.asList(config.extensions()));
+        maxKeys = config.max_keys();
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
+        final String path = slingRequest.getResource().getPath();
+        if (!enabled || !isTracked(slingRequest.getMethod(), path, slingRequest.getRequestPathInfo().getExtension())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final SurrogateKeys keys = new SurrogateKeys(maxKeys);
+        keys.add(SurrogateKeys.contentKey(path));
+        keys.addTree(path);
+        final SlingHttpServletResponse slingResponse = (SlingHttpServletResponse) response;
+        final BufferingResponseWrapper bufferingResponse = new BufferingResponseWrapper(slingResponse);
+        request.setAttribute(SurrogateKeys.ATTR_NAME, keys);
+        try {
+            filterChain.doFilter(request, bufferingResponse);
+        } finally {
+            request.removeAttribute(SurrogateKeys.ATTR_NAME);
+        }
+        if (!slingResponse.isCommitted()) {
+            slingResponse.setHeader(SurrogateKeys.HEADER, keys.toHeaderValue());
+        }
+        final String content = bufferingResponse.getBufferedContent();
+        if (!content.isEmpty()) {
+            slingResponse.getWriter().write(content);
+        }
+    }
+
+    private boolean isTracked(String method, String path, String extension) {
+        return (HttpConstants.METHOD_GET.equals(method) || HttpConstants.METHOD_HEAD.equals(method))
+                && extension != null && extensions.contains(extension)
+                && (path.equals(rootPath) || path.startsWith(rootPath + "/"));
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
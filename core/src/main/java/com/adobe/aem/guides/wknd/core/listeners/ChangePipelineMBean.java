@@ -0,0 +1,40 @@
+package com.adobe.aem.guides.wknd.core.listeners;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of the resource change pipeline.
+ */
+@Description("WKND resource change pipeline")
+public interface ChangePipelineMBean {
+
+    @Description("Number of resource changes waiting to be coalesced")
+    int getQueueDepth();
+
+    @Description("Maximum number of waiting resource changes")
+    int getQueueCapacity();
+
+    @Description("Number of resource changes received")
+    long getReceivedCount();
+
+    @Description("Number of resource changes dropped because the queue was full")
+    long getDroppedCount();
+
+    @Description("Number of batches dispatched to the handlers")
+    long getBatchCount();
+
+    @Description("Number of coalesced changes dispatched to the handlers")
+    long getCoalescedCount();
+
+    @Description("Time from receiving the oldest change of the last batch until all handlers were done with it, in ms")
+    long getLastLagMillis();
+
+    @Description("Largest lag observed, in ms")
+    long getMaxLagMillis();
+
+    @Description("Number of handler invocations that failed")
+    long getHandlerErrorCount();
+
+    @Description("Registered change handlers")
+    String[] getHandlers();
+}
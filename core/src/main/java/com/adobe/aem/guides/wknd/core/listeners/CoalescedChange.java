@@ -0,0 +1,78 @@
+package com.adobe.aem.guides.wknd.core.listeners;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+
+/**
+ * One or more resource changes merged into a change of a single subtree: the resource at the
+ * path and any resource below it may have been changed by any of the change types.
+ */
+public final class CoalescedChange {
+
+    private final String path;
+
+    private final Set<ChangeType> types;
+
+    private final boolean external;
+
+    private final int count;
+
+    public CoalescedChange(String path, Set<ChangeType> types, boolean external, int count) {
+        this.path = path;
+        this.types = Collections.unmodifiableSet(types.isEmpty() ? EnumSet.noneOf(ChangeType.class) : EnumSet.copyOf(types));
+        this.external = external;
+        this.count = count;
+    }
+
+    /**
+     * @return the root of the changed subtree
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the types of the merged changes
+     */
+    public Set<ChangeType> getTypes() {
+        return types;
+    }
+
+    /**
+     * @return true if all merged changes happened on another cluster node
+     */
+    public boolean isExternal() {
+        return external;
+    }
+
+    /**
+     * @return the number of resource changes merged into this change
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param otherPath a path
+     * @return true if the given path is at or below the changed subtree
+     */
+    public boolean covers(String otherPath) {
+        return otherPath.equals(path) || otherPath.startsWith(path.endsWith("/") ? path : path + "/");
+    }
+
+    /**
+     * @param otherPath a path
+     * @return true if the given path is within, above or below the changed subtree
+     */
+    public boolean overlaps(String otherPath) {
+        return covers(otherPath) || path.startsWith(otherPath.endsWith("/") ? otherPath : otherPath + "/");
+    }
+
+    @Override
+    public String toString() {
+        return types + " " + path + " (" + count + ")";
+    }
+}
@@ -0,0 +1,23 @@
+package com.adobe.aem.guides.wknd.core.listeners;
+
+import java.util.List;
+
+/**
+ * Whiteboard service receiving batches of coalesced resource changes from the change pipeline,
+ * off the observation thread. Batches are delivered to one handler in order, one at a time;
+ * different handlers run in parallel. A handler sees the changes that overlap one of its
+ * {@link #PATHS} and contain one of its {@link #CHANGES}.
+ */
+public interface ResourceChangeHandler {
+
+    /** Service property with the paths the handler is interested in, all paths if not set. */
+    String PATHS = "wknd.change.paths";
+
+    /** Service property with the change types the handler is interested in, all types if not set. */
+    String CHANGES = "wknd.change.types";
+
+    /**
+     * @param changes the coalesced changes, sorted by path, no change covering another
+     */
+    void handleChanges(List<CoalescedChange> changes);
+}
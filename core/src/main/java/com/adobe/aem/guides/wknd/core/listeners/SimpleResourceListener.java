@@ -29,9 +29,14 @@ import org.slf4j.LoggerFactory;
  * can be listened for. 
  * Please note, that apart from EventHandler services,
  * the immediate flag should not be set on a service.
+ * Changes that need real processing should be handled by a
+ * {@link ResourceChangeHandler} of the change pipeline, off the observation thread.
  */
 @Component(service = ResourceChangeListener.class,
-           immediate = true
+           immediate = true,
+           property = {
+                   ResourceChangeListener.PATHS + "=/content/wknd"
+           }
 )
 @ServiceDescription("Demo to listen on changes in the resource tree")
 public class SimpleResourceListener implements ResourceChangeListener {
@@ -0,0 +1,129 @@
+package com.adobe.aem.guides.wknd.core.listeners.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+
+/**
+ * Merges resource changes by path prefix: changes of the same path are merged, and changes below
+ * the path of another change are merged into that change. Paths deeper than the maximum depth
+ * are first cut to that depth, so e.g. all changes of one imported record become one change.
+ * <p>
+ * Instances are not thread-safe.
+ */
+final class ChangeCoalescer {
+
+    private final int maxDepth;
+
+    private final Map<String, Merged> changes = new HashMap<>();
+
+    /**
+     * @param maxDepth the maximum number of path segments kept, 0 for no limit
+     */
+    ChangeCoalescer(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    void add(ResourceChange change) {
+        add(truncate(change.getPath()), EnumSet.of(change.getType()), change.isExternal(), 1);
+    }
+
+    void add(String path, Set<ChangeType> types, boolean external, int count) {
+        changes.computeIfAbsent(path, key -> new Merged()).merge(types, external, count);
+    }
+
+    boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    int size() {
+        return changes.size();
+    }
+
+    /**
+     * @return the coalesced changes sorted by path, after which the coalescer is empty
+     */
+    List<CoalescedChange> drain() {
+        final List<String> paths = new ArrayList<>(changes.keySet());
+        // ancestors first, so every path only needs to look for an already kept ancestor
+        paths.sort(Comparator.comparingInt(ChangeCoalescer::depth).thenComparing(Comparator.naturalOrder()));
+        final Map<String, Merged> kept = new HashMap<>();
+        for (String path : paths) {
+            final Merged merged = changes.get(path);
+            final String ancestor = findAncestor(path, kept);
+            if (ancestor != null) {
+                kept.get(ancestor).merge(merged.types, merged.external, merged.count);
+            } else {
+                kept.put(path, merged);
+            }
+        }
+        changes.clear();
+
+        final List<CoalescedChange> result = new ArrayList<>(kept.size());
+        kept.forEach((path, merged) -> result.add(new CoalescedChange(path, merged.types, merged.external, merged.count)));
+        result.sort(Comparator.comparing(CoalescedChange::getPath));
+        return Collections.unmodifiableList(result);
+    }
+
+    private String truncate(String path) {
+        if (maxDepth <= 0) {
+            return path;
+        }
+        int end = 0;
+        for (int depth = 0; depth < maxDepth; depth++) {
+            end = path.indexOf('/', end + 1);
+            if (end < 0) {
+                return path;
+            }
+        }
+        return path.substring(0, end);
+    }
+
+    private static String findAncestor(String path, Map<String, Merged> kept) {
+        if (kept.containsKey("/")) {
+            return "/";
+        }
+        for (int slash = path.lastIndexOf('/'); slash > 0; slash = path.lastIndexOf('/', slash - 1)) {
+            final String ancestor = path.substring(0, slash);
+            if (kept.containsKey(ancestor)) {
+                return ancestor;
+            }
+        }
+        return null;
+    }
+
+    private static int depth(String path) {
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private static final class Merged {
+
+        private final Set<ChangeType> types = EnumSet.noneOf(ChangeType.class);
+
+        private boolean external = true;
+
+        private int count;
+
+        private void merge(Set<ChangeType> otherTypes, boolean otherExternal, int otherCount) {
+            types.addAll(otherTypes);
+            external &= otherExternal;
+            count += otherCount;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.adobe.aem.guides.wknd.core.listeners.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.listeners.ChangePipelineMBean;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * Resource change listener that takes change processing off the observation thread. Changes are
+ * put into a bounded queue; a dispatcher thread waits until no change arrived for the debounce
+ * window (or the maximum delay passed), coalesces the collected changes by path prefix and hands
+ * the batch to the registered {@link ResourceChangeHandler}s on a worker pool.
+ * <p>
+ * When the queue overflows, the dropped changes are unknown, so the next batch contains a change
+ * of every observed path and handlers fall back to invalidating everything they track.
+ * <p>
+ * The observed paths default to <code>/content</code>, as handlers such as the model and page
+ * caches depend on resources outside the site, e.g. experience fragments; each handler only
+ * receives the changes under its own {@link ResourceChangeHandler#PATHS}.
+ */
+@Component(service = { ResourceChangeListener.class, DynamicMBean.class },
+           property = "jmx.objectname=com.adobe.aem.guides.wknd:type=Listeners,name=ChangePipeline")
+@Designate(ocd = ChangePipeline.Config.class)
+@ServiceDescription("Coalesces resource changes and dispatches them to change handlers")
+public class ChangePipeline extends AnnotatedStandardMBean
+        implements ResourceChangeListener, ExternalResourceChangeListener, ChangePipelineMBean {
+
+    @ObjectClassDefinition(name = "WKND Resource Change Pipeline",
+                           description = "Coalesces resource changes and dispatches them asynchronously to change handlers")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Paths", description = "Observed paths, also registered as resource.paths of the listener;"
+                + " must cover the paths of all change handlers")
+        String[] resource_paths() default { "/content" };
+
+        @AttributeDefinition(name = "Change types", description = "Observed change types, also registered as resource.change.types")
+        String[] resource_change_types() default { "ADDED", "CHANGED", "REMOVED" };
+
+        @AttributeDefinition(name = "Queue capacity", description = "Maximum number of changes waiting to be coalesced")
+        int queue_capacity() default 10000;
+
+        @AttributeDefinition(name = "Debounce window (ms)", description = "Quiet time after which collected changes are dispatched")
+        long debounce_ms() default 500;
+
+        @AttributeDefinition(name = "Maximum delay (ms)", description = "Longest time a change waits for its batch to be dispatched")
+        long max_delay_ms() default 5000;
+
+        @AttributeDefinition(name = "Maximum depth", description = "Number of path segments changes are coalesced to, 0 for no limit")
+        int max_depth() default 0;
+
+        @AttributeDefinition(name = "Worker threads", description = "Number of threads running the change handlers")
+        int worker_threads() default 2;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<ResourceChangeHandler, HandlerRegistration> handlers = new ConcurrentHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong lastLag = new AtomicLong();
+
+    private final AtomicLong maxLag = new AtomicLong();
+
+    private final AtomicLong handlerErrors = new AtomicLong();
+
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    private Config config;
+
+    private BlockingQueue<Received> queue = new ArrayBlockingQueue<>(1);
+
+    private ExecutorService workers;
+
+    private Thread dispatcher;
+
+    private volatile boolean running;
+
+    public ChangePipeline() throws NotCompliantMBeanException {
+        super(ChangePipelineMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        this.config = config;
+        queue = new ArrayBlockingQueue<>(Math.max(1, config.queue_capacity()));
+        final AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, config.worker_threads()), runnable -> {
+            final Thread thread = new Thread(runnable, "wknd-change-handler-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "wknd-change-pipeline");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Reference(service = ResourceChangeHandler.class,
+               cardinality = ReferenceCardinality.MULTIPLE,
+               policy = ReferencePolicy.DYNAMIC)
+    protected void bindHandler(ResourceChangeHandler handler, Map<String, Object> properties) {
+        handlers.put(handler, new HandlerRegistration(handler, properties));
+    }
+
+    protected void unbindHandler(ResourceChangeHandler handler) {
+        handlers.remove(handler);
+    }
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        final long now = System.nanoTime();
+        for (ResourceChange change : changes) {
+            received.incrementAndGet();
+            if (!queue.offer(new Received(change, now))) {
+                dropped.incrementAndGet();
+                overflowed.set(true);
+            }
+        }
+    }
+
+    /**
+     * Collects and dispatches batches until the pipeline is deactivated.
+     */
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                dispatchNextBatch(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Cannot dispatch resource changes", e);
+            }
+        }
+        // hand over what is left, without waiting for more
+        Thread.interrupted();
+        try {
+            dispatchNextBatch(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for a change, collects further changes until the debounce window passed without
+     * a change or the maximum delay is reached, and dispatches the coalesced batch.
+     *
+     * @param wait false to only dispatch the changes already queued
+     * @return the futures completing when every handler is done with the batch
+     * @throws InterruptedException if interrupted while waiting
+     */
+    List<CompletableFuture<Void>> dispatchNextBatch(boolean wait) throws InterruptedException {
+        final ChangeCoalescer coalescer = new ChangeCoalescer(config.max_depth());
+        Received first = wait ? queue.take() : queue.poll();
+        if (first == null && !overflowed.get()) {
+            return Collections.emptyList();
+        }
+        final long oldest = first != null ? first.receivedNanos : System.nanoTime();
+        final long deadline = oldest + TimeUnit.MILLISECONDS.toNanos(config.max_delay_ms());
+        while (first != null) {
+            coalescer.add(first.change);
+            final long remaining = Math.min(TimeUnit.MILLISECONDS.toNanos(config.debounce_ms()), deadline - System.nanoTime());
+            first = wait && remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+        }
+        if (overflowed.getAndSet(false)) {
+            logger.warn("Resource change queue overflowed, {} changes dropped in total; dispatching changes of all observed paths",
+                    dropped.get());
+            for (String path : config.resource_paths()) {
+                coalescer.add(path, EnumSet.allOf(ChangeType.class), false, 0);
+            }
+        }
+        return dispatch(coalescer.drain(), oldest);
+    }
+
+    private List<CompletableFuture<Void>> dispatch(List<CoalescedChange> changes, long oldestNanos) {
+        batches.incrementAndGet();
+        coalesced.addAndGet(changes.size());
+        final List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (HandlerRegistration registration : handlers.values()) {
+            final List<CoalescedChange> relevant = changes.stream()
+                    .filter(registration::accepts)
+                    .collect(Collectors.toList());
+            if (!relevant.isEmpty()) {
+                done.add(registration.submit(Collections.unmodifiableList(relevant)));
+            }
+        }
+        CompletableFuture.allOf(done.toArray(new CompletableFuture[0])).whenComplete((result, error) -> {
+            final long lag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestNanos);
+            lastLag.set(lag);
+            maxLag.accumulateAndGet(lag, Math::max);
+        });
+        return done;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    @Override
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    @Override
+    public long getLastLagMillis() {
+        return lastLag.get();
+    }
+
+    @Override
+    public long getMaxLagMillis() {
+        return maxLag.get();
+    }
+
+    @Override
+    public long getHandlerErrorCount() {
+        return handlerErrors.get();
+    }
+
+    @Override
+    public String[] getHandlers() {
+        return handlers.values().stream().map(HandlerRegistration::toString).sorted().toArray(String[]::new);
+    }
+
+    private static final class Received {
+
+        private final ResourceChange change;
+
+        private final long receivedNanos;
+
+        private Received(ResourceChange change, long receivedNanos) {
+            this.change = change;
+            this.receivedNanos = receivedNanos;
+        }
+    }
+
+    /**
+     * A handler with its filters and the tail of its batches, which keeps its batches in order.
+     */
+    private final class HandlerRegistration {
+
+        private final ResourceChangeHandler handler;
+
+        private final List<String> paths;
+
+        private final Set<ChangeType> types = EnumSet.noneOf(ChangeType.class);
+
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        private HandlerRegistration(ResourceChangeHandler handler, Map<String, Object> properties) {
+            this.handler = handler;
+            this.paths = Arrays.asList(toArray(properties.get(ResourceChangeHandler.PATHS)));
+            for (String type : toArray(properties.get(ResourceChangeHandler.CHANGES))) {
+                types.add(ChangeType.valueOf(type));
+            }
+        }
+
+        private boolean accepts(CoalescedChange change) {
+            return (paths.isEmpty() || paths.stream().anyMatch(change::overlaps))
+                    && (types.isEmpty() || !Collections.disjoint(types, change.getTypes()));
+        }
+
+        private synchronized CompletableFuture<Void> submit(List<CoalescedChange> changes) {
+            tail = tail.thenRunAsync(() -> {
+                try {
+                    handler.handleChanges(changes);
+                } catch (RuntimeException e) {
+                    handlerErrors.incrementAndGet();
+                    logger.error("Change handler {} failed", handler.getClass().getName(), e);
+                }
+            }, workers);
+            return tail;
+        }
+
+        @Override
+        public String toString() {
+            return handler.getClass().getName() + " " + paths + " " + types;
+        }
+
+        private String[] toArray(Object value) {
+            if (value instanceof String[]) {
+                return (String[]) value;
+            }
+            return value != null ? new String[] { value.toString() } : new String[0];
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.adobe.aem.guides.wknd.core.logging;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+
+/**
+ * Access log that takes the logging work off the request thread.
+ */
+public interface AccessLog {
+
+    /**
+     * Records a finished request. Implementations must not block the calling thread.
+     *
+     * @param request the request
+     * @param status the response status
+     * @param startMillis the start of the request in epoch milliseconds
+     * @param durationNanos the duration of the request
+     */
+    void log(SlingHttpServletRequest request, int status, long startMillis, long durationNanos);
+}
@@ -0,0 +1,25 @@
+package com.adobe.aem.guides.wknd.core.logging;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of the asynchronous {@link AccessLog}.
+ */
+@Description("WKND asynchronous access log")
+public interface AccessLogMBean {
+
+    @Description("Number of records the ring buffer can hold")
+    int getCapacity();
+
+    @Description("Fraction of requests that are logged")
+    double getSamplingRate();
+
+    @Description("Number of records waiting to be written")
+    long getPendingCount();
+
+    @Description("Number of records written to the log")
+    long getWrittenCount();
+
+    @Description("Number of sampled records dropped because the ring buffer was full")
+    long getDroppedCount();
+}
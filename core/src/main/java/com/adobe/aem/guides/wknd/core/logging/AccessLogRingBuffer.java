@@ -0,0 +1,186 @@
+package com.adobe.aem.guides.wknd.core.logging;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free ring buffer of fixed-size access log records for many producers and a
+ * single consumer. All record storage is preallocated, so {@link #offer} does not allocate:
+ * strings are copied into per-slot character ranges and truncated to their maximum length.
+ * Slots are claimed with a CAS on the producer sequence and published through a per-slot
+ * sequence number (Vyukov's bounded queue); a full buffer drops the record and counts it.
+ * <p>
+ * {@link #poll} must only be called from one thread at a time.
+ */
+public final class AccessLogRingBuffer {
+
+    static final int MAX_METHOD = 8;
+
+    static final int MAX_PATH = 256;
+
+    static final int MAX_SELECTOR = 64;
+
+    private static final char TRUNCATED = '\u2026';
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile long head;
+
+    private final long[] timestamps;
+
+    private final long[] durations;
+
+    private final int[] statuses;
+
+    private final char[] methods;
+
+    private final int[] methodLengths;
+
+    private final char[] paths;
+
+    private final int[] pathLengths;
+
+    private final char[] selectors;
+
+    private final int[] selectorLengths;
+
+    /**
+     * @param requestedCapacity the minimum number of records, rounded up to a power of two
+     */
+    public AccessLogRingBuffer(int requestedCapacity) {
+        capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) * 2 - 1);
+        mask = capacity - 1;
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        timestamps = new long[capacity];
+        durations = new long[capacity];
+        statuses = new int[capacity];
+        methods = new char[capacity * MAX_METHOD];
+        methodLengths = new int[capacity];
+        paths = new char[capacity * MAX_PATH];
+        pathLengths = new int[capacity];
+        selectors = new char[capacity * MAX_SELECTOR];
+        selectorLengths = new int[capacity];
+    }
+
+    /**
+     * Adds a record without blocking and without allocating.
+     *
+     * @param timestamp the start of the request in epoch milliseconds
+     * @param method the request method
+     * @param path the resource path
+     * @param selectorString the selectors, may be null
+     * @param extension the extension, may be null
+     * @param status the response status
+     * @param durationNanos the duration of the request
+     * @return false if the buffer was full and the record was dropped
+     */
+    public boolean offer(long timestamp, String method, String path, String selectorString, String extension,
+                         int status, long durationNanos) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        timestamps[index] = timestamp;
+        durations[index] = durationNanos;
+        statuses[index] = status;
+        methodLengths[index] = copy(method, methods, index * MAX_METHOD, MAX_METHOD);
+        pathLengths[index] = copy(path, paths, index * MAX_PATH, MAX_PATH);
+        int selectorLength = copy(selectorString, selectors, index * MAX_SELECTOR, MAX_SELECTOR);
+        if (extension != null && selectorLength < MAX_SELECTOR) {
+            if (selectorLength > 0) {
+                selectors[index * MAX_SELECTOR + selectorLength++] = '.';
+            }
+            selectorLength += copy(extension, selectors, index * MAX_SELECTOR + selectorLength,
+                    MAX_SELECTOR - selectorLength);
+        }
+        selectorLengths[index] = selectorLength;
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest record and appends it to the given line as
+     * <code>timestamp method path selectors.extension status durationMicros</code>.
+     *
+     * @param line the line to append to
+     * @return false if there was no record to remove
+     */
+    public boolean poll(StringBuilder line) {
+        final int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return false;
+        }
+        line.append(Instant.ofEpochMilli(timestamps[index])).append(' ')
+                .append(methods, index * MAX_METHOD, methodLengths[index]).append(' ')
+                .append(paths, index * MAX_PATH, pathLengths[index]).append(' ');
+        if (selectorLengths[index] > 0) {
+            line.append(selectors, index * MAX_SELECTOR, selectorLengths[index]);
+        } else {
+            line.append('-');
+        }
+        line.append(' ').append(statuses[index])
+                .append(' ').append(TimeUnit.NANOSECONDS.toMicros(durations[index])).append("us");
+        sequences.lazySet(index, head + capacity);
+        head++;
+        return true;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of records dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the approximate number of records waiting for the consumer
+     */
+    public long getPendingCount() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    private static int copy(String value, char[] target, int offset, int maxLength) {
+        if (value == null) {
+            return 0;
+        }
+        final int length = value.length();
+        if (length <= maxLength) {
+            value.getChars(0, length, target, offset);
+            return length;
+        }
+        value.getChars(0, maxLength - 1, target, offset);
+        target[offset + maxLength - 1] = TRUNCATED;
+        return maxLength;
+    }
+}
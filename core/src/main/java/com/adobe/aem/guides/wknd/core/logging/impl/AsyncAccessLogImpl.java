@@ -0,0 +1,173 @@
+package com.adobe.aem.guides.wknd.core.logging.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.logging.AccessLog;
+import com.adobe.aem.guides.wknd.core.logging.AccessLogMBean;
+import com.adobe.aem.guides.wknd.core.logging.AccessLogRingBuffer;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * {@link AccessLog} that hands sampled requests to an {@link AccessLogRingBuffer}; a single
+ * background thread formats the records and writes them to the access logger. Requires a
+ * configuration, so the asynchronous mode of the logging filter is only active when configured.
+ * <p>
+ * An idle consumer parks for progressively longer, up to {@link #MAX_IDLE_NANOS}, and the
+ * first record offered while it is parked unparks it, so an idle instance does not wake up
+ * every millisecond and a record is still written right away.
+ */
+@Component(service = { AccessLog.class, DynamicMBean.class },
+           configurationPolicy = ConfigurationPolicy.REQUIRE,
+           property = "jmx.objectname=com.adobe.aem.guides.wknd:type=Logging,name=AccessLog")
+@Designate(ocd = AsyncAccessLogImpl.Config.class)
+@ServiceDescription("Writes sampled access log records in the background")
+public class AsyncAccessLogImpl extends AnnotatedStandardMBean implements AccessLog, AccessLogMBean {
+
+    @ObjectClassDefinition(name = "WKND Asynchronous Access Log",
+                           description = "Logs sampled requests from a background thread instead of the request thread")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Buffer size", description = "Number of records buffered, rounded up to a power of two")
+        int buffer_size() default 8192;
+
+        @AttributeDefinition(name = "Sampling rate", description = "Fraction of requests to log, between 0 and 1")
+        double sampling_rate() default 1.0;
+
+        @AttributeDefinition(name = "Logger", description = "Name of the logger the records are written to")
+        String logger_name() default "com.adobe.aem.guides.wknd.accesslog";
+    }
+
+    private static final int LINE_CAPACITY = 512;
+
+    private static final long MIN_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final long DROP_REPORT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final AtomicLong written = new AtomicLong();
+
+    private volatile AccessLogRingBuffer buffer;
+
+    private volatile double samplingRate;
+
+    private volatile boolean running;
+
+    private volatile boolean idle;
+
+    private Logger accessLogger;
+
+    private volatile Thread consumer;
+
+    public AsyncAccessLogImpl() throws NotCompliantMBeanException {
+        super(AccessLogMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        buffer = new AccessLogRingBuffer(config.buffer_size());
+        samplingRate = Math.min(1, Math.max(0, config.sampling_rate()));
+        accessLogger = LoggerFactory.getLogger(config.logger_name());
+        running = true;
+        consumer = new Thread(this::consume, "wknd-access-log");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void log(SlingHttpServletRequest request, int status, long startMillis, long durationNanos) {
+        if (samplingRate < 1 && ThreadLocalRandom.current().nextDouble() >= samplingRate) {
+            return;
+        }
+        final RequestPathInfo pathInfo = request.getRequestPathInfo();
+        if (buffer.offer(startMillis, request.getMethod(), pathInfo.getResourcePath(),
+                pathInfo.getSelectorString(), pathInfo.getExtension(), status, durationNanos) && idle) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return buffer.getCapacity();
+    }
+
+    @Override
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    @Override
+    public long getPendingCount() {
+        return buffer.getPendingCount();
+    }
+
+    @Override
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return buffer.getDroppedCount();
+    }
+
+    private void consume() {
+        final StringBuilder line = new StringBuilder(LINE_CAPACITY);
+        long reportedDrops = 0;
+        long lastReport = System.nanoTime();
+        long idleNanos = MIN_IDLE_NANOS;
+        while (true) {
+            line.setLength(0);
+            if (buffer.poll(line)) {
+                accessLogger.info(line.toString());
+                written.incrementAndGet();
+                idleNanos = MIN_IDLE_NANOS;
+                continue;
+            }
+            if (!running) {
+                break;
+            }
+            final long drops = buffer.getDroppedCount();
+            if (drops != reportedDrops && System.nanoTime() - lastReport > DROP_REPORT_NANOS) {
+                logger.warn("Dropped {} access log records as the buffer was full", drops - reportedDrops);
+                reportedDrops = drops;
+                lastReport = System.nanoTime();
+            }
+            // a record offered after the check sees the flag and unparks the consumer
+            idle = true;
+            if (running && buffer.getPendingCount() == 0) {
+                LockSupport.parkNanos(idleNanos);
+                idleNanos = Math.min(idleNanos * 2, MAX_IDLE_NANOS);
+            }
+            idle = false;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.adobe.aem.guides.wknd.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets in the style of HdrHistogram.
+ * Values are recorded in microseconds. Values below 32&micro;s get a bucket of their own,
+ * above that every power of two is split into 16 linear buckets, which bounds the relative
+ * error of reported percentiles to about 6%. Values above one hour are counted as one hour.
+ * <p>
+ * Recording is wait-free apart from the maximum update and allocates nothing; reads are not
+ * atomic snapshots, which is acceptable for monitoring.
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR_BITS = 5;
+
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS / 2;
+
+    private static final long MAX_VALUE = TimeUnit.HOURS.toMicros(1);
+
+    private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param durationNanos the duration to record, in nanoseconds
+     */
+    public void record(long durationNanos) {
+        final long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(durationNanos), 0), MAX_VALUE);
+        counts.incrementAndGet(indexOf(micros));
+        count.increment();
+        total.add(micros);
+        if (micros > max.get()) {
+            max.accumulateAndGet(micros, Math::max);
+        }
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the mean of the recorded values in microseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        final long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * @return the largest recorded value in microseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile in microseconds,
+     *         capped by the largest recorded value, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        final long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * n));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= rank) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indexOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(micros) - (LINEAR_BITS - 1);
+        final int subBucket = (int) (micros >>> shift) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        final int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        final long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
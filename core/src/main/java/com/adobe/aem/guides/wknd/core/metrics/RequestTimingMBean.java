@@ -0,0 +1,28 @@
+package com.adobe.aem.guides.wknd.core.metrics;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of the {@link RequestTimingRegistry}.
+ */
+@Description("WKND request timing")
+public interface RequestTimingMBean {
+
+    @Description("Number of timed requests")
+    long getRequestCount();
+
+    @Description("Timed requests per second since the last reset")
+    double getThroughput();
+
+    @Description("Latency percentiles over all requests")
+    String getTotal();
+
+    @Description("Latency percentiles per resource type, slowest p99 first")
+    String[] getResourceTypes();
+
+    @Description("Latency percentiles per selector and extension, slowest p99 first")
+    String[] getSelectors();
+
+    @Description("Drops all recorded latencies")
+    void reset();
+}
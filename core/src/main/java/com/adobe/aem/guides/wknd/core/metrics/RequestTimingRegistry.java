@@ -0,0 +1,41 @@
+package com.adobe.aem.guides.wknd.core.metrics;
+
+import java.util.List;
+
+/**
+ * Collects request latencies per resource type and per selector and extension.
+ * The number of distinct keys per dimension is bounded; once the bound is reached,
+ * further keys are recorded under {@link #OTHER}.
+ */
+public interface RequestTimingRegistry {
+
+    /** Key collecting the latencies of keys beyond the cardinality bound. */
+    String OTHER = "(other)";
+
+    /**
+     * @param resourceType the resource type of the request
+     * @param selectorsAndExtension the selectors and extension of the request, e.g. <code>model.json</code>
+     * @param durationNanos the end-to-end duration of the request
+     */
+    void record(String resourceType, String selectorsAndExtension, long durationNanos);
+
+    /**
+     * @return the statistics over all requests
+     */
+    TimingStatistics getTotalStatistics();
+
+    /**
+     * @return the statistics per resource type, slowest p99 first
+     */
+    List<TimingStatistics> getResourceTypeStatistics();
+
+    /**
+     * @return the statistics per selector and extension, slowest p99 first
+     */
+    List<TimingStatistics> getSelectorStatistics();
+
+    /**
+     * Drops all recorded latencies.
+     */
+    void reset();
+}
@@ -0,0 +1,75 @@
+package com.adobe.aem.guides.wknd.core.metrics;
+
+import java.util.Locale;
+
+/**
+ * Immutable summary of a {@link LatencyHistogram}. Latencies are in milliseconds,
+ * the throughput is in requests per second.
+ */
+public final class TimingStatistics {
+
+    private static final double MICROS_PER_MILLI = 1000d;
+
+    private final String key;
+    private final long count;
+    private final double throughput;
+    private final double mean;
+    private final double p50;
+    private final double p95;
+    private final double p99;
+    private final double max;
+
+    /**
+     * @param key the key the histogram was recorded for
+     * @param histogram the histogram to summarize
+     * @param elapsedSeconds the time over which the histogram was recorded
+     */
+    public TimingStatistics(String key, LatencyHistogram histogram, double elapsedSeconds) {
+        this.key = key;
+        this.count = histogram.getCount();
+        this.throughput = elapsedSeconds > 0 ? count / elapsedSeconds : 0;
+        this.mean = histogram.getMean() / MICROS_PER_MILLI;
+        this.p50 = histogram.getValueAtPercentile(50) / MICROS_PER_MILLI;
+        this.p95 = histogram.getValueAtPercentile(95) / MICROS_PER_MILLI;
+        this.p99 = histogram.getValueAtPercentile(99) / MICROS_PER_MILLI;
+        this.max = histogram.getMax() / MICROS_PER_MILLI;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP95() {
+        return p95;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: count=%d, rate=%.2f/s, mean=%.3fms, p50=%.3fms, p95=%.3fms, p99=%.3fms, max=%.3fms",
+                key, count, throughput, mean, p50, p95, p99, max);
+    }
+}
@@ -0,0 +1,150 @@
+package com.adobe.aem.guides.wknd.core.metrics.impl;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import com.adobe.aem.guides.wknd.core.metrics.LatencyHistogram;
+import com.adobe.aem.guides.wknd.core.metrics.RequestTimingMBean;
+import com.adobe.aem.guides.wknd.core.metrics.RequestTimingRegistry;
+import com.adobe.aem.guides.wknd.core.metrics.TimingStatistics;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * In-memory {@link RequestTimingRegistry}. Each key owns a {@link LatencyHistogram} of a few
+ * kilobytes, so the cardinality bound also bounds the memory used by the registry.
+ */
+@Component(service = { RequestTimingRegistry.class, DynamicMBean.class },
+           property = "jmx.objectname=com.adobe.aem.guides.wknd:type=Metrics,name=RequestTiming")
+@Designate(ocd = RequestTimingRegistryImpl.Config.class)
+@ServiceDescription("Collects request latency histograms")
+public class RequestTimingRegistryImpl extends AnnotatedStandardMBean
+        implements RequestTimingRegistry, RequestTimingMBean {
+
+    @ObjectClassDefinition(name = "WKND Request Timing",
+                           description = "Collects request latency histograms per resource type and selector")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Maximum keys",
+                             description = "Upper bound for the number of resource types and of selectors tracked separately")
+        int max_keys() default 100;
+    }
+
+    private static final Comparator<TimingStatistics> SLOWEST_FIRST =
+            Comparator.comparingDouble(TimingStatistics::getP99).reversed()
+                    .thenComparing(TimingStatistics::getKey);
+
+    private volatile int maxKeys = 100;
+
+    private volatile Timings timings = new Timings();
+
+    public RequestTimingRegistryImpl() throws NotCompliantMBeanException {
+        super(RequestTimingMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        maxKeys = Math.max(1, config.max_keys());
+        timings = new Timings();
+    }
+
+    @Override
+    public void record(String resourceType, String selectorsAndExtension, long durationNanos) {
+        final Timings current = timings;
+        current.total.record(durationNanos);
+        histogram(current.byResourceType, resourceType).record(durationNanos);
+        histogram(current.bySelector, selectorsAndExtension).record(durationNanos);
+    }
+
+    @Override
+    public TimingStatistics getTotalStatistics() {
+        final Timings current = timings;
+        return new TimingStatistics("total", current.total, current.getElapsedSeconds());
+    }
+
+    @Override
+    public List<TimingStatistics> getResourceTypeStatistics() {
+        final Timings current = timings;
+        return summarize(current.byResourceType, current.getElapsedSeconds());
+    }
+
+    @Override
+    public List<TimingStatistics> getSelectorStatistics() {
+        final Timings current = timings;
+        return summarize(current.bySelector, current.getElapsedSeconds());
+    }
+
+    @Override
+    public void reset() {
+        timings = new Timings();
+    }
+
+    @Override
+    public long getRequestCount() {
+        return timings.total.getCount();
+    }
+
+    @Override
+    public double getThroughput() {
+        return getTotalStatistics().getThroughput();
+    }
+
+    @Override
+    public String getTotal() {
+        return getTotalStatistics().toString();
+    }
+
+    @Override
+    public String[] getResourceTypes() {
+        return getResourceTypeStatistics().stream().map(TimingStatistics::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public String[] getSelectors() {
+        return getSelectorStatistics().stream().map(TimingStatistics::toString).toArray(String[]::new);
+    }
+
+    private LatencyHistogram histogram(Map<String, LatencyHistogram> histograms, String key) {
+        final LatencyHistogram histogram = histograms.get(key);
+        if (histogram != null) {
+            return histogram;
+        }
+        // the bound is checked without locking, so it may be exceeded by a few keys under contention
+        final String boundedKey = histograms.size() < maxKeys ? key : OTHER;
+        return histograms.computeIfAbsent(boundedKey, k -> new LatencyHistogram());
+    }
+
+    private static List<TimingStatistics> summarize(Map<String, LatencyHistogram> histograms, double elapsedSeconds) {
+        return histograms.entrySet().stream()
+                .map(entry -> new TimingStatistics(entry.getKey(), entry.getValue(), elapsedSeconds))
+                .sorted(SLOWEST_FIRST)
+                .collect(Collectors.toList());
+    }
+
+    private static final class Timings {
+
+        private final long start = System.nanoTime();
+
+        private final LatencyHistogram total = new LatencyHistogram();
+
+        private final Map<String, LatencyHistogram> byResourceType = new ConcurrentHashMap<>();
+
+        private final Map<String, LatencyHistogram> bySelector = new ConcurrentHashMap<>();
+
+        private double getElapsedSeconds() {
+            return (System.nanoTime() - start) / 1e9;
+        }
+    }
+}
@@ -43,4 +43,9 @@ public interface Byline {
      * @return the biography of the author.
      */
     String summaryBiography();
+
+    /***
+     * @return the src of the author's image, or null if the component has no valid image.
+     */
+    String getImageSrc();
 }
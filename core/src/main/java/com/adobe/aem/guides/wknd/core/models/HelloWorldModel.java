@@ -21,13 +21,15 @@ import javax.annotation.PostConstruct;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.resource.Resource;
-import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.annotations.Default;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.SlingObject;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import com.adobe.aem.guides.wknd.core.cache.CacheableModel;
+import com.adobe.aem.guides.wknd.core.cache.ContainingPageCache;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.PageManager;
 
@@ -35,6 +37,7 @@ import java.util.Optional;
 
 @Model(adaptables = Resource.class,
         defaultInjectionStrategy = DefaultInjectionStrategy.OPTIONAL)
+@CacheableModel
 public class HelloWorldModel {
 
     @ValueMapValue(name=PROPERTY_RESOURCE_TYPE)
@@ -43,8 +46,11 @@ public class HelloWorldModel {
 
     @SlingObject
     private Resource currentResource;
-    @SlingObject
-    private ResourceResolver resourceResolver;
+
+    @OSGiService
+    private ContainingPageCache containingPageCache;
+
+    private String currentPagePath;
 
     private String message;
 
@@ -55,19 +61,26 @@ public class HelloWorldModel {
     @ValueMapValue
     protected String text;
 
+    /**
+     * Instances are shared across requests by the model cache, so the containing page is looked up
+     * (from the shared containing page cache) while the resource is live, and the resource is not kept,
+     * so that cached instances do not pin the resource resolver of the request that created them.
+     */
     @PostConstruct
     protected void init() {
-        PageManager pageManager = resourceResolver.adaptTo(PageManager.class);
-        String currentPagePath = Optional.ofNullable(pageManager)
-                .map(pm -> pm.getContainingPage(currentResource))
-                .map(Page::getPath).orElse("");
-
-        message = "Hello World!\n"
-            + "Resource type is: " + resourceType + "\n"
-            + "Current page is:  " + currentPagePath + "\n";
+        currentPagePath = getCurrentPagePath();
+        currentResource = null;
     }
 
+    /**
+     * The message is only built when it is requested.
+     */
     public String getMessage() {
+        if (message == null) {
+            message = "Hello World!\n"
+                + "Resource type is: " + resourceType + "\n"
+                + "Current page is:  " + currentPagePath + "\n";
+        }
         return message;
     }
 
@@ -78,4 +91,14 @@ public class HelloWorldModel {
     public String getText() {
         return StringUtils.upperCase(text);
     }
+
+    private String getCurrentPagePath() {
+        if (containingPageCache != null) {
+            return containingPageCache.getContainingPagePath(currentResource);
+        }
+        PageManager pageManager = currentResource.getResourceResolver().adaptTo(PageManager.class);
+        return Optional.ofNullable(pageManager)
+                .map(pm -> pm.getContainingPage(currentResource))
+                .map(Page::getPath).orElse("");
+    }
 }
@@ -0,0 +1,31 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+/**
+ * Running counters over the imported person records: the number of people per city,
+ * occupation and age bucket. The counters are kept up to date as person records are written,
+ * so reading them does not depend on the number of people.
+ * <p>
+ * Every person contributes to the counters once: recording a person again replaces its
+ * previous contribution, so writers may report the same person more than once.
+ */
+public interface PeopleAggregates {
+
+    /**
+     * Replaces the contribution of the person of the same name.
+     *
+     * @param person the person record as written
+     */
+    void record(PersonRecord person);
+
+    /**
+     * Removes the contribution of a person, if there is one.
+     *
+     * @param personName the name of the removed person
+     */
+    void remove(String personName);
+
+    /**
+     * @return the current counts
+     */
+    PeopleCounts getCounts();
+}
@@ -0,0 +1,96 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable counts of a {@link PeopleAggregates}: the number of people and the number of
+ * people per city, occupation and age bucket, each sorted by value. A person with several
+ * occupations is counted once for each of them.
+ */
+public final class PeopleCounts {
+
+    /** Width of the age buckets in years. */
+    public static final int AGE_BUCKET_YEARS = 10;
+
+    /** Lower bound of the open-ended last age bucket. */
+    public static final int AGE_BUCKET_MAX = 90;
+
+    private final int total;
+
+    private final Map<String, Integer> byCity;
+
+    private final Map<String, Integer> byOccupation;
+
+    private final Map<String, Integer> byAgeBucket;
+
+    private final long recomputedMillis;
+
+    private final int drift;
+
+    public PeopleCounts(int total, Map<String, Integer> byCity, Map<String, Integer> byOccupation,
+                        Map<String, Integer> byAgeBucket, long recomputedMillis, int drift) {
+        this.total = total;
+        this.byCity = Collections.unmodifiableMap(new TreeMap<>(byCity));
+        this.byOccupation = Collections.unmodifiableMap(new TreeMap<>(byOccupation));
+        this.byAgeBucket = Collections.unmodifiableMap(new TreeMap<>(byAgeBucket));
+        this.recomputedMillis = recomputedMillis;
+        this.drift = drift;
+    }
+
+    /**
+     * @param age an age in years
+     * @return the label of the age bucket, such as <code>30-39</code> or <code>90+</code>
+     */
+    public static String ageBucket(int age) {
+        if (age >= AGE_BUCKET_MAX) {
+            return AGE_BUCKET_MAX + "+";
+        }
+        final int lower = Math.max(0, age) / AGE_BUCKET_YEARS * AGE_BUCKET_YEARS;
+        return lower + "-" + (lower + AGE_BUCKET_YEARS - 1);
+    }
+
+    /**
+     * @return the number of people
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the number of people per city; people without a city are not counted
+     */
+    public Map<String, Integer> getByCity() {
+        return byCity;
+    }
+
+    /**
+     * @return the number of people per occupation
+     */
+    public Map<String, Integer> getByOccupation() {
+        return byOccupation;
+    }
+
+    /**
+     * @return the number of people per {@link #ageBucket(int) age bucket}
+     */
+    public Map<String, Integer> getByAgeBucket() {
+        return byAgeBucket;
+    }
+
+    /**
+     * @return the time of the last full recount in milliseconds, 0 if there was none yet
+     */
+    public long getRecomputedMillis() {
+        return recomputedMillis;
+    }
+
+    /**
+     * @return the number of people whose counted contribution was found out of date
+     *         by the last full recount
+     */
+    public int getDrift() {
+        return drift;
+    }
+}
@@ -0,0 +1,75 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+
+/**
+ * Locations of the people records written by the people importer.
+ */
+public final class PeopleData {
+
+    /**
+     * Parent of all imported person records, one child resource per person named after the person.
+     */
+    public static final String DATA_ROOT = "/content/wknd/data";
+
+    private PeopleData() {
+        // static methods only
+    }
+
+    /**
+     * @param personName the name of the person
+     * @return the path of the person record, or null if the name is blank
+     */
+    public static String getPersonPath(String personName) {
+        if (StringUtils.isBlank(personName)) {
+            return null;
+        }
+        return DATA_ROOT + "/" + personName;
+    }
+
+    /**
+     * @param path a path at or below a person record
+     * @return the name of the person the path belongs to, or null if the path is not below {@link #DATA_ROOT}
+     */
+    public static String getPersonName(String path) {
+        if (path == null || !path.startsWith(DATA_ROOT + "/")) {
+            return null;
+        }
+        final String relativePath = path.substring(DATA_ROOT.length() + 1);
+        final String name = StringUtils.substringBefore(relativePath, "/");
+        return name.isEmpty() ? null : name;
+    }
+
+    /**
+     * @param path a path
+     * @return true if the path is {@link #DATA_ROOT} or one of its ancestors, so a change at the
+     *         path may affect every person record
+     */
+    public static boolean coversAllPersons(String path) {
+        return path != null && (DATA_ROOT.equals(path) || DATA_ROOT.startsWith(path.endsWith("/") ? path : path + "/"));
+    }
+
+    /**
+     * @param changes changes delivered by the change pipeline
+     * @return the names of the persons whose records changed, in change order, or null if a
+     *         change may affect every person record (see {@link #coversAllPersons(String)})
+     */
+    public static Set<String> getChangedPersonNames(List<CoalescedChange> changes) {
+        final Set<String> personNames = new LinkedHashSet<>();
+        for (CoalescedChange change : changes) {
+            final String personName = getPersonName(change.getPath());
+            if (personName != null) {
+                personNames.add(personName);
+            } else if (coversAllPersons(change.getPath())) {
+                return null;
+            }
+        }
+        return personNames;
+    }
+}
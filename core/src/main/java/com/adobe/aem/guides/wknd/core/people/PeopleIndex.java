@@ -0,0 +1,31 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+/**
+ * In-memory index over the imported person records for typeahead lookups by name prefix,
+ * narrowed by city and occupation. The index follows changes of the person records.
+ */
+public interface PeopleIndex {
+
+    /** Facet over the city of the address. */
+    String FACET_CITY = "city";
+
+    /** Facet over the occupations. */
+    String FACET_OCCUPATION = "occupation";
+
+    /**
+     * Finds the person records whose name has a word starting with each word of the prefix,
+     * ignoring case and accents, e.g. <code>"jo d"</code> matches "John Doe" and "Doe, Joanna".
+     *
+     * @param prefix the name prefix, blank for all person records
+     * @param city the city to narrow to, or null for any city
+     * @param occupation the occupation to narrow to, or null for any occupation
+     * @param limit the maximum number of person records to return
+     * @return the matches
+     */
+    PeopleSearchResult search(String prefix, String city, String occupation, int limit);
+
+    /**
+     * @return the number of indexed person records
+     */
+    int size();
+}
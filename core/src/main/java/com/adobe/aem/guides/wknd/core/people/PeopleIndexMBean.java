@@ -0,0 +1,31 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of the {@link PeopleIndex}.
+ */
+@Description("WKND people index")
+public interface PeopleIndexMBean {
+
+    @Description("Number of indexed person records")
+    int getSize();
+
+    @Description("Number of distinct name words")
+    int getTokenCount();
+
+    @Description("Source of the last full load: repository or snapshot")
+    String getLoadSource();
+
+    @Description("Duration of the last full load, in ms")
+    long getLoadMillis();
+
+    @Description("Number of person records updated from change events since the last full load")
+    long getUpdateCount();
+
+    @Description("Rebuilds the index from the repository")
+    void rebuild();
+
+    @Description("Writes the snapshot file now")
+    void writeSnapshot();
+}
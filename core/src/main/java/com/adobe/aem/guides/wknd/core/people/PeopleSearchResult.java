@@ -0,0 +1,46 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a {@link PeopleIndex} search: the first matching person records in name order,
+ * the total number of matches and the facet counts over all matches.
+ */
+public final class PeopleSearchResult {
+
+    private final int total;
+
+    private final List<PersonRecord> people;
+
+    private final Map<String, Map<String, Integer>> facets;
+
+    public PeopleSearchResult(int total, List<PersonRecord> people, Map<String, Map<String, Integer>> facets) {
+        this.total = total;
+        this.people = Collections.unmodifiableList(people);
+        this.facets = Collections.unmodifiableMap(facets);
+    }
+
+    /**
+     * @return the number of matching person records
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the first matching person records, sorted by name
+     */
+    public List<PersonRecord> getPeople() {
+        return people;
+    }
+
+    /**
+     * @return the number of matches per value, by facet name ({@link PeopleIndex#FACET_CITY},
+     *         {@link PeopleIndex#FACET_OCCUPATION}), most frequent values first
+     */
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,63 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+import java.nio.file.Path;
+
+/**
+ * A published people snapshot: a gzipped JSON file with all person records, written once
+ * and never changed. A newer snapshot gets a new file and a higher version.
+ */
+public final class PeopleSnapshot {
+
+    private final long version;
+
+    private final Path file;
+
+    private final long length;
+
+    private final long createdMillis;
+
+    private final String eTag;
+
+    public PeopleSnapshot(long version, Path file, long length, long createdMillis, String eTag) {
+        this.version = version;
+        this.file = file;
+        this.length = length;
+        this.createdMillis = createdMillis;
+        this.eTag = eTag;
+    }
+
+    /**
+     * @return the version, increasing with every published snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the gzipped JSON file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the length of the gzipped file in bytes
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the time the snapshot was written
+     */
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    /**
+     * @return the strong, quoted entity tag of the gzipped file, derived from its content
+     */
+    public String getETag() {
+        return eTag;
+    }
+}
@@ -0,0 +1,20 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+/**
+ * Publishes the person records as {@link PeopleSnapshot} files, so they can be served
+ * without reading the repository for every request.
+ */
+public interface PeopleSnapshotPublisher {
+
+    /**
+     * Queues the publication of a new snapshot. Requests made while a publication is
+     * queued are merged into it. No new version is published if the person records
+     * did not change since the latest snapshot.
+     */
+    void publish();
+
+    /**
+     * @return the latest snapshot, or null if none was published yet
+     */
+    PeopleSnapshot getLatest();
+}
@@ -0,0 +1,156 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+
+/**
+ * Immutable snapshot of a person record as written by the people importer:
+ * <pre>
+ * /content/wknd/data/&lt;name&gt;      name, age, email, summaryBiography
+ *     address                    street, city, zip
+ *     phoneNumber/&lt;type&gt;         type, number
+ *     Occupations/&lt;occupation&gt;   occupation
+ * </pre>
+ */
+public final class PersonRecord {
+
+    public static final String PN_NAME = "name";
+    public static final String PN_AGE = "age";
+    public static final String PN_EMAIL = "email";
+    public static final String PN_SUMMARY_BIOGRAPHY = "summaryBiography";
+    public static final String NN_ADDRESS = "address";
+    public static final String PN_STREET = "street";
+    public static final String PN_CITY = "city";
+    public static final String PN_ZIP = "zip";
+    public static final String NN_PHONE_NUMBER = "phoneNumber";
+    public static final String PN_TYPE = "type";
+    public static final String PN_NUMBER = "number";
+    public static final String NN_OCCUPATIONS = "Occupations";
+    public static final String PN_OCCUPATION = "occupation";
+
+    /** Phone number type preferred by {@link #getPhoneNumber()}. */
+    private static final String MOBILE = "mobile";
+
+    private final String name;
+    private final int age;
+    private final String email;
+    private final String summaryBiography;
+    private final String street;
+    private final String city;
+    private final String zip;
+    private final Map<String, String> phoneNumbers;
+    private final List<String> occupations;
+
+    public PersonRecord(String name, int age, String email, String summaryBiography,
+                        String street, String city, String zip,
+                        Map<String, String> phoneNumbers, List<String> occupations) {
+        this.name = name;
+        this.age = age;
+        this.email = email;
+        this.summaryBiography = summaryBiography;
+        this.street = street;
+        this.city = city;
+        this.zip = zip;
+        this.phoneNumbers = Collections.unmodifiableMap(new LinkedHashMap<>(phoneNumbers));
+        this.occupations = Collections.unmodifiableList(new ArrayList<>(occupations));
+    }
+
+    /**
+     * @param person a person record resource
+     * @return the snapshot of the person record
+     */
+    public static PersonRecord fromResource(Resource person) {
+        final ValueMap properties = person.getValueMap();
+
+        final Resource address = person.getChild(NN_ADDRESS);
+        final ValueMap addressProperties = address != null ? address.getValueMap() : ValueMap.EMPTY;
+
+        final Map<String, String> phoneNumbers = new LinkedHashMap<>();
+        final Resource phoneNumberParent = person.getChild(NN_PHONE_NUMBER);
+        if (phoneNumberParent != null) {
+            for (Resource phoneNumber : phoneNumberParent.getChildren()) {
+                final ValueMap phoneProperties = phoneNumber.getValueMap();
+                final String number = phoneProperties.get(PN_NUMBER, String.class);
+                if (number != null) {
+                    phoneNumbers.put(phoneProperties.get(PN_TYPE, phoneNumber.getName()), number);
+                }
+            }
+        }
+
+        final List<String> occupations = new ArrayList<>();
+        final Resource occupationParent = person.getChild(NN_OCCUPATIONS);
+        if (occupationParent != null) {
+            for (Resource occupation : occupationParent.getChildren()) {
+                occupations.add(occupation.getValueMap().get(PN_OCCUPATION, occupation.getName()));
+            }
+        }
+
+        return new PersonRecord(properties.get(PN_NAME, person.getName()),
+                properties.get(PN_AGE, 0),
+                properties.get(PN_EMAIL, String.class),
+                properties.get(PN_SUMMARY_BIOGRAPHY, String.class),
+                addressProperties.get(PN_STREET, String.class),
+                addressProperties.get(PN_CITY, String.class),
+                addressProperties.get(PN_ZIP, String.class),
+                phoneNumbers,
+                occupations);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getSummaryBiography() {
+        return summaryBiography;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getZip() {
+        return zip;
+    }
+
+    /**
+     * @return the phone numbers by type, in import order
+     */
+    public Map<String, String> getPhoneNumbers() {
+        return phoneNumbers;
+    }
+
+    /**
+     * @return the mobile phone number, or the first phone number if there is no mobile one
+     */
+    public String getPhoneNumber() {
+        if (phoneNumbers.containsKey(MOBILE)) {
+            return phoneNumbers.get(MOBILE);
+        }
+        return phoneNumbers.isEmpty() ? null : phoneNumbers.values().iterator().next();
+    }
+
+    /**
+     * @return the occupations, in import order
+     */
+    public List<String> getOccupations() {
+        return occupations;
+    }
+}
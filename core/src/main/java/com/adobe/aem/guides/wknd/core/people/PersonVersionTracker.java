@@ -0,0 +1,17 @@
+package com.adobe.aem.guides.wknd.core.people;
+
+/**
+ * Tracks a version for every imported person record, so that anything derived from
+ * a person (rendered markup, exported JSON) can be keyed on it.
+ */
+public interface PersonVersionTracker {
+
+    /**
+     * The version changes every time the person record or one of its children changes.
+     * Versions are not persisted, they start over from a new base after a restart.
+     *
+     * @param personName the name of the person
+     * @return the current version of the person record
+     */
+    long getVersion(String personName);
+}
@@ -0,0 +1,146 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleCounts;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+
+/**
+ * Counters of people per city, occupation and age bucket. The contribution of every person
+ * is kept, so replacing a person subtracts its previous contribution before adding the new one
+ * and applying the same record twice changes nothing. Not thread-safe.
+ */
+final class AggregateCounters {
+
+    private final Map<String, Contribution> contributions = new HashMap<>();
+
+    private final Map<String, Integer> byCity = new HashMap<>();
+
+    private final Map<String, Integer> byOccupation = new HashMap<>();
+
+    private final Map<String, Integer> byAgeBucket = new HashMap<>();
+
+    /**
+     * @param person the person record
+     * @return true if the counters changed
+     */
+    boolean put(PersonRecord person) {
+        final Contribution contribution = Contribution.of(person);
+        final Contribution previous = contributions.put(person.getName(), contribution);
+        if (contribution.equals(previous)) {
+            return false;
+        }
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(contribution, 1);
+        return true;
+    }
+
+    /**
+     * @param personName the name of the person
+     * @return true if the counters changed
+     */
+    boolean remove(String personName) {
+        final Contribution previous = contributions.remove(personName);
+        if (previous == null) {
+            return false;
+        }
+        apply(previous, -1);
+        return true;
+    }
+
+    int size() {
+        return contributions.size();
+    }
+
+    /**
+     * @param other the counters to compare with
+     * @return the number of people counted differently by the two counters, including
+     *         people counted by only one of them
+     */
+    int countDifferences(AggregateCounters other) {
+        final Set<String> names = new HashSet<>(contributions.keySet());
+        names.addAll(other.contributions.keySet());
+        int differences = 0;
+        for (String name : names) {
+            if (!Objects.equals(contributions.get(name), other.contributions.get(name))) {
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    PeopleCounts toCounts(long recomputedMillis, int drift) {
+        return new PeopleCounts(contributions.size(), byCity, byOccupation, byAgeBucket, recomputedMillis, drift);
+    }
+
+    private void apply(Contribution contribution, int delta) {
+        if (contribution.city != null) {
+            add(byCity, contribution.city, delta);
+        }
+        for (String occupation : contribution.occupations) {
+            add(byOccupation, occupation, delta);
+        }
+        add(byAgeBucket, contribution.ageBucket, delta);
+    }
+
+    private static void add(Map<String, Integer> counts, String key, int delta) {
+        counts.merge(key, delta, (count, d) -> count + d == 0 ? null : count + d);
+    }
+
+    /**
+     * What a single person adds to the counters.
+     */
+    private static final class Contribution {
+
+        private final String city;
+
+        private final Set<String> occupations;
+
+        private final String ageBucket;
+
+        private Contribution(String city, Set<String> occupations, String ageBucket) {
+            this.city = city;
+            this.occupations = occupations;
+            this.ageBucket = ageBucket;
+        }
+
+        static Contribution of(PersonRecord person) {
+            final Set<String> occupations = new TreeSet<>();
+            for (String occupation : person.getOccupations()) {
+                if (StringUtils.isNotBlank(occupation)) {
+                    occupations.add(occupation);
+                }
+            }
+            return new Contribution(StringUtils.trimToNull(person.getCity()),
+                    Collections.unmodifiableSet(occupations), PeopleCounts.ageBucket(person.getAge()));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Contribution)) {
+                return false;
+            }
+            final Contribution other = (Contribution) obj;
+            return Objects.equals(city, other.city) && occupations.equals(other.occupations)
+                    && ageBucket.equals(other.ageBucket);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(city, occupations, ageBucket);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleIndex;
+import com.adobe.aem.guides.wknd.core.people.PeopleSearchResult;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+
+/**
+ * The data structure behind the {@link PeopleIndex}. Every person record gets a small integer id;
+ * the normalized words of the names are kept in a sorted map to the bit set of ids having the
+ * word, so a prefix is a range of that map. Cities and occupations map to bit sets of ids as well,
+ * and a search is an intersection of bit sets. Only the first matches in name order are kept
+ * while the matches are counted. Ids of removed records are reused.
+ * <p>
+ * Not thread-safe.
+ */
+final class InvertedPeopleIndex {
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final int MAX_FACET_VALUES = 20;
+
+    private static final Comparator<PersonRecord> NAME_ORDER =
+            Comparator.comparing(PersonRecord::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private final List<PersonRecord> records = new ArrayList<>();
+
+    private final Map<String, Integer> idsByName = new HashMap<>();
+
+    private final BitSet live = new BitSet();
+
+    private final NavigableMap<String, BitSet> words = new TreeMap<>();
+
+    private final Map<String, BitSet> cities = new HashMap<>();
+
+    private final Map<String, BitSet> occupations = new HashMap<>();
+
+    /**
+     * Adds the record or replaces the record with the same name.
+     */
+    void put(PersonRecord record) {
+        final Integer existing = idsByName.get(record.getName());
+        final int id;
+        if (existing != null) {
+            id = existing;
+            unindex(id, records.get(id));
+            records.set(id, record);
+        } else {
+            id = live.nextClearBit(0);
+            if (id < records.size()) {
+                records.set(id, record);
+            } else {
+                records.add(record);
+            }
+            idsByName.put(record.getName(), id);
+            live.set(id);
+        }
+        index(id, record);
+    }
+
+    /**
+     * @return true if a record with the name was removed
+     */
+    boolean remove(String name) {
+        final Integer id = idsByName.remove(name);
+        if (id == null) {
+            return false;
+        }
+        unindex(id, records.get(id));
+        records.set(id, null);
+        live.clear(id);
+        return true;
+    }
+
+    void clear() {
+        records.clear();
+        idsByName.clear();
+        live.clear();
+        words.clear();
+        cities.clear();
+        occupations.clear();
+    }
+
+    int size() {
+        return idsByName.size();
+    }
+
+    int getWordCount() {
+        return words.size();
+    }
+
+    /**
+     * @return the indexed records, in no particular order
+     */
+    Collection<PersonRecord> getRecords() {
+        final List<PersonRecord> result = new ArrayList<>(size());
+        for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+            result.add(records.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * @see PeopleIndex#search(String, String, String, int)
+     */
+    PeopleSearchResult search(String prefix, String city, String occupation, int limit) {
+        final BitSet matches = (BitSet) live.clone();
+        for (String word : words(prefix)) {
+            final BitSet withWord = new BitSet();
+            for (BitSet ids : words.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                withWord.or(ids);
+            }
+            matches.and(withWord);
+        }
+        if (StringUtils.isNotBlank(city)) {
+            matches.and(cities.getOrDefault(normalize(city), new BitSet()));
+        }
+        if (StringUtils.isNotBlank(occupation)) {
+            matches.and(occupations.getOrDefault(normalize(occupation), new BitSet()));
+        }
+
+        final int max = Math.max(0, limit);
+        final PriorityQueue<PersonRecord> first = new PriorityQueue<>(Math.max(1, max), NAME_ORDER.reversed());
+        final Map<String, Integer> cityCounts = new HashMap<>();
+        final Map<String, Integer> occupationCounts = new HashMap<>();
+        int total = 0;
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            final PersonRecord record = records.get(id);
+            total++;
+            if (first.size() < max) {
+                first.add(record);
+            } else if (max > 0 && NAME_ORDER.compare(record, first.peek()) < 0) {
+                first.poll();
+                first.add(record);
+            }
+            if (record.getCity() != null) {
+                cityCounts.merge(record.getCity(), 1, Integer::sum);
+            }
+            for (String value : new LinkedHashSet<>(record.getOccupations())) {
+                occupationCounts.merge(value, 1, Integer::sum);
+            }
+        }
+        final List<PersonRecord> people = new ArrayList<>(first);
+        people.sort(NAME_ORDER);
+
+        final Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put(PeopleIndex.FACET_CITY, top(cityCounts));
+        facets.put(PeopleIndex.FACET_OCCUPATION, top(occupationCounts));
+        return new PeopleSearchResult(total, people, facets);
+    }
+
+    private void index(int id, PersonRecord record) {
+        for (String word : words(record.getName())) {
+            words.computeIfAbsent(word, key -> new BitSet()).set(id);
+        }
+        if (StringUtils.isNotBlank(record.getCity())) {
+            cities.computeIfAbsent(normalize(record.getCity()), key -> new BitSet()).set(id);
+        }
+        for (String value : record.getOccupations()) {
+            occupations.computeIfAbsent(normalize(value), key -> new BitSet()).set(id);
+        }
+    }
+
+    private void unindex(int id, PersonRecord record) {
+        for (String word : words(record.getName())) {
+            clear(words, word, id);
+        }
+        if (StringUtils.isNotBlank(record.getCity())) {
+            clear(cities, normalize(record.getCity()), id);
+        }
+        for (String value : record.getOccupations()) {
+            clear(occupations, normalize(value), id);
+        }
+    }
+
+    private static void clear(Map<String, BitSet> map, String key, int id) {
+        final BitSet ids = map.get(key);
+        if (ids != null) {
+            ids.clear(id);
+            if (ids.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static Map<String, Integer> top(Map<String, Integer> counts) {
+        final Map<String, Integer> top = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.<String, Integer>comparingByKey()))
+                .limit(MAX_FACET_VALUES)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    private static Set<String> words(String text) {
+        final Set<String> result = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : WORD_SEPARATORS.split(normalize(text))) {
+                if (!word.isEmpty()) {
+                    result.add(word);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lower case without accents, so accented names are found by their base letters.
+     */
+    static String normalize(String text) {
+        final String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
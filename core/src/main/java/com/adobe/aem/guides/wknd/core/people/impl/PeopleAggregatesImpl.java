@@ -0,0 +1,195 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.aem.guides.wknd.core.people.PeopleAggregates;
+import com.adobe.aem.guides.wknd.core.people.PeopleCounts;
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+import com.adobe.aem.guides.wknd.core.schedulers.AbstractScheduledJob;
+import com.adobe.aem.guides.wknd.core.schedulers.ScheduledJob;
+
+/**
+ * {@link PeopleAggregates} kept in {@link AggregateCounters}. The counters are updated from
+ * three sources:
+ * <ul>
+ * <li>the people importer records every person it writes;</li>
+ * <li>changed person records are re-read when their changes are handled, which also covers
+ * changes made outside the importer;</li>
+ * <li>a full recount runs after activation and on the configured schedule, and replaces the
+ * counters to correct any drift of the running updates.</li>
+ * </ul>
+ * Change handling and recounts run on a single thread. The counts are copied once after each
+ * change, so reading them takes constant time in the number of people. Scheduled and on-demand
+ * recounts are runs of the {@link AbstractScheduledJob}, which queue the recount on that thread
+ * and wait for it; a cancelled recount keeps the current counters.
+ */
+@Component(service = { PeopleAggregates.class, ResourceChangeHandler.class, Runnable.class, ScheduledJob.class },
+           property = ResourceChangeHandler.PATHS + "=" + PeopleData.DATA_ROOT)
+@Designate(ocd = PeopleAggregatesImpl.Config.class)
+@ServiceDescription("Running counters over the imported people records")
+public class PeopleAggregatesImpl extends AbstractScheduledJob implements PeopleAggregates, ResourceChangeHandler {
+
+    @ObjectClassDefinition(name = "WKND People Aggregates",
+                           description = "Counts of people per city, occupation and age bucket")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Recount expression", description = "Cron expression of the full recount that corrects drift")
+        String scheduler_expression() default "0 0 3 * * ?";
+
+        @AttributeDefinition(name = "Concurrent task", description = "Whether or not to schedule this task concurrently")
+        boolean scheduler_concurrent() default false;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Object lock = new Object();
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    private AggregateCounters counters = new AggregateCounters();
+
+    private long recomputedMillis;
+
+    private int drift;
+
+    private volatile PeopleCounts counts;
+
+    private PeopleDataWorker worker;
+
+    public PeopleAggregatesImpl() {
+        super("PeopleAggregates");
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        worker = new PeopleDataWorker("wknd-people-aggregates", resolverFactory);
+        worker.execute(this::recompute);
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        stopJob();
+        worker.shutdown();
+    }
+
+    @Override
+    public void record(PersonRecord person) {
+        synchronized (lock) {
+            if (counters.put(person)) {
+                counts = null;
+            }
+        }
+    }
+
+    @Override
+    public void remove(String personName) {
+        synchronized (lock) {
+            if (counters.remove(personName)) {
+                counts = null;
+            }
+        }
+    }
+
+    @Override
+    public PeopleCounts getCounts() {
+        PeopleCounts current = counts;
+        if (current == null) {
+            synchronized (lock) {
+                current = counts;
+                if (current == null) {
+                    current = counters.toCounts(recomputedMillis, drift);
+                    counts = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Runs a full recount on the change handling thread, after the changes queued so far.
+     */
+    @Override
+    protected void execute() throws InterruptedException, ExecutionException {
+        worker.getExecutor().submit(this::recompute).get();
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        worker.handleChanges(changes, this::update, this::recompute);
+    }
+
+    /**
+     * Waits until the work queued so far is done.
+     */
+    void awaitIdle() throws InterruptedException, ExecutionException, TimeoutException {
+        worker.awaitIdle();
+    }
+
+    private void update(Set<String> personNames) {
+        try (ResourceResolver resolver = worker.getResolver()) {
+            for (String personName : personNames) {
+                final Resource person = resolver.getResource(PeopleData.getPersonPath(personName));
+                if (person != null) {
+                    record(PersonRecord.fromResource(person));
+                } else {
+                    remove(personName);
+                }
+            }
+        } catch (LoginException e) {
+            logger.error("Cannot update the people aggregates for {}", personNames, e);
+        }
+    }
+
+    private void recompute() {
+        final long start = System.nanoTime();
+        try (ResourceResolver resolver = worker.getResolver()) {
+            final AggregateCounters recounted = new AggregateCounters();
+            final Resource dataRoot = resolver.getResource(PeopleData.DATA_ROOT);
+            if (dataRoot != null) {
+                for (Resource person : dataRoot.getChildren()) {
+                    if (isCancelled()) {
+                        logger.info("Recount of the people aggregates cancelled after {} people", recounted.size());
+                        return;
+                    }
+                    recounted.put(PersonRecord.fromResource(person));
+                }
+            }
+            final int differences;
+            synchronized (lock) {
+                // the first recount builds the counters, there is nothing to drift from yet
+                differences = recomputedMillis > 0 ? counters.countDifferences(recounted) : 0;
+                counters = recounted;
+                recomputedMillis = System.currentTimeMillis();
+                drift = differences;
+                counts = null;
+            }
+            logger.info("Recounted {} people for the people aggregates in {} ms, {} were counted differently",
+                    recounted.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), differences);
+        } catch (LoginException e) {
+            logger.error("Cannot recount the people aggregates", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+
+/**
+ * Background thread of a service that keeps state derived from the person records: the work is
+ * done one task at a time, in order, reading the records with the {@value #SUBSERVICE} service
+ * user. Shared by the people index, the people aggregates and the snapshot publisher.
+ */
+final class PeopleDataWorker {
+
+    static final String SUBSERVICE = "dataread";
+
+    private final ResourceResolverFactory resolverFactory;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param threadName the name of the thread
+     * @param resolverFactory the factory of the service resource resolvers
+     */
+    PeopleDataWorker(String threadName, ResourceResolverFactory resolverFactory) {
+        this.resolverFactory = resolverFactory;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the executor of the thread, for tasks that are scheduled or waited for
+     */
+    ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @param task the task to run after the tasks queued so far
+     */
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Queues the handling of the changes delivered by the change pipeline: the changed person
+     * records are passed to the update, a change that may affect every record runs the reload
+     * instead.
+     *
+     * @param changes the changes
+     * @param update updates the state for the names of the changed persons
+     * @param reload rebuilds the state from all records
+     */
+    void handleChanges(List<CoalescedChange> changes, Consumer<Set<String>> update, Runnable reload) {
+        final Set<String> personNames = PeopleData.getChangedPersonNames(changes);
+        if (personNames == null) {
+            executor.execute(reload);
+        } else if (!personNames.isEmpty()) {
+            executor.execute(() -> update.accept(personNames));
+        }
+    }
+
+    /**
+     * @return a service resource resolver that can read the person records, to be closed by the caller
+     * @throws LoginException if the service user is not mapped
+     */
+    ResourceResolver getResolver() throws LoginException {
+        final Map<String, Object> param = new HashMap<>();
+        param.put(ResourceResolverFactory.SUBSERVICE, SUBSERVICE);
+        return resolverFactory.getServiceResourceResolver(param);
+    }
+
+    /**
+     * Waits until the work queued so far is done.
+     */
+    void awaitIdle() throws InterruptedException, ExecutionException, TimeoutException {
+        executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Finishes the queued work, waiting up to 10 seconds for it.
+     */
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
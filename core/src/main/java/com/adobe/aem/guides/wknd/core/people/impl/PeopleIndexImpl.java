@@ -0,0 +1,358 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.adobe.aem.guides.wknd.core.people.PeopleIndex;
+import com.adobe.aem.guides.wknd.core.people.PeopleIndexMBean;
+import com.adobe.aem.guides.wknd.core.people.PeopleSearchResult;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * {@link PeopleIndex} kept in an {@link InvertedPeopleIndex}. The index is loaded in the
+ * background after activation, from the snapshot file if one is enabled and recent enough,
+ * otherwise by reading every person record. A snapshot may miss changes made while the
+ * instance was down, so after it is loaded, the index is reconciled in the background with
+ * the person records in the repository; searches are served from the snapshot until then.
+ * Changed person records are re-read and replaced in the index; a change of the data root
+ * reloads the whole index.
+ * <p>
+ * Loading and updates run on a single thread, so updates are applied after the initial load
+ * and in change order. Searches run concurrently under a read lock and see an empty index
+ * until the initial load is done.
+ */
+@Component(service = { PeopleIndex.class, ResourceChangeHandler.class, DynamicMBean.class },
+           property = {
+                   ResourceChangeHandler.PATHS + "=" + PeopleData.DATA_ROOT,
+                   "jmx.objectname=com.adobe.aem.guides.wknd:type=People,name=PeopleIndex"
+           })
+@Designate(ocd = PeopleIndexImpl.Config.class)
+@ServiceDescription("In-memory index of the imported people records")
+public class PeopleIndexImpl extends AnnotatedStandardMBean
+        implements PeopleIndex, ResourceChangeHandler, PeopleIndexMBean {
+
+    @ObjectClassDefinition(name = "WKND People Index",
+                           description = "In-memory prefix and facet index over the imported people records")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Snapshot enabled", description = "Load the index from a snapshot file at startup and keep the file up to date")
+        boolean snapshot_enabled() default false;
+
+        @AttributeDefinition(name = "Snapshot file", description = "Path of the snapshot file, the bundle data area if empty")
+        String snapshot_file() default "";
+
+        @AttributeDefinition(name = "Snapshot maximum age (minutes)", description = "Older snapshots are ignored and the index is read from the repository")
+        long snapshot_max_age_minutes() default 1440;
+
+        @AttributeDefinition(name = "Snapshot interval (seconds)", description = "Time between writes of the snapshot file while the index changes")
+        long snapshot_interval_seconds() default 300;
+    }
+
+    static final String LOAD_REPOSITORY = "repository";
+
+    static final String LOAD_SNAPSHOT = "snapshot";
+
+    private static final String SNAPSHOT_FILE_NAME = "people-index.snapshot";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final AtomicLong updates = new AtomicLong();
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    private InvertedPeopleIndex index = new InvertedPeopleIndex();
+
+    private volatile String loadSource;
+
+    private volatile long loadMillis;
+
+    private Config config;
+
+    private Path snapshotFile;
+
+    private PeopleDataWorker worker;
+
+    public PeopleIndexImpl() throws NotCompliantMBeanException {
+        super(PeopleIndexMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config, final BundleContext bundleContext) {
+        this.config = config;
+        if (config.snapshot_enabled()) {
+            if (StringUtils.isNotBlank(config.snapshot_file())) {
+                snapshotFile = Paths.get(config.snapshot_file());
+            } else {
+                final File dataFile = bundleContext.getDataFile(SNAPSHOT_FILE_NAME);
+                snapshotFile = dataFile != null ? dataFile.toPath() : null;
+            }
+        }
+        worker = new PeopleDataWorker("wknd-people-index", resolverFactory);
+        worker.execute(this::load);
+        if (snapshotFile != null) {
+            final long interval = Math.max(1, config.snapshot_interval_seconds());
+            worker.getExecutor().scheduleWithFixedDelay(() -> {
+                if (dirty.getAndSet(false)) {
+                    writeSnapshotFile();
+                }
+            }, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        worker.shutdown();
+        if (snapshotFile != null && dirty.get()) {
+            writeSnapshotFile();
+        }
+    }
+
+    @Override
+    public PeopleSearchResult search(String prefix, String city, String occupation, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(prefix, city, occupation, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        worker.handleChanges(changes, this::update, () -> {
+            logger.debug("People data root changed, reloading the people index");
+            loadFromRepository();
+        });
+    }
+
+    /**
+     * Waits until the work queued so far is done.
+     */
+    void awaitIdle() throws InterruptedException, ExecutionException, TimeoutException {
+        worker.awaitIdle();
+    }
+
+    @Override
+    public int getSize() {
+        return size();
+    }
+
+    @Override
+    public int getTokenCount() {
+        lock.readLock().lock();
+        try {
+            return index.getWordCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String getLoadSource() {
+        return loadSource;
+    }
+
+    @Override
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    @Override
+    public long getUpdateCount() {
+        return updates.get();
+    }
+
+    @Override
+    public void rebuild() {
+        worker.execute(this::loadFromRepository);
+    }
+
+    @Override
+    public void writeSnapshot() {
+        if (snapshotFile != null) {
+            worker.execute(this::writeSnapshotFile);
+        }
+    }
+
+    private void load() {
+        if (snapshotFile != null && Files.isRegularFile(snapshotFile)) {
+            final long start = System.nanoTime();
+            try {
+                final PeopleIndexSnapshot snapshot = PeopleIndexSnapshot.read(snapshotFile);
+                final long age = System.currentTimeMillis() - snapshot.getCreatedMillis();
+                if (age <= TimeUnit.MINUTES.toMillis(config.snapshot_max_age_minutes())) {
+                    final InvertedPeopleIndex loaded = new InvertedPeopleIndex();
+                    snapshot.getRecords().forEach(loaded::put);
+                    replace(loaded, LOAD_SNAPSHOT, start);
+                    worker.execute(this::reconcile);
+                    return;
+                }
+                logger.info("People index snapshot {} is {} minutes old, reading the person records instead",
+                        snapshotFile, TimeUnit.MILLISECONDS.toMinutes(age));
+            } catch (IOException e) {
+                logger.warn("Cannot read people index snapshot {}, reading the person records instead", snapshotFile, e);
+            }
+        }
+        loadFromRepository();
+    }
+
+    private void loadFromRepository() {
+        final long start = System.nanoTime();
+        final InvertedPeopleIndex loaded = readRepository();
+        if (loaded != null) {
+            replace(loaded, LOAD_REPOSITORY, start);
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Replaces the index loaded from the snapshot with the person records in the repository,
+     * keeping the load source and duration of the snapshot. Updates queued meanwhile are
+     * applied afterwards, as they run on the same thread.
+     */
+    private void reconcile() {
+        final long start = System.nanoTime();
+        final InvertedPeopleIndex loaded = readRepository();
+        if (loaded == null) {
+            return;
+        }
+        final int snapshotSize;
+        lock.writeLock().lock();
+        try {
+            snapshotSize = index.size();
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirty.set(true);
+        logger.info("Reconciled the people index snapshot of {} person records with the {} in the repository in {} ms",
+                snapshotSize, loaded.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return an index of all person records in the repository, or null if they cannot be read
+     */
+    private InvertedPeopleIndex readRepository() {
+        try (ResourceResolver resolver = worker.getResolver()) {
+            final InvertedPeopleIndex loaded = new InvertedPeopleIndex();
+            final Resource dataRoot = resolver.getResource(PeopleData.DATA_ROOT);
+            if (dataRoot != null) {
+                for (Resource person : dataRoot.getChildren()) {
+                    loaded.put(PersonRecord.fromResource(person));
+                }
+            }
+            return loaded;
+        } catch (LoginException e) {
+            logger.error("Cannot read the person records for the people index", e);
+            return null;
+        }
+    }
+
+    private void replace(InvertedPeopleIndex loaded, String source, long startNanos) {
+        lock.writeLock().lock();
+        try {
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        loadSource = source;
+        loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        updates.set(0);
+        logger.info("Loaded {} person records into the people index from the {} in {} ms", loaded.size(), source, loadMillis);
+    }
+
+    private void update(Set<String> personNames) {
+        try (ResourceResolver resolver = worker.getResolver()) {
+            final Map<String, PersonRecord> records = new HashMap<>();
+            for (String personName : personNames) {
+                final Resource person = resolver.getResource(PeopleData.getPersonPath(personName));
+                records.put(personName, person != null ? PersonRecord.fromResource(person) : null);
+            }
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<String, PersonRecord> entry : records.entrySet()) {
+                    if (entry.getValue() != null) {
+                        index.put(entry.getValue());
+                    } else {
+                        index.remove(entry.getKey());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            updates.addAndGet(records.size());
+            dirty.set(true);
+        } catch (LoginException e) {
+            logger.error("Cannot update the people index for {}", personNames, e);
+        }
+    }
+
+    private void writeSnapshotFile() {
+        final long start = System.nanoTime();
+        try {
+            lock.readLock().lock();
+            try {
+                PeopleIndexSnapshot.write(snapshotFile, index.getRecords());
+            } finally {
+                lock.readLock().unlock();
+            }
+            logger.debug("Wrote people index snapshot {} in {} ms", snapshotFile,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            logger.warn("Cannot write people index snapshot {}", snapshotFile, e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+
+/**
+ * Gzipped binary file with the person records of the people index, so the index can be loaded
+ * at startup without traversing the person records. The file is written to a temporary file
+ * and moved into place, so a reader never sees a partly written snapshot.
+ */
+final class PeopleIndexSnapshot {
+
+    private static final int MAGIC = 0x574b4e50;
+
+    private static final int FORMAT = 1;
+
+    private final long createdMillis;
+
+    private final List<PersonRecord> records;
+
+    private PeopleIndexSnapshot(long createdMillis, List<PersonRecord> records) {
+        this.createdMillis = createdMillis;
+        this.records = records;
+    }
+
+    /**
+     * @return the time the snapshot was written
+     */
+    long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    List<PersonRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * @param file the snapshot file
+     * @param records the records to write
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, Collection<PersonRecord> records) throws IOException {
+        final Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        final Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temporary))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(records.size());
+                for (PersonRecord record : records) {
+                    writeRecord(out, record);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    static PeopleIndexSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("Not a people index snapshot: " + file);
+            }
+            final long createdMillis = in.readLong();
+            final int count = in.readInt();
+            final List<PersonRecord> records = new ArrayList<>(Math.min(count, 1 << 16));
+            for (int i = 0; i < count; i++) {
+                records.add(readRecord(in));
+            }
+            return new PeopleIndexSnapshot(createdMillis, Collections.unmodifiableList(records));
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, PersonRecord record) throws IOException {
+        writeString(out, record.getName());
+        out.writeInt(record.getAge());
+        writeString(out, record.getEmail());
+        writeString(out, record.getSummaryBiography());
+        writeString(out, record.getStreet());
+        writeString(out, record.getCity());
+        writeString(out, record.getZip());
+        out.writeInt(record.getPhoneNumbers().size());
+        for (Map.Entry<String, String> phoneNumber : record.getPhoneNumbers().entrySet()) {
+            writeString(out, phoneNumber.getKey());
+            writeString(out, phoneNumber.getValue());
+        }
+        out.writeInt(record.getOccupations().size());
+        for (String occupation : record.getOccupations()) {
+            writeString(out, occupation);
+        }
+    }
+
+    private static PersonRecord readRecord(DataInputStream in) throws IOException {
+        final String name = readString(in);
+        final int age = in.readInt();
+        final String email = readString(in);
+        final String summaryBiography = readString(in);
+        final String street = readString(in);
+        final String city = readString(in);
+        final String zip = readString(in);
+        final int phoneCount = in.readInt();
+        final Map<String, String> phoneNumbers = new LinkedHashMap<>();
+        for (int i = 0; i < phoneCount; i++) {
+            phoneNumbers.put(readString(in), readString(in));
+        }
+        final int occupationCount = in.readInt();
+        final List<String> occupations = new ArrayList<>(occupationCount);
+        for (int i = 0; i < occupationCount; i++) {
+            occupations.add(readString(in));
+        }
+        return new PersonRecord(name, age, email, summaryBiography, street, city, zip, phoneNumbers, occupations);
+    }
+
+    /**
+     * Length-prefixed UTF-8, -1 for null; unlike writeUTF not limited to 64k.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
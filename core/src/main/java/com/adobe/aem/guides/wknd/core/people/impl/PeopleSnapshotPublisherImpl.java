@@ -0,0 +1,307 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.adobe.aem.guides.wknd.core.people.PeopleSnapshot;
+import com.adobe.aem.guides.wknd.core.people.PeopleSnapshotPublisher;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * {@link PeopleSnapshotPublisher} writing <code>people-&lt;version&gt;.json.gz</code> files to
+ * a local directory. The JSON has the shape of the people API the importer reads from:
+ * <pre>
+ * {"people": [{"name": ..., "age": ..., "email": ..., "summaryBiography": ...,
+ *              "address": {"street": ..., "city": ..., "zip": ...},
+ *              "phoneNumber": [{"type": ..., "number": ...}], "Occupations": [...]}]}
+ * </pre>
+ * A snapshot is written to a temporary file and moved into place, and the entity tag is the
+ * hash of the gzipped bytes. Gzip output carries no timestamp, so unchanged records give the
+ * same bytes and no new version is published. The newest versions are kept so that downloads
+ * of a replaced snapshot can complete.
+ */
+@Component(service = PeopleSnapshotPublisher.class)
+@Designate(ocd = PeopleSnapshotPublisherImpl.Config.class)
+@ServiceDescription("Publishes gzipped JSON snapshots of the people records")
+public class PeopleSnapshotPublisherImpl implements PeopleSnapshotPublisher {
+
+    @ObjectClassDefinition(name = "WKND People Snapshot Publisher",
+                           description = "Writes gzipped JSON snapshots of the people records after each import")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Directory", description = "Directory of the snapshot files, the bundle data area if empty")
+        String directory() default "";
+
+        @AttributeDefinition(name = "Retained versions", description = "Number of snapshot files kept, including the latest")
+        int retained_versions() default 3;
+    }
+
+    private static final String DIRECTORY_NAME = "people-snapshots";
+
+    private static final Pattern FILE_NAME = Pattern.compile("people-(\\d+)\\.json\\.gz");
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final AtomicBoolean queued = new AtomicBoolean();
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    private volatile PeopleSnapshot latest;
+
+    private Path directory;
+
+    private int retainedVersions;
+
+    private PeopleDataWorker worker;
+
+    @Activate
+    protected void activate(final Config config, final BundleContext bundleContext) {
+        if (StringUtils.isNotBlank(config.directory())) {
+            directory = Paths.get(config.directory());
+        } else {
+            final File dataFile = bundleContext.getDataFile(DIRECTORY_NAME);
+            directory = dataFile != null ? dataFile.toPath() : Paths.get(DIRECTORY_NAME);
+        }
+        retainedVersions = Math.max(1, config.retained_versions());
+        worker = new PeopleDataWorker("wknd-people-snapshot", resolverFactory);
+        worker.execute(() -> {
+            latest = findLatest();
+            if (latest == null) {
+                write();
+            }
+        });
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        worker.shutdown();
+    }
+
+    @Override
+    public void publish() {
+        if (queued.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                queued.set(false);
+                write();
+            });
+        }
+    }
+
+    @Override
+    public PeopleSnapshot getLatest() {
+        return latest;
+    }
+
+    /**
+     * Waits until the work queued so far is done.
+     */
+    void awaitIdle() throws InterruptedException, ExecutionException, TimeoutException {
+        worker.awaitIdle();
+    }
+
+    private void write() {
+        final long start = System.nanoTime();
+        Path temporary = null;
+        try (ResourceResolver resolver = worker.getResolver()) {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, "people-", ".tmp");
+            final MessageDigest digest = newDigest();
+            int count = 0;
+            try (OutputStream file = Files.newOutputStream(temporary);
+                 Writer out = new OutputStreamWriter(new GZIPOutputStream(
+                         new DigestOutputStream(new BufferedOutputStream(file), digest)), StandardCharsets.UTF_8)) {
+                final JsonWriter json = new JsonWriter(out);
+                json.beginObject();
+                json.name("people").beginArray();
+                final Resource dataRoot = resolver.getResource(PeopleData.DATA_ROOT);
+                if (dataRoot != null) {
+                    for (Resource person : dataRoot.getChildren()) {
+                        writePerson(json, PersonRecord.fromResource(person));
+                        count++;
+                    }
+                }
+                json.endArray();
+                json.endObject();
+                json.flush();
+            }
+            final String eTag = toETag(digest.digest());
+            final PeopleSnapshot previous = latest;
+            if (previous != null && previous.getETag().equals(eTag)) {
+                logger.debug("People records unchanged, keeping snapshot version {}", previous.getVersion());
+                return;
+            }
+            final long version = previous != null ? previous.getVersion() + 1 : 1;
+            final Path target = directory.resolve(fileName(version));
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            latest = new PeopleSnapshot(version, target, Files.size(target),
+                    Files.getLastModifiedTime(target).toMillis(), eTag);
+            logger.info("Published people snapshot version {} with {} people, {} bytes in {} ms", version, count,
+                    latest.getLength(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            prune();
+        } catch (LoginException e) {
+            logger.error("Cannot read the person records for the people snapshot", e);
+        } catch (IOException e) {
+            logger.error("Cannot write the people snapshot to {}", directory, e);
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    logger.debug("Cannot delete {}", temporary, e);
+                }
+            }
+        }
+    }
+
+    private static void writePerson(JsonWriter json, PersonRecord person) throws IOException {
+        json.beginObject();
+        json.name(PersonRecord.PN_NAME).value(person.getName());
+        json.name(PersonRecord.PN_AGE).value(person.getAge());
+        json.name(PersonRecord.PN_EMAIL).value(person.getEmail());
+        json.name(PersonRecord.PN_SUMMARY_BIOGRAPHY).value(person.getSummaryBiography());
+        json.name(PersonRecord.NN_ADDRESS).beginObject();
+        json.name(PersonRecord.PN_STREET).value(person.getStreet());
+        json.name(PersonRecord.PN_CITY).value(person.getCity());
+        json.name(PersonRecord.PN_ZIP).value(person.getZip());
+        json.endObject();
+        json.name(PersonRecord.NN_PHONE_NUMBER).beginArray();
+        for (Map.Entry<String, String> phoneNumber : person.getPhoneNumbers().entrySet()) {
+            json.beginObject();
+            json.name(PersonRecord.PN_TYPE).value(phoneNumber.getKey());
+            json.name(PersonRecord.PN_NUMBER).value(phoneNumber.getValue());
+            json.endObject();
+        }
+        json.endArray();
+        json.name(PersonRecord.NN_OCCUPATIONS).beginArray();
+        for (String occupation : person.getOccupations()) {
+            json.value(occupation);
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    /**
+     * @return the snapshot with the highest version in the directory, or null if there is none
+     */
+    private PeopleSnapshot findLatest() {
+        final List<Long> versions = listVersions();
+        if (versions.isEmpty()) {
+            return null;
+        }
+        final long version = versions.get(0);
+        final Path file = directory.resolve(fileName(version));
+        final MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            final byte[] buffer = new byte[8192];
+            while (in.read(buffer) >= 0) {
+                // only the digest is needed
+            }
+            return new PeopleSnapshot(version, file, Files.size(file),
+                    Files.getLastModifiedTime(file).toMillis(), toETag(digest.digest()));
+        } catch (IOException e) {
+            logger.warn("Cannot read people snapshot {}, publishing a new one", file, e);
+            return null;
+        }
+    }
+
+    private void prune() {
+        final List<Long> versions = listVersions();
+        for (Long version : versions.subList(Math.min(retainedVersions, versions.size()), versions.size())) {
+            final Path file = directory.resolve(fileName(version));
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // still open on platforms that do not delete open files, retried with the next version
+                logger.debug("Cannot delete people snapshot {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * @return the versions of the snapshot files in the directory, highest first
+     */
+    private List<Long> listVersions() {
+        final List<Long> versions = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return versions;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                final Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    versions.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot list the people snapshots in {}", directory, e);
+        }
+        versions.sort(Collections.reverseOrder());
+        return versions;
+    }
+
+    private static String fileName(long version) {
+        return "people-" + version + ".json.gz";
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toETag(byte[] digest) {
+        final StringBuilder hex = new StringBuilder(34).append('"');
+        for (int i = 0; i < 16; i++) {
+            hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+        }
+        return hex.append('"').toString();
+    }
+}
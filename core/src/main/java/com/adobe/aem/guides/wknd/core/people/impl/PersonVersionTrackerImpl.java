@@ -0,0 +1,63 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.adobe.aem.guides.wknd.core.people.PersonVersionTracker;
+
+/**
+ * Keeps person versions in memory. Every change below a person record assigns the next
+ * value of a single monotonic sequence to that person, so versions are never reused,
+ * not even across persons. The sequence starts at the activation time, which keeps
+ * versions handed out after a restart distinct from the ones handed out before.
+ */
+@Component(service = { PersonVersionTracker.class, ResourceChangeHandler.class },
+           property = {
+                   ResourceChangeHandler.PATHS + "=" + PeopleData.DATA_ROOT
+           })
+@ServiceDescription("Tracks versions of the imported people records")
+public class PersonVersionTrackerImpl implements PersonVersionTracker, ResourceChangeHandler {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    private volatile long baseVersion = sequence.get();
+
+    @Override
+    public long getVersion(String personName) {
+        if (personName == null) {
+            return baseVersion;
+        }
+        final Long version = versions.get(personName);
+        return version != null ? version : baseVersion;
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        final Set<String> personNames = PeopleData.getChangedPersonNames(changes);
+        if (personNames == null) {
+            // a change covers the data root, so any person record may have changed
+            logger.debug("People data root changed, resetting all person versions");
+            baseVersion = sequence.incrementAndGet();
+            versions.clear();
+            return;
+        }
+        for (String personName : personNames) {
+            versions.put(personName, sequence.incrementAndGet());
+        }
+    }
+}
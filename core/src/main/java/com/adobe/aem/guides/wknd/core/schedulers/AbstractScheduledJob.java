@@ -0,0 +1,222 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.metrics.LatencyHistogram;
+import com.adobe.aem.guides.wknd.core.metrics.TimingStatistics;
+
+/**
+ * Base of the jobs run by the Sling scheduler through {@link Runnable#run()} and on demand
+ * through {@link #runNow()}. It provides what the jobs would otherwise each lack:
+ * <ul>
+ * <li>runs never overlap, whatever triggered them; a run triggered while another one is in
+ * progress is skipped and recorded as such;</li>
+ * <li>a run has an optional time budget. Jobs stop cooperatively: they check
+ * {@link #isCancelled()} at safe points, which becomes true once the budget is exhausted or
+ * the job is {@link #cancel() cancelled}, e.g. by {@link #stopJob()} on deactivation;</li>
+ * <li>the most recent runs are kept, and the durations of all runs are recorded in a
+ * {@link LatencyHistogram}.</li>
+ * </ul>
+ * Subclasses register as {@link ScheduledJob} besides {@link Runnable} to be listed by the
+ * {@link ScheduledJobsMBean}. This class logs with its own logger, so the logs of the jobs
+ * stay as they are.
+ */
+public abstract class AbstractScheduledJob implements ScheduledJob, Runnable {
+
+    static final int HISTORY_SIZE = 20;
+
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    private final Logger jobLogger = LoggerFactory.getLogger(AbstractScheduledJob.class);
+
+    private final String jobName;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Deque<JobRun> history = new ArrayDeque<>();
+
+    private final LatencyHistogram durations = new LatencyHistogram();
+
+    private final long createdMillis = System.currentTimeMillis();
+
+    private volatile long timeBudgetNanos;
+
+    private volatile RunState currentRun;
+
+    /**
+     * @param jobName the name of the job, unique among the jobs
+     */
+    protected AbstractScheduledJob(String jobName) {
+        this.jobName = jobName;
+    }
+
+    /**
+     * Does the work of one run. Long running jobs check {@link #isCancelled()} at safe points
+     * and return early when it is true.
+     *
+     * @throws Exception if the run failed
+     */
+    protected abstract void execute() throws Exception;
+
+    @Override
+    public void run() {
+        runJob(TRIGGER_SCHEDULER);
+    }
+
+    @Override
+    public boolean runNow() {
+        return runJob(TRIGGER_MANUAL);
+    }
+
+    @Override
+    public String getJobName() {
+        return jobName;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public void cancel() {
+        final RunState run = currentRun;
+        if (run != null) {
+            run.cancelled = true;
+        }
+    }
+
+    @Override
+    public List<JobRun> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    @Override
+    public TimingStatistics getStatistics() {
+        return new TimingStatistics(jobName, durations,
+                (System.currentTimeMillis() - createdMillis) / (double) TimeUnit.SECONDS.toMillis(1));
+    }
+
+    /**
+     * @param timeBudgetMillis the time a run may take before it is asked to stop, 0 or less for no limit
+     */
+    protected void setTimeBudget(long timeBudgetMillis) {
+        timeBudgetNanos = timeBudgetMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis) : 0;
+    }
+
+    /**
+     * @return true if the current run was cancelled or exhausted its time budget; always false
+     *         outside of a run
+     */
+    protected boolean isCancelled() {
+        final RunState run = currentRun;
+        return run != null && (run.cancelled || run.budgetNanos > 0 && System.nanoTime() - run.startNanos > run.budgetNanos);
+    }
+
+    /**
+     * @return the time left of the budget of the current run in milliseconds, 0 once it is exhausted;
+     *         {@link Long#MAX_VALUE} if the run has no budget and outside of a run
+     */
+    protected long getRemainingBudgetMillis() {
+        final RunState run = currentRun;
+        if (run == null || run.budgetNanos <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(run.budgetNanos - (System.nanoTime() - run.startNanos)));
+    }
+
+    /**
+     * Cancels the run in progress and waits a while for it to end, to be called on deactivation.
+     */
+    protected void stopJob() {
+        cancel();
+        final long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        synchronized (running) {
+            try {
+                for (long wait = STOP_TIMEOUT_MILLIS; running.get() && wait > 0; wait = deadline - System.currentTimeMillis()) {
+                    running.wait(wait);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (running.get()) {
+            jobLogger.warn("Job {} did not stop within {} ms", jobName, STOP_TIMEOUT_MILLIS);
+        }
+    }
+
+    private boolean runJob(String trigger) {
+        if (!running.compareAndSet(false, true)) {
+            jobLogger.info("Skipping {} run of job {}, the previous run is still in progress", trigger, jobName);
+            remember(new JobRun(trigger, JobRun.Outcome.SKIPPED, System.currentTimeMillis(), 0, null));
+            return false;
+        }
+        final long startMillis = System.currentTimeMillis();
+        final long start = System.nanoTime();
+        final long budget = timeBudgetNanos;
+        final RunState run = new RunState(start, budget);
+        currentRun = run;
+        JobRun.Outcome outcome = JobRun.Outcome.SUCCEEDED;
+        String message = null;
+        try {
+            execute();
+        } catch (Exception e) {
+            outcome = JobRun.Outcome.FAILED;
+            message = e.toString();
+            jobLogger.error("Job {} failed", jobName, e);
+        } finally {
+            final long durationNanos = System.nanoTime() - start;
+            if (outcome == JobRun.Outcome.SUCCEEDED && run.cancelled) {
+                outcome = JobRun.Outcome.CANCELLED;
+            } else if (outcome == JobRun.Outcome.SUCCEEDED && budget > 0 && durationNanos > budget) {
+                outcome = JobRun.Outcome.OVER_BUDGET;
+                jobLogger.warn("Job {} took {} ms, over its budget of {} ms", jobName,
+                        TimeUnit.NANOSECONDS.toMillis(durationNanos), TimeUnit.NANOSECONDS.toMillis(budget));
+            }
+            durations.record(durationNanos);
+            remember(new JobRun(trigger, outcome, startMillis, TimeUnit.NANOSECONDS.toMillis(durationNanos), message));
+            synchronized (running) {
+                currentRun = null;
+                running.set(false);
+                running.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    private void remember(JobRun run) {
+        synchronized (history) {
+            history.addFirst(run);
+            while (history.size() > HISTORY_SIZE) {
+                history.removeLast();
+            }
+        }
+    }
+
+    /**
+     * State of the run in progress.
+     */
+    private static final class RunState {
+
+        private final long startNanos;
+
+        private final long budgetNanos;
+
+        private volatile boolean cancelled;
+
+        RunState(long startNanos, long budgetNanos) {
+            this.startNanos = startNanos;
+            this.budgetNanos = budgetNanos;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * JMX view of the cache warmer.
+ */
+@Description("WKND cache warmer")
+public interface CacheWarmerMBean {
+
+    @Description("Whether a warming run is in progress")
+    boolean isRunning();
+
+    @Description("Number of URLs of the current or last run")
+    int getRunSize();
+
+    @Description("Number of URLs of the current run not requested yet")
+    int getRemainingCount();
+
+    @Description("Number of URLs requested successfully")
+    long getWarmedCount();
+
+    @Description("Number of URLs that failed or returned an error status")
+    long getFailedCount();
+
+    @Description("Number of URLs that took longer than the slow threshold, each followed by a pause")
+    long getSlowCount();
+
+    @Description("Number of completed runs")
+    long getRunCount();
+
+    @Description("Start of the current or last run, in epoch milliseconds")
+    long getLastRunStartMillis();
+
+    @Description("Duration of the last completed run in milliseconds")
+    long getLastRunDurationMillis();
+
+    @Description("Last error of a warming request")
+    String getLastError();
+
+    @Description("Queues a run over the configured paths and sitemaps")
+    void warm();
+}
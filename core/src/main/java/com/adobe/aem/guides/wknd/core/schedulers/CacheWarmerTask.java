@@ -0,0 +1,533 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.guides.wknd.core.dispatcher.DispatcherFlushService;
+import com.adobe.aem.guides.wknd.core.dispatcher.FlushRequest;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.adobe.aem.guides.wknd.core.metrics.TimingStatistics;
+import com.adobe.aem.guides.wknd.core.util.RateLimiter;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * Scheduled task that requests pages through the dispatcher, or the publish instance itself,
+ * so that the first visitors after a deployment or an invalidation find them cached. A run is
+ * started
+ * <ul>
+ * <li>on the configured cron expression, and through JMX, over the configured paths, most
+ * requested first, followed by the pages listed in the configured sitemaps;</li>
+ * <li>shortly after content changes, over the pages the {@link DispatcherFlushService}
+ * invalidated since the last run, which includes every page referencing a changed person.
+ * An invalidation of a whole tree starts a full run instead.</li>
+ * </ul>
+ * Requests are sent by a bounded number of workers at a limited rate; a worker whose request
+ * was slow pauses before the next one, so warming yields to visitors when the instance is
+ * busy. Runs never overlap, and triggers arriving during a run are merged into one next run.
+ * <p>
+ * The runs are those of a delegate {@link AbstractScheduledJob}, as this class already extends
+ * {@link AnnotatedStandardMBean}, so they are listed with the other jobs by the
+ * {@link ScheduledJobsMBean} and can be cancelled from there. The delegate only ever runs on the
+ * single coordinator thread, which merges the triggers and delays the invalidation runs.
+ */
+@Component(service = { Runnable.class, ScheduledJob.class, ResourceChangeHandler.class, DynamicMBean.class },
+           property = {
+                   ResourceChangeHandler.PATHS + "=" + CacheWarmerTask.CONTENT_ROOT,
+                   "jmx.objectname=com.adobe.aem.guides.wknd:type=Cache,name=CacheWarmer"
+           })
+@Designate(ocd = CacheWarmerTask.Config.class)
+@ServiceDescription("Warms the page cache after deployments and invalidations")
+public class CacheWarmerTask extends AnnotatedStandardMBean
+        implements Runnable, ScheduledJob, ResourceChangeHandler, CacheWarmerMBean {
+
+    static final String CONTENT_ROOT = "/content/wknd";
+
+    @ObjectClassDefinition(name = "WKND Cache Warmer",
+                           description = "Requests pages so that they are cached before visitors ask for them")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Enabled", description = "Warm the cache on the schedule and after invalidations")
+        boolean enabled() default false;
+
+        @AttributeDefinition(name = "Cron-job expression", description = "Schedule of the full runs")
+        String scheduler_expression() default "0 30 5 * * ?";
+
+        @AttributeDefinition(name = "Concurrent task", description = "Whether or not to schedule this task concurrently")
+        boolean scheduler_concurrent() default false;
+
+        @AttributeDefinition(name = "Base URL", description = "Dispatcher or publish instance the pages are requested from")
+        String base_url() default "http://localhost:80";
+
+        @AttributeDefinition(name = "Paths", description = "Pages warmed first in full runs, most requested first, e.g. from the access metrics")
+        String[] paths() default {};
+
+        @AttributeDefinition(name = "Sitemaps", description = "Paths of sitemaps whose pages are warmed in full runs")
+        String[] sitemaps() default {};
+
+        @AttributeDefinition(name = "Warm after invalidation", description = "Warm the pages the dispatcher flush invalidated")
+        boolean warm_after_invalidation() default true;
+
+        @AttributeDefinition(name = "Invalidation delay (s)", description = "Wait after content changes, longer than the dispatcher flush batch interval")
+        long invalidation_delay_seconds() default 5;
+
+        @AttributeDefinition(name = "Maximum URLs", description = "URLs requested per run")
+        int max_urls() default 1000;
+
+        @AttributeDefinition(name = "Concurrency", description = "Requests sent at the same time")
+        int concurrency() default 2;
+
+        @AttributeDefinition(name = "Requests per second", description = "Sustained rate of warming requests, 0 for no limit")
+        double requests_per_second() default 5;
+
+        @AttributeDefinition(name = "Burst", description = "Number of warming requests sent at once after a quiet period")
+        int burst() default 2;
+
+        @AttributeDefinition(name = "Slow threshold (ms)", description = "Duration beyond which a request counts as slow")
+        long slow_threshold_ms() default 2000;
+
+        @AttributeDefinition(name = "Slow pause (ms)", description = "Pause of a worker after a slow request")
+        long slow_pause_ms() default 2000;
+
+        @AttributeDefinition(name = "Connect timeout (ms)")
+        int connect_timeout_ms() default 2000;
+
+        @AttributeDefinition(name = "Read timeout (ms)")
+        int read_timeout_ms() default 30000;
+    }
+
+    static final String HEADER_USER_AGENT = "User-Agent";
+
+    static final String USER_AGENT = "wknd-cache-warmer";
+
+    private static final Pattern SITEMAP_LOC = Pattern.compile("<loc>\\s*([^<]+?)\\s*</loc>");
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final AtomicBoolean fullRunQueued = new AtomicBoolean();
+
+    private final AtomicBoolean invalidationRunQueued = new AtomicBoolean();
+
+    private final AtomicInteger runSize = new AtomicInteger();
+
+    private final AtomicInteger remaining = new AtomicInteger();
+
+    private final AtomicLong warmed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong slow = new AtomicLong();
+
+    private final AtomicLong runs = new AtomicLong();
+
+    private final AbstractScheduledJob job = new AbstractScheduledJob("CacheWarmer") {
+        @Override
+        protected void execute() {
+            warmQueued();
+        }
+    };
+
+    private volatile long lastRunStartMillis;
+
+    private volatile long lastRunDurationMillis;
+
+    private volatile String lastError;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC,
+               policyOption = ReferencePolicyOption.GREEDY)
+    private volatile DispatcherFlushService flushService;
+
+    private Config config;
+
+    private RateLimiter rateLimiter;
+
+    private ScheduledExecutorService coordinator;
+
+    private ExecutorService workers;
+
+    /** Newest flush request warmed by an invalidation run, only used by the coordinator. */
+    private FlushRequest lastWarmedFlush;
+
+    public CacheWarmerTask() throws NotCompliantMBeanException {
+        super(CacheWarmerMBean.class);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        this.config = config;
+        rateLimiter = new RateLimiter(config.requests_per_second(), config.burst());
+        coordinator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "wknd-cache-warmer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final AtomicInteger workerCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, config.concurrency()), runnable -> {
+            final Thread thread = new Thread(runnable, "wknd-cache-warmer-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final List<FlushRequest> flushed = getFlushed();
+        lastWarmedFlush = flushed.isEmpty() ? null : flushed.get(0);
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+        job.stopJob();
+        coordinator.awaitTermination(5, TimeUnit.SECONDS);
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a full run, unless the warmer is disabled.
+     */
+    @Override
+    public void run() {
+        if (config.enabled()) {
+            warm();
+        }
+    }
+
+    @Override
+    public void warm() {
+        if (fullRunQueued.compareAndSet(false, true)) {
+            coordinator.execute(job::run);
+        }
+    }
+
+    /**
+     * Queues a full run and waits for it, so the run still happens on the coordinator thread.
+     */
+    @Override
+    public boolean runNow() {
+        fullRunQueued.set(true);
+        try {
+            return coordinator.submit(job::runNow).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            logger.warn("Cache warming run failed", e);
+            return false;
+        }
+    }
+
+    @Override
+    public String getJobName() {
+        return job.getJobName();
+    }
+
+    @Override
+    public void cancel() {
+        job.cancel();
+    }
+
+    @Override
+    public List<JobRun> getHistory() {
+        return job.getHistory();
+    }
+
+    @Override
+    public TimingStatistics getStatistics() {
+        return job.getStatistics();
+    }
+
+    @Override
+    public void handleChanges(List<CoalescedChange> changes) {
+        if (!config.enabled() || !config.warm_after_invalidation() || flushService == null) {
+            return;
+        }
+        if (invalidationRunQueued.compareAndSet(false, true)) {
+            coordinator.schedule(job::run, config.invalidation_delay_seconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Waits until the runs queued so far are done.
+     */
+    void awaitIdle() throws InterruptedException, ExecutionException, TimeoutException {
+        coordinator.submit(() -> { }).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Warms what was queued since the last run. A run triggered by a queued run that already
+     * covered its work finds nothing queued and requests nothing.
+     */
+    private void warmQueued() {
+        final boolean full = fullRunQueued.getAndSet(false);
+        final boolean invalidation = invalidationRunQueued.getAndSet(false);
+        final Set<String> paths = new LinkedHashSet<>();
+        if (full) {
+            paths.addAll(getFullRunPaths());
+        }
+        if (invalidation) {
+            paths.addAll(getInvalidatedPaths());
+        }
+        warm(full ? "full" : "invalidation", paths);
+    }
+
+    private Set<String> getInvalidatedPaths() {
+        final List<FlushRequest> flushed = getFlushed();
+        final Set<String> paths = new LinkedHashSet<>();
+        boolean tree = false;
+        for (FlushRequest request : flushed) {
+            if (request == lastWarmedFlush) {
+                break;
+            }
+            if (request.getAction() != FlushRequest.Action.ACTIVATE) {
+                continue;
+            }
+            if (!request.isResourceOnly()) {
+                tree = true;
+            } else if (!request.getHandle().contains("/jcr:content")) {
+                paths.add(request.getHandle());
+            }
+        }
+        if (!flushed.isEmpty()) {
+            lastWarmedFlush = flushed.get(0);
+        }
+        if (tree) {
+            paths.addAll(getFullRunPaths());
+        }
+        return paths;
+    }
+
+    private List<FlushRequest> getFlushed() {
+        final DispatcherFlushService service = flushService;
+        return service != null ? service.getRecentlyFlushed() : Collections.emptyList();
+    }
+
+    private Set<String> getFullRunPaths() {
+        final Set<String> paths = new LinkedHashSet<>();
+        Collections.addAll(paths, config.paths());
+        for (String sitemap : config.sitemaps()) {
+            try {
+                paths.addAll(readSitemap(sitemap));
+            } catch (IOException e) {
+                lastError = sitemap + ": " + e;
+                logger.warn("Cannot read the sitemap {} for cache warming", sitemap, e);
+            }
+        }
+        return paths;
+    }
+
+    private List<String> readSitemap(String sitemap) throws IOException {
+        final List<String> paths = new ArrayList<>();
+        final Matcher loc = SITEMAP_LOC.matcher(fetchText(sitemap));
+        while (loc.find()) {
+            final URI uri = URI.create(loc.group(1).replace("&amp;", "&"));
+            paths.add(uri.getRawQuery() != null ? uri.getRawPath() + "?" + uri.getRawQuery() : uri.getRawPath());
+        }
+        return paths;
+    }
+
+    private void warm(String kind, Set<String> paths) {
+        final List<Callable<Void>> requests = new ArrayList<>();
+        for (String path : paths) {
+            if (requests.size() >= config.max_urls()) {
+                break;
+            }
+            if (StringUtils.isNotBlank(path)) {
+                requests.add(() -> {
+                    request(path);
+                    return null;
+                });
+            }
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+        final long start = System.currentTimeMillis();
+        final long warmedBefore = warmed.get();
+        final long failedBefore = failed.get();
+        lastRunStartMillis = start;
+        runSize.set(requests.size());
+        remaining.set(requests.size());
+        try {
+            workers.invokeAll(requests);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            remaining.set(0);
+            lastRunDurationMillis = System.currentTimeMillis() - start;
+            runs.incrementAndGet();
+        }
+        logger.info("Cache warming ({}) requested {} URLs in {} ms, {} failed", kind,
+                warmed.get() - warmedBefore + failed.get() - failedBefore, lastRunDurationMillis, failed.get() - failedBefore);
+    }
+
+    private void request(String path) throws InterruptedException {
+        remaining.decrementAndGet();
+        if (job.isCancelled()) {
+            return;
+        }
+        rateLimiter.acquire();
+        final long start = System.nanoTime();
+        try {
+            final HttpURLConnection connection = open(toUrlPath(path));
+            final int status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                drain(body);
+            }
+            if (status >= 400) {
+                failed.incrementAndGet();
+                lastError = path + ": HTTP " + status;
+            } else {
+                warmed.incrementAndGet();
+            }
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            lastError = path + ": " + e;
+        }
+        if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) > config.slow_threshold_ms()) {
+            slow.incrementAndGet();
+            TimeUnit.MILLISECONDS.sleep(config.slow_pause_ms());
+        }
+    }
+
+    private String fetchText(String path) throws IOException {
+        final HttpURLConnection connection = open(path);
+        final int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            try (InputStream body = connection.getErrorStream()) {
+                drain(body);
+            }
+            throw new IOException("HTTP " + status);
+        }
+        final ByteArrayOutputStream text = new ByteArrayOutputStream();
+        try (InputStream body = connection.getInputStream()) {
+            final byte[] buffer = new byte[8192];
+            for (int read = body.read(buffer); read >= 0; read = body.read(buffer)) {
+                text.write(buffer, 0, read);
+            }
+        }
+        return new String(text.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        final HttpURLConnection connection = getHttpConnection(new URL(StringUtils.removeEnd(config.base_url(), "/") + path));
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout(config.connect_timeout_ms());
+        connection.setReadTimeout(config.read_timeout_ms());
+        connection.setRequestProperty(HEADER_USER_AGENT, USER_AGENT);
+        return connection;
+    }
+
+    /**
+     * @param url the URL to request
+     * @return a connection to the URL
+     * @throws IOException if the connection cannot be opened
+     */
+    protected HttpURLConnection getHttpConnection(URL url) throws IOException {
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    /**
+     * @return the path with the <code>html</code> extension if it has none
+     */
+    static String toUrlPath(String path) {
+        final String name = StringUtils.substringAfterLast(path, "/");
+        return name.contains(".") || path.contains("?") ? path : path + ".html";
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        if (body != null) {
+            final byte[] buffer = new byte[8192];
+            while (body.read(buffer) >= 0) {
+                // keep the connection reusable
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return job.isRunning();
+    }
+
+    @Override
+    public int getRunSize() {
+        return runSize.get();
+    }
+
+    @Override
+    public int getRemainingCount() {
+        return remaining.get();
+    }
+
+    @Override
+    public long getWarmedCount() {
+        return warmed.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    @Override
+    public long getSlowCount() {
+        return slow.get();
+    }
+
+    @Override
+    public long getRunCount() {
+        return runs.get();
+    }
+
+    @Override
+    public long getLastRunStartMillis() {
+        return lastRunStartMillis;
+    }
+
+    @Override
+    public long getLastRunDurationMillis() {
+        return lastRunDurationMillis;
+    }
+
+    @Override
+    public String getLastError() {
+        return lastError;
+    }
+}
@@ -1,11 +1,17 @@
 package com.adobe.aem.guides.wknd.core.schedulers;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
@@ -27,13 +33,17 @@ import org.apache.sling.api.resource.ModifiableValueMap;
 import org.apache.sling.api.resource.PersistenceException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
+import com.adobe.aem.guides.wknd.core.people.PeopleAggregates;
+import com.adobe.aem.guides.wknd.core.people.PeopleSnapshotPublisher;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
 
 /**
- * A scheduled task to import JSON from an API and store it in CRX
+ * A scheduled task to import JSON from an API and store it in CRX.
+ * An import that exceeds its time budget, or is running on deactivation, is reverted.
  */
-@Component(service = Runnable.class)
+@Component(service = { Runnable.class, ScheduledJob.class })
 @Designate(ocd = ImportJsonFromAPIImpl.Config.class)
-public class ImportJsonFromAPIImpl implements ImportJsonFromAPI, Runnable {
+public class ImportJsonFromAPIImpl extends AbstractScheduledJob implements ImportJsonFromAPI {
 
     @ObjectClassDefinition(name = "Import JSON from API")
     public @interface Config {
@@ -52,17 +62,38 @@ public class ImportJsonFromAPIImpl implements ImportJsonFromAPI, Runnable {
 
         @AttributeDefinition(name = "CRX Path", description = "Path in CRX to import JSON in node format")
         String parent_node_path() default "/content/wknd/data";
+
+        @AttributeDefinition(name = "Time budget (s)", description = "Time after which a running import is abandoned, 0 for no limit")
+        long time_budget_seconds() default 0;
     }
 
+    /** Upper bound for the time to connect to the API, lowered to what is left of the time budget. */
+    static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    /** Upper bound for the time to wait for data from the API, lowered to what is left of the time budget. */
+    static final int READ_TIMEOUT_MILLIS = 60_000;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Reference
     private ResourceResolverFactory resolverFactory;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC,
+               policyOption = ReferencePolicyOption.GREEDY)
+    private volatile PeopleAggregates peopleAggregates;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC,
+               policyOption = ReferencePolicyOption.GREEDY)
+    private volatile PeopleSnapshotPublisher snapshotPublisher;
+
     private String apiUrl;
     private String crxPath;
     private boolean enabled;
 
+    public ImportJsonFromAPIImpl() {
+        super("ImportJsonFromAPI");
+    }
+
     /**
      * Activate this component
      * 
@@ -73,6 +104,7 @@ public class ImportJsonFromAPIImpl implements ImportJsonFromAPI, Runnable {
         apiUrl = config.api_url();
         crxPath = config.parent_node_path();
         enabled = config.enabled();
+        setTimeBudget(TimeUnit.SECONDS.toMillis(config.time_budget_seconds()));
         logger.debug("ImportJsonFromAPIImpl activated with API URL: {}, crxPath: {}, enabled: {}", apiUrl, crxPath,
                 enabled);
     
@@ -84,13 +116,14 @@ public class ImportJsonFromAPIImpl implements ImportJsonFromAPI, Runnable {
     @Deactivate
     protected void deactivate() {
         logger.debug("ImportJsonFromAPIImpl deactivated");
+        stopJob();
     }
 
     /**
      * Run the task
      */
     @Override
-    public void run() {
+    protected void execute() {
         if (!enabled) {
             logger.debug("ImportJsonFromAPIImpl is disabled");
             return;
@@ -113,6 +146,8 @@ public class ImportJsonFromAPIImpl implements ImportJsonFromAPI, Runnable {
             logger.debug("Fetching JSON from API: {}", apiUrl);
             URL url = getUrl(apiUrl);
             HttpURLConnection httpConnection = getHttpConnection(url);
+            httpConnection.setConnectTimeout(getTimeout(CONNECT_TIMEOUT_MILLIS));
+            httpConnection.setReadTimeout(getTimeout(READ_TIMEOUT_MILLIS));
             httpConnection.connect();
             InputStream inputStream = httpConnection.getInputStream();
             InputStreamReader inputStreamReader = getInputStreamReader(inputStream);
@@ -125,6 +160,15 @@ public class ImportJsonFromAPIImpl implements ImportJsonFromAPI, Runnable {
         }
     }
 
+    /**
+     * @param maxMillis the timeout without a time budget
+     * @return the timeout, at most the time left of the budget of the current run but at least 1 ms,
+     *         as 0 would mean no timeout at all
+     */
+    private int getTimeout(int maxMillis) {
+        return (int) Math.max(1, Math.min(maxMillis, getRemainingBudgetMillis()));
+    }
+
     /**
      * Get JSON element from input stream reader
      * 
@@ -194,8 +238,15 @@ public class ImportJsonFromAPIImpl implements ImportJsonFromAPI, Runnable {
 
                 JsonObject jsonObject = getJsonObject(json);
                 JsonArray peopleArray = jsonObject.getAsJsonArray("people");
+                PeopleAggregates aggregates = peopleAggregates;
+                List<PersonRecord> writtenPersons = new ArrayList<>();
 
                 for (JsonElement personElement : peopleArray) {
+                    if (isCancelled()) {
+                        logger.warn("Import to CRX at path {} cancelled, reverting", crxPath);
+                        resolver.revert();
+                        return;
+                    }
                     JsonObject personObject = personElement.getAsJsonObject();
                     String name = personObject.get("name").getAsString();
 
@@ -260,9 +311,20 @@ public class ImportJsonFromAPIImpl implements ImportJsonFromAPI, Runnable {
                         occupationProperties.put("occupation", occupation);
                     }
 
+                    if (aggregates != null) {
+                        // read back as written, occupations of earlier imports are kept
+                        writtenPersons.add(PersonRecord.fromResource(personResource));
+                    }
                 }
 
                 resolver.commit();
+                if (aggregates != null) {
+                    writtenPersons.forEach(aggregates::record);
+                }
+                PeopleSnapshotPublisher publisher = snapshotPublisher;
+                if (publisher != null) {
+                    publisher.publish();
+                }
             } catch (PersistenceException e) {
                 logger.error("Error committing changes to CRX", e);
             } catch (Exception e) {
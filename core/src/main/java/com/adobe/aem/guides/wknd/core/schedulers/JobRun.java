@@ -0,0 +1,74 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import java.time.Instant;
+
+/**
+ * Immutable record of one run, or skipped run, of a {@link ScheduledJob}.
+ */
+public final class JobRun {
+
+    /** How a run ended. */
+    public enum Outcome {
+        /** The job finished within its time budget. */
+        SUCCEEDED,
+        /** The job finished after its time budget was exhausted. */
+        OVER_BUDGET,
+        /** The job stopped early because it was cancelled. */
+        CANCELLED,
+        /** The job threw an exception. */
+        FAILED,
+        /** The job was not started because a run was still in progress. */
+        SKIPPED
+    }
+
+    private final String trigger;
+
+    private final Outcome outcome;
+
+    private final long startMillis;
+
+    private final long durationMillis;
+
+    private final String message;
+
+    /**
+     * @param trigger what started the run, e.g. {@link ScheduledJob#TRIGGER_SCHEDULER}
+     * @param outcome how the run ended
+     * @param startMillis the start of the run in epoch milliseconds
+     * @param durationMillis the duration of the run
+     * @param message the error of a failed run, or null
+     */
+    public JobRun(String trigger, Outcome outcome, long startMillis, long durationMillis, String message) {
+        this.trigger = trigger;
+        this.outcome = outcome;
+        this.startMillis = startMillis;
+        this.durationMillis = durationMillis;
+        this.message = message;
+    }
+
+    public String getTrigger() {
+        return trigger;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(startMillis) + " " + trigger + " " + outcome + " " + durationMillis + "ms"
+                + (message != null ? " " + message : "");
+    }
+}
@@ -0,0 +1,50 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import java.util.List;
+
+import com.adobe.aem.guides.wknd.core.metrics.TimingStatistics;
+
+/**
+ * Whiteboard service of a job run by the Sling scheduler and on demand, see
+ * {@link AbstractScheduledJob}. All registered jobs are listed by the {@link ScheduledJobsMBean}.
+ */
+public interface ScheduledJob {
+
+    /** Trigger of runs started by the scheduler. */
+    String TRIGGER_SCHEDULER = "scheduler";
+
+    /** Trigger of runs started on demand. */
+    String TRIGGER_MANUAL = "manual";
+
+    /**
+     * @return the name of the job, unique among the jobs
+     */
+    String getJobName();
+
+    /**
+     * Runs the job on the calling thread, unless a run is in progress.
+     *
+     * @return false if the run was skipped because another run was in progress
+     */
+    boolean runNow();
+
+    /**
+     * Asks the run in progress, if any, to stop as soon as possible.
+     */
+    void cancel();
+
+    /**
+     * @return true if a run is in progress
+     */
+    boolean isRunning();
+
+    /**
+     * @return the most recent runs, including skipped runs, newest first
+     */
+    List<JobRun> getHistory();
+
+    /**
+     * @return the statistics of the durations of the completed runs
+     */
+    TimingStatistics getStatistics();
+}
@@ -0,0 +1,130 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.guides.wknd.core.metrics.TimingStatistics;
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+
+/**
+ * {@link ScheduledJobsMBean} over all registered {@link ScheduledJob}s. Runs started through
+ * JMX execute on a background thread, so the JMX call returns right away.
+ */
+@Component(service = DynamicMBean.class,
+           property = "jmx.objectname=com.adobe.aem.guides.wknd:type=Schedulers,name=ScheduledJobs")
+@ServiceDescription("JMX view of the scheduled jobs")
+public class ScheduledJobRegistry extends AnnotatedStandardMBean implements ScheduledJobsMBean {
+
+    private final Map<String, ScheduledJob> jobs = new TreeMap<>();
+
+    private ExecutorService executor;
+
+    public ScheduledJobRegistry() throws NotCompliantMBeanException {
+        super(ScheduledJobsMBean.class);
+    }
+
+    @Reference(service = ScheduledJob.class,
+               cardinality = ReferenceCardinality.MULTIPLE,
+               policy = ReferencePolicy.DYNAMIC)
+    protected void bindJob(ScheduledJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getJobName(), job);
+        }
+    }
+
+    protected void unbindJob(ScheduledJob job) {
+        synchronized (jobs) {
+            jobs.remove(job.getJobName(), job);
+        }
+    }
+
+    @Activate
+    protected void activate() {
+        executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "wknd-scheduled-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String[] getJobs() {
+        final List<String> lines = new ArrayList<>();
+        synchronized (jobs) {
+            for (ScheduledJob job : jobs.values()) {
+                final List<JobRun> history = job.getHistory();
+                final TimingStatistics statistics = job.getStatistics();
+                lines.add(statistics + (job.isRunning() ? ", running" : "")
+                        + (history.isEmpty() ? "" : ", last: " + history.get(0)));
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getHistory(String name) {
+        final ScheduledJob job = getJob(name);
+        if (job == null) {
+            return new String[0];
+        }
+        final List<String> lines = new ArrayList<>();
+        for (JobRun run : job.getHistory()) {
+            lines.add(run.toString());
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public String runJob(String name) {
+        final ScheduledJob job = getJob(name);
+        if (job == null) {
+            return "Unknown job " + name;
+        }
+        if (job.isRunning()) {
+            return "Job " + name + " is running already";
+        }
+        executor.execute(job::runNow);
+        return "Started job " + name;
+    }
+
+    @Override
+    public String cancelJob(String name) {
+        final ScheduledJob job = getJob(name);
+        if (job == null) {
+            return "Unknown job " + name;
+        }
+        job.cancel();
+        return job.isRunning() ? "Asked job " + name + " to stop" : "Job " + name + " is not running";
+    }
+
+    /**
+     * @return the job with the name, or null
+     */
+    ScheduledJob getJob(String name) {
+        synchronized (jobs) {
+            return jobs.get(name);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import com.adobe.granite.jmx.annotation.Description;
+import com.adobe.granite.jmx.annotation.Name;
+
+/**
+ * JMX view of all {@link ScheduledJob}s.
+ */
+@Description("WKND scheduled jobs")
+public interface ScheduledJobsMBean {
+
+    @Description("Registered jobs with their state and run duration percentiles")
+    String[] getJobs();
+
+    @Description("Most recent runs of a job, newest first")
+    String[] getHistory(@Name("job") @Description("Name of the job") String job);
+
+    @Description("Starts a run of a job in the background, unless a run is in progress")
+    String runJob(@Name("job") @Description("Name of the job") String job);
+
+    @Description("Asks the run in progress of a job to stop")
+    String cancelJob(@Name("job") @Description("Name of the job") String job);
+}
@@ -29,8 +29,8 @@ import org.slf4j.LoggerFactory;
  * set the property values in /system/console/configMgr
  */
 @Designate(ocd=SimpleScheduledTask.Config.class)
-@Component(service=Runnable.class)
-public class SimpleScheduledTask implements Runnable {
+@Component(service={Runnable.class, ScheduledJob.class})
+public class SimpleScheduledTask extends AbstractScheduledJob {
 
     @ObjectClassDefinition(name="A scheduled task",
                            description = "Simple demo for cron-job like task with properties")
@@ -51,9 +51,13 @@ public class SimpleScheduledTask implements Runnable {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private String myParameter;
-    
+
+    public SimpleScheduledTask() {
+        super("SimpleScheduledTask");
+    }
+
     @Override
-    public void run() {
+    protected void execute() {
         logger.debug("SimpleScheduledTask is now running, myParameter='{}'", myParameter);
     }
 
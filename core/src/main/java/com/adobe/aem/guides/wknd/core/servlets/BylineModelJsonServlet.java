@@ -0,0 +1,123 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.guides.wknd.core.cache.ResourceVersions;
+import com.adobe.aem.guides.wknd.core.models.Byline;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Exports the Byline model as JSON on the <code>model.json</code> selector and extension.
+ * The JSON is streamed to the response writer property by property. Responses carry a
+ * strong ETag and a Last-Modified time derived from the repository state of the byline
+ * resource and its image, so they are the same on every instance and across restarts,
+ * and a <code>Cache-Control</code> header. The validators are checked through
+ * {@link ConditionalGet} before the model is created, so revalidations are answered
+ * with a 304 without adapting the model.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes = BylineModelJsonServlet.RESOURCE_TYPE,
+        methods = HttpConstants.METHOD_GET,
+        selectors = "model",
+        extensions = "json")
+@ServiceDescription("Byline JSON Exporter")
+public class BylineModelJsonServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String RESOURCE_TYPE = "wknd/components/byline";
+
+    static final String CACHE_CONTROL = "max-age=60";
+
+    /** The byline properties written to the JSON. */
+    private static final String[] RENDERED_PROPERTIES = {
+        "peopleId", "name", "occupations", "email", "phoneNumber", "summaryBiography"
+    };
+
+    private static final String PN_FILE_REFERENCE = "fileReference";
+
+    private static final String NN_FILE = "file";
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        final ConditionalGet conditional = getConditionalGet(req.getResource());
+        if (conditional.isNotModified(req, resp)) {
+            return;
+        }
+
+        final Byline byline = req.adaptTo(Byline.class);
+        if (byline == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        final JsonWriter json = new JsonWriter(resp.getWriter());
+        json.beginObject();
+        json.name("peopleId").value(byline.getPeopleId());
+        json.name("name").value(byline.getName());
+        json.name("occupations").beginArray();
+        for (String occupation : byline.getOccupations()) {
+            json.value(occupation);
+        }
+        json.endArray();
+        json.name("email").value(byline.getEmail());
+        json.name("phoneNumber").value(byline.getPhoneNumber());
+        json.name("summaryBiography").value(byline.summaryBiography());
+        json.name("imageSrc").value(byline.getImageSrc());
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * The validators cover the rendered properties and the modification time of the byline resource,
+     * its inline image and the referenced DAM asset, all read from the repository. The last-modified
+     * time is the latest of these modification times.
+     */
+    private ConditionalGet getConditionalGet(Resource resource) throws ServletException {
+        final ValueMap properties = resource.getValueMap();
+        long lastModified = ResourceVersions.getLastModified(resource);
+        final StringBuilder basis = new StringBuilder(resource.getPath()).append('|').append(lastModified);
+        for (String name : RENDERED_PROPERTIES) {
+            basis.append('|').append(StringUtils.join(properties.get(name, String[].class), ','));
+        }
+        final Resource file = resource.getChild(NN_FILE);
+        if (file != null) {
+            final long fileLastModified = ResourceVersions.getLastModified(file);
+            basis.append('|').append(fileLastModified);
+            lastModified = Math.max(lastModified, fileLastModified);
+        }
+        final String fileReference = properties.get(PN_FILE_REFERENCE, String.class);
+        if (StringUtils.isNotBlank(fileReference)) {
+            basis.append('|').append(fileReference);
+            final Resource assetContent = resource.getResourceResolver()
+                    .getResource(fileReference + "/" + JcrConstants.JCR_CONTENT);
+            if (assetContent != null) {
+                final long assetLastModified = ResourceVersions.getLastModified(assetContent);
+                basis.append('@').append(assetLastModified);
+                lastModified = Math.max(lastModified, assetLastModified);
+            }
+        }
+        return new ConditionalGet(ConditionalGet.eTag(basis.toString()), lastModified)
+                .withCacheControl(CACHE_CONTROL);
+    }
+}
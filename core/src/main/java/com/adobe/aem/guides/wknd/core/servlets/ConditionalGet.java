@@ -0,0 +1,150 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+
+/**
+ * Cache validators of a response and the conditional GET handling based on them. A servlet
+ * computes the validators before rendering and lets {@link #isNotModified} answer revalidations:
+ * <pre>
+ * final ConditionalGet conditional = new ConditionalGet(ConditionalGet.eTag(basis), lastModified)
+ *         .withCacheControl("max-age=60");
+ * if (conditional.isNotModified(req, resp)) {
+ *     return;
+ * }
+ * </pre>
+ * As in RFC 7232, <code>If-None-Match</code> takes precedence over <code>If-Modified-Since</code>,
+ * ETags are compared weakly and modification times with second precision.
+ */
+public final class ConditionalGet {
+
+    static final String HEADER_ETAG = "ETag";
+
+    static final String HEADER_LAST_MODIFIED = "Last-Modified";
+
+    static final String HEADER_CACHE_CONTROL = "Cache-Control";
+
+    static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    private final String eTag;
+
+    private final long lastModified;
+
+    private String cacheControl;
+
+    /**
+     * @param eTag the quoted entity tag, or null for none
+     * @param lastModified the modification time in milliseconds, 0 or less if unknown
+     */
+    public ConditionalGet(String eTag, long lastModified) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @param value the <code>Cache-Control</code> header sent with full and not modified responses
+     * @return this
+     */
+    public ConditionalGet withCacheControl(String value) {
+        this.cacheControl = value;
+        return this;
+    }
+
+    /**
+     * @param basis everything the response depends on
+     * @return a strong, quoted entity tag hashed from the basis
+     * @throws ServletException if SHA-256 is not available
+     */
+    public static String eTag(String basis) throws ServletException {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(basis.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder hex = new StringBuilder(34).append('"');
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new ServletException("SHA-256 is not available", e);
+        }
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Sets the validator and cache headers and answers the request with a 304 if it is
+     * a GET or HEAD whose preconditions show the client's copy is current.
+     *
+     * @param request the request
+     * @param response the response
+     * @return true if a 304 was sent and nothing else must be written
+     */
+    public boolean isNotModified(SlingHttpServletRequest request, SlingHttpServletResponse response) {
+        if (eTag != null) {
+            response.setHeader(HEADER_ETAG, eTag);
+        }
+        if (lastModified > 0) {
+            response.setDateHeader(HEADER_LAST_MODIFIED, lastModified);
+        }
+        if (cacheControl != null) {
+            response.setHeader(HEADER_CACHE_CONTROL, cacheControl);
+        }
+        if (!HttpConstants.METHOD_GET.equals(request.getMethod()) && !HttpConstants.METHOD_HEAD.equals(request.getMethod())) {
+            return false;
+        }
+        if (isCurrent(request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isCurrent(SlingHttpServletRequest request) {
+        final String ifNoneMatch = request.getHeader(HEADER_IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch);
+        }
+        if (lastModified <= 0) {
+            return false;
+        }
+        final long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HEADER_IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private boolean matches(String ifNoneMatch) {
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        if (eTag == null) {
+            return false;
+        }
+        final String opaqueTag = StringUtils.removeStart(eTag, "W/");
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (opaqueTag.equals(StringUtils.removeStart(candidate.trim(), "W/"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
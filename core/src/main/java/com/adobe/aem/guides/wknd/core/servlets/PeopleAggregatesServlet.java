@@ -0,0 +1,70 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleAggregates;
+import com.adobe.aem.guides.wknd.core.people.PeopleCounts;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes the counts of the {@link PeopleAggregates}: the number of people and the number
+ * of people per city, occupation and age bucket. The counts are precomputed, so the response
+ * does not depend on reading the person records.
+ */
+@Component(service = { Servlet.class },
+           property = "sling.servlet.methods=" + HttpConstants.METHOD_GET)
+@SlingServletPaths(PeopleAggregatesServlet.PATH)
+@ServiceDescription("People aggregates endpoint")
+public class PeopleAggregatesServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PATH = "/bin/wknd/people/aggregates";
+
+    static final String CACHE_CONTROL = "max-age=60";
+
+    @Reference
+    private transient PeopleAggregates peopleAggregates;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        final PeopleCounts counts = peopleAggregates.getCounts();
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resp.setHeader("Cache-Control", CACHE_CONTROL);
+        final JsonWriter json = new JsonWriter(resp.getWriter());
+        json.beginObject();
+        json.name("total").value(counts.getTotal());
+        writeCounts(json, "city", counts.getByCity());
+        writeCounts(json, "occupation", counts.getByOccupation());
+        writeCounts(json, "age", counts.getByAgeBucket());
+        json.name("recomputed").value(counts.getRecomputedMillis());
+        json.name("drift").value(counts.getDrift());
+        json.endObject();
+        json.flush();
+    }
+
+    private static void writeCounts(JsonWriter json, String name, Map<String, Integer> counts) throws IOException {
+        json.name(name).beginObject();
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            json.name(count.getKey()).value(count.getValue());
+        }
+        json.endObject();
+    }
+}
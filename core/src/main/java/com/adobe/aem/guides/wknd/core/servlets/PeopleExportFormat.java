@@ -0,0 +1,169 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Output formats of the {@link PeopleExportServlet}. A format writes one person record at a time
+ * with the selected fields and keeps no state besides the writer.
+ */
+enum PeopleExportFormat {
+
+    /** Newline-delimited JSON, one object per person. */
+    NDJSON("ndjson", "application/x-ndjson") {
+        @Override
+        void writeHeader(Writer out, List<String> fields) {
+            // no header, every line is self-describing
+        }
+
+        @Override
+        void writeRecord(Writer out, List<String> fields, PersonRecord person) throws IOException {
+            final JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            for (String field : fields) {
+                json.name(field);
+                if (FIELD_AGE.equals(field)) {
+                    json.value(person.getAge());
+                } else if (FIELD_PHONE_NUMBERS.equals(field)) {
+                    json.beginObject();
+                    for (Map.Entry<String, String> phoneNumber : person.getPhoneNumbers().entrySet()) {
+                        json.name(phoneNumber.getKey()).value(phoneNumber.getValue());
+                    }
+                    json.endObject();
+                } else if (FIELD_OCCUPATIONS.equals(field)) {
+                    json.beginArray();
+                    for (String occupation : person.getOccupations()) {
+                        json.value(occupation);
+                    }
+                    json.endArray();
+                } else {
+                    json.value(getText(person, field));
+                }
+            }
+            json.endObject();
+            json.flush();
+            out.write('\n');
+        }
+    },
+
+    /** Comma-separated values with a header line; phone numbers and occupations are joined with ';'. */
+    CSV("csv", "text/csv") {
+        @Override
+        void writeHeader(Writer out, List<String> fields) throws IOException {
+            writeLine(out, fields);
+        }
+
+        @Override
+        void writeRecord(Writer out, List<String> fields, PersonRecord person) throws IOException {
+            final List<String> values = new ArrayList<>(fields.size());
+            for (String field : fields) {
+                if (FIELD_AGE.equals(field)) {
+                    values.add(String.valueOf(person.getAge()));
+                } else if (FIELD_PHONE_NUMBERS.equals(field)) {
+                    final List<String> phoneNumbers = new ArrayList<>();
+                    person.getPhoneNumbers().forEach((type, number) -> phoneNumbers.add(type + ":" + number));
+                    values.add(String.join(";", phoneNumbers));
+                } else if (FIELD_OCCUPATIONS.equals(field)) {
+                    values.add(String.join(";", person.getOccupations()));
+                } else {
+                    values.add(getText(person, field));
+                }
+            }
+            writeLine(out, values);
+        }
+
+        private void writeLine(Writer out, List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(escape(values.get(i)));
+            }
+            out.write("\r\n");
+        }
+
+        private String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (StringUtils.containsAny(value, ',', '"', '\r', '\n')) {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+            return value;
+        }
+    };
+
+    static final String FIELD_NAME = "name";
+    static final String FIELD_AGE = "age";
+    static final String FIELD_EMAIL = "email";
+    static final String FIELD_SUMMARY_BIOGRAPHY = "summaryBiography";
+    static final String FIELD_STREET = "street";
+    static final String FIELD_CITY = "city";
+    static final String FIELD_ZIP = "zip";
+    static final String FIELD_PHONE_NUMBERS = "phoneNumbers";
+    static final String FIELD_OCCUPATIONS = "occupations";
+
+    /** All fields, in output order. */
+    static final List<String> FIELDS = Collections.unmodifiableList(Arrays.asList(FIELD_NAME, FIELD_AGE,
+            FIELD_EMAIL, FIELD_SUMMARY_BIOGRAPHY, FIELD_STREET, FIELD_CITY, FIELD_ZIP, FIELD_PHONE_NUMBERS,
+            FIELD_OCCUPATIONS));
+
+    private final String parameter;
+
+    private final String contentType;
+
+    PeopleExportFormat(String parameter, String contentType) {
+        this.parameter = parameter;
+        this.contentType = contentType;
+    }
+
+    String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @param parameter the format parameter
+     * @return the format, or null if there is no format of that name
+     */
+    static PeopleExportFormat forParameter(String parameter) {
+        for (PeopleExportFormat format : values()) {
+            if (format.parameter.equalsIgnoreCase(parameter)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    abstract void writeHeader(Writer out, List<String> fields) throws IOException;
+
+    abstract void writeRecord(Writer out, List<String> fields, PersonRecord person) throws IOException;
+
+    private static String getText(PersonRecord person, String field) {
+        switch (field) {
+            case FIELD_NAME:
+                return person.getName();
+            case FIELD_EMAIL:
+                return person.getEmail();
+            case FIELD_SUMMARY_BIOGRAPHY:
+                return person.getSummaryBiography();
+            case FIELD_STREET:
+                return person.getStreet();
+            case FIELD_CITY:
+                return person.getCity();
+            case FIELD_ZIP:
+                return person.getZip();
+            default:
+                return null;
+        }
+    }
+}
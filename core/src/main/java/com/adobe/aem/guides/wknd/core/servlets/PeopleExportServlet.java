@@ -0,0 +1,169 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+
+/**
+ * Streams the imported person records as NDJSON (default) or CSV with the <code>format</code>
+ * parameter. Records are read and written one at a time in the child order of the data root,
+ * so memory use does not depend on the number of people and output starts with the first record.
+ * <ul>
+ * <li><code>after</code> resumes after the record of that name, the name of the last record
+ * of the previous page. Resuming costs O(offset): the children before the cursor are iterated
+ * again, though only their names are compared and none of their properties are read. Child
+ * order is the export order, and the data root is not queried, so there is no index to seek
+ * in; clients exporting everything should page with a large <code>limit</code> or none;</li>
+ * <li><code>limit</code> caps the number of records;</li>
+ * <li><code>fields</code> is a comma-separated list of the fields to write.</li>
+ * </ul>
+ * The output is gzipped when the client accepts it.
+ */
+@Component(service = { Servlet.class },
+           property = "sling.servlet.methods=" + HttpConstants.METHOD_GET)
+@SlingServletPaths(PeopleExportServlet.PATH)
+@ServiceDescription("Streaming people export endpoint")
+public class PeopleExportServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PATH = "/bin/wknd/people/export";
+
+    /** Records written between flushes, so the client receives output while the export runs. */
+    static final int FLUSH_INTERVAL = 100;
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        final PeopleExportFormat format = PeopleExportFormat.forParameter(
+                StringUtils.defaultIfBlank(req.getParameter("format"), "ndjson"));
+        if (format == null) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown format");
+            return;
+        }
+        final List<String> fields = getFields(req.getParameter("fields"));
+        if (fields == null) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown field, known fields are " + PeopleExportFormat.FIELDS);
+            return;
+        }
+        final long limit = NumberUtils.toLong(req.getParameter("limit"), 0);
+        final Resource dataRoot = req.getResourceResolver().getResource(PeopleData.DATA_ROOT);
+        if (dataRoot == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        final Iterator<Resource> persons = dataRoot.listChildren();
+        final String after = req.getParameter("after");
+        if (StringUtils.isNotEmpty(after) && (dataRoot.getChild(after) == null || !skipPast(persons, after))) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown cursor");
+            return;
+        }
+
+        resp.setContentType(format.getContentType());
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resp.setHeader("Cache-Control", "no-store");
+        resp.setHeader("Vary", "Accept-Encoding");
+        final boolean gzip = acceptsGzip(req.getHeader("Accept-Encoding"));
+        GZIPOutputStream gzipStream = null;
+        final Writer out;
+        if (gzip) {
+            resp.setHeader("Content-Encoding", "gzip");
+            gzipStream = new GZIPOutputStream(resp.getOutputStream(), GZIP_BUFFER_SIZE, true);
+            out = new OutputStreamWriter(gzipStream, StandardCharsets.UTF_8);
+        } else {
+            out = resp.getWriter();
+        }
+
+        format.writeHeader(out, fields);
+        long count = 0;
+        while (persons.hasNext() && (limit <= 0 || count < limit)) {
+            format.writeRecord(out, fields, PersonRecord.fromResource(persons.next()));
+            count++;
+            if (count == 1 || count % FLUSH_INTERVAL == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+    }
+
+    /**
+     * @return the requested fields in output order, all fields if none are requested,
+     *         or null if an unknown field is requested
+     */
+    private static List<String> getFields(String parameter) {
+        if (StringUtils.isBlank(parameter)) {
+            return PeopleExportFormat.FIELDS;
+        }
+        final List<String> fields = new ArrayList<>();
+        for (String field : StringUtils.split(parameter, ',')) {
+            final String trimmed = field.trim();
+            if (!PeopleExportFormat.FIELDS.contains(trimmed)) {
+                return null;
+            }
+            if (!fields.contains(trimmed)) {
+                fields.add(trimmed);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Advances the iterator past the person of the given name; only names are compared,
+     * the skipped records are not read. Linear in the position of the person, which is why
+     * unknown cursors are rejected by a lookup of the child before.
+     *
+     * @return false if there is no person of that name
+     */
+    private static boolean skipPast(Iterator<Resource> persons, String name) {
+        while (persons.hasNext()) {
+            if (name.equals(persons.next().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the <code>Accept-Encoding</code> header accepts gzip
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleIndex;
+import com.adobe.aem.guides.wknd.core.people.PeopleSearchResult;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Typeahead search over the {@link PeopleIndex}: <code>q</code> is the name prefix,
+ * <code>city</code> and <code>occupation</code> narrow the matches and <code>limit</code>
+ * caps the number of returned people. The response carries the facet counts of all matches.
+ * <p>
+ * The index is read with a service user, so only authenticated users who can read the person
+ * records themselves get results.
+ */
+@Component(service = { Servlet.class },
+           property = "sling.servlet.methods=" + HttpConstants.METHOD_GET)
+@SlingServletPaths(PeopleSearchServlet.PATH)
+@ServiceDescription("People typeahead search endpoint")
+public class PeopleSearchServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PATH = "/bin/wknd/people/search";
+
+    static final int DEFAULT_LIMIT = 10;
+
+    static final int MAX_LIMIT = 100;
+
+    @Reference
+    private transient PeopleIndex peopleIndex;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        if (!RequestAccess.checkPeopleDataReadable(req, resp)) {
+            return;
+        }
+        final int limit = Math.min(MAX_LIMIT, Math.max(0, NumberUtils.toInt(req.getParameter("limit"), DEFAULT_LIMIT)));
+        final PeopleSearchResult result = peopleIndex.search(req.getParameter("q"),
+                req.getParameter("city"), req.getParameter("occupation"), limit);
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resp.setHeader("Cache-Control", "no-store");
+        final JsonWriter json = new JsonWriter(resp.getWriter());
+        json.beginObject();
+        json.name("total").value(result.getTotal());
+        json.name("people").beginArray();
+        for (PersonRecord person : result.getPeople()) {
+            json.beginObject();
+            json.name("name").value(person.getName());
+            json.name("email").value(person.getEmail());
+            json.name("city").value(person.getCity());
+            json.name("occupations").beginArray();
+            for (String occupation : person.getOccupations()) {
+                json.value(occupation);
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+        json.name("facets").beginObject();
+        for (Map.Entry<String, Map<String, Integer>> facet : result.getFacets().entrySet()) {
+            json.name(facet.getKey()).beginObject();
+            for (Map.Entry<String, Integer> value : facet.getValue().entrySet()) {
+                json.name(value.getKey()).value(value.getValue());
+            }
+            json.endObject();
+        }
+        json.endObject();
+        json.endObject();
+        json.flush();
+    }
+}
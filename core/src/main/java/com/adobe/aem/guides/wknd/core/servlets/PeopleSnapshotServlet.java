@@ -0,0 +1,206 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleSnapshot;
+import com.adobe.aem.guides.wknd.core.people.PeopleSnapshotPublisher;
+
+/**
+ * Serves the latest {@link PeopleSnapshot} as gzipped JSON straight from its file. The file is
+ * copied with {@link FileChannel#transferTo}, which avoids copying through the heap where the
+ * container's output allows it; a single byte range of the gzipped file is served for
+ * <code>Range</code> requests, so interrupted downloads can resume. The entity tag is strong and
+ * changes with every new snapshot version.
+ * <p>
+ * Clients that do not accept gzip get the JSON decompressed on the fly, without range support.
+ * <p>
+ * The snapshot is written with a service user, so it is only served to authenticated users who
+ * can read the person records themselves, and only cached privately.
+ */
+@Component(service = { Servlet.class },
+           property = "sling.servlet.methods=" + HttpConstants.METHOD_GET)
+@SlingServletPaths(PeopleSnapshotServlet.PATH)
+@ServiceDescription("People snapshot download endpoint")
+public class PeopleSnapshotServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PATH = "/bin/wknd/people/snapshot";
+
+    static final String CACHE_CONTROL = "private, max-age=60";
+
+    static final String HEADER_VERSION = "WKND-Snapshot-Version";
+
+    private static final String IDENTITY_ETAG_SUFFIX = "-identity";
+
+    @Reference
+    private transient PeopleSnapshotPublisher snapshotPublisher;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        if (!RequestAccess.checkPeopleDataReadable(req, resp)) {
+            return;
+        }
+        final PeopleSnapshot snapshot = snapshotPublisher.getLatest();
+        if (snapshot == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, "No people snapshot published yet");
+            return;
+        }
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(snapshot.getFile(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // replaced and removed since it was looked up
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        try {
+            final boolean gzip = PeopleExportServlet.acceptsGzip(req.getHeader("Accept-Encoding"));
+            resp.setHeader("Vary", "Accept-Encoding");
+            resp.setHeader(HEADER_VERSION, String.valueOf(snapshot.getVersion()));
+            final ConditionalGet conditional = new ConditionalGet(
+                    gzip ? snapshot.getETag() : identityETag(snapshot.getETag()), snapshot.getCreatedMillis())
+                    .withCacheControl(CACHE_CONTROL);
+            if (conditional.isNotModified(req, resp)) {
+                return;
+            }
+            resp.setContentType("application/json");
+            resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            final boolean head = HttpConstants.METHOD_HEAD.equals(req.getMethod());
+            if (!gzip) {
+                if (!head) {
+                    copyDecompressed(channel, resp.getOutputStream());
+                }
+                return;
+            }
+
+            resp.setHeader("Content-Encoding", "gzip");
+            resp.setHeader("Accept-Ranges", "bytes");
+            final long length = snapshot.getLength();
+            long start = 0;
+            long end = length - 1;
+            final String range = req.getHeader("Range");
+            if (range != null && isCurrent(req.getHeader("If-Range"), snapshot.getETag())) {
+                final long[] bounds = parseRange(range, length);
+                if (bounds != null && bounds.length == 0) {
+                    resp.setHeader("Content-Range", "bytes */" + length);
+                    resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                if (bounds != null) {
+                    start = bounds[0];
+                    end = bounds[1];
+                    resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    resp.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+                }
+            }
+            resp.setHeader("Content-Length", String.valueOf(end - start + 1));
+            if (!head) {
+                transfer(channel, start, end - start + 1, resp.getOutputStream());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Parses a single byte range; several ranges are not supported and served as a whole.
+     *
+     * @param header the <code>Range</code> header
+     * @param length the length of the file
+     * @return the first and last byte of the range, an empty array if the range cannot be
+     *         satisfied, or null if the header is to be ignored
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        final String spec = header.substring("bytes=".length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            if (dash == 0) {
+                final long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || length == 0) {
+                    return new long[0];
+                }
+                return new long[] { Math.max(0, length - suffix), length - 1 };
+            }
+            final long first = Long.parseLong(spec.substring(0, dash));
+            final String lastSpec = spec.substring(dash + 1);
+            final long last = lastSpec.isEmpty() ? Long.MAX_VALUE : Long.parseLong(lastSpec);
+            if (last < first) {
+                return null;
+            }
+            if (first >= length) {
+                return new long[0];
+            }
+            return new long[] { first, Math.min(last, length - 1) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if a range may be served: there is no <code>If-Range</code> or it carries
+     *         the current entity tag; dates are not precise enough for a strong comparison
+     */
+    private static boolean isCurrent(String ifRange, String eTag) {
+        return ifRange == null || ifRange.trim().equals(eTag);
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+        final WritableByteChannel target = Channels.newChannel(out);
+        long offset = position;
+        long remaining = count;
+        while (remaining > 0) {
+            final long transferred = channel.transferTo(offset, remaining, target);
+            if (transferred <= 0) {
+                throw new IOException("People snapshot ended " + remaining + " bytes early");
+            }
+            offset += transferred;
+            remaining -= transferred;
+        }
+        out.flush();
+    }
+
+    private static void copyDecompressed(FileChannel channel, OutputStream out) throws IOException {
+        final InputStream in = new GZIPInputStream(Channels.newInputStream(channel));
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        out.flush();
+    }
+
+    private static String identityETag(String eTag) {
+        return StringUtils.removeEnd(eTag, "\"") + IDENTITY_ETAG_SUFFIX + "\"";
+    }
+}
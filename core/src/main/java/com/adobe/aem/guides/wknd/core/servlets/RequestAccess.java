@@ -0,0 +1,102 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+
+import javax.jcr.RepositoryException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jackrabbit.api.security.user.Authorizable;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.ResourceResolver;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+
+/**
+ * Access checks of the servlets registered on paths. Such servlets are not covered by the
+ * access control of a resource, so the ones serving data read with a service user or kept in
+ * memory check the user of the request themselves before they answer. Checks fail closed: a
+ * user that cannot be looked up is denied.
+ */
+final class RequestAccess {
+
+    static final String ANONYMOUS = "anonymous";
+
+    static final String ADMINISTRATORS = "administrators";
+
+    private RequestAccess() {
+        // static methods only
+    }
+
+    /**
+     * Sends an error unless the request is authenticated and its user can read the data root of
+     * the person records, so the person data is served to no one the repository would not
+     * serve it to.
+     *
+     * @param req the request
+     * @param resp the response
+     * @return true if the request may be answered, false if an error was sent
+     * @throws IOException if the error cannot be sent
+     */
+    static boolean checkPeopleDataReadable(SlingHttpServletRequest req, SlingHttpServletResponse resp) throws IOException {
+        if (isAnonymous(req)) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return false;
+        }
+        if (req.getResourceResolver().getResource(PeopleData.DATA_ROOT) == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sends an error unless the user of the request is an administrator, i.e. the admin user or a
+     * member of the {@value #ADMINISTRATORS} group. Used by the servlets exposing diagnostics.
+     *
+     * @param req the request
+     * @param resp the response
+     * @return true if the request may be answered, false if an error was sent
+     * @throws IOException if the error cannot be sent
+     */
+    static boolean checkAdministrator(SlingHttpServletRequest req, SlingHttpServletResponse resp) throws IOException {
+        if (isAnonymous(req) || !isAdministrator(req.getResourceResolver())) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isAdministrator(ResourceResolver resolver) {
+        final UserManager userManager = resolver.adaptTo(UserManager.class);
+        if (userManager == null) {
+            return false;
+        }
+        try {
+            final Authorizable user = userManager.getAuthorizable(resolver.getUserID());
+            if (user == null || user.isGroup()) {
+                return false;
+            }
+            if (((User) user).isAdmin()) {
+                return true;
+            }
+            final Authorizable administrators = userManager.getAuthorizable(ADMINISTRATORS);
+            return administrators != null && administrators.isGroup() && ((Group) administrators).isMember(user);
+        } catch (RepositoryException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param req the request
+     * @return true if the request is not authenticated
+     */
+    static boolean isAnonymous(SlingHttpServletRequest req) {
+        final String user = req.getRemoteUser();
+        return StringUtils.isEmpty(user) || ANONYMOUS.equals(user);
+    }
+}
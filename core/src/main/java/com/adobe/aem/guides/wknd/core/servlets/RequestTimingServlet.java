@@ -0,0 +1,82 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.guides.wknd.core.metrics.RequestTimingRegistry;
+import com.adobe.aem.guides.wknd.core.metrics.TimingStatistics;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Exposes the request latency percentiles collected by the {@link RequestTimingRegistry} as JSON.
+ * Latencies are in milliseconds, throughput in requests per second. Only administrators are
+ * answered, as the statistics expose the resource types and selectors the site serves.
+ */
+@Component(service = { Servlet.class },
+           property = "sling.servlet.methods=" + HttpConstants.METHOD_GET)
+@SlingServletPaths(RequestTimingServlet.PATH)
+@ServiceDescription("Request timing JSON endpoint")
+public class RequestTimingServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PATH = "/bin/wknd/metrics/request-timing";
+
+    @Reference
+    private transient RequestTimingRegistry registry;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        if (!RequestAccess.checkAdministrator(req, resp)) {
+            return;
+        }
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resp.setHeader("Cache-Control", "no-store");
+        final JsonWriter json = new JsonWriter(resp.getWriter());
+        json.beginObject();
+        json.name("total");
+        write(json, registry.getTotalStatistics());
+        json.name("resourceTypes");
+        write(json, registry.getResourceTypeStatistics());
+        json.name("selectors");
+        write(json, registry.getSelectorStatistics());
+        json.endObject();
+        json.flush();
+    }
+
+    private static void write(JsonWriter json, List<TimingStatistics> statistics) throws IOException {
+        json.beginArray();
+        for (TimingStatistics entry : statistics) {
+            write(json, entry);
+        }
+        json.endArray();
+    }
+
+    private static void write(JsonWriter json, TimingStatistics statistics) throws IOException {
+        json.beginObject();
+        json.name("key").value(statistics.getKey());
+        json.name("count").value(statistics.getCount());
+        json.name("throughput").value(statistics.getThroughput());
+        json.name("mean").value(statistics.getMean());
+        json.name("p50").value(statistics.getP50());
+        json.name("p95").value(statistics.getP95());
+        json.name("p99").value(statistics.getP99());
+        json.name("max").value(statistics.getMax());
+        json.endObject();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.adobe.aem.guides.wknd.core.servlets;
 
+import com.adobe.aem.guides.wknd.core.cache.ResourceVersions;
 import com.day.cq.commons.jcr.JcrConstants;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
@@ -35,6 +36,9 @@ import java.io.IOException;
  * all resources of a specific Sling resource type. The
  * {@link SlingSafeMethodsServlet} shall be used for HTTP methods that are
  * idempotent. For write operations use the {@link SlingAllMethodsServlet}.
+ * <p>
+ * Responses carry an ETag hashed from the written text and the last modification
+ * of the page, so clients and CDNs can revalidate them with a {@link ConditionalGet}.
  */
 @Component(service = { Servlet.class })
 @SlingServletResourceTypes(
@@ -46,11 +50,30 @@ public class SimpleServlet extends SlingSafeMethodsServlet {
 
     private static final long serialVersionUID = 1L;
 
+    static final String CACHE_CONTROL = "max-age=60";
+
     @Override
     protected void doGet(final SlingHttpServletRequest req,
             final SlingHttpServletResponse resp) throws ServletException, IOException {
         final Resource resource = req.getResource();
+        final String text = "Title = " + resource.getValueMap().get(JcrConstants.JCR_TITLE);
+        final long lastModified = getLastModified(resource);
+        final ConditionalGet conditional = new ConditionalGet(ConditionalGet.eTag(lastModified + "|" + text), lastModified)
+                .withCacheControl(CACHE_CONTROL);
+        if (conditional.isNotModified(req, resp)) {
+            return;
+        }
         resp.setContentType("text/plain");
-        resp.getWriter().write("Title = " + resource.getValueMap().get(JcrConstants.JCR_TITLE));
+        resp.getWriter().write(text);
+    }
+
+    /**
+     * The page properties live on the content resource, which is where edits update the
+     * modification time.
+     */
+    private static long getLastModified(Resource resource) {
+        final Resource content = resource.getChild(JcrConstants.JCR_CONTENT);
+        return Math.max(ResourceVersions.getLastModified(resource),
+                content != null ? ResourceVersions.getLastModified(content) : 0L);
     }
 }
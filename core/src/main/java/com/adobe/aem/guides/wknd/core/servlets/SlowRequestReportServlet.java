@@ -0,0 +1,85 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestReport;
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestWatchdog;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Lists the slow request reports as JSON, or downloads the folded stacks of one report
+ * with the <code>id</code> parameter, ready for <code>flamegraph.pl</code> or speedscope.
+ * Only administrators are answered, as the reports expose request paths and stack traces.
+ */
+@Component(service = { Servlet.class },
+           property = "sling.servlet.methods=" + HttpConstants.METHOD_GET)
+@SlingServletPaths(SlowRequestReportServlet.PATH)
+@ServiceDescription("Slow request report endpoint")
+public class SlowRequestReportServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PATH = "/bin/wknd/diagnostics/slow-requests";
+
+    static final String PARAM_ID = "id";
+
+    @Reference
+    private transient SlowRequestWatchdog watchdog;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        if (!RequestAccess.checkAdministrator(req, resp)) {
+            return;
+        }
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resp.setHeader("Cache-Control", "no-store");
+        final String id = req.getParameter(PARAM_ID);
+        if (StringUtils.isBlank(id)) {
+            writeList(resp);
+            return;
+        }
+        final SlowRequestReport report = watchdog.getReport(id);
+        if (report == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        resp.setContentType("text/plain");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"slow-request-" + report.getId() + ".folded\"");
+        report.writeFolded(resp.getWriter());
+    }
+
+    private void writeList(SlingHttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json");
+        final JsonWriter json = new JsonWriter(resp.getWriter());
+        json.beginArray();
+        for (SlowRequestReport report : watchdog.getReports()) {
+            json.beginObject();
+            json.name("id").value(report.getId());
+            json.name("method").value(report.getMethod());
+            json.name("path").value(report.getPath());
+            json.name("start").value(report.getStartMillis());
+            json.name("duration").value(report.getDurationMillis());
+            json.name("samples").value(report.getSampleCount());
+            json.name("download").value(PATH + "?" + PARAM_ID + "=" + report.getId());
+            json.endObject();
+        }
+        json.endArray();
+        json.flush();
+    }
+}
@@ -0,0 +1,78 @@
+package com.adobe.aem.guides.wknd.core.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting the rate of an operation. The bucket refills continuously at the
+ * configured rate up to the burst size; a caller that finds it empty reserves the next token
+ * and waits until it is due, so waiting callers are served in order at the configured rate.
+ */
+public final class RateLimiter {
+
+    private final long nanosPerPermit;
+
+    private final long maxStoredNanos;
+
+    private final LongSupplier clock;
+
+    /** Time at which the next permit is free; earlier than now while permits are stored. */
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond the sustained rate, 0 or less for no limit
+     * @param burst the number of permits that can be taken at once after a quiet period
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, LongSupplier clock) {
+        this.nanosPerPermit = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.maxStoredNanos = nanosPerPermit * Math.max(0, burst - 1);
+        this.clock = clock;
+        this.nextFreeNanos = clock.getAsLong() - maxStoredNanos;
+    }
+
+    /**
+     * Takes a permit if one is available now.
+     *
+     * @return true if a permit was taken
+     */
+    public synchronized boolean tryAcquire() {
+        final long now = clock.getAsLong();
+        if (nextFreeNanos > now) {
+            return false;
+        }
+        take(now);
+        return true;
+    }
+
+    /**
+     * Reserves the next permit.
+     *
+     * @return the time in nanoseconds until the reserved permit is due, 0 if it is due now
+     */
+    public synchronized long reserve() {
+        final long now = clock.getAsLong();
+        final long due = Math.max(nextFreeNanos, now - maxStoredNanos);
+        take(now);
+        return Math.max(0, due - now);
+    }
+
+    /**
+     * Reserves the next permit and waits until it is due.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        final long wait = reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private void take(long now) {
+        nextFreeNanos = Math.max(nextFreeNanos, now - maxStoredNanos) + nanosPerPermit;
+    }
+}
@@ -0,0 +1,75 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class SurrogateKeysTest {
+
+    private final AemContext context = new AemContext();
+
+    @Test
+    void keysArePerPage() {
+        assertEquals(SurrogateKeys.contentKey("/content/wknd/us/en"),
+                SurrogateKeys.contentKey("/content/wknd/us/en/jcr:content/root/title"));
+        assertEquals(SurrogateKeys.contentKey("/content/wknd/us/en"), SurrogateKeys.contentKey("/content/wknd/us/en/"));
+        assertNotEquals(SurrogateKeys.contentKey("/content/wknd/us/en"), SurrogateKeys.treeKey("/content/wknd/us/en"));
+        assertNotEquals(SurrogateKeys.contentKey("/content/wknd/us/en"), SurrogateKeys.contentKey("/content/wknd/us/de"));
+        assertEquals(13, SurrogateKeys.contentKey("/content/wknd/us/en").length());
+        assertTrue(SurrogateKeys.personKey("Jane Doe").matches("u[0-9a-f]{12}"));
+    }
+
+    @Test
+    void addsTreeOfPageAndAncestors() {
+        final SurrogateKeys keys = new SurrogateKeys(10);
+
+        keys.addTree("/content/wknd/us/en/jcr:content/root");
+
+        assertEquals(Arrays.asList(SurrogateKeys.treeKey("/content/wknd/us/en"), SurrogateKeys.treeKey("/content/wknd/us"),
+                SurrogateKeys.treeKey("/content/wknd"), SurrogateKeys.treeKey("/content")),
+                Arrays.asList(keys.getKeys().toArray()));
+    }
+
+    @Test
+    void overflowsBeyondLimit() {
+        final SurrogateKeys keys = new SurrogateKeys(2);
+        keys.add("a");
+        keys.add("b");
+        keys.add("a");
+        assertFalse(keys.isOverflowed());
+        assertEquals("wknd a b", keys.toHeaderValue());
+
+        keys.add("c");
+
+        assertTrue(keys.isOverflowed());
+        assertEquals("wknd wknd-overflow a b", keys.toHeaderValue());
+    }
+
+    @Test
+    void collectsOnlyForTrackedRequests() {
+        final MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        SurrogateKeys.addPerson(request, "Jane Doe");
+        assertNull(SurrogateKeys.from(request));
+
+        final SurrogateKeys keys = new SurrogateKeys(10);
+        request.setAttribute(SurrogateKeys.ATTR_NAME, keys);
+        SurrogateKeys.addPerson(request, "Jane Doe");
+        SurrogateKeys.addPerson(request, " ");
+        SurrogateKeys.addContent(request, "/content/wknd/us/en/jcr:content");
+
+        assertEquals("wknd wknd-people " + SurrogateKeys.personKey("Jane Doe") + " "
+                + SurrogateKeys.contentKey("/content/wknd/us/en"), keys.toHeaderValue());
+    }
+}
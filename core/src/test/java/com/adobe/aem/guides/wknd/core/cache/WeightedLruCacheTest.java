@@ -0,0 +1,67 @@
+package com.adobe.aem.guides.wknd.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class WeightedLruCacheTest {
+
+    private final WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, (key, value) -> value.length());
+
+    @Test
+    void getAndPut() {
+        assertNull(cache.get("a"));
+        cache.put("a", "1234");
+
+        assertEquals("1234", cache.get("a"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5d, cache.getHitRatio());
+        assertEquals(4, cache.getWeight());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        cache.put("a", "1234");
+        cache.put("b", "1234");
+        cache.get("a");
+        cache.put("c", "1234");
+
+        assertEquals("1234", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("1234", cache.get("c"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(8, cache.getWeight());
+    }
+
+    @Test
+    void skipsValuesHeavierThanTheCache() {
+        cache.put("a", "12345678901");
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void replaceUpdatesWeight() {
+        cache.put("a", "1234");
+        cache.put("a", "12");
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getWeight());
+    }
+
+    @Test
+    void removeIf() {
+        cache.put("a1", "1");
+        cache.put("a2", "2");
+        cache.put("b1", "3");
+
+        assertEquals(2, cache.removeIf(key -> key.startsWith("a")));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getWeight());
+        assertEquals("3", cache.remove("b1"));
+        assertEquals(0, cache.getWeight());
+    }
+}
@@ -0,0 +1,128 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.cache.FragmentKey;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.people.impl.PersonVersionTrackerImpl;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class BylineFragmentCacheImplTest {
+
+    private static final String ASSET = "/content/dam/wknd/jane-doe.jpg";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private PersonVersionTrackerImpl personVersionTracker;
+
+    private BylineFragmentCacheImpl fixture;
+
+    private Resource byline;
+
+    @BeforeEach
+    void setup() throws Exception {
+        personVersionTracker = context.registerInjectActivateService(new PersonVersionTrackerImpl());
+        fixture = context.registerInjectActivateService(new BylineFragmentCacheImpl());
+        context.create().resource(ASSET + "/jcr:content", "jcr:lastModified", lastModified(1000L));
+        byline = context.create().resource("/content/page/jcr:content/byline",
+                "sling:resourceType", "wknd/components/byline",
+                "name", "Jane Doe",
+                "fileReference", ASSET);
+    }
+
+    @Test
+    void cachesMarkup() {
+        FragmentKey key = fixture.getKey(byline, "html");
+        assertNull(fixture.get(key));
+
+        fixture.put(key, "<div>Jane Doe</div>");
+
+        assertEquals("<div>Jane Doe</div>", fixture.get(fixture.getKey(byline, "html")));
+        assertEquals(1, fixture.getHitCount());
+        assertEquals(1, fixture.getMissCount());
+        assertEquals(1, fixture.getSize());
+    }
+
+    @Test
+    void personChangeChangesKeyAndDropsEntries() {
+        FragmentKey key = fixture.getKey(byline, "html");
+        fixture.put(key, "<div>Jane Doe</div>");
+
+        CoalescedChange change = new CoalescedChange("/content/wknd/data/Jane Doe/address",
+                EnumSet.of(ChangeType.CHANGED), false, 1);
+        personVersionTracker.handleChanges(Collections.singletonList(change));
+        fixture.handleChanges(Collections.singletonList(change));
+
+        assertNotEquals(key, fixture.getKey(byline, "html"));
+        assertEquals(0, fixture.getSize());
+    }
+
+    @Test
+    void resourceChangeDropsEntries() {
+        fixture.put(fixture.getKey(byline, "html"), "<div>Jane Doe</div>");
+        fixture.put(new FragmentKey("/content/other/byline", "html", 0, null, 0), "<div>Other</div>");
+
+        fixture.handleChanges(Collections.singletonList(
+                new CoalescedChange("/content/page", EnumSet.of(ChangeType.REMOVED), false, 1)));
+
+        assertNull(fixture.get(fixture.getKey(byline, "html")));
+        assertEquals(1, fixture.getSize());
+    }
+
+    @Test
+    void dataRootChangeDropsEntriesWithPersons() {
+        fixture.put(fixture.getKey(byline, "html"), "<div>Jane Doe</div>");
+        fixture.put(new FragmentKey("/content/other/byline", "html", 0, null, 0), "<div>Other</div>");
+
+        fixture.handleChanges(Collections.singletonList(
+                new CoalescedChange("/content/wknd", EnumSet.of(ChangeType.CHANGED), false, 12)));
+
+        assertEquals(1, fixture.getSize());
+    }
+
+    @Test
+    void assetChangeChangesKey() throws Exception {
+        fixture.put(fixture.getKey(byline, "html"), "<div>Jane Doe</div>");
+
+        context.resourceResolver().getResource(ASSET + "/jcr:content").adaptTo(ModifiableValueMap.class)
+                .put("jcr:lastModified", lastModified(2000L));
+        context.resourceResolver().commit();
+
+        assertNull(fixture.get(fixture.getKey(byline, "html")));
+        assertEquals(1, fixture.getMissCount());
+    }
+
+    @Test
+    void assetChangeDropsEntries() {
+        fixture.put(fixture.getKey(byline, "html"), "<div>Jane Doe</div>");
+        fixture.put(new FragmentKey("/content/other/byline", "html", 0, null, 0), "<div>Other</div>");
+
+        fixture.handleChanges(Collections.singletonList(new CoalescedChange(
+                ASSET + "/jcr:content/renditions/original", EnumSet.of(ChangeType.CHANGED), false, 1)));
+
+        assertEquals(1, fixture.getSize());
+    }
+
+    private static Calendar lastModified(long millis) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+}
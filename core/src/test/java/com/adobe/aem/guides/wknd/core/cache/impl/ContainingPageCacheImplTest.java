@@ -0,0 +1,72 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+import com.day.cq.wcm.api.Page;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class ContainingPageCacheImplTest {
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private ContainingPageCacheImpl fixture;
+
+    private Resource resource;
+
+    @BeforeEach
+    void setup() throws Exception {
+        fixture = context.registerInjectActivateService(new ContainingPageCacheImpl());
+        Page page = context.create().page("/content/mypage");
+        resource = context.create().resource(page, "hello");
+    }
+
+    @Test
+    void cachesContainingPage() {
+        assertEquals("/content/mypage", fixture.getContainingPagePath(resource));
+        assertEquals("/content/mypage", fixture.getContainingPagePath(resource));
+
+        assertEquals(1, fixture.getMissCount());
+        assertEquals(1, fixture.getHitCount());
+    }
+
+    @Test
+    void cachesMissingPage() {
+        Resource outside = context.create().resource("/content/outside");
+
+        assertEquals("", fixture.getContainingPagePath(outside));
+        assertEquals("", fixture.getContainingPagePath(outside));
+        assertEquals(1, fixture.getHitCount());
+    }
+
+    @Test
+    void pageRemovalDropsEntries() {
+        fixture.getContainingPagePath(resource);
+
+        fixture.handleChanges(Collections.singletonList(new CoalescedChange("/content/mypage", EnumSet.of(ChangeType.REMOVED), false, 1)));
+
+        assertEquals(0, fixture.getSize());
+    }
+
+    @Test
+    void unrelatedChangeKeepsEntries() {
+        fixture.getContainingPagePath(resource);
+
+        fixture.handleChanges(Collections.singletonList(new CoalescedChange("/content/mypage2", EnumSet.of(ChangeType.ADDED), false, 1)));
+
+        assertEquals(1, fixture.getSize());
+    }
+}
@@ -0,0 +1,72 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class HttpPurgeEndpointTest {
+
+    private final AemContext context = new AemContext();
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger status = new AtomicInteger(200);
+
+    private HttpServer cache;
+
+    private HttpPurgeEndpoint fixture;
+
+    @BeforeEach
+    void setup() throws Exception {
+        cache = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        cache.createContext("/purge", exchange -> {
+            received.add(exchange.getRequestMethod() + " "
+                    + exchange.getRequestHeaders().getFirst("Surrogate-Key") + " "
+                    + exchange.getRequestHeaders().getFirst("Purge-Token"));
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        cache.start();
+        fixture = context.registerInjectActivateService(new HttpPurgeEndpoint(),
+                "purge.url", "http://127.0.0.1:" + cache.getAddress().getPort() + "/purge",
+                "token.header", "Purge-Token",
+                "token", "secret");
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop(0);
+    }
+
+    @Test
+    void postsKeysInHeader() throws Exception {
+        fixture.purge(Arrays.asList("c0123456789ab", "wknd-overflow"));
+
+        assertEquals("POST c0123456789ab wknd-overflow secret", received.poll());
+    }
+
+    @Test
+    void failsOnErrorStatus() {
+        status.set(503);
+
+        assertThrows(IOException.class, () -> fixture.purge(Arrays.asList("wknd")));
+        assertEquals(1, received.size());
+    }
+}
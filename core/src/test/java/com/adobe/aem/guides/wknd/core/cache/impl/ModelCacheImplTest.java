@@ -0,0 +1,81 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.models.HelloWorldModel;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+import com.day.cq.wcm.api.Page;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class ModelCacheImplTest {
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private ModelCacheImpl fixture;
+
+    private Resource resource;
+
+    @BeforeEach
+    void setup() throws Exception {
+        context.registerInjectActivateService(new ContainingPageCacheImpl());
+        fixture = context.registerInjectActivateService(new ModelCacheImpl());
+        Page page = context.create().page("/content/mypage");
+        resource = context.create().resource(page, "hello",
+                "sling:resourceType", "wknd/components/helloworld");
+    }
+
+    @Test
+    void sharesCacheableModels() {
+        HelloWorldModel first = fixture.getModel(resource, HelloWorldModel.class);
+        HelloWorldModel second = fixture.getModel(resource, HelloWorldModel.class);
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, fixture.getMissCount());
+        assertEquals(1, fixture.getHitCount());
+        assertEquals("HelloWorldModel: hits=1, misses=1, uncached=0",
+                fixture.getModelStatistics()[0].substring(HelloWorldModel.class.getPackage().getName().length() + 1));
+    }
+
+    @Test
+    void changeDropsModels() {
+        HelloWorldModel first = fixture.getModel(resource, HelloWorldModel.class);
+
+        fixture.handleChanges(Collections.singletonList(new CoalescedChange("/content/mypage", EnumSet.of(ChangeType.CHANGED), false, 1)));
+
+        assertEquals(0, fixture.getSize());
+        assertNotSame(first, fixture.getModel(resource, HelloWorldModel.class));
+    }
+
+    @Test
+    void countsUncachedModels() {
+        assertNull(fixture.getModel(resource, Object.class));
+
+        assertEquals(0, fixture.getSize());
+        assertEquals("java.lang.Object: hits=0, misses=0, uncached=1", fixture.getModelStatistics()[0]);
+    }
+
+    @Test
+    void disabledCacheServesNothing() {
+        ModelCacheImpl disabled = context.registerInjectActivateService(new ModelCacheImpl(), "enabled", false);
+
+        assertNull(disabled.getModel(resource, HelloWorldModel.class));
+    }
+}
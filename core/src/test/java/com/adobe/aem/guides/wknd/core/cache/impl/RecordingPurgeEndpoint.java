@@ -0,0 +1,34 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.adobe.aem.guides.wknd.core.cache.PurgeEndpoint;
+
+/**
+ * Local stand-in for the cache in front of the publish tier, recording the purges it receives.
+ */
+class RecordingPurgeEndpoint implements PurgeEndpoint {
+
+    private final List<List<String>> purges = new ArrayList<>();
+
+    private boolean failing;
+
+    @Override
+    public synchronized void purge(Collection<String> keys) throws IOException {
+        if (failing) {
+            throw new IOException("cache unavailable");
+        }
+        purges.add(new ArrayList<>(keys));
+    }
+
+    synchronized List<List<String>> getPurges() {
+        return new ArrayList<>(purges);
+    }
+
+    synchronized void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+}
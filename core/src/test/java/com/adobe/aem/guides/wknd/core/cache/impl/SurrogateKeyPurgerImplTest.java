@@ -0,0 +1,119 @@
+package com.adobe.aem.guides.wknd.core.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.cache.PurgeEndpoint;
+import com.adobe.aem.guides.wknd.core.cache.SurrogateKeys;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class SurrogateKeyPurgerImplTest {
+
+    private static final String PAGE = "/content/wknd/us/en/magazine";
+
+    private final AemContext context = new AemContext();
+
+    private final RecordingPurgeEndpoint endpoint = new RecordingPurgeEndpoint();
+
+    private SurrogateKeyPurgerImpl fixture;
+
+    @BeforeEach
+    void setup() {
+        context.registerService(PurgeEndpoint.class, endpoint);
+        fixture = context.registerInjectActivateService(new SurrogateKeyPurgerImpl());
+    }
+
+    private static CoalescedChange change(String path, ChangeType... types) {
+        return new CoalescedChange(path, EnumSet.copyOf(Arrays.asList(types)), false, 1);
+    }
+
+    @Test
+    void purgesKeysOfChanges() {
+        fixture.handleChanges(Arrays.asList(
+                change("/content/wknd/data/jane-doe", ChangeType.CHANGED),
+                change(PAGE + "/jcr:content/root/title", ChangeType.ADDED),
+                change("/content/wknd/us/en/old", ChangeType.REMOVED),
+                change("/content/wknd/us/en/renamed", ChangeType.CHANGED)));
+
+        assertEquals(Collections.singletonList(Arrays.asList(
+                SurrogateKeys.personKey("jane-doe"),
+                SurrogateKeys.contentKey(PAGE),
+                SurrogateKeys.contentKey("/content/wknd/us/en/old"),
+                SurrogateKeys.treeKey("/content/wknd/us/en/old"),
+                SurrogateKeys.contentKey("/content/wknd/us/en/renamed"),
+                SurrogateKeys.OVERFLOW_KEY)), endpoint.getPurges());
+    }
+
+    @Test
+    void purgesBroadKeysForBroadChanges() {
+        fixture.handleChanges(Collections.singletonList(change("/content/wknd/data", ChangeType.REMOVED)));
+        fixture.handleChanges(Collections.singletonList(change("/content/wknd", ChangeType.CHANGED)));
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(SurrogateKeys.PEOPLE_KEY, SurrogateKeys.OVERFLOW_KEY),
+                Arrays.asList(SurrogateKeys.SITE_KEY, SurrogateKeys.OVERFLOW_KEY)), endpoint.getPurges());
+    }
+
+    @Test
+    void purgesKeysOfIncludedContent() {
+        final String fragment = "/content/experience-fragments/wknd/language-masters/en/site/header/master";
+
+        fixture.handleChanges(Collections.singletonList(
+                change(fragment + "/jcr:content/root/navigation", ChangeType.CHANGED)));
+
+        assertEquals(Collections.singletonList(Arrays.asList(
+                SurrogateKeys.contentKey(fragment),
+                SurrogateKeys.OVERFLOW_KEY)), endpoint.getPurges());
+    }
+
+    @Test
+    void purgesOnRequest() {
+        fixture.purgeContent(PAGE, true);
+        fixture.purgePerson("jane-doe");
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(SurrogateKeys.contentKey(PAGE), SurrogateKeys.treeKey(PAGE), SurrogateKeys.OVERFLOW_KEY),
+                Arrays.asList(SurrogateKeys.personKey("jane-doe"), SurrogateKeys.OVERFLOW_KEY)), endpoint.getPurges());
+    }
+
+    @Test
+    void splitsLargePurges() {
+        fixture = context.registerInjectActivateService(new SurrogateKeyPurgerImpl(), "max.keys.per.request", 2);
+
+        fixture.handleChanges(Arrays.asList(
+                change("/content/wknd/data/a", ChangeType.CHANGED),
+                change("/content/wknd/data/b", ChangeType.CHANGED),
+                change("/content/wknd/data/c", ChangeType.CHANGED)));
+
+        final List<List<String>> purges = endpoint.getPurges();
+        assertEquals(2, purges.size());
+        assertEquals(Arrays.asList(SurrogateKeys.personKey("a"), SurrogateKeys.personKey("b")), purges.get(0));
+        assertEquals(Arrays.asList(SurrogateKeys.personKey("c"), SurrogateKeys.OVERFLOW_KEY), purges.get(1));
+    }
+
+    @Test
+    void skipsWhenDisabledOrFailing() {
+        endpoint.setFailing(true);
+        fixture.purgePerson("jane-doe");
+        endpoint.setFailing(false);
+
+        fixture = context.registerInjectActivateService(new SurrogateKeyPurgerImpl(), "enabled", false);
+        fixture.handleChanges(Collections.singletonList(change(PAGE, ChangeType.CHANGED)));
+
+        assertTrue(endpoint.getPurges().isEmpty());
+    }
+}
@@ -0,0 +1,48 @@
+package com.adobe.aem.guides.wknd.core.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class FoldedStacksTest {
+
+    private static StackTraceElement frame(String method) {
+        return new StackTraceElement("Foo", method, "Foo.java", 1);
+    }
+
+    @Test
+    void foldsOutermostFirst() throws IOException {
+        FoldedStacks fixture = new FoldedStacks(10, 10);
+        fixture.add(new StackTraceElement[] { frame("leaf"), frame("main") });
+        fixture.add(new StackTraceElement[] { frame("leaf"), frame("main") });
+        fixture.add(new StackTraceElement[] { frame("other"), frame("main") });
+
+        StringBuilder out = new StringBuilder();
+        fixture.write(out);
+        assertEquals("Foo.main;Foo.leaf 2\nFoo.main;Foo.other 1\n", out.toString());
+        assertEquals(3, fixture.getSampleCount());
+    }
+
+    @Test
+    void cutsDeepStacks() {
+        FoldedStacks fixture = new FoldedStacks(2, 10);
+        fixture.add(new StackTraceElement[] { frame("c"), frame("b"), frame("a") });
+
+        assertEquals(1, fixture.getCounts().get("Foo.a;Foo.b;[truncated]"));
+    }
+
+    @Test
+    void boundsDistinctStacks() {
+        FoldedStacks fixture = new FoldedStacks(10, 1);
+        fixture.add(new StackTraceElement[] { frame("a") });
+        fixture.add(new StackTraceElement[] { frame("b") });
+        fixture.add(new StackTraceElement[] { frame("c") });
+
+        Map<String, Integer> counts = fixture.getCounts();
+        assertEquals(1, counts.get("Foo.a"));
+        assertEquals(2, counts.get(FoldedStacks.OTHER));
+    }
+}
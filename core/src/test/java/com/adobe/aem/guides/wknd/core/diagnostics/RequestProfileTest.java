@@ -0,0 +1,82 @@
+package com.adobe.aem.guides.wknd.core.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class RequestProfileTest {
+
+    @Test
+    void buildsInclusionTree() throws IOException {
+        RequestProfile fixture = new RequestProfile("GET /content/page.html");
+
+        RequestProfile.Node resource = fixture.enter(RequestProfile.KIND_RESOURCE, "/content/page/jcr:content");
+        RequestProfile.Node use = fixture.enter(RequestProfile.KIND_USE, "com.example.Model");
+        fixture.exit(use);
+        fixture.exit(resource);
+        fixture.finish();
+
+        RequestProfile.Node root = fixture.getRoot();
+        assertSame(resource, root.getChildren().get(0));
+        assertSame(use, resource.getChildren().get(0));
+        assertEquals(root.getTotalNanos() - resource.getTotalNanos(), root.getSelfNanos());
+        assertTrue(use.getTotalNanos() <= resource.getTotalNanos());
+
+        StringBuilder tree = new StringBuilder();
+        fixture.writeTree(tree);
+        String[] lines = tree.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].endsWith("    use com.example.Model"));
+    }
+
+    @Test
+    void exitClosesNodesLeftOpen() {
+        RequestProfile fixture = new RequestProfile("GET /content/page.html");
+
+        RequestProfile.Node outer = fixture.enter(RequestProfile.KIND_RESOURCE, "outer");
+        fixture.enter(RequestProfile.KIND_USE, "inner");
+        fixture.exit(outer);
+        RequestProfile.Node sibling = fixture.enter(RequestProfile.KIND_RESOURCE, "sibling");
+
+        assertEquals(2, fixture.getRoot().getChildren().size());
+        assertSame(sibling, fixture.getRoot().getChildren().get(1));
+    }
+
+    @Test
+    void summarizesSelfTimePerName() {
+        RequestProfile fixture = new RequestProfile("GET /content/page.html");
+        for (int i = 0; i < 3; i++) {
+            fixture.exit(fixture.enter(RequestProfile.KIND_USE, "com.example.Model"));
+        }
+        fixture.finish();
+
+        String summary = fixture.toSummary(5);
+        assertTrue(summary.startsWith("total="), summary);
+        assertTrue(summary.contains("; use:com.example.Model="), summary);
+        assertTrue(summary.endsWith("ms/3"), summary);
+    }
+
+    @Test
+    void timesOnlyProfiledRequests(AemContext context) {
+        MockSlingHttpServletRequest request = context.request();
+        assertEquals("unprofiled", RequestProfile.time(request, RequestProfile.KIND_MODEL, "m", () -> "unprofiled"));
+        assertNull(RequestProfile.from(request));
+
+        RequestProfile profile = new RequestProfile("GET /");
+        request.setAttribute(RequestProfile.ATTR_NAME, profile);
+        RequestProfile.time(request, RequestProfile.KIND_MODEL, "m", () -> "profiled");
+
+        assertEquals("m", profile.getRoot().getChildren().get(0).getName());
+    }
+}
@@ -0,0 +1,100 @@
+package com.adobe.aem.guides.wknd.core.diagnostics.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestReport;
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestWatchdog;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class SlowRequestWatchdogImplTest {
+
+    private final AemContext context = new AemContext();
+
+    private SlowRequestWatchdogImpl fixture;
+
+    @AfterEach
+    void tearDown() {
+        fixture.deactivate();
+    }
+
+    private void activate(Object... properties) throws Exception {
+        Object[] config = new Object[properties.length + 2];
+        // samples are taken explicitly by the tests, not by the scheduled sampler
+        config[0] = "sample.interval.ms";
+        config[1] = 3_600_000L;
+        System.arraycopy(properties, 0, config, 2, properties.length);
+        fixture = context.registerInjectActivateService(new SlowRequestWatchdogImpl(), config);
+    }
+
+    @Test
+    void reportsSampledSlowRequests() throws Exception {
+        activate("threshold.ms", 0L, "overhead.budget.percent", 100.0);
+
+        try (SlowRequestWatchdog.Watch watch = fixture.watch("GET", "/content/slow.html")) {
+            fixture.sample();
+            fixture.sample();
+            assertEquals(1, fixture.getInFlightCount());
+        }
+
+        assertEquals(0, fixture.getInFlightCount());
+        List<SlowRequestReport> reports = fixture.getReports();
+        assertEquals(1, reports.size());
+        SlowRequestReport report = reports.get(0);
+        assertEquals("/content/slow.html", report.getPath());
+        assertEquals(2, report.getSampleCount());
+        assertTrue(report.getStacks().keySet().iterator().next().contains("reportsSampledSlowRequests"));
+        assertNotNull(fixture.getReport(report.getId()));
+    }
+
+    @Test
+    void ignoresFastRequests() throws Exception {
+        activate("threshold.ms", 60_000L);
+
+        try (SlowRequestWatchdog.Watch watch = fixture.watch("GET", "/content/fast.html")) {
+            fixture.sample();
+        }
+
+        assertEquals(0, fixture.getSampleCount());
+        assertTrue(fixture.getReports().isEmpty());
+    }
+
+    @Test
+    void capsSamples() throws Exception {
+        activate("threshold.ms", 0L, "overhead.budget.percent", 100.0, "max.samples", 1,
+                "max.sampled.requests", 1, "max.reports", 1);
+
+        try (SlowRequestWatchdog.Watch first = fixture.watch("GET", "/content/first.html");
+             SlowRequestWatchdog.Watch second = fixture.watch("GET", "/content/second.html")) {
+            fixture.sample();
+            fixture.sample();
+        }
+
+        assertEquals(1, fixture.getSampleCount());
+        assertEquals(3, fixture.getSkippedSampleCount());
+        assertEquals(1, fixture.getReports().size());
+        assertEquals(2, fixture.getSlowRequestCount());
+    }
+
+    @Test
+    void skipsSamplesOverBudget() throws Exception {
+        activate("threshold.ms", 0L, "overhead.budget.percent", 0.0);
+
+        try (SlowRequestWatchdog.Watch watch = fixture.watch("GET", "/content/slow.html")) {
+            fixture.sample();
+        }
+
+        assertEquals(0, fixture.getSampleCount());
+        assertEquals(1, fixture.getSkippedSampleCount());
+    }
+}
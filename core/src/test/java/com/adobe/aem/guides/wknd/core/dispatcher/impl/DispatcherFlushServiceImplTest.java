@@ -0,0 +1,199 @@
+package com.adobe.aem.guides.wknd.core.dispatcher.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.dispatcher.FlushRequest;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+import com.sun.net.httpserver.HttpServer;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+import uk.org.lidalia.slf4jext.Level;
+import uk.org.lidalia.slf4jtest.LoggingEvent;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+@ExtendWith(AemContextExtension.class)
+class DispatcherFlushServiceImplTest {
+
+    private static final String ARTICLE = "/content/wknd/us/en/article";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    private final TestLogger logger = TestLoggerFactory.getTestLogger(DispatcherFlushServiceImpl.class);
+
+    private HttpServer endpoint;
+
+    private DispatcherFlushServiceImpl fixture;
+
+    @BeforeEach
+    void setup() throws Exception {
+        endpoint = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        endpoint.createContext("/dispatcher/invalidate.cache", exchange -> {
+            final int status = failuresLeft.getAndDecrement() > 0 ? 503 : 200;
+            if (status == 200) {
+                received.add(exchange.getRequestMethod() + " "
+                        + exchange.getRequestHeaders().getFirst("CQ-Action") + " "
+                        + exchange.getRequestHeaders().getFirst("CQ-Handle") + " "
+                        + exchange.getRequestHeaders().getFirst("CQ-Action-Scope"));
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        endpoint.start();
+        context.create().page(ARTICLE);
+        context.create().resource(ARTICLE + "/jcr:content/root/title", "jcr:title", "Article");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (fixture != null) {
+            fixture.deactivate();
+        }
+        endpoint.stop(0);
+        TestLoggerFactory.clear();
+    }
+
+    private void activate(Object... properties) {
+        final Object[] defaults = {
+                "enabled", true,
+                "flush.url", "http://127.0.0.1:" + endpoint.getAddress().getPort() + "/dispatcher/invalidate.cache",
+                "batch.interval.ms", 60_000L,
+                "retry.backoff.ms", 1L,
+                "requests.per.second", 0.0 };
+        final Object[] all = Arrays.copyOf(defaults, defaults.length + properties.length);
+        System.arraycopy(properties, 0, all, defaults.length, properties.length);
+        fixture = context.registerInjectActivateService(new DispatcherFlushServiceImpl(), all);
+    }
+
+    @Test
+    void sendsResourceOnlyInvalidationsForChanges() throws Exception {
+        activate();
+
+        fixture.handleChanges(Arrays.asList(new CoalescedChange(ARTICLE + "/jcr:content/root/title",
+                EnumSet.of(ChangeType.CHANGED), false, 1)));
+        fixture.sendPending();
+
+        assertEquals("POST Activate " + ARTICLE + " ResourceOnly", received.poll(5, TimeUnit.SECONDS));
+        assertNull(received.poll());
+        assertEquals(1, fixture.getSentCount());
+        assertEquals(Arrays.asList(FlushRequest.activate(ARTICLE)), fixture.getRecentlyFlushed());
+    }
+
+    @Test
+    void deduplicatesPendingRequests() throws Exception {
+        activate();
+
+        fixture.flush(Arrays.asList(FlushRequest.activate(ARTICLE), FlushRequest.activate("/content/wknd/us/en")));
+        fixture.flush(Arrays.asList(FlushRequest.delete(ARTICLE)));
+        assertEquals(2, fixture.getPendingCount());
+        fixture.sendPending();
+
+        assertEquals("POST Delete " + ARTICLE + " ResourceOnly", received.poll(5, TimeUnit.SECONDS));
+        assertEquals("POST Activate /content/wknd/us/en ResourceOnly", received.poll(5, TimeUnit.SECONDS));
+        assertEquals(3, fixture.getRequestedCount());
+        assertEquals(1, fixture.getDeduplicatedCount());
+        assertEquals(0, fixture.getPendingCount());
+    }
+
+    @Test
+    void retriesFailedRequests() throws Exception {
+        activate("max.retries", 2);
+        failuresLeft.set(2);
+
+        fixture.flush(Arrays.asList(FlushRequest.activate(ARTICLE)));
+        fixture.sendPending();
+
+        assertEquals("POST Activate " + ARTICLE + " ResourceOnly", received.poll(5, TimeUnit.SECONDS));
+        assertEquals(2, fixture.getRetryCount());
+        assertEquals(0, fixture.getFailedCount());
+        assertEquals(1, fixture.getSentCount());
+    }
+
+    @Test
+    void givesUpAfterLastRetry() throws Exception {
+        activate("max.retries", 1);
+        failuresLeft.set(5);
+
+        fixture.flush(Arrays.asList(FlushRequest.activate(ARTICLE)));
+        fixture.sendPending();
+
+        assertNull(received.poll());
+        assertEquals(1, fixture.getFailedCount());
+        assertEquals("Activate " + ARTICLE + ": HTTP 503", fixture.getLastError());
+    }
+
+    @Test
+    void overflowInvalidatesContentRoot() throws Exception {
+        activate("max.pending", 1);
+
+        fixture.flush(Arrays.asList(FlushRequest.activate(ARTICLE), FlushRequest.activate("/content/wknd/us/en")));
+        fixture.sendPending();
+
+        assertEquals("POST Activate /content/wknd null", received.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, fixture.getOverflowCount());
+        final LoggingEvent warning = logger.getLoggingEvents().stream()
+                .filter(event -> event.getLevel() == Level.WARN).findFirst().get();
+        assertTrue(warning.getMessage().startsWith("Dropping {} pending dispatcher invalidations"));
+        assertEquals(2, warning.getArguments().get(0));
+    }
+
+    @Test
+    void drainsPendingRequestsInBatches() throws Exception {
+        activate("max.batch.size", 1);
+
+        fixture.flush(Arrays.asList(FlushRequest.activate(ARTICLE), FlushRequest.activate("/content/wknd/us/en")));
+        fixture.sendPending();
+
+        assertEquals("POST Activate " + ARTICLE + " ResourceOnly", received.poll(5, TimeUnit.SECONDS));
+        assertNull(received.poll());
+        assertEquals(1, fixture.getPendingCount());
+
+        fixture.sendPending();
+
+        assertEquals("POST Activate /content/wknd/us/en ResourceOnly", received.poll(5, TimeUnit.SECONDS));
+        assertEquals(0, fixture.getPendingCount());
+        assertEquals(0, fixture.getOverflowCount());
+    }
+
+    @Test
+    void sendsBatchesOnSchedule() throws Exception {
+        activate("batch.interval.ms", 10L);
+
+        fixture.flush(Arrays.asList(FlushRequest.activate(ARTICLE)));
+
+        assertNotNull(received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void ignoresChangesWhenDisabled() throws Exception {
+        activate("enabled", false);
+
+        fixture.flush(Arrays.asList(FlushRequest.activate(ARTICLE)));
+
+        assertEquals(0, fixture.getPendingCount());
+        assertEquals(0, fixture.getRequestedCount());
+    }
+}
@@ -0,0 +1,155 @@
+package com.adobe.aem.guides.wknd.core.dispatcher.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.sling.api.resource.AbstractResourceVisitor;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.dispatcher.FlushRequest;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class InvalidationMapperTest {
+
+    private static final String ARTICLE = "/content/wknd/us/en/article";
+
+    private static final String OTHER = "/content/wknd/us/en/other";
+
+    private static final String BYLINE = ARTICLE + "/jcr:content/root/byline";
+
+    private static final String OTHER_BYLINE = OTHER + "/jcr:content/root/byline";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private final InvalidationMapper fixture = new TraversingMapper(10);
+
+    @BeforeEach
+    void setup() {
+        context.create().page("/content/wknd/us/en");
+        context.create().page(ARTICLE);
+        context.create().page(OTHER);
+        context.create().resource(ARTICLE + "/jcr:content/root/title", "jcr:title", "Article");
+        context.create().resource(BYLINE,
+                "sling:resourceType", InvalidationMapper.BYLINE_RESOURCE_TYPE,
+                "name", "Jane Doe");
+        context.create().resource(BYLINE + "/file", "jcr:mimeType", "image/png");
+        context.create().resource(OTHER_BYLINE,
+                "sling:resourceType", InvalidationMapper.BYLINE_RESOURCE_TYPE,
+                "name", "John Doe");
+        context.create().resource("/content/wknd/data/Jane Doe", "name", "Jane Doe");
+    }
+
+    private List<FlushRequest> map(String path, ChangeType type) {
+        return fixture.map(context.resourceResolver(),
+                Arrays.asList(new CoalescedChange(path, EnumSet.of(type), false, 1)));
+    }
+
+    @Test
+    void componentChangeInvalidatesPageOnly() {
+        assertEquals(Arrays.asList(FlushRequest.activate(ARTICLE)),
+                map(ARTICLE + "/jcr:content/root/title", ChangeType.CHANGED));
+    }
+
+    @Test
+    void bylineImageChangeInvalidatesEnclosingByline() {
+        assertEquals(Arrays.asList(FlushRequest.activate(ARTICLE), FlushRequest.activate(BYLINE)),
+                map(BYLINE + "/file", ChangeType.CHANGED));
+    }
+
+    @Test
+    void removedComponentIsDeleted() {
+        assertEquals(Arrays.asList(FlushRequest.activate(ARTICLE), FlushRequest.delete(ARTICLE + "/jcr:content/root/teaser")),
+                map(ARTICLE + "/jcr:content/root/teaser", ChangeType.REMOVED));
+    }
+
+    @Test
+    void pageTreeChangeInvalidatesEachPageAndByline() {
+        assertEquals(Arrays.asList(
+                FlushRequest.activate("/content/wknd/us/en"),
+                FlushRequest.activate(ARTICLE),
+                FlushRequest.activate(BYLINE),
+                FlushRequest.activate(OTHER),
+                FlushRequest.activate(OTHER_BYLINE)),
+                map("/content/wknd/us/en", ChangeType.ADDED));
+    }
+
+    @Test
+    void largePageTreeFallsBackToStatFiles() {
+        InvalidationMapper limited = new TraversingMapper(2);
+
+        assertEquals(Arrays.asList(new FlushRequest("/content/wknd/us/en", FlushRequest.Action.ACTIVATE, false)),
+                limited.map(context.resourceResolver(), Arrays.asList(
+                        new CoalescedChange("/content/wknd/us/en", EnumSet.of(ChangeType.CHANGED), false, 1))));
+    }
+
+    @Test
+    void removedPageTreeIsDeleted() {
+        assertEquals(Arrays.asList(FlushRequest.delete("/content/wknd/us/en/gone")),
+                map("/content/wknd/us/en/gone", ChangeType.REMOVED));
+    }
+
+    @Test
+    void personChangeInvalidatesReferencingBylines() {
+        assertEquals(Arrays.asList(FlushRequest.activate(BYLINE), FlushRequest.activate(ARTICLE)),
+                map("/content/wknd/data/Jane Doe/address", ChangeType.CHANGED));
+    }
+
+    @Test
+    void dataRootChangeInvalidatesAllBylines() {
+        assertEquals(Arrays.asList(
+                FlushRequest.activate(BYLINE),
+                FlushRequest.activate(ARTICLE),
+                FlushRequest.activate(OTHER_BYLINE),
+                FlushRequest.activate(OTHER)),
+                map("/content/wknd/data", ChangeType.CHANGED));
+    }
+
+    @Test
+    void mergesRequestsForTheSameHandle() {
+        List<FlushRequest> requests = fixture.map(context.resourceResolver(), Arrays.asList(
+                new CoalescedChange(ARTICLE + "/jcr:content/root/title", EnumSet.of(ChangeType.CHANGED), false, 1),
+                new CoalescedChange("/content/wknd/data/Jane Doe", EnumSet.of(ChangeType.CHANGED), false, 1)));
+
+        assertEquals(Arrays.asList(FlushRequest.activate(ARTICLE), FlushRequest.activate(BYLINE)), requests);
+    }
+
+    /**
+     * Finds Bylines by traversal, as the mock resource resolver does not support queries.
+     */
+    private static final class TraversingMapper extends InvalidationMapper {
+
+        private TraversingMapper(int maxPagesPerChange) {
+            super(maxPagesPerChange);
+        }
+
+        @Override
+        protected Iterator<Resource> findBylines(ResourceResolver resolver, String personName) {
+            final List<Resource> bylines = new ArrayList<>();
+            new AbstractResourceVisitor() {
+                @Override
+                protected void visit(Resource resource) {
+                    if (BYLINE_RESOURCE_TYPE.equals(resource.getResourceType())
+                            && (personName == null || personName.equals(resource.getValueMap().get("name", String.class)))) {
+                        bylines.add(resource);
+                    }
+                }
+            }.accept(resolver.getResource(CONTENT_ROOT));
+            return bylines.iterator();
+        }
+    }
+}
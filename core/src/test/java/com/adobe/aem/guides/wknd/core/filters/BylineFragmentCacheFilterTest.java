@@ -0,0 +1,72 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.cache.impl.BylineFragmentCacheImpl;
+import com.adobe.aem.guides.wknd.core.people.impl.PersonVersionTrackerImpl;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+import com.day.cq.wcm.api.WCMMode;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class BylineFragmentCacheFilterTest {
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private final AtomicInteger renderings = new AtomicInteger();
+
+    private final FilterChain chain = (request, response) -> {
+        renderings.incrementAndGet();
+        response.getWriter().write("<div class=\"cmp-byline\">Jane Doe</div>");
+    };
+
+    private BylineFragmentCacheFilter fixture;
+
+    @BeforeEach
+    void setup() throws Exception {
+        context.registerInjectActivateService(new PersonVersionTrackerImpl());
+        context.registerInjectActivateService(new BylineFragmentCacheImpl());
+        fixture = context.registerInjectActivateService(new BylineFragmentCacheFilter());
+        context.create().resource("/content/page/jcr:content/byline",
+                "sling:resourceType", "wknd/components/byline",
+                "name", "Jane Doe");
+        context.currentResource("/content/page/jcr:content/byline");
+        context.requestPathInfo().setExtension("html");
+    }
+
+    @Test
+    void rendersOnceAndServesFromCache() throws IOException, ServletException {
+        assertEquals("<div class=\"cmp-byline\">Jane Doe</div>", render());
+        assertEquals("<div class=\"cmp-byline\">Jane Doe</div>", render());
+        assertEquals(1, renderings.get());
+    }
+
+    @Test
+    void doesNotCacheInEditMode() throws IOException, ServletException {
+        WCMMode.EDIT.toRequest(context.request());
+
+        render();
+        render();
+
+        assertEquals(2, renderings.get());
+    }
+
+    private String render() throws IOException, ServletException {
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doFilter(context.request(), response, chain);
+        return response.getOutputAsString();
+    }
+}
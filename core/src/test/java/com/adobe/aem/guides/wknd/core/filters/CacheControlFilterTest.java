@@ -0,0 +1,98 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import javax.servlet.FilterChain;
+
+import org.apache.sling.testing.mock.sling.servlet.MockRequestPathInfo;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class CacheControlFilterTest {
+
+    private final AemContext context = new AemContext();
+
+    private CacheControlFilter fixture;
+
+    @BeforeEach
+    void setup() {
+        context.create().resource("/content/wknd/us/en/magazine", "sling:resourceType", "wknd/components/page");
+        context.create().resource("/content/wknd/us/en/magazine/jcr:content/root/byline",
+                "sling:resourceType", "wknd/components/byline");
+        context.create().resource("/content/wknd/us/en/private", "sling:resourceType", "wknd/components/page");
+
+        fixture = context.registerInjectActivateService(new CacheControlFilter());
+        rule("path", "/content/wknd/**", "extension", "html", "max.age", 300, "s.maxage", 3600,
+                "stale.while.revalidate", 60, "stale.if.error", 86400);
+        rule("path", "/content/wknd/**", "selector", "model", "extension", "json", "max.age", 60);
+        rule("resource.type", "wknd/components/byline", "max.age", 10);
+        rule("path", "/content/wknd/*/*/private", "ranking", 10);
+    }
+
+    private CacheControlRule rule(Object... properties) {
+        return context.registerInjectActivateService(new CacheControlRule(), properties);
+    }
+
+    private String filter(String method, String path, String selectors, String extension) throws Exception {
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        request.setMethod(method);
+        request.setResource(context.resourceResolver().getResource(path));
+        MockRequestPathInfo pathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        pathInfo.setResourcePath(path);
+        pathInfo.setSelectorString(selectors);
+        pathInfo.setExtension(extension);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        fixture.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        return response.getHeader(CacheControlFilter.HEADER_CACHE_CONTROL);
+    }
+
+    @Test
+    void appliesMatchingRule() throws Exception {
+        assertEquals("max-age=300, s-maxage=3600, stale-while-revalidate=60, stale-if-error=86400",
+                filter("GET", "/content/wknd/us/en/magazine", null, "html"));
+        assertEquals("max-age=60", filter("HEAD", "/content/wknd/us/en/magazine", "model", "json"));
+        assertNull(filter("GET", "/content/wknd/us/en/magazine", null, "json"));
+    }
+
+    @Test
+    void prefersSpecificRules() throws Exception {
+        // the resource type rule has fewer criteria than the page rule
+        assertEquals("max-age=300, s-maxage=3600, stale-while-revalidate=60, stale-if-error=86400",
+                filter("GET", "/content/wknd/us/en/magazine/jcr:content/root/byline", null, "html"));
+        assertEquals("max-age=10", filter("GET", "/content/wknd/us/en/magazine/jcr:content/root/byline", null, "json"));
+    }
+
+    @Test
+    void excludesWithRuleWithoutDirectives() throws Exception {
+        assertNull(filter("GET", "/content/wknd/us/en/private", null, "html"));
+    }
+
+    @Test
+    void skipsUnsafeMethods() throws Exception {
+        assertNull(filter("POST", "/content/wknd/us/en/magazine", null, "html"));
+    }
+
+    @Test
+    void followsRuleChanges() throws Exception {
+        CacheControlRule rule = rule("path", "/content/wknd/us/**", "extension", "html", "max.age", 5, "ranking", 1);
+        assertEquals("max-age=5", filter("GET", "/content/wknd/us/en/magazine", null, "html"));
+
+        fixture.unbindRule(rule);
+        assertEquals("max-age=300, s-maxage=3600, stale-while-revalidate=60, stale-if-error=86400",
+                filter("GET", "/content/wknd/us/en/magazine", null, "html"));
+    }
+}
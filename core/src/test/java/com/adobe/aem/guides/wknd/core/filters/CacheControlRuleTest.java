@@ -0,0 +1,49 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class CacheControlRuleTest {
+
+    @Test
+    void compilesGlobs() {
+        Pattern tree = CacheControlRule.compileGlob("/content/wknd/**");
+        assertTrue(tree.matcher("/content/wknd").matches());
+        assertTrue(tree.matcher("/content/wknd/us/en").matches());
+        assertFalse(tree.matcher("/content/wknd-shop").matches());
+
+        Pattern segment = CacheControlRule.compileGlob("/content/wknd/*/en.page?");
+        assertTrue(segment.matcher("/content/wknd/us/en.page1").matches());
+        assertFalse(segment.matcher("/content/wknd/us/ch/en.page1").matches());
+        assertFalse(segment.matcher("/content/wknd/us/enXpage1").matches());
+
+        Pattern inner = CacheControlRule.compileGlob("/content/**/jcr:content");
+        assertTrue(inner.matcher("/content/wknd/us/jcr:content").matches());
+    }
+
+    @Test
+    void matchesCriteria(AemContext context) {
+        CacheControlRule rule = context.registerInjectActivateService(new CacheControlRule(),
+                "path", "/content/wknd/**", "selector", "model", "extension", "json",
+                "max.age", 0, "stale.if.error", 600);
+
+        assertEquals("max-age=0, stale-if-error=600", rule.getHeaderValue());
+        assertNull(rule.getResourceType());
+        assertEquals(3, rule.getSpecificity());
+        assertTrue(rule.matches("/content/wknd/us", new String[] { "a", "model" }, "json"));
+        assertFalse(rule.matches("/content/wknd/us", new String[0], "json"));
+        assertFalse(rule.matches("/content/wknd/us", new String[] { "model" }, null));
+        assertFalse(rule.matches("/content/dam/us", new String[] { "model" }, "json"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+class CriticalResourceExtractorTest {
+
+    private static final String PAGE = "/content/wknd/us/en/magazine";
+
+    @Test
+    void extractsResourcesByType() {
+        String html = "<html><head>"
+                + "<script src=\"/etc.clientlibs/wknd/clientlibs/clientlib-dependencies.lc-1-lc.min.js\"></script>"
+                + "<link rel=\"stylesheet\" href=\"/etc.clientlibs/wknd/clientlibs/clientlib-site.lc-2-lc.min.css\" type=\"text/css\">"
+                + "<link rel=\"canonical\" href=\"https://wknd.site/us/en/magazine.html\">"
+                + "<link rel='icon' href='/favicon.ico'>"
+                + "</head><body>"
+                + "<img SRC=logo.svg alt=\"logo\">"
+                + "<div class=\"cmp-image\" data-cmp-src=\"/content/experience-fragments/wknd/header/_jcr_content/image.coreimg{.width}.jpeg/1.jpeg\""
+                + " data-cmp-widths=\"100, 200\"></div>"
+                + "<script src=\"https://www.googletagmanager.com/gtm.js\"></script>"
+                + "<script>var inline = 1;</script>"
+                + "</body></html>";
+
+        assertEquals(Arrays.asList(
+                new PreloadLink("/etc.clientlibs/wknd/clientlibs/clientlib-site.lc-2-lc.min.css", PreloadLink.AS_STYLE, null),
+                new PreloadLink("/etc.clientlibs/wknd/clientlibs/clientlib-dependencies.lc-1-lc.min.js", PreloadLink.AS_SCRIPT, null),
+                new PreloadLink("/content/wknd/us/en/logo.svg", PreloadLink.AS_IMAGE, null),
+                new PreloadLink("/content/experience-fragments/wknd/header/_jcr_content/image.coreimg.100.jpeg/1.jpeg",
+                        PreloadLink.AS_IMAGE,
+                        "/content/experience-fragments/wknd/header/_jcr_content/image.coreimg.100.jpeg/1.jpeg 100w, "
+                                + "/content/experience-fragments/wknd/header/_jcr_content/image.coreimg.200.jpeg/1.jpeg 200w")),
+                CriticalResourceExtractor.extract(html, PAGE + ".html", PAGE));
+    }
+
+    @Test
+    void dropsResourcesOfThePage() {
+        String html = "<div class=\"cmp-image cmp-image--hero\" data-cmp-src=\"/content/wknd/us/en/magazine/_jcr_content/root/image.coreimg{.width}.jpeg\""
+                + " data-cmp-widths=\"100\"></div>"
+                + "<div class=\"cmp-image\" data-cmp-src=\"/us/en/magazine/_jcr_content/root/teaser.coreimg.svg\"></div>"
+                + "<img src=\"/us/en/magazine.thumb.png\">";
+
+        assertEquals(Collections.emptyList(), CriticalResourceExtractor.extract(html, "/us/en/magazine.html", PAGE, "/us/en/magazine"));
+    }
+
+    @Test
+    void headerValue() {
+        assertEquals("</a.css>; rel=preload; as=style", new PreloadLink("/a.css", PreloadLink.AS_STYLE, null).toHeaderValue());
+        assertEquals("</a.1.jpeg>; rel=preload; as=image; imagesrcset=\"/a.1.jpeg 1w\"",
+                new PreloadLink("/a.1.jpeg", PreloadLink.AS_IMAGE, "/a.1.jpeg 1w").toHeaderValue());
+    }
+}
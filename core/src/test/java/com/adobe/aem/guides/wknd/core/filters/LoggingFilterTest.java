@@ -29,6 +29,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import com.adobe.aem.guides.wknd.core.logging.AccessLog;
+import com.adobe.aem.guides.wknd.core.metrics.TimingStatistics;
+import com.adobe.aem.guides.wknd.core.metrics.impl.RequestTimingRegistryImpl;
+
 import io.wcm.testing.mock.aem.junit5.AemContext;
 import io.wcm.testing.mock.aem.junit5.AemContextExtension;
 import uk.org.lidalia.slf4jext.Level;
@@ -37,7 +41,11 @@ import uk.org.lidalia.slf4jtest.TestLogger;
 import uk.org.lidalia.slf4jtest.TestLoggerFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(AemContextExtension.class)
 class LoggingFilterTest {
@@ -73,4 +81,34 @@ class LoggingFilterTest {
         assertEquals("/content/test", event.getArguments().get(0));
         assertEquals("selectors", event.getArguments().get(1));
     }
+
+    @Test
+    void doFilterRecordsLatency(AemContext context) throws Exception {
+        RequestTimingRegistryImpl registry = context.registerInjectActivateService(new RequestTimingRegistryImpl());
+        context.create().resource("/content/test", "sling:resourceType", "wknd/components/page");
+        context.currentResource("/content/test");
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("model");
+        requestPathInfo.setExtension("json");
+
+        LoggingFilter filter = context.registerInjectActivateService(new LoggingFilter());
+        filter.doFilter(context.request(), context.response(), mock(FilterChain.class));
+
+        assertEquals(1, registry.getRequestCount());
+        List<TimingStatistics> resourceTypes = registry.getResourceTypeStatistics();
+        assertEquals("wknd/components/page", resourceTypes.get(0).getKey());
+        assertEquals("model.json", registry.getSelectorStatistics().get(0).getKey());
+    }
+
+    @Test
+    void doFilterHandsRequestsToAsyncAccessLog(AemContext context) throws Exception {
+        AccessLog accessLog = mock(AccessLog.class);
+        context.registerService(AccessLog.class, accessLog);
+
+        LoggingFilter filter = context.registerInjectActivateService(new LoggingFilter());
+        filter.doFilter(context.request(), context.response(), mock(FilterChain.class));
+
+        verify(accessLog).log(eq(context.request()), eq(200), anyLong(), anyLong());
+        assertTrue(logger.getLoggingEvents().isEmpty());
+    }
 }
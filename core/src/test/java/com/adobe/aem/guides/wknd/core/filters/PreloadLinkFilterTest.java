@@ -0,0 +1,112 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+
+import org.apache.sling.testing.mock.sling.servlet.MockRequestPathInfo;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class PreloadLinkFilterTest {
+
+    private static final String TEMPLATE = "/conf/wknd/settings/wcm/templates/article-page-template";
+
+    private static final String HTML = "<link rel=\"stylesheet\" href=\"/etc.clientlibs/site.css\">"
+            + "<script src=\"/etc.clientlibs/site.js\"></script>"
+            + "<img src=\"/content/dam/wknd/a.png\"><img src=\"/content/dam/wknd/b.png\"><img src=\"/content/dam/wknd/c.png\">";
+
+    private final AemContext context = new AemContext();
+
+    private final AtomicInteger rendered = new AtomicInteger();
+
+    private PreloadLinkFilter fixture;
+
+    @BeforeEach
+    void setup() {
+        context.create().resource("/content/wknd/us/en/one/jcr:content", "cq:template", TEMPLATE);
+        context.create().resource("/content/wknd/us/en/two/jcr:content", "cq:template", TEMPLATE);
+        context.create().resource("/content/wknd/us/en/folder");
+        fixture = context.registerInjectActivateService(new PreloadLinkFilter());
+    }
+
+    private MockSlingHttpServletResponse filter(String path, String extension) throws Exception {
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        request.setMethod("GET");
+        request.setResource(context.resourceResolver().getResource(path));
+        MockRequestPathInfo pathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        pathInfo.setResourcePath(path);
+        pathInfo.setExtension(extension);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            rendered.incrementAndGet();
+            res.setContentType("text/html");
+            res.getWriter().write(HTML);
+        };
+        fixture.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static List<String> links(MockSlingHttpServletResponse response) {
+        return Arrays.asList(response.getHeaders(PreloadLinkFilter.HEADER_LINK).toArray(new String[0]));
+    }
+
+    @Test
+    void learnsLinksPerTemplate() throws Exception {
+        MockSlingHttpServletResponse first = filter("/content/wknd/us/en/one", "html");
+        assertEquals(HTML, first.getOutputAsString());
+        assertTrue(links(first).isEmpty());
+
+        MockSlingHttpServletResponse second = filter("/content/wknd/us/en/two", "html");
+
+        assertEquals(HTML, second.getOutputAsString());
+        assertEquals(Arrays.asList(
+                "</etc.clientlibs/site.css>; rel=preload; as=style",
+                "</etc.clientlibs/site.js>; rel=preload; as=script",
+                "</content/dam/wknd/a.png>; rel=preload; as=image",
+                "</content/dam/wknd/b.png>; rel=preload; as=image"), links(second));
+        assertEquals(2, rendered.get());
+    }
+
+    @Test
+    void appliesLimits() throws Exception {
+        fixture = context.registerInjectActivateService(new PreloadLinkFilter(), "max.links", 3, "max.images", 0);
+        filter("/content/wknd/us/en/one", "html");
+
+        assertEquals(Arrays.asList(
+                "</etc.clientlibs/site.css>; rel=preload; as=style",
+                "</etc.clientlibs/site.js>; rel=preload; as=script"), links(filter("/content/wknd/us/en/one", "html")));
+    }
+
+    @Test
+    void relearnsWhenExpired() throws Exception {
+        fixture = context.registerInjectActivateService(new PreloadLinkFilter(), "relearn.interval.seconds", 0L);
+        filter("/content/wknd/us/en/one", "html");
+
+        assertEquals(4, links(filter("/content/wknd/us/en/two", "html")).size());
+        assertEquals(4, links(filter("/content/wknd/us/en/two", "html")).size());
+    }
+
+    @Test
+    void skipsOtherRequests() throws Exception {
+        filter("/content/wknd/us/en/one", "json");
+        filter("/content/wknd/us/en/folder", "html");
+        fixture = context.registerInjectActivateService(new PreloadLinkFilter(), "enabled", false);
+        filter("/content/wknd/us/en/one", "html");
+
+        assertEquals(Collections.emptyList(), links(filter("/content/wknd/us/en/one", "html")));
+    }
+}
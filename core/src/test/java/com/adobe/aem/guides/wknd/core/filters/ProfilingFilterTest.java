@@ -0,0 +1,80 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.servlet.FilterChain;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.RequestProfile;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class ProfilingFilterTest {
+
+    private final AemContext context = new AemContext();
+
+    private ProfilingComponentFilter componentFilter;
+
+    private final FilterChain page = (request, response) -> {
+        // a page including one component, which uses a model
+        componentFilter.doFilter(request, response, (componentRequest, componentResponse) -> {
+            RequestProfile.time(componentRequest, RequestProfile.KIND_USE, "com.example.Model", () -> null);
+            componentResponse.getWriter().write("<p>--</p>");
+        });
+        response.setContentType("text/html");
+    };
+
+    @BeforeEach
+    void setup() {
+        context.create().resource("/content/page", "sling:resourceType", "wknd/components/page");
+        context.currentResource("/content/page");
+        context.requestPathInfo().setExtension("html");
+        componentFilter = context.registerInjectActivateService(new ProfilingComponentFilter());
+    }
+
+    @Test
+    void profilesSelectedRequests() throws Exception {
+        ProfilingFilter fixture = context.registerInjectActivateService(new ProfilingFilter(), "enabled", true);
+        context.requestPathInfo().setSelectorString("profile");
+
+        fixture.doFilter(context.request(), context.response(), page);
+
+        MockSlingHttpServletResponse response = context.response();
+        assertTrue(response.getHeader(ProfilingFilter.HEADER).contains("resource:/content/page [wknd/components/page]="));
+        String output = response.getOutputAsString();
+        assertTrue(output.startsWith("<p>--</p>\n<!-- WKND request profile"), output);
+        assertTrue(output.contains("    use com.example.Model\n"), output);
+        assertEquals(3, output.split("--", -1).length - 1, output);
+        assertNull(context.request().getAttribute(RequestProfile.ATTR_NAME));
+    }
+
+    @Test
+    void headerOnlyForRequestHeader() throws Exception {
+        ProfilingFilter fixture = context.registerInjectActivateService(new ProfilingFilter(), "enabled", true);
+        context.request().addHeader(ProfilingFilter.HEADER, "true");
+
+        fixture.doFilter(context.request(), context.response(), page);
+
+        assertTrue(context.response().getHeader(ProfilingFilter.HEADER).startsWith("total="));
+        assertEquals("<p>--</p>", context.response().getOutputAsString());
+    }
+
+    @Test
+    void disabledByDefault() throws Exception {
+        ProfilingFilter fixture = context.registerInjectActivateService(new ProfilingFilter());
+        context.requestPathInfo().setSelectorString("profile");
+
+        fixture.doFilter(context.request(), context.response(), page);
+
+        assertNull(context.response().getHeader(ProfilingFilter.HEADER));
+        assertEquals("<p>--</p>", context.response().getOutputAsString());
+    }
+}
@@ -0,0 +1,127 @@
+package com.adobe.aem.guides.wknd.core.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.servlet.FilterChain;
+
+import org.apache.sling.testing.mock.sling.servlet.MockRequestPathInfo;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.cache.SurrogateKeys;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class SurrogateKeyFilterTest {
+
+    private static final String PAGE = "/content/wknd/us/en/magazine";
+
+    private static final String BYLINE = "/content/wknd/us/en/adventures/jcr:content/root/byline";
+
+    private final AemContext context = new AemContext();
+
+    private SurrogateKeyFilter fixture;
+
+    private SurrogateKeyComponentFilter componentFilter;
+
+    @BeforeEach
+    void setup() {
+        context.create().resource(PAGE, "sling:resourceType", "wknd/components/page");
+        context.create().resource(BYLINE, "sling:resourceType", BylineFragmentCacheFilter.RESOURCE_TYPE, "name", "Jane Doe");
+        context.create().resource("/content/other", "sling:resourceType", "wknd/components/page");
+
+        fixture = context.registerInjectActivateService(new SurrogateKeyFilter(), "enabled", true);
+        componentFilter = context.registerInjectActivateService(new SurrogateKeyComponentFilter());
+    }
+
+    private MockSlingHttpServletRequest request(String method, String path) {
+        return request(method, path, "html");
+    }
+
+    private MockSlingHttpServletRequest request(String method, String path, String extension) {
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        request.setMethod(method);
+        request.setResource(context.resourceResolver().getResource(path));
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setExtension(extension);
+        return request;
+    }
+
+    @Test
+    void tagsResponseWithPageAndIncludedContent() throws Exception {
+        MockSlingHttpServletRequest request = request("GET", PAGE);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.getWriter().write("<html>");
+            request.setResource(context.resourceResolver().getResource(BYLINE));
+            componentFilter.doFilter(req, res, (r, s) -> s.getWriter().write("byline"));
+        };
+
+        fixture.doFilter(request, response, chain);
+
+        assertEquals("<html>byline", response.getOutputAsString());
+        String header = response.getHeader(SurrogateKeys.HEADER);
+        assertTrue(header.startsWith("wknd " + SurrogateKeys.contentKey(PAGE) + " " + SurrogateKeys.treeKey(PAGE) + " "));
+        assertTrue(header.contains(" " + SurrogateKeys.contentKey("/content/wknd/us/en/adventures")));
+        assertTrue(header.endsWith(" wknd-people " + SurrogateKeys.personKey("Jane Doe")));
+        assertNull(request.getAttribute(SurrogateKeys.ATTR_NAME));
+    }
+
+    @Test
+    void skipsUntrackedRequests() throws Exception {
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doFilter(request("POST", PAGE), response, (req, res) -> assertNull(SurrogateKeys.from(req)));
+        fixture.doFilter(request("GET", "/content/other"), response, (req, res) -> assertNull(SurrogateKeys.from(req)));
+        fixture.doFilter(request("GET", PAGE, "pdf"), response, (req, res) -> assertNull(SurrogateKeys.from(req)));
+        fixture.doFilter(request("GET", PAGE, null), response, (req, res) -> assertNull(SurrogateKeys.from(req)));
+        assertNull(response.getHeader(SurrogateKeys.HEADER));
+    }
+
+    @Test
+    void tagsJsonRenditions() throws Exception {
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+
+        fixture.doFilter(request("GET", PAGE, "json"), response, (req, res) -> res.getWriter().write("{}"));
+
+        assertEquals("{}", response.getOutputAsString());
+        assertTrue(response.getHeader(SurrogateKeys.HEADER).startsWith("wknd " + SurrogateKeys.contentKey(PAGE)));
+    }
+
+    @Test
+    void isDisabledByDefault() throws Exception {
+        fixture = context.registerInjectActivateService(new SurrogateKeyFilter());
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+
+        fixture.doFilter(request("GET", PAGE), response, (req, res) -> assertNull(SurrogateKeys.from(req)));
+
+        assertNull(response.getHeader(SurrogateKeys.HEADER));
+    }
+
+    @Test
+    void skipsWhenDisabled() throws Exception {
+        fixture = context.registerInjectActivateService(new SurrogateKeyFilter(), "enabled", false);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+
+        fixture.doFilter(request("GET", PAGE), response, (req, res) -> res.getWriter().write("page"));
+
+        assertEquals("page", response.getOutputAsString());
+        assertNull(response.getHeader(SurrogateKeys.HEADER));
+    }
+
+    @Test
+    void marksOverflow() throws Exception {
+        fixture = context.registerInjectActivateService(new SurrogateKeyFilter(), "enabled", true, "max.keys", 2);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+
+        fixture.doFilter(request("GET", PAGE), response, (req, res) -> { });
+
+        assertEquals("wknd wknd-overflow " + SurrogateKeys.contentKey(PAGE) + " " + SurrogateKeys.treeKey(PAGE),
+                response.getHeader(SurrogateKeys.HEADER));
+    }
+}
@@ -0,0 +1,75 @@
+package com.adobe.aem.guides.wknd.core.listeners.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.Test;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+
+class ChangeCoalescerTest {
+
+    @Test
+    void mergesDescendantsIntoAncestors() {
+        ChangeCoalescer fixture = new ChangeCoalescer(0);
+        fixture.add(new ResourceChange(ChangeType.ADDED, "/content/wknd/data/Jane/address", false));
+        fixture.add(new ResourceChange(ChangeType.ADDED, "/content/wknd/data/Jane", false));
+        fixture.add(new ResourceChange(ChangeType.CHANGED, "/content/wknd/data/Jane/phoneNumber/mobile", true));
+        fixture.add(new ResourceChange(ChangeType.ADDED, "/content/wknd/data/Jane-Doe", false));
+        fixture.add(new ResourceChange(ChangeType.ADDED, "/content/wknd/data/Jane-Doe", false));
+
+        List<CoalescedChange> changes = fixture.drain();
+
+        assertEquals(2, changes.size());
+        CoalescedChange jane = changes.get(0);
+        assertEquals("/content/wknd/data/Jane", jane.getPath());
+        assertEquals(EnumSet.of(ChangeType.ADDED, ChangeType.CHANGED), jane.getTypes());
+        assertEquals(3, jane.getCount());
+        assertFalse(jane.isExternal());
+        assertEquals("/content/wknd/data/Jane-Doe", changes.get(1).getPath());
+        assertEquals(2, changes.get(1).getCount());
+        assertTrue(fixture.isEmpty());
+    }
+
+    @Test
+    void truncatesToMaximumDepth() {
+        ChangeCoalescer fixture = new ChangeCoalescer(4);
+        fixture.add(new ResourceChange(ChangeType.ADDED, "/content/wknd/data/Jane/address", true));
+        fixture.add(new ResourceChange(ChangeType.ADDED, "/content/wknd/data/John/Occupations/Blogger", true));
+        fixture.add(new ResourceChange(ChangeType.REMOVED, "/content/wknd", true));
+
+        List<CoalescedChange> changes = fixture.drain();
+
+        assertEquals(1, changes.size());
+        assertEquals("/content/wknd", changes.get(0).getPath());
+        assertTrue(changes.get(0).isExternal());
+    }
+
+    @Test
+    void keepsDepthOfShortPaths() {
+        ChangeCoalescer fixture = new ChangeCoalescer(4);
+        fixture.add(new ResourceChange(ChangeType.ADDED, "/content/wknd/data/Jane/address", false));
+        fixture.add(new ResourceChange(ChangeType.ADDED, "/content/wknd/us", false));
+
+        List<CoalescedChange> changes = fixture.drain();
+
+        assertEquals("/content/wknd/data/Jane", changes.get(0).getPath());
+        assertEquals("/content/wknd/us", changes.get(1).getPath());
+    }
+
+    @Test
+    void coversAndOverlaps() {
+        CoalescedChange change = new CoalescedChange("/content/wknd/data", EnumSet.of(ChangeType.CHANGED), false, 1);
+
+        assertTrue(change.covers("/content/wknd/data/Jane"));
+        assertFalse(change.covers("/content/wknd/database"));
+        assertTrue(change.overlaps("/content/wknd"));
+        assertFalse(change.overlaps("/content/wknd/us"));
+    }
+}
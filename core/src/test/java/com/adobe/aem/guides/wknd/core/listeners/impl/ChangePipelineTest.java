@@ -0,0 +1,164 @@
+package com.adobe.aem.guides.wknd.core.listeners.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.cache.impl.ContainingPageCacheImpl;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.listeners.ResourceChangeHandler;
+import com.day.cq.wcm.api.Page;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class ChangePipelineTest {
+
+    private final AemContext context = new AemContext();
+
+    private ChangePipeline fixture;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        fixture.deactivate();
+    }
+
+    private BlockingQueue<List<CoalescedChange>> registerHandler(Object... properties) {
+        BlockingQueue<List<CoalescedChange>> batches = new LinkedBlockingQueue<>();
+        ResourceChangeHandler handler = batches::add;
+        context.registerService(ResourceChangeHandler.class, handler, properties);
+        return batches;
+    }
+
+    private ChangePipeline activate(Object... properties) throws Exception {
+        fixture = context.registerInjectActivateService(new ChangePipeline(), properties);
+        return fixture;
+    }
+
+    private static ResourceChange change(ChangeType type, String path) {
+        return new ResourceChange(type, path, false);
+    }
+
+    @Test
+    void dispatchesCoalescedBatches() throws Exception {
+        BlockingQueue<List<CoalescedChange>> batches = registerHandler();
+        activate("debounce.ms", 50L);
+
+        fixture.onChange(Arrays.asList(
+                change(ChangeType.ADDED, "/content/wknd/data/Jane"),
+                change(ChangeType.ADDED, "/content/wknd/data/Jane/address")));
+        fixture.onChange(Arrays.asList(change(ChangeType.ADDED, "/content/wknd/data/Jane/phoneNumber")));
+
+        List<CoalescedChange> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(1, batch.size());
+        assertEquals("/content/wknd/data/Jane", batch.get(0).getPath());
+        assertEquals(3, batch.get(0).getCount());
+        assertEquals(3, fixture.getReceivedCount());
+        assertEquals(1, fixture.getCoalescedCount());
+    }
+
+    @Test
+    void filtersByHandlerPathsAndTypes() throws Exception {
+        BlockingQueue<List<CoalescedChange>> people = registerHandler(
+                ResourceChangeHandler.PATHS, "/content/wknd/data");
+        BlockingQueue<List<CoalescedChange>> removals = registerHandler(
+                ResourceChangeHandler.CHANGES, new String[] { "REMOVED" });
+        activate("debounce.ms", 10L);
+
+        fixture.onChange(Arrays.asList(
+                change(ChangeType.CHANGED, "/content/wknd/data/Jane"),
+                change(ChangeType.REMOVED, "/content/wknd/us/en/page")));
+
+        List<CoalescedChange> peopleBatch = people.poll(5, TimeUnit.SECONDS);
+        assertEquals("/content/wknd/data/Jane", peopleBatch.get(0).getPath());
+        assertEquals(1, peopleBatch.size());
+        List<CoalescedChange> removalBatch = removals.poll(5, TimeUnit.SECONDS);
+        assertEquals("/content/wknd/us/en/page", removalBatch.get(0).getPath());
+        assertEquals(1, removalBatch.size());
+    }
+
+    @Test
+    void overflowDispatchesObservedRoots() throws Exception {
+        BlockingQueue<List<CoalescedChange>> batches = registerHandler();
+        activate("queue.capacity", 1, "debounce.ms", 200L, "resource.paths", new String[] { "/content/wknd" });
+
+        List<ResourceChange> changes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            changes.add(change(ChangeType.ADDED, "/content/wknd/data/p" + i));
+        }
+        fixture.onChange(changes);
+
+        assertTrue(fixture.getDroppedCount() > 0);
+        List<CoalescedChange> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertEquals("/content/wknd", batch.get(0).getPath());
+        assertEquals(1, batch.size());
+    }
+
+    @Test
+    void observesAllContentByDefault() throws Exception {
+        BlockingQueue<List<CoalescedChange>> batches = registerHandler();
+        activate("queue.capacity", 1, "debounce.ms", 200L);
+
+        fixture.onChange(Arrays.asList(
+                change(ChangeType.CHANGED, "/content/experience-fragments/wknd/footer/master/jcr:content"),
+                change(ChangeType.CHANGED, "/content/experience-fragments/wknd/header/master/jcr:content")));
+
+        List<CoalescedChange> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals("/content", batch.get(batch.size() - 1).getPath());
+    }
+
+    @Test
+    void experienceFragmentChangeInvalidatesCaches() throws Exception {
+        ContainingPageCacheImpl pageCache = context.registerInjectActivateService(new ContainingPageCacheImpl(),
+                ResourceChangeHandler.PATHS, "/content",
+                ResourceChangeHandler.CHANGES, new String[] { "ADDED", "REMOVED" });
+        activate("debounce.ms", 10L);
+        Page xf = context.create().page("/content/experience-fragments/wknd/footer/master");
+        Resource text = context.create().resource(xf, "text");
+        assertEquals(xf.getPath(), pageCache.getContainingPagePath(text));
+        assertEquals(1, pageCache.getSize());
+
+        fixture.onChange(Arrays.asList(change(ChangeType.REMOVED, xf.getPath())));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pageCache.getSize() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, pageCache.getSize());
+    }
+
+    @Test
+    void failingHandlerDoesNotStopPipeline() throws Exception {
+        context.registerService(ResourceChangeHandler.class, changes -> {
+            throw new IllegalStateException("broken");
+        });
+        BlockingQueue<List<CoalescedChange>> batches = registerHandler();
+        activate("debounce.ms", 10L);
+
+        fixture.onChange(Arrays.asList(change(ChangeType.ADDED, "/content/wknd/a")));
+        assertNotNull(batches.poll(5, TimeUnit.SECONDS));
+        fixture.onChange(Arrays.asList(change(ChangeType.ADDED, "/content/wknd/b")));
+        assertNotNull(batches.poll(5, TimeUnit.SECONDS));
+
+        assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, fixture.getHandlerErrorCount());
+    }
+}
@@ -0,0 +1,92 @@
+package com.adobe.aem.guides.wknd.core.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the request thread side of the asynchronous access log. With the GC profiler,
+ * <code>gc.alloc.rate.norm</code> of {@link #offer()} must stay at 0 bytes per operation,
+ * while {@link #format()} shows what synchronous formatting on the request thread costs.
+ * <p>
+ * Run with <code>mvn -pl core test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.adobe.aem.guides.wknd.core.logging.AccessLogRingBufferBenchmark</code>
+ * or from the IDE; this is not part of the regular test run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class AccessLogRingBufferBenchmark {
+
+    private static final String PATH = "/content/wknd/us/en/magazine/guide-la-skateparks";
+
+    private String path = PATH;
+
+    private String selectors = "model";
+
+    private AccessLogRingBuffer buffer;
+
+    private volatile boolean running;
+
+    private Thread consumer;
+
+    @Setup
+    public void setup() {
+        buffer = new AccessLogRingBuffer(8192);
+        running = true;
+        consumer = new Thread(() -> {
+            final StringBuilder line = new StringBuilder(512);
+            while (running) {
+                line.setLength(0);
+                if (!buffer.poll(line)) {
+                    LockSupport.parkNanos(1000);
+                }
+            }
+        }, "benchmark-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        consumer.join();
+    }
+
+    @Benchmark
+    public boolean offer() {
+        return buffer.offer(1_600_000_000_000L, "GET", path, selectors, "json", 200, 1_234_567L);
+    }
+
+    @Benchmark
+    public String format() {
+        return "request for " + path + ", with selector " + selectors;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AccessLogRingBufferBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
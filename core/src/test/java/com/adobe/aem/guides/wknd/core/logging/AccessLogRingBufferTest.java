@@ -0,0 +1,129 @@
+package com.adobe.aem.guides.wknd.core.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void formatsRecords() {
+        AccessLogRingBuffer fixture = new AccessLogRingBuffer(4);
+        fixture.offer(0, "GET", "/content/wknd/us/en", "model", "json", 200, TimeUnit.MILLISECONDS.toNanos(3));
+        fixture.offer(0, "POST", "/content/wknd/us/en", null, null, 500, 1000);
+
+        StringBuilder line = new StringBuilder();
+        assertTrue(fixture.poll(line));
+        assertEquals("1970-01-01T00:00:00Z GET /content/wknd/us/en model.json 200 3000us", line.toString());
+        line.setLength(0);
+        assertTrue(fixture.poll(line));
+        assertEquals("1970-01-01T00:00:00Z POST /content/wknd/us/en - 500 1us", line.toString());
+        assertFalse(fixture.poll(line));
+    }
+
+    @Test
+    void truncatesLongValues() {
+        AccessLogRingBuffer fixture = new AccessLogRingBuffer(2);
+        fixture.offer(0, "GET", "/" + StringUtils.repeat('a', 1000), null, "html", 200, 0);
+
+        StringBuilder line = new StringBuilder();
+        fixture.poll(line);
+        String path = line.toString().split(" ")[2];
+        assertEquals(AccessLogRingBuffer.MAX_PATH, path.length());
+        assertTrue(path.endsWith("\u2026"));
+    }
+
+    @Test
+    void dropsWhenFull() {
+        AccessLogRingBuffer fixture = new AccessLogRingBuffer(3);
+        assertEquals(4, fixture.getCapacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(fixture.offer(0, "GET", "/" + i, null, "html", 200, 0));
+        }
+
+        assertFalse(fixture.offer(0, "GET", "/4", null, "html", 200, 0));
+        assertEquals(1, fixture.getDroppedCount());
+        assertEquals(4, fixture.getPendingCount());
+
+        assertTrue(fixture.poll(new StringBuilder()));
+        assertTrue(fixture.offer(0, "GET", "/5", null, "html", 200, 0));
+    }
+
+    @Test
+    void concurrentProducers() throws InterruptedException {
+        AccessLogRingBuffer fixture = new AccessLogRingBuffer(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        CountDownLatch done = new CountDownLatch(producers);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String path = "/p" + p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!fixture.offer(i, "GET", path, null, "html", 200, 0)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        Set<String> lines = new HashSet<>();
+        StringBuilder line = new StringBuilder();
+        int polled = 0;
+        while (polled < producers * perProducer) {
+            line.setLength(0);
+            if (fixture.poll(line)) {
+                lines.add(line.toString());
+                polled++;
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, lines.size());
+    }
+
+    @Test
+    void offerDoesNotAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        AccessLogRingBuffer fixture = new AccessLogRingBuffer(1024);
+        StringBuilder line = new StringBuilder();
+        long threadId = Thread.currentThread().getId();
+        long allocated = 0;
+        for (int round = 0; round < 200; round++) {
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 1024; i++) {
+                fixture.offer(i, "GET", "/content/wknd/us/en", "model", "json", 200, i);
+            }
+            long after = allocations.getThreadAllocatedBytes(threadId);
+            // the first rounds warm up the JIT and are not counted
+            if (round >= 100) {
+                allocated += after - before;
+            }
+            // polling formats the record and allocates, which is expected on the consumer thread only
+            while (fixture.poll(line)) {
+                line.setLength(0);
+            }
+        }
+
+        assertEquals(0, fixture.getDroppedCount());
+        assertTrue(allocated < 102_400, "allocated " + allocated + " bytes for 102400 offers");
+    }
+}
@@ -0,0 +1,85 @@
+package com.adobe.aem.guides.wknd.core.logging.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.testing.mock.sling.servlet.MockRequestPathInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+import uk.org.lidalia.slf4jtest.LoggingEvent;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+@ExtendWith(AemContextExtension.class)
+class AsyncAccessLogImplTest {
+
+    private static final String LOGGER = "wknd.test.accesslog";
+
+    private final AemContext context = new AemContext();
+
+    private final TestLogger accessLogger = TestLoggerFactory.getTestLogger(LOGGER);
+
+    @BeforeEach
+    void setup() {
+        TestLoggerFactory.clear();
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setResourcePath("/content/test");
+        requestPathInfo.setSelectorString("model");
+        requestPathInfo.setExtension("json");
+    }
+
+    @Test
+    void writesRecordsInTheBackground() throws Exception {
+        AsyncAccessLogImpl fixture = context.registerInjectActivateService(new AsyncAccessLogImpl(),
+                "logger.name", LOGGER);
+
+        fixture.log(context.request(), 200, 0, TimeUnit.MILLISECONDS.toNanos(2));
+        fixture.deactivate();
+
+        List<LoggingEvent> events = accessLogger.getLoggingEvents();
+        assertEquals(1, events.size());
+        assertEquals("1970-01-01T00:00:00Z GET /content/test model.json 200 2000us", events.get(0).getMessage());
+        assertEquals(1, fixture.getWrittenCount());
+        assertEquals(0, fixture.getPendingCount());
+    }
+
+    @Test
+    void samplesRequests() throws Exception {
+        AsyncAccessLogImpl fixture = context.registerInjectActivateService(new AsyncAccessLogImpl(),
+                "logger.name", LOGGER, "sampling.rate", 0.0);
+
+        for (int i = 0; i < 100; i++) {
+            fixture.log(context.request(), 200, 0, 0);
+        }
+        fixture.deactivate();
+
+        assertTrue(accessLogger.getLoggingEvents().isEmpty());
+        assertEquals(0, fixture.getWrittenCount());
+    }
+
+    @Test
+    void wakesUpForRecordsAfterIdling() throws Exception {
+        AsyncAccessLogImpl fixture = context.registerInjectActivateService(new AsyncAccessLogImpl(),
+                "logger.name", LOGGER);
+        // long enough for the consumer to back off to its longest park
+        TimeUnit.NANOSECONDS.sleep(AsyncAccessLogImpl.MAX_IDLE_NANOS * 3);
+
+        long start = System.nanoTime();
+        fixture.log(context.request(), 200, 0, 0);
+        while (fixture.getWrittenCount() == 0 && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+            Thread.yield();
+        }
+        long elapsed = System.nanoTime() - start;
+        fixture.deactivate();
+
+        assertEquals(1, fixture.getWrittenCount());
+        assertTrue(elapsed < AsyncAccessLogImpl.MAX_IDLE_NANOS / 2, "written after " + elapsed + "ns");
+    }
+}
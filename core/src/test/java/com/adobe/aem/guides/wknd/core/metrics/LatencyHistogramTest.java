@@ -0,0 +1,53 @@
+package com.adobe.aem.guides.wknd.core.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    private final LatencyHistogram fixture = new LatencyHistogram();
+
+    @Test
+    void bucketsCoverValuesWithBoundedError() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.indexOf(value);
+            long upperBound = LatencyHistogram.upperBoundOf(index);
+            assertTrue(upperBound >= value, "upper bound of " + value);
+            assertTrue(upperBound - value <= value / 16 + 1, "error of " + value);
+        }
+    }
+
+    @Test
+    void percentiles() {
+        for (int i = 1; i <= 100; i++) {
+            fixture.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertEquals(100, fixture.getCount());
+        assertEquals(50_500, fixture.getMean(), 0.001);
+        assertEquals(100_000, fixture.getMax());
+        assertEquals(50_000, fixture.getValueAtPercentile(50), 50_000 / 16);
+        assertEquals(95_000, fixture.getValueAtPercentile(95), 95_000 / 16);
+        assertEquals(100_000, fixture.getValueAtPercentile(100));
+    }
+
+    @Test
+    void emptyHistogram() {
+        assertEquals(0, fixture.getCount());
+        assertEquals(0, fixture.getMean());
+        assertEquals(0, fixture.getValueAtPercentile(99));
+    }
+
+    @Test
+    void clampsOutOfRangeValues() {
+        fixture.record(-1);
+        fixture.record(TimeUnit.DAYS.toNanos(1));
+
+        assertEquals(0, fixture.getValueAtPercentile(50));
+        assertEquals(TimeUnit.HOURS.toMicros(1), fixture.getMax());
+    }
+}
@@ -0,0 +1,68 @@
+package com.adobe.aem.guides.wknd.core.metrics.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.metrics.RequestTimingRegistry;
+import com.adobe.aem.guides.wknd.core.metrics.TimingStatistics;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class RequestTimingRegistryImplTest {
+
+    private final AemContext context = new AemContext();
+
+    private RequestTimingRegistryImpl fixture;
+
+    @BeforeEach
+    void setup() throws Exception {
+        fixture = context.registerInjectActivateService(new RequestTimingRegistryImpl(), "max.keys", 2);
+    }
+
+    @Test
+    void recordsPerResourceTypeAndSelector() {
+        fixture.record("wknd/components/page", "html", TimeUnit.MILLISECONDS.toNanos(10));
+        fixture.record("wknd/components/byline", "model.json", TimeUnit.MILLISECONDS.toNanos(40));
+        fixture.record("wknd/components/byline", "model.json", TimeUnit.MILLISECONDS.toNanos(40));
+
+        assertEquals(3, fixture.getRequestCount());
+        List<TimingStatistics> resourceTypes = fixture.getResourceTypeStatistics();
+        assertEquals(2, resourceTypes.size());
+        assertEquals("wknd/components/byline", resourceTypes.get(0).getKey());
+        assertEquals(2, resourceTypes.get(0).getCount());
+        assertEquals(40, resourceTypes.get(0).getP99(), 40d / 16);
+        assertEquals("html", fixture.getSelectorStatistics().get(1).getKey());
+    }
+
+    @Test
+    void boundsCardinality() {
+        fixture.record("a", "html", 1000);
+        fixture.record("b", "html", 1000);
+        fixture.record("c", "html", 1000);
+        fixture.record("d", "html", 1000);
+
+        List<TimingStatistics> resourceTypes = fixture.getResourceTypeStatistics();
+        assertEquals(3, resourceTypes.size());
+        assertEquals(2, resourceTypes.stream()
+                .filter(statistics -> RequestTimingRegistry.OTHER.equals(statistics.getKey()))
+                .findFirst().get().getCount());
+    }
+
+    @Test
+    void reset() {
+        fixture.record("a", "html", 1000);
+
+        fixture.reset();
+
+        assertEquals(0, fixture.getRequestCount());
+        assertEquals(0, fixture.getResourceTypes().length);
+    }
+}
@@ -24,8 +24,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import com.day.cq.wcm.api.Page;
 import io.wcm.testing.mock.aem.junit5.AemContext;
 import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+import com.adobe.aem.guides.wknd.core.cache.impl.ContainingPageCacheImpl;
 import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -63,4 +65,19 @@ class HelloWorldModelTest {
         assertTrue(StringUtils.contains(msg, page.getPath()));
     }
 
+    @Test
+    void testGetMessageWithContainingPageCache() throws Exception {
+        ContainingPageCacheImpl cache = context.registerInjectActivateService(new ContainingPageCacheImpl());
+
+        // adapt fresh resource instances, adaptTo results are cached per resource instance
+        String msg = context.resourceResolver().getResource(resource.getPath())
+                .adaptTo(HelloWorldModel.class).getMessage();
+        context.resourceResolver().getResource(resource.getPath())
+                .adaptTo(HelloWorldModel.class).getMessage();
+
+        assertTrue(StringUtils.contains(msg, page.getPath()));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
 }
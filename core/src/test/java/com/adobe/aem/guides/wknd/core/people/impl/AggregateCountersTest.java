@@ -0,0 +1,133 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleCounts;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+
+class AggregateCountersTest {
+
+    private static final List<String> CITIES = Arrays.asList("Basel", "Bern", "Geneva", "Zurich", "");
+
+    private static final List<String> OCCUPATIONS = Arrays.asList("Chef", "Editor", "Photographer", "Writer");
+
+    private final AggregateCounters fixture = new AggregateCounters();
+
+    static PersonRecord person(String name, int age, String city, String... occupations) {
+        return new PersonRecord(name, age, null, null, null, city, null,
+                Collections.emptyMap(), Arrays.asList(occupations));
+    }
+
+    static PersonRecord randomPerson(Random random, String name) {
+        final List<String> occupations = new ArrayList<>();
+        for (int i = random.nextInt(3); i > 0; i--) {
+            occupations.add(OCCUPATIONS.get(random.nextInt(OCCUPATIONS.size())));
+        }
+        return person(name, random.nextInt(110) - 5, CITIES.get(random.nextInt(CITIES.size())),
+                occupations.toArray(new String[0]));
+    }
+
+    /**
+     * Counts the given people from scratch.
+     */
+    static PeopleCounts recount(Collection<PersonRecord> people) {
+        final Map<String, Integer> byCity = new HashMap<>();
+        final Map<String, Integer> byOccupation = new HashMap<>();
+        final Map<String, Integer> byAgeBucket = new HashMap<>();
+        for (PersonRecord person : people) {
+            if (person.getCity() != null && !person.getCity().isEmpty()) {
+                byCity.merge(person.getCity(), 1, Integer::sum);
+            }
+            for (String occupation : new LinkedHashSet<>(person.getOccupations())) {
+                byOccupation.merge(occupation, 1, Integer::sum);
+            }
+            byAgeBucket.merge(PeopleCounts.ageBucket(person.getAge()), 1, Integer::sum);
+        }
+        return new PeopleCounts(people.size(), byCity, byOccupation, byAgeBucket, 0, 0);
+    }
+
+    static void assertSameCounts(PeopleCounts expected, PeopleCounts actual) {
+        assertEquals(expected.getTotal(), actual.getTotal());
+        assertEquals(expected.getByCity(), actual.getByCity());
+        assertEquals(expected.getByOccupation(), actual.getByOccupation());
+        assertEquals(expected.getByAgeBucket(), actual.getByAgeBucket());
+    }
+
+    @Test
+    void ageBuckets() {
+        assertEquals("0-9", PeopleCounts.ageBucket(-1));
+        assertEquals("0-9", PeopleCounts.ageBucket(9));
+        assertEquals("30-39", PeopleCounts.ageBucket(30));
+        assertEquals("80-89", PeopleCounts.ageBucket(89));
+        assertEquals("90+", PeopleCounts.ageBucket(120));
+    }
+
+    @Test
+    void replacesContributions() {
+        assertTrue(fixture.put(person("Jane Doe", 30, "Basel", "Writer", "Writer")));
+        assertFalse(fixture.put(person("Jane Doe", 31, "Basel", "Writer")));
+        assertTrue(fixture.put(person("Jane Doe", 41, "Zurich", "Chef")));
+
+        PeopleCounts counts = fixture.toCounts(0, 0);
+        assertEquals(1, counts.getTotal());
+        assertEquals(Collections.singletonMap("Zurich", 1), counts.getByCity());
+        assertEquals(Collections.singletonMap("Chef", 1), counts.getByOccupation());
+        assertEquals(Collections.singletonMap("40-49", 1), counts.getByAgeBucket());
+
+        assertTrue(fixture.remove("Jane Doe"));
+        assertFalse(fixture.remove("Jane Doe"));
+        assertEquals(0, fixture.toCounts(0, 0).getTotal());
+        assertTrue(fixture.toCounts(0, 0).getByCity().isEmpty());
+    }
+
+    @Test
+    void matchesRecountOfGeneratedPeople() {
+        Random random = new Random(42);
+        Map<String, PersonRecord> people = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = "Person " + random.nextInt(500);
+            if (random.nextInt(5) == 0) {
+                fixture.remove(name);
+                people.remove(name);
+            } else {
+                PersonRecord person = randomPerson(random, name);
+                fixture.put(person);
+                if (random.nextBoolean()) {
+                    // writers may report the same person twice
+                    fixture.put(person);
+                }
+                people.put(name, person);
+            }
+        }
+
+        assertSameCounts(recount(people.values()), fixture.toCounts(0, 0));
+    }
+
+    @Test
+    void countsDifferences() {
+        AggregateCounters other = new AggregateCounters();
+        fixture.put(person("Jane Doe", 30, "Basel", "Writer"));
+        fixture.put(person("John Doe", 30, "Basel", "Writer"));
+        fixture.put(person("Max Muster", 30, "Bern", "Chef"));
+        other.put(person("Jane Doe", 35, "Basel", "Writer"));
+        other.put(person("John Doe", 30, "Zurich", "Writer"));
+        other.put(person("Erika Muster", 30, "Bern", "Chef"));
+
+        assertEquals(3, fixture.countDifferences(other));
+        assertEquals(0, fixture.countDifferences(fixture));
+    }
+}
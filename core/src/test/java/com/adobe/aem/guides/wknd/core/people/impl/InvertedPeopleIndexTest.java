@@ -0,0 +1,84 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleIndex;
+import com.adobe.aem.guides.wknd.core.people.PeopleSearchResult;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+
+class InvertedPeopleIndexTest {
+
+    private final InvertedPeopleIndex fixture = new InvertedPeopleIndex();
+
+    static PersonRecord person(String name, String city, String... occupations) {
+        return new PersonRecord(name, 30, null, null, null, city, null,
+                Collections.emptyMap(), Arrays.asList(occupations));
+    }
+
+    private static List<String> names(PeopleSearchResult result) {
+        return result.getPeople().stream().map(PersonRecord::getName).collect(Collectors.toList());
+    }
+
+    @BeforeEach
+    void setup() {
+        fixture.put(person("John Doe", "Basel", "Writer"));
+        fixture.put(person("Jane Doe", "Zurich", "Writer", "Photographer"));
+        fixture.put(person("Jos\u00e9 Garc\u00eda", "Basel", "Chef"));
+    }
+
+    @Test
+    void findsByWordPrefixes() {
+        assertEquals(Arrays.asList("Jane Doe", "John Doe"), names(fixture.search("do", null, null, 10)));
+        assertEquals(Arrays.asList("John Doe"), names(fixture.search("doe jo", null, null, 10)));
+        assertEquals(Arrays.asList("Jos\u00e9 Garc\u00eda"), names(fixture.search("JOSE garc", null, null, 10)));
+        assertEquals(0, fixture.search("x", null, null, 10).getTotal());
+    }
+
+    @Test
+    void blankPrefixMatchesAll() {
+        PeopleSearchResult result = fixture.search(" ", null, null, 2);
+
+        assertEquals(3, result.getTotal());
+        assertEquals(Arrays.asList("Jane Doe", "John Doe"), names(result));
+    }
+
+    @Test
+    void narrowsByFacetsAndCountsThem() {
+        PeopleSearchResult result = fixture.search("", "basel", null, 10);
+        assertEquals(Arrays.asList("John Doe", "Jos\u00e9 Garc\u00eda"), names(result));
+        assertEquals(Integer.valueOf(2), result.getFacets().get(PeopleIndex.FACET_CITY).get("Basel"));
+        assertEquals(Integer.valueOf(1), result.getFacets().get(PeopleIndex.FACET_OCCUPATION).get("Chef"));
+
+        result = fixture.search("", null, "writer", 10);
+        assertEquals(Arrays.asList("Writer", "Photographer"),
+                Arrays.asList(result.getFacets().get(PeopleIndex.FACET_OCCUPATION).keySet().toArray()));
+        assertEquals(0, fixture.search("", "Zurich", "Chef", 10).getTotal());
+    }
+
+    @Test
+    void replacesAndRemovesRecords() {
+        fixture.put(person("John Doe", "Geneva", "Editor"));
+        assertEquals(3, fixture.size());
+        assertEquals(0, fixture.search("", "Basel", "Writer", 10).getTotal());
+        assertEquals(Arrays.asList("John Doe"), names(fixture.search("", "Geneva", "Editor", 10)));
+
+        assertTrue(fixture.remove("John Doe"));
+        assertFalse(fixture.remove("John Doe"));
+        assertEquals(Arrays.asList("Jane Doe"), names(fixture.search("doe", null, null, 10)));
+        assertEquals(0, fixture.search("", "Geneva", null, 10).getTotal());
+
+        fixture.put(person("Max Muster", "Bern"));
+        assertEquals(3, fixture.size());
+        assertEquals(3, fixture.getRecords().size());
+    }
+}
@@ -0,0 +1,132 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import static com.adobe.aem.guides.wknd.core.people.impl.AggregateCountersTest.assertSameCounts;
+import static com.adobe.aem.guides.wknd.core.people.impl.AggregateCountersTest.randomPerson;
+import static com.adobe.aem.guides.wknd.core.people.impl.AggregateCountersTest.recount;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.people.PeopleCounts;
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+import com.adobe.aem.guides.wknd.core.schedulers.JobRun;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class PeopleAggregatesImplTest {
+
+    private final AemContext context = new AemContext();
+
+    private final Random random = new Random(7);
+
+    private PeopleAggregatesImpl fixture;
+
+    @BeforeEach
+    void setup() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            AppAemContext.createPerson(context, randomPerson(random, "Person " + i));
+        }
+        fixture = context.registerInjectActivateService(new PeopleAggregatesImpl());
+        fixture.awaitIdle();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        fixture.deactivate();
+    }
+
+    /**
+     * Counts the person records in the repository from scratch.
+     */
+    private PeopleCounts recountRepository() {
+        List<PersonRecord> people = new ArrayList<>();
+        for (Resource person : context.resourceResolver().getResource(PeopleData.DATA_ROOT).getChildren()) {
+            people.add(PersonRecord.fromResource(person));
+        }
+        return recount(people);
+    }
+
+    private static CoalescedChange change(String path, ChangeType type) {
+        return new CoalescedChange(path, EnumSet.of(type), false, 1);
+    }
+
+    @Test
+    void countsRepositoryAfterActivation() {
+        assertSameCounts(recountRepository(), fixture.getCounts());
+        assertEquals(200, fixture.getCounts().getTotal());
+        assertTrue(fixture.getCounts().getRecomputedMillis() > 0);
+        assertEquals(0, fixture.getCounts().getDrift());
+    }
+
+    @Test
+    void followsImportsAndChanges() throws Exception {
+        // the importer records what it writes
+        for (int i = 200; i < 300; i++) {
+            PersonRecord person = randomPerson(random, "Person " + i);
+            AppAemContext.createPerson(context, person);
+            fixture.record(PersonRecord.fromResource(
+                    context.resourceResolver().getResource(PeopleData.getPersonPath(person.getName()))));
+        }
+        assertSameCounts(recountRepository(), fixture.getCounts());
+
+        // other writers only leave change events
+        context.resourceResolver().getResource("/content/wknd/data/Person 3/address")
+                .adaptTo(ModifiableValueMap.class).put("city", "Lugano");
+        context.resourceResolver().delete(context.resourceResolver().getResource("/content/wknd/data/Person 4"));
+        context.resourceResolver().commit();
+        fixture.handleChanges(Arrays.asList(
+                change("/content/wknd/data/Person 3/address", ChangeType.CHANGED),
+                change("/content/wknd/data/Person 4", ChangeType.REMOVED),
+                change("/content/wknd/data/Person 5", ChangeType.CHANGED)));
+        fixture.awaitIdle();
+
+        assertSameCounts(recountRepository(), fixture.getCounts());
+        assertEquals(299, fixture.getCounts().getTotal());
+        assertEquals(Integer.valueOf(1), fixture.getCounts().getByCity().get("Lugano"));
+    }
+
+    @Test
+    void recountCorrectsDrift() throws Exception {
+        // changes that were never reported
+        context.resourceResolver().getResource("/content/wknd/data/Person 1/address")
+                .adaptTo(ModifiableValueMap.class).put("city", "Lugano");
+        context.resourceResolver().delete(context.resourceResolver().getResource("/content/wknd/data/Person 2"));
+        context.resourceResolver().commit();
+        AppAemContext.createPerson(context, AggregateCountersTest.person("Person 999", 20, "Bern"));
+        assertEquals(200, fixture.getCounts().getTotal());
+
+        fixture.run();
+
+        assertSameCounts(recountRepository(), fixture.getCounts());
+        assertEquals(3, fixture.getCounts().getDrift());
+        assertEquals(JobRun.Outcome.SUCCEEDED, fixture.getHistory().get(0).getOutcome());
+    }
+
+    @Test
+    void readsAreCached() {
+        PeopleCounts counts = fixture.getCounts();
+        fixture.record(PersonRecord.fromResource(
+                context.resourceResolver().getResource("/content/wknd/data/Person 0")));
+
+        assertSame(counts, fixture.getCounts());
+    }
+}
@@ -0,0 +1,134 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.adobe.aem.guides.wknd.core.people.PeopleSearchResult;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class PeopleIndexImplTest {
+
+    private final AemContext context = new AemContext();
+
+    @TempDir
+    Path tempDir;
+
+    private PeopleIndexImpl fixture;
+
+    @BeforeEach
+    void setup() {
+        AppAemContext.createPerson(context, "Jane Doe", "Basel", "Writer");
+        AppAemContext.createPerson(context, "John Doe", "Zurich", "Chef");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (fixture != null) {
+            fixture.deactivate();
+        }
+    }
+
+    private PeopleIndexImpl activate(Object... properties) throws Exception {
+        fixture = context.registerInjectActivateService(new PeopleIndexImpl(), properties);
+        fixture.awaitIdle();
+        return fixture;
+    }
+
+    private static CoalescedChange change(String path, ChangeType type) {
+        return new CoalescedChange(path, EnumSet.of(type), false, 1);
+    }
+
+    @Test
+    void loadsPersonRecordsFromRepository() throws Exception {
+        activate();
+
+        assertEquals(2, fixture.size());
+        assertEquals(PeopleIndexImpl.LOAD_REPOSITORY, fixture.getLoadSource());
+        PeopleSearchResult result = fixture.search("ja", null, null, 10);
+        assertEquals(1, result.getTotal());
+        assertEquals("Basel", result.getPeople().get(0).getCity());
+    }
+
+    @Test
+    void appliesPersonChanges() throws Exception {
+        activate();
+
+        context.resourceResolver().getResource("/content/wknd/data/Jane Doe/address")
+                .adaptTo(ModifiableValueMap.class).put("city", "Geneva");
+        context.resourceResolver().delete(context.resourceResolver().getResource("/content/wknd/data/John Doe"));
+        AppAemContext.createPerson(context, "Max Muster", "Bern", "Editor");
+        context.resourceResolver().commit();
+        fixture.handleChanges(Arrays.asList(
+                change("/content/wknd/data/Jane Doe/address", ChangeType.CHANGED),
+                change("/content/wknd/data/John Doe", ChangeType.REMOVED),
+                change("/content/wknd/data/Max Muster", ChangeType.ADDED)));
+        fixture.awaitIdle();
+
+        assertEquals(2, fixture.size());
+        assertEquals(1, fixture.search("", "geneva", null, 10).getTotal());
+        assertEquals(0, fixture.search("john", null, null, 10).getTotal());
+        assertEquals(1, fixture.search("mus", null, "editor", 10).getTotal());
+        assertEquals(3, fixture.getUpdateCount());
+    }
+
+    @Test
+    void dataRootChangeReloads() throws Exception {
+        activate();
+        AppAemContext.createPerson(context, "Max Muster", "Bern", "Editor");
+
+        fixture.handleChanges(Collections.singletonList(change("/content/wknd", ChangeType.CHANGED)));
+        fixture.awaitIdle();
+
+        assertEquals(3, fixture.size());
+    }
+
+    @Test
+    void loadsFromSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("people.snapshot");
+        activate("snapshot.enabled", true, "snapshot.file", snapshot.toString());
+        fixture.deactivate();
+        assertTrue(Files.isRegularFile(snapshot));
+
+        context.resourceResolver().delete(context.resourceResolver().getResource("/content/wknd/data/John Doe"));
+        context.resourceResolver().commit();
+        activate("snapshot.enabled", true, "snapshot.file", snapshot.toString());
+        // the reconcile is queued by the snapshot load
+        fixture.awaitIdle();
+
+        assertEquals(PeopleIndexImpl.LOAD_SNAPSHOT, fixture.getLoadSource());
+        // the person removed while the instance was down is gone once the snapshot is reconciled
+        assertEquals(1, fixture.size());
+        assertEquals(0, fixture.search("john", null, null, 1).getTotal());
+        assertEquals("Basel", fixture.search("jane", null, null, 1).getPeople().get(0).getCity());
+    }
+
+    @Test
+    void ignoresOutdatedSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("people.snapshot");
+        activate("snapshot.enabled", true, "snapshot.file", snapshot.toString());
+        fixture.deactivate();
+
+        activate("snapshot.enabled", true, "snapshot.file", snapshot.toString(), "snapshot.max.age.minutes", -1L);
+
+        assertEquals(PeopleIndexImpl.LOAD_REPOSITORY, fixture.getLoadSource());
+    }
+}
@@ -0,0 +1,136 @@
+package com.adobe.aem.guides.wknd.core.people.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleSnapshot;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class PeopleSnapshotPublisherImplTest {
+
+    private final AemContext context = new AemContext();
+
+    @TempDir
+    Path tempDir;
+
+    private PeopleSnapshotPublisherImpl fixture;
+
+    @BeforeEach
+    void setup() {
+        AppAemContext.createPerson(context, "Jane Doe", "Basel", "Writer");
+        AppAemContext.createPerson(context, "John Doe", "Zurich", "Chef");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (fixture != null) {
+            fixture.deactivate();
+        }
+    }
+
+    private PeopleSnapshotPublisherImpl activate() throws Exception {
+        fixture = context.registerInjectActivateService(new PeopleSnapshotPublisherImpl(),
+                "directory", tempDir.toString(), "retained.versions", 2);
+        fixture.awaitIdle();
+        return fixture;
+    }
+
+    private static JsonObject read(PeopleSnapshot snapshot) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshot.getFile()));
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+
+    @Test
+    void publishesOnActivation() throws Exception {
+        activate();
+
+        PeopleSnapshot snapshot = fixture.getLatest();
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(tempDir.resolve("people-1.json.gz"), snapshot.getFile());
+        assertEquals(Files.size(snapshot.getFile()), snapshot.getLength());
+        assertTrue(snapshot.getETag().matches("\"[0-9a-f]{32}\""));
+
+        JsonArray people = read(snapshot).getAsJsonArray("people");
+        assertEquals(2, people.size());
+        JsonObject jane = people.get(0).getAsJsonObject();
+        assertEquals("Jane Doe", jane.get("name").getAsString());
+        assertEquals("Basel", jane.getAsJsonObject("address").get("city").getAsString());
+        assertEquals("123", jane.getAsJsonArray("phoneNumber").get(0).getAsJsonObject().get("number").getAsString());
+        assertEquals("Writer", jane.getAsJsonArray("Occupations").get(0).getAsString());
+    }
+
+    @Test
+    void publishesNewVersionOnlyForChangedRecords() throws Exception {
+        activate();
+        PeopleSnapshot first = fixture.getLatest();
+
+        fixture.publish();
+        fixture.awaitIdle();
+        assertEquals(1, fixture.getLatest().getVersion());
+
+        context.resourceResolver().getResource("/content/wknd/data/Jane Doe/address")
+                .adaptTo(ModifiableValueMap.class).put("city", "Geneva");
+        context.resourceResolver().commit();
+        fixture.publish();
+        fixture.awaitIdle();
+
+        PeopleSnapshot second = fixture.getLatest();
+        assertEquals(2, second.getVersion());
+        assertNotEquals(first.getETag(), second.getETag());
+        assertTrue(Files.isRegularFile(first.getFile()));
+    }
+
+    @Test
+    void prunesOldVersions() throws Exception {
+        activate();
+        for (String city : new String[] { "Geneva", "Bern" }) {
+            context.resourceResolver().getResource("/content/wknd/data/Jane Doe/address")
+                    .adaptTo(ModifiableValueMap.class).put("city", city);
+            context.resourceResolver().commit();
+            fixture.publish();
+            fixture.awaitIdle();
+        }
+
+        assertEquals(3, fixture.getLatest().getVersion());
+        assertFalse(Files.exists(tempDir.resolve("people-1.json.gz")));
+        assertTrue(Files.exists(tempDir.resolve("people-2.json.gz")));
+    }
+
+    @Test
+    void resumesFromLatestFile() throws Exception {
+        activate();
+        PeopleSnapshot published = fixture.getLatest();
+        fixture.deactivate();
+
+        activate();
+
+        assertEquals(published.getVersion(), fixture.getLatest().getVersion());
+        assertEquals(published.getETag(), fixture.getLatest().getETag());
+    }
+}
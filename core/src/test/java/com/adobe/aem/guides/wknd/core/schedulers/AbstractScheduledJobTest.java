@@ -0,0 +1,127 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AbstractScheduledJobTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Job that blocks until released, or until it is cancelled.
+     */
+    private static class BlockingJob extends AbstractScheduledJob {
+
+        final CountDownLatch started = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        boolean sawCancellation;
+
+        long remainingBudgetOnCancellation = -1;
+
+        BlockingJob() {
+            super("blocking");
+        }
+
+        @Override
+        protected void execute() throws InterruptedException {
+            started.countDown();
+            while (!release.await(5, TimeUnit.MILLISECONDS)) {
+                if (isCancelled()) {
+                    sawCancellation = true;
+                    remainingBudgetOnCancellation = getRemainingBudgetMillis();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Test
+    void skipsOverlappingRuns() throws Exception {
+        final BlockingJob job = new BlockingJob();
+        final Future<?> scheduled = executor.submit(job);
+        assertTrue(job.started.await(5, TimeUnit.SECONDS));
+        assertTrue(job.isRunning());
+
+        assertFalse(job.runNow());
+        job.release.countDown();
+        scheduled.get(5, TimeUnit.SECONDS);
+
+        assertFalse(job.isRunning());
+        final List<JobRun> history = job.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(JobRun.Outcome.SUCCEEDED, history.get(0).getOutcome());
+        assertEquals(ScheduledJob.TRIGGER_SCHEDULER, history.get(0).getTrigger());
+        assertEquals(JobRun.Outcome.SKIPPED, history.get(1).getOutcome());
+        assertEquals(ScheduledJob.TRIGGER_MANUAL, history.get(1).getTrigger());
+        assertEquals(1, job.getStatistics().getCount());
+        assertTrue(job.runNow());
+    }
+
+    @Test
+    void stopsWhenBudgetIsExhausted() {
+        final BlockingJob job = new BlockingJob();
+        job.setTimeBudget(20);
+
+        assertTrue(job.runNow());
+
+        assertTrue(job.sawCancellation);
+        assertEquals(0, job.remainingBudgetOnCancellation);
+        assertEquals(JobRun.Outcome.OVER_BUDGET, job.getHistory().get(0).getOutcome());
+        assertFalse(job.isCancelled());
+        assertEquals(Long.MAX_VALUE, job.getRemainingBudgetMillis());
+    }
+
+    @Test
+    void stopsOnDeactivation() throws Exception {
+        final BlockingJob job = new BlockingJob();
+        final Future<?> scheduled = executor.submit(job);
+        assertTrue(job.started.await(5, TimeUnit.SECONDS));
+
+        job.stopJob();
+
+        assertFalse(job.isRunning());
+        scheduled.get(5, TimeUnit.SECONDS);
+        assertTrue(job.sawCancellation);
+        assertEquals(Long.MAX_VALUE, job.remainingBudgetOnCancellation);
+        assertEquals(JobRun.Outcome.CANCELLED, job.getHistory().get(0).getOutcome());
+    }
+
+    @Test
+    void recordsFailures() {
+        final AbstractScheduledJob job = new AbstractScheduledJob("failing") {
+            @Override
+            protected void execute() {
+                throw new IllegalStateException("broken");
+            }
+        };
+
+        for (int i = 0; i < AbstractScheduledJob.HISTORY_SIZE + 5; i++) {
+            assertTrue(job.runNow());
+        }
+
+        final List<JobRun> history = job.getHistory();
+        assertEquals(AbstractScheduledJob.HISTORY_SIZE, history.size());
+        assertEquals(JobRun.Outcome.FAILED, history.get(0).getOutcome());
+        assertEquals("java.lang.IllegalStateException: broken", history.get(0).getMessage());
+        assertEquals(AbstractScheduledJob.HISTORY_SIZE + 5, job.getStatistics().getCount());
+        assertEquals("failing", job.getStatistics().getKey());
+    }
+}
@@ -0,0 +1,202 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.dispatcher.DispatcherFlushService;
+import com.adobe.aem.guides.wknd.core.dispatcher.FlushRequest;
+import com.adobe.aem.guides.wknd.core.listeners.CoalescedChange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class CacheWarmerTaskTest {
+
+    private static final String SITEMAP = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">"
+            + "<url><loc>https://wknd.site/us/en.html</loc></url>"
+            + "<url><loc> https://wknd.site/us/en/magazine.html </loc></url>"
+            + "</urlset>";
+
+    private final AemContext context = new AemContext();
+
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+    private final DispatcherFlushService flushService = mock(DispatcherFlushService.class);
+
+    private HttpServer site;
+
+    private CacheWarmerTask fixture;
+
+    @BeforeEach
+    void setup() throws Exception {
+        site = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        site.createContext("/", exchange -> {
+            final String path = exchange.getRequestURI().toString();
+            received.add(path + " " + exchange.getRequestHeaders().getFirst("User-Agent"));
+            final byte[] body = path.endsWith("sitemap.xml") ? SITEMAP.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.sendResponseHeaders(path.contains("missing") ? 404 : 200, body.length > 0 ? body.length : -1);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        site.start();
+        context.registerService(DispatcherFlushService.class, flushService);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (fixture != null) {
+            fixture.deactivate();
+        }
+        site.stop(0);
+    }
+
+    private void activate(Object... properties) {
+        final Object[] defaults = {
+                "enabled", true,
+                "base.url", "http://127.0.0.1:" + site.getAddress().getPort() + "/",
+                "paths", new String[] { "/content/wknd/us/en/faqs", "/content/wknd/missing" },
+                "sitemaps", new String[] { "/content/wknd/us/en.sitemap.xml" },
+                "invalidation.delay.seconds", 0L,
+                "requests.per.second", 0d,
+        };
+        final Object[] all = new Object[defaults.length + properties.length];
+        System.arraycopy(defaults, 0, all, 0, defaults.length);
+        System.arraycopy(properties, 0, all, defaults.length, properties.length);
+        fixture = context.registerInjectActivateService(new CacheWarmerTask(), all);
+    }
+
+    private Set<String> receivedPaths() {
+        synchronized (received) {
+            final Set<String> paths = new TreeSet<>();
+            for (String request : received) {
+                paths.add(request.substring(0, request.indexOf(' ')));
+            }
+            return paths;
+        }
+    }
+
+    private static CoalescedChange change(String path) {
+        return new CoalescedChange(path, Collections.singleton(ChangeType.CHANGED), false, 1);
+    }
+
+    @Test
+    void warmsPathsAndSitemap() throws Exception {
+        activate();
+
+        fixture.run();
+        fixture.awaitIdle();
+
+        assertEquals(new TreeSet<>(Arrays.asList("/content/wknd/us/en.sitemap.xml", "/content/wknd/us/en/faqs.html",
+                "/content/wknd/missing.html", "/us/en.html", "/us/en/magazine.html")), receivedPaths());
+        assertTrue(received.contains("/us/en.html wknd-cache-warmer"));
+        assertEquals(3, fixture.getWarmedCount());
+        assertEquals(1, fixture.getFailedCount());
+        assertEquals(4, fixture.getRunSize());
+        assertEquals(0, fixture.getRemainingCount());
+        assertEquals(1, fixture.getRunCount());
+        assertFalse(fixture.isRunning());
+        assertEquals("/content/wknd/missing: HTTP 404", fixture.getLastError());
+    }
+
+    @Test
+    void runsAsScheduledJob() throws Exception {
+        activate("sitemaps", new String[0]);
+
+        assertTrue(fixture.runNow());
+        fixture.run();
+        fixture.awaitIdle();
+
+        assertEquals("CacheWarmer", fixture.getJobName());
+        final List<JobRun> history = fixture.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(ScheduledJob.TRIGGER_SCHEDULER, history.get(0).getTrigger());
+        assertEquals(ScheduledJob.TRIGGER_MANUAL, history.get(1).getTrigger());
+        assertEquals(JobRun.Outcome.SUCCEEDED, history.get(1).getOutcome());
+        assertEquals(4, received.size());
+        assertEquals(2, fixture.getRunCount());
+    }
+
+    @Test
+    void limitsUrlsPerRun() throws Exception {
+        activate("max.urls", 1, "sitemaps", new String[0]);
+
+        fixture.run();
+        fixture.awaitIdle();
+
+        assertEquals(Collections.singletonList("/content/wknd/us/en/faqs.html wknd-cache-warmer"), received);
+    }
+
+    @Test
+    void warmsPagesInvalidatedSinceLastRun() throws Exception {
+        final FlushRequest old = FlushRequest.activate("/content/wknd/us/en/old");
+        when(flushService.getRecentlyFlushed()).thenReturn(Collections.singletonList(old));
+        activate();
+        when(flushService.getRecentlyFlushed()).thenReturn(Arrays.asList(
+                FlushRequest.activate("/content/wknd/us/en/adventures/jcr:content/root/byline"),
+                FlushRequest.activate("/content/wknd/us/en/adventures"),
+                FlushRequest.delete("/content/wknd/us/en/removed"),
+                old));
+
+        fixture.handleChanges(Collections.singletonList(change("/content/wknd/data/jane-doe")));
+        fixture.awaitIdle();
+
+        assertEquals(Collections.singletonList("/content/wknd/us/en/adventures.html wknd-cache-warmer"), received);
+
+        received.clear();
+        fixture.handleChanges(Collections.singletonList(change("/content/wknd/data/jane-doe")));
+        fixture.awaitIdle();
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void warmsAllAfterTreeInvalidation() throws Exception {
+        activate("sitemaps", new String[0]);
+        when(flushService.getRecentlyFlushed()).thenReturn(Collections.singletonList(
+                new FlushRequest("/content/wknd", FlushRequest.Action.ACTIVATE, false)));
+
+        fixture.handleChanges(Collections.singletonList(change("/content/wknd")));
+        fixture.awaitIdle();
+
+        assertEquals(new TreeSet<>(Arrays.asList("/content/wknd/us/en/faqs.html", "/content/wknd/missing.html")), receivedPaths());
+    }
+
+    @Test
+    void skipsChangesWhenDisabled() throws Exception {
+        activate("enabled", false);
+
+        fixture.run();
+        fixture.handleChanges(Collections.singletonList(change("/content/wknd")));
+        fixture.awaitIdle();
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void urlPaths() {
+        assertEquals("/content/wknd/us/en.html", CacheWarmerTask.toUrlPath("/content/wknd/us/en"));
+        assertEquals("/us/en.model.json", CacheWarmerTask.toUrlPath("/us/en.model.json"));
+        assertEquals("/search?q=surf", CacheWarmerTask.toUrlPath("/search?q=surf"));
+    }
+}
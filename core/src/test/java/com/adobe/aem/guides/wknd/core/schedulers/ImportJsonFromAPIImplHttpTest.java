@@ -0,0 +1,136 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.testcontext.PeopleApiServer;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+/**
+ * Runs {@link ImportJsonFromAPIImpl} against a {@link PeopleApiServer} over real HTTP.
+ */
+@ExtendWith(AemContextExtension.class)
+class ImportJsonFromAPIImplHttpTest {
+
+    private static final String DATA = "/content/wknd/data";
+
+    private final AemContext context = new AemContext();
+
+    private PeopleApiServer server;
+
+    private ImportJsonFromAPIImpl fixture;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = PeopleApiServer.start();
+        context.create().resource(DATA);
+        context.resourceResolver().commit();
+        fixture = context.registerInjectActivateService(new ImportJsonFromAPIImpl(),
+                "api.url", server.getUrl(),
+                "parent.node.path", DATA,
+                "time.budget.seconds", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private Resource person(int index) {
+        context.resourceResolver().refresh();
+        return context.resourceResolver().getResource(DATA + "/" + PeopleApiServer.getPersonName(index));
+    }
+
+    private JobRun.Outcome lastOutcome() {
+        return fixture.getHistory().get(0).getOutcome();
+    }
+
+    @Test
+    void importsLargeFeed() {
+        server.setPeopleCount(500);
+
+        fixture.runNow();
+
+        assertEquals(JobRun.Outcome.SUCCEEDED, lastOutcome());
+        final ValueMap properties = person(499).getValueMap();
+        assertEquals(PeopleApiServer.getPersonName(499) + "@example.com", properties.get("email", String.class));
+        assertNotNull(person(499).getChild("address"));
+        assertEquals(2, countChildren(person(0).getChild("phoneNumber")));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void importsChunkedDrippedFeed() {
+        server.setPeopleCount(20).setChunked(true).setDrip(256, 1).setLatency(50);
+
+        fixture.runNow();
+
+        assertEquals(JobRun.Outcome.SUCCEEDED, lastOutcome());
+        assertNotNull(person(19));
+    }
+
+    @Test
+    void keepsDataOnServerError() {
+        server.setPeopleCount(5);
+        fixture.runNow();
+        server.setVersion(2).failNext(1);
+
+        fixture.runNow();
+
+        assertEquals("Biography 1 of " + PeopleApiServer.getPersonName(0) + ".",
+                person(0).getValueMap().get("summaryBiography", String.class));
+        assertEquals(1, server.getFailureCount());
+
+        fixture.runNow();
+
+        assertEquals("Biography 2 of " + PeopleApiServer.getPersonName(0) + ".",
+                person(0).getValueMap().get("summaryBiography", String.class));
+    }
+
+    @Test
+    void failsOnTruncatedFeed() {
+        server.setPeopleCount(50).setTruncateAfter(1000);
+
+        fixture.runNow();
+
+        assertEquals(JobRun.Outcome.FAILED, lastOutcome());
+        assertNull(person(0));
+    }
+
+    @Test
+    void abandonsSlowApiWithinBudget() {
+        server.setPeopleCount(5).setLatency(10_000);
+        final ImportJsonFromAPIImpl budgeted = context.registerInjectActivateService(new ImportJsonFromAPIImpl(),
+                "api.url", server.getUrl(),
+                "parent.node.path", DATA,
+                "time.budget.seconds", 1L);
+
+        final long start = System.currentTimeMillis();
+        budgeted.runNow();
+
+        assertTrue(System.currentTimeMillis() - start < 5_000);
+        assertNull(person(0));
+    }
+
+    private static int countChildren(Resource resource) {
+        int count = 0;
+        for (Iterator<Resource> children = resource.listChildren(); children.hasNext(); children.next()) {
+            count++;
+        }
+        return count;
+    }
+}
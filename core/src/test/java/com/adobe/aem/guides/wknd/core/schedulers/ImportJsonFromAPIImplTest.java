@@ -8,6 +8,7 @@ import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -195,6 +196,8 @@ public class ImportJsonFromAPIImplTest {
             e.printStackTrace();
         }
         assertEquals(response, result);
+        verify(connection).setConnectTimeout(ImportJsonFromAPIImpl.CONNECT_TIMEOUT_MILLIS);
+        verify(connection).setReadTimeout(ImportJsonFromAPIImpl.READ_TIMEOUT_MILLIS);
         assertEquals(3, events.size());
         assertEquals(Level.DEBUG, events.get(0).getLevel());
         assertEquals("Fetching JSON from API: {}http://example.com/api", events.get(1).getMessage() + config.api_url());
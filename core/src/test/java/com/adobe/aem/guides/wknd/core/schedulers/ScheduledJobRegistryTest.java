@@ -0,0 +1,61 @@
+package com.adobe.aem.guides.wknd.core.schedulers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class ScheduledJobRegistryTest {
+
+    private final AemContext context = new AemContext();
+
+    private final CountDownLatch ran = new CountDownLatch(1);
+
+    private ScheduledJobRegistry fixture;
+
+    @BeforeEach
+    void setup() {
+        context.registerService(ScheduledJob.class, new AbstractScheduledJob("counting") {
+            @Override
+            protected void execute() {
+                ran.countDown();
+            }
+        });
+        context.registerInjectActivateService(new SimpleScheduledTask());
+        fixture = context.registerInjectActivateService(new ScheduledJobRegistry());
+    }
+
+    @Test
+    void listsJobs() {
+        final String[] jobs = fixture.getJobs();
+
+        assertEquals(2, jobs.length);
+        assertTrue(jobs[0].startsWith("SimpleScheduledTask: count=0"), jobs[0]);
+        assertTrue(jobs[1].startsWith("counting: count=0"), jobs[1]);
+    }
+
+    @Test
+    void runsJobsInBackground() throws Exception {
+        assertEquals("Started job counting", fixture.runJob("counting"));
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && fixture.getHistory("counting").length == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        final String[] history = fixture.getHistory("counting");
+        assertEquals(1, history.length);
+        assertTrue(history[0].contains(" manual SUCCEEDED "), history[0]);
+        assertEquals("Unknown job other", fixture.runJob("other"));
+        assertEquals(0, fixture.getHistory("other").length);
+        assertEquals("Job counting is not running", fixture.cancelJob("counting"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.Calendar;
+
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.models.factory.ModelFactory;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.adobe.aem.guides.wknd.core.models.impl.BylineImpl;
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+import com.adobe.cq.wcm.core.components.models.Image;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith({ AemContextExtension.class, MockitoExtension.class })
+class BylineModelJsonServletTest {
+
+    private final AemContext ctx = AppAemContext.newAemContext();
+
+    @Mock
+    private Image image;
+
+    @Mock
+    private ModelFactory modelFactory;
+
+    private BylineModelJsonServlet fixture;
+
+    @BeforeEach
+    void setUp() {
+        ctx.addModelsForClasses(BylineImpl.class);
+        ctx.load().json("/BylineImplTest.json", "/content");
+        lenient().when(modelFactory.getModelFromWrappedRequest(eq(ctx.request()), any(Resource.class), eq(Image.class)))
+                .thenReturn(image);
+        lenient().when(image.getSrc()).thenReturn("/content/bio.png");
+        ctx.registerService(ModelFactory.class, modelFactory, org.osgi.framework.Constants.SERVICE_RANKING,
+                Integer.MAX_VALUE);
+        fixture = ctx.registerInjectActivateService(new BylineModelJsonServlet());
+        ctx.currentResource("/content/byline");
+    }
+
+    @Test
+    void doGet() throws ServletException, IOException {
+        fixture.doGet(ctx.request(), ctx.response());
+
+        JsonObject json = JsonParser.parseString(ctx.response().getOutputAsString()).getAsJsonObject();
+        assertEquals("Jane Doe", json.get("name").getAsString());
+        assertEquals("Blogger", json.getAsJsonArray("occupations").get(0).getAsString());
+        assertEquals("jane.doe@testemail.com", json.get("email").getAsString());
+        assertEquals("123-456-7890", json.get("phoneNumber").getAsString());
+        assertEquals("/content/bio.png", json.get("imageSrc").getAsString());
+        assertEquals("application/json;charset=UTF-8", ctx.response().getContentType());
+        assertNotNull(ctx.response().getHeader("ETag"));
+        assertEquals(BylineModelJsonServlet.CACHE_CONTROL, ctx.response().getHeader("Cache-Control"));
+    }
+
+    @Test
+    void doGetLastModified() throws ServletException, IOException, PersistenceException {
+        Calendar bylineModified = Calendar.getInstance();
+        bylineModified.setTimeInMillis(1_600_000_000_000L);
+        Calendar imageModified = Calendar.getInstance();
+        imageModified.setTimeInMillis(1_700_000_000_000L);
+        ctx.currentResource().adaptTo(ModifiableValueMap.class).put("jcr:lastModified", bylineModified);
+        ctx.create().resource(ctx.currentResource().getPath() + "/file", "jcr:lastModified", imageModified);
+
+        fixture.doGet(ctx.request(), ctx.response());
+
+        assertEquals("Tue, 14 Nov 2023 22:13:20 GMT", ctx.response().getHeader("Last-Modified"));
+
+        ctx.request().addDateHeader("If-Modified-Since", 1_700_000_000_000L);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doGet(ctx.request(), response);
+
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void doGetNotModified() throws ServletException, IOException {
+        fixture.doGet(ctx.request(), ctx.response());
+        String eTag = ctx.response().getHeader("ETag");
+
+        ctx.request().addHeader("If-None-Match", eTag);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doGet(ctx.request(), response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("", response.getOutputAsString());
+        verify(modelFactory, times(1)).getModelFromWrappedRequest(any(), any(Resource.class), eq(Image.class));
+    }
+
+    @Test
+    void eTagIsSameOnEveryInstance() throws ServletException, IOException {
+        fixture.doGet(ctx.request(), ctx.response());
+
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        new BylineModelJsonServlet().doGet(ctx.request(), response);
+
+        assertEquals(ctx.response().getHeader("ETag"), response.getHeader("ETag"));
+    }
+
+    @Test
+    void eTagChangesWithByline() throws ServletException, IOException, PersistenceException {
+        fixture.doGet(ctx.request(), ctx.response());
+        String eTag = ctx.response().getHeader("ETag");
+
+        ctx.currentResource().adaptTo(ModifiableValueMap.class).put("email", "jane@example.com");
+        ctx.resourceResolver().commit();
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doGet(ctx.request(), response);
+
+        assertNotEquals(eTag, response.getHeader("ETag"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class ConditionalGetTest {
+
+    private static final long LAST_MODIFIED = 1_600_000_000_500L;
+
+    private final AemContext context = new AemContext();
+
+    private final ConditionalGet fixture = new ConditionalGet("\"abc\"", LAST_MODIFIED).withCacheControl("max-age=60");
+
+    @Test
+    void setsValidatorsOnFullResponse() {
+        MockSlingHttpServletResponse response = context.response();
+
+        assertFalse(fixture.isNotModified(context.request(), response));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"abc\"", response.getHeader(ConditionalGet.HEADER_ETAG));
+        assertEquals("Sun, 13 Sep 2020 12:26:40 GMT", response.getHeader(ConditionalGet.HEADER_LAST_MODIFIED));
+        assertEquals("max-age=60", response.getHeader(ConditionalGet.HEADER_CACHE_CONTROL));
+    }
+
+    @Test
+    void matchingETagIsNotModified() {
+        MockSlingHttpServletRequest request = context.request();
+        request.addHeader(ConditionalGet.HEADER_IF_NONE_MATCH, "\"xyz\", W/\"abc\"");
+
+        assertTrue(fixture.isNotModified(request, context.response()));
+        assertEquals(304, context.response().getStatus());
+        assertEquals("max-age=60", context.response().getHeader(ConditionalGet.HEADER_CACHE_CONTROL));
+    }
+
+    @Test
+    void ifNoneMatchTakesPrecedence() {
+        MockSlingHttpServletRequest request = context.request();
+        request.addHeader(ConditionalGet.HEADER_IF_NONE_MATCH, "\"xyz\"");
+        request.addDateHeader(ConditionalGet.HEADER_IF_MODIFIED_SINCE, LAST_MODIFIED);
+
+        assertFalse(fixture.isNotModified(request, context.response()));
+    }
+
+    @Test
+    void comparesModificationTimeInSeconds() {
+        MockSlingHttpServletRequest request = context.request();
+        request.addDateHeader(ConditionalGet.HEADER_IF_MODIFIED_SINCE, LAST_MODIFIED - 500);
+        assertTrue(fixture.isNotModified(request, context.response()));
+
+        MockSlingHttpServletRequest older = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        older.addDateHeader(ConditionalGet.HEADER_IF_MODIFIED_SINCE, LAST_MODIFIED - 1500);
+        assertFalse(fixture.isNotModified(older, new MockSlingHttpServletResponse()));
+    }
+
+    @Test
+    void ignoresConditionsOfOtherMethods() {
+        MockSlingHttpServletRequest request = context.request();
+        request.setMethod("POST");
+        request.addHeader(ConditionalGet.HEADER_IF_NONE_MATCH, "\"abc\"");
+
+        assertFalse(fixture.isNotModified(request, context.response()));
+    }
+
+    @Test
+    void omitsUnknownValidators() {
+        ConditionalGet unknown = new ConditionalGet(null, 0);
+        MockSlingHttpServletRequest request = context.request();
+        request.addDateHeader(ConditionalGet.HEADER_IF_MODIFIED_SINCE, LAST_MODIFIED);
+
+        assertFalse(unknown.isNotModified(request, context.response()));
+        assertNull(context.response().getHeader(ConditionalGet.HEADER_ETAG));
+        assertNull(context.response().getHeader(ConditionalGet.HEADER_LAST_MODIFIED));
+    }
+
+    @Test
+    void eTagIsStableHash() throws Exception {
+        assertEquals(ConditionalGet.eTag("a"), ConditionalGet.eTag("a"));
+        assertNotEquals(ConditionalGet.eTag("a"), ConditionalGet.eTag("b"));
+        assertEquals(34, ConditionalGet.eTag("a").length());
+    }
+}
@@ -0,0 +1,50 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleAggregates;
+import com.adobe.aem.guides.wknd.core.people.PeopleCounts;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class PeopleAggregatesServletTest {
+
+    @Test
+    void doGet(AemContext context) throws Exception {
+        Map<String, Integer> byCity = new HashMap<>();
+        byCity.put("Basel", 2);
+        byCity.put("Zurich", 1);
+        PeopleAggregates peopleAggregates = mock(PeopleAggregates.class);
+        when(peopleAggregates.getCounts()).thenReturn(new PeopleCounts(3, byCity,
+                Collections.singletonMap("Writer", 3), Collections.singletonMap("30-39", 3), 1000L, 2));
+        context.registerService(PeopleAggregates.class, peopleAggregates);
+        PeopleAggregatesServlet fixture = context.registerInjectActivateService(new PeopleAggregatesServlet());
+
+        MockSlingHttpServletResponse response = context.response();
+        fixture.doGet(context.request(), response);
+
+        assertEquals(PeopleAggregatesServlet.CACHE_CONTROL, response.getHeader("Cache-Control"));
+        JsonObject json = JsonParser.parseString(response.getOutputAsString()).getAsJsonObject();
+        assertEquals(3, json.get("total").getAsInt());
+        assertEquals(2, json.getAsJsonObject("city").get("Basel").getAsInt());
+        assertEquals(1, json.getAsJsonObject("city").get("Zurich").getAsInt());
+        assertEquals(3, json.getAsJsonObject("occupation").get("Writer").getAsInt());
+        assertEquals(3, json.getAsJsonObject("age").get("30-39").getAsInt());
+        assertEquals(1000L, json.get("recomputed").getAsLong());
+        assertEquals(2, json.get("drift").getAsInt());
+    }
+}
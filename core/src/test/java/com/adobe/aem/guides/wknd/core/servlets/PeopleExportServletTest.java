@@ -0,0 +1,115 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletException;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.testcontext.AppAemContext;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class PeopleExportServletTest {
+
+    private final AemContext context = new AemContext();
+
+    private final PeopleExportServlet fixture = new PeopleExportServlet();
+
+    private final Map<String, Object> parameters = new HashMap<>();
+
+    @BeforeEach
+    void setup() {
+        AppAemContext.createPerson(context, "Jane Doe", "Basel", "Writer");
+        AppAemContext.createPerson(context, "John Doe", "Zurich, ZH", "Chef");
+        AppAemContext.createPerson(context, "Max Muster", "Bern", "Editor");
+    }
+
+    private MockSlingHttpServletResponse get() throws ServletException, IOException {
+        context.request().setParameterMap(parameters);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doGet(context.request(), response);
+        return response;
+    }
+
+    @Test
+    void streamsNdjson() throws Exception {
+        MockSlingHttpServletResponse response = get();
+
+        assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+        String[] lines = response.getOutputAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"name\":\"Jane Doe\",\"age\":30,\"email\":\"Jane.Doe@example.com\",\"summaryBiography\":null,"
+                + "\"street\":null,\"city\":\"Basel\",\"zip\":null,\"phoneNumbers\":{\"mobile\":\"123\"},"
+                + "\"occupations\":[\"Writer\"]}", lines[0]);
+    }
+
+    @Test
+    void pagesWithCursor() throws Exception {
+        parameters.put("after", "Jane Doe");
+        parameters.put("limit", "1");
+        parameters.put("fields", "name");
+
+        assertEquals("{\"name\":\"John Doe\"}\n", get().getOutputAsString());
+    }
+
+    @Test
+    void writesCsvWithProjection() throws Exception {
+        parameters.put("format", "csv");
+        parameters.put("fields", "name,city,occupations");
+
+        MockSlingHttpServletResponse response = get();
+
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertEquals("name,city,occupations\r\n"
+                + "Jane Doe,Basel,Writer\r\n"
+                + "John Doe,\"Zurich, ZH\",Chef\r\n"
+                + "Max Muster,Bern,Editor\r\n", response.getOutputAsString());
+    }
+
+    @Test
+    void gzipsWhenAccepted() throws Exception {
+        parameters.put("fields", "name");
+        context.request().addHeader("Accept-Encoding", "deflate, gzip;q=0.8");
+
+        MockSlingHttpServletResponse response = get();
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getOutput()))) {
+            byte[] buffer = new byte[1024];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                output.write(buffer, 0, read);
+            }
+        }
+        assertEquals("{\"name\":\"Jane Doe\"}\n{\"name\":\"John Doe\"}\n{\"name\":\"Max Muster\"}\n",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rejectsUnknownParameters() throws Exception {
+        parameters.put("fields", "name,password");
+        assertEquals(400, get().getStatus());
+
+        parameters.clear();
+        parameters.put("format", "xml");
+        assertEquals(400, get().getStatus());
+
+        parameters.clear();
+        parameters.put("after", "Nobody");
+        assertEquals(400, get().getStatus());
+    }
+}
@@ -0,0 +1,93 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleIndex;
+import com.adobe.aem.guides.wknd.core.people.PeopleSearchResult;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class PeopleSearchServletTest {
+
+    @Test
+    void doGet(AemContext context) throws Exception {
+        PersonRecord jane = new PersonRecord("Jane Doe", 30, "jane@example.com", null, null, "Basel", null,
+                Collections.emptyMap(), Arrays.asList("Writer"));
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put(PeopleIndex.FACET_CITY, Collections.singletonMap("Basel", 1));
+        facets.put(PeopleIndex.FACET_OCCUPATION, Collections.singletonMap("Writer", 1));
+        PeopleIndex peopleIndex = mock(PeopleIndex.class);
+        when(peopleIndex.search(eq("ja"), eq("Basel"), isNull(), anyInt()))
+                .thenReturn(new PeopleSearchResult(1, Arrays.asList(jane), facets));
+        context.registerService(PeopleIndex.class, peopleIndex);
+        PeopleSearchServlet fixture = context.registerInjectActivateService(new PeopleSearchServlet());
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("q", "ja");
+        parameters.put("city", "Basel");
+        parameters.put("limit", "1000");
+        context.request().setParameterMap(parameters);
+        context.request().setRemoteUser("jane");
+        context.create().resource("/content/wknd/data");
+        MockSlingHttpServletResponse response = context.response();
+        fixture.doGet(context.request(), response);
+
+        JsonObject json = JsonParser.parseString(response.getOutputAsString()).getAsJsonObject();
+        assertEquals(1, json.get("total").getAsInt());
+        JsonObject person = json.getAsJsonArray("people").get(0).getAsJsonObject();
+        assertEquals("Jane Doe", person.get("name").getAsString());
+        assertEquals("Writer", person.getAsJsonArray("occupations").get(0).getAsString());
+        assertEquals(1, json.getAsJsonObject("facets").getAsJsonObject("city").get("Basel").getAsInt());
+        verify(peopleIndex).search("ja", "Basel", null, PeopleSearchServlet.MAX_LIMIT);
+    }
+
+    @Test
+    void rejectsAnonymous(AemContext context) throws Exception {
+        PeopleIndex peopleIndex = mock(PeopleIndex.class);
+        context.registerService(PeopleIndex.class, peopleIndex);
+        PeopleSearchServlet fixture = context.registerInjectActivateService(new PeopleSearchServlet());
+        context.create().resource("/content/wknd/data");
+
+        fixture.doGet(context.request(), context.response());
+
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, context.response().getStatus());
+        verifyNoInteractions(peopleIndex);
+    }
+
+    @Test
+    void rejectsUsersWhoCannotReadPeopleData(AemContext context) throws Exception {
+        PeopleIndex peopleIndex = mock(PeopleIndex.class);
+        context.registerService(PeopleIndex.class, peopleIndex);
+        PeopleSearchServlet fixture = context.registerInjectActivateService(new PeopleSearchServlet());
+        context.request().setRemoteUser("jane");
+
+        fixture.doGet(context.request(), context.response());
+
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, context.response().getStatus());
+        verifyNoInteractions(peopleIndex);
+    }
+}
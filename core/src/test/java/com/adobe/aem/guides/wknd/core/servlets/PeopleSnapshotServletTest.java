@@ -0,0 +1,168 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.adobe.aem.guides.wknd.core.people.PeopleSnapshot;
+import com.adobe.aem.guides.wknd.core.people.PeopleSnapshotPublisher;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class PeopleSnapshotServletTest {
+
+    private static final String JSON = "{\"people\":[{\"name\":\"Jane Doe\"}]}";
+
+    private static final String ETAG = "\"0123456789abcdef0123456789abcdef\"";
+
+    private final AemContext context = new AemContext();
+
+    @TempDir
+    Path tempDir;
+
+    private final PeopleSnapshotPublisher publisher = mock(PeopleSnapshotPublisher.class);
+
+    private PeopleSnapshotServlet fixture;
+
+    private byte[] gzipped;
+
+    @BeforeEach
+    void setup() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(JSON.getBytes(StandardCharsets.UTF_8));
+        }
+        gzipped = bytes.toByteArray();
+        Path file = tempDir.resolve("people-7.json.gz");
+        Files.write(file, gzipped);
+        when(publisher.getLatest()).thenReturn(new PeopleSnapshot(7, file, gzipped.length, 1_000_000L, ETAG));
+        context.registerService(PeopleSnapshotPublisher.class, publisher);
+        fixture = context.registerInjectActivateService(new PeopleSnapshotServlet());
+        context.create().resource("/content/wknd/data");
+    }
+
+    private MockSlingHttpServletResponse get(String... headers) throws Exception {
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        request.setRemoteUser("jane");
+        request.addHeader("Accept-Encoding", "gzip");
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doGet(request, response);
+        return response;
+    }
+
+    @Test
+    void servesWholeFile() throws Exception {
+        MockSlingHttpServletResponse response = get();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertArrayEquals(gzipped, response.getOutput());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("7", response.getHeader(PeopleSnapshotServlet.HEADER_VERSION));
+        assertEquals(String.valueOf(gzipped.length), response.getHeader("Content-Length"));
+    }
+
+    @Test
+    void servesRanges() throws Exception {
+        MockSlingHttpServletResponse response = get("Range", "bytes=5-9");
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 5-9/" + gzipped.length, response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(gzipped, 5, 10), response.getOutput());
+
+        response = get("Range", "bytes=10-");
+        assertArrayEquals(Arrays.copyOfRange(gzipped, 10, gzipped.length), response.getOutput());
+
+        response = get("Range", "bytes=-4", "If-Range", ETAG);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(gzipped, gzipped.length - 4, gzipped.length), response.getOutput());
+    }
+
+    @Test
+    void servesWholeFileForOutdatedIfRange() throws Exception {
+        MockSlingHttpServletResponse response = get("Range", "bytes=5-9", "If-Range", "\"outdated\"");
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader("Content-Range"));
+        assertArrayEquals(gzipped, response.getOutput());
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() throws Exception {
+        MockSlingHttpServletResponse response = get("Range", "bytes=" + gzipped.length + "-");
+
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */" + gzipped.length, response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void parsesRanges() {
+        assertArrayEquals(new long[] { 0, 99 }, PeopleSnapshotServlet.parseRange("bytes=0-", 100));
+        assertArrayEquals(new long[] { 90, 99 }, PeopleSnapshotServlet.parseRange("bytes=90-200", 100));
+        assertArrayEquals(new long[] { 0, 99 }, PeopleSnapshotServlet.parseRange("bytes=-200", 100));
+        assertArrayEquals(new long[0], PeopleSnapshotServlet.parseRange("bytes=100-", 100));
+        assertNull(PeopleSnapshotServlet.parseRange("bytes=0-1,5-6", 100));
+        assertNull(PeopleSnapshotServlet.parseRange("bytes=9-1", 100));
+        assertNull(PeopleSnapshotServlet.parseRange("items=0-1", 100));
+    }
+
+    @Test
+    void answersRevalidationWithNotModified() throws Exception {
+        MockSlingHttpServletResponse response = get("If-None-Match", ETAG);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getOutput().length);
+    }
+
+    @Test
+    void decompressesForClientsWithoutGzip() throws Exception {
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doGet(request, response);
+
+        assertEquals(JSON, response.getOutputAsString());
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("\"0123456789abcdef0123456789abcdef-identity\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void notFoundBeforeFirstSnapshot() throws Exception {
+        when(publisher.getLatest()).thenReturn(null);
+
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, get().getStatus());
+    }
+
+    @Test
+    void rejectsAnonymous() throws Exception {
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+
+        fixture.doGet(request, response);
+
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+        assertEquals(0, response.getOutput().length);
+    }
+}
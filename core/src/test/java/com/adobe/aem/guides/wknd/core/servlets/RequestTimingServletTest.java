@@ -0,0 +1,94 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.RepositoryException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.metrics.impl.RequestTimingRegistryImpl;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class RequestTimingServletTest {
+
+    /**
+     * @return a request of the given user, who is an administrator through the given group membership or flag
+     */
+    static MockSlingHttpServletRequest request(AemContext context, String user, boolean admin, boolean administratorsMember)
+            throws RepositoryException {
+        ResourceResolver resolver = mock(ResourceResolver.class);
+        UserManager userManager = mock(UserManager.class);
+        User authorizable = mock(User.class);
+        Group administrators = mock(Group.class);
+        when(resolver.getUserID()).thenReturn(user);
+        when(resolver.adaptTo(UserManager.class)).thenReturn(userManager);
+        when(userManager.getAuthorizable(user)).thenReturn(authorizable);
+        when(userManager.getAuthorizable(RequestAccess.ADMINISTRATORS)).thenReturn(administrators);
+        when(authorizable.isAdmin()).thenReturn(admin);
+        when(administrators.isGroup()).thenReturn(true);
+        when(administrators.isMember(authorizable)).thenReturn(administratorsMember);
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(resolver, context.bundleContext());
+        request.setRemoteUser(user);
+        return request;
+    }
+
+    @Test
+    void doGet(AemContext context) throws Exception {
+        RequestTimingRegistryImpl registry = context.registerInjectActivateService(new RequestTimingRegistryImpl());
+        registry.record("wknd/components/page", "html", TimeUnit.MILLISECONDS.toNanos(5));
+        RequestTimingServlet fixture = context.registerInjectActivateService(new RequestTimingServlet());
+
+        MockSlingHttpServletResponse response = context.response();
+        fixture.doGet(request(context, "admin", true, false), response);
+
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        JsonObject json = JsonParser.parseString(response.getOutputAsString()).getAsJsonObject();
+        assertEquals(1, json.getAsJsonObject("total").get("count").getAsLong());
+        JsonObject page = json.getAsJsonArray("resourceTypes").get(0).getAsJsonObject();
+        assertEquals("wknd/components/page", page.get("key").getAsString());
+        assertEquals(5, page.get("p50").getAsDouble(), 5d / 16);
+        assertEquals("html", json.getAsJsonArray("selectors").get(0).getAsJsonObject().get("key").getAsString());
+    }
+
+    @Test
+    void answersMembersOfAdministrators(AemContext context) throws Exception {
+        context.registerInjectActivateService(new RequestTimingRegistryImpl());
+        RequestTimingServlet fixture = context.registerInjectActivateService(new RequestTimingServlet());
+
+        MockSlingHttpServletResponse response = context.response();
+        fixture.doGet(request(context, "jane", false, true), response);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    }
+
+    @Test
+    void rejectsOtherUsers(AemContext context) throws Exception {
+        context.registerInjectActivateService(new RequestTimingRegistryImpl());
+        RequestTimingServlet fixture = context.registerInjectActivateService(new RequestTimingServlet());
+
+        MockSlingHttpServletResponse response = context.response();
+        fixture.doGet(request(context, "jane", false, false), response);
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+
+        MockSlingHttpServletResponse anonymous = new MockSlingHttpServletResponse();
+        fixture.doGet(context.request(), anonymous);
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, anonymous.getStatus());
+    }
+}
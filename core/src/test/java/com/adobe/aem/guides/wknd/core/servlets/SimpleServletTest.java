@@ -16,9 +16,11 @@
 package com.adobe.aem.guides.wknd.core.servlets;
 
 import java.io.IOException;
+import java.util.Calendar;
 
 import javax.servlet.ServletException;
 
+import org.apache.sling.api.resource.ModifiableValueMap;
 import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
 import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,8 @@ import io.wcm.testing.mock.aem.junit5.AemContext;
 import io.wcm.testing.mock.aem.junit5.AemContextExtension;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @ExtendWith(AemContextExtension.class)
 class SimpleServletTest {
@@ -45,5 +49,42 @@ class SimpleServletTest {
         fixture.doGet(request, response);
 
         assertEquals("Title = resource title", response.getOutputAsString());
+        assertEquals(SimpleServlet.CACHE_CONTROL, response.getHeader("Cache-Control"));
+        assertNotNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    void doGetNotModified(AemContext context) throws ServletException, IOException {
+        Calendar lastModified = Calendar.getInstance();
+        lastModified.setTimeInMillis(1_600_000_000_000L);
+        context.build().resource("/content/test", "jcr:title", "resource title")
+                .resource("jcr:content", "cq:lastModified", lastModified).commit();
+        context.currentResource("/content/test");
+        fixture.doGet(context.request(), context.response());
+        String eTag = context.response().getHeader("ETag");
+        assertEquals("Sun, 13 Sep 2020 12:26:40 GMT", context.response().getHeader("Last-Modified"));
+
+        MockSlingHttpServletRequest revalidation = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        revalidation.setResource(context.currentResource());
+        revalidation.addHeader("If-None-Match", eTag);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doGet(revalidation, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("", response.getOutputAsString());
+    }
+
+    @Test
+    void eTagChangesWithTitle(AemContext context) throws ServletException, IOException {
+        context.build().resource("/content/test", "jcr:title", "resource title").commit();
+        context.currentResource("/content/test");
+        fixture.doGet(context.request(), context.response());
+        String eTag = context.response().getHeader("ETag");
+
+        context.resourceResolver().getResource("/content/test").adaptTo(ModifiableValueMap.class).put("jcr:title", "new title");
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        fixture.doGet(context.request(), response);
+
+        assertNotEquals(eTag, response.getHeader("ETag"));
     }
 }
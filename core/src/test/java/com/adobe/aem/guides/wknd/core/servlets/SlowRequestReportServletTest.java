@@ -0,0 +1,86 @@
+package com.adobe.aem.guides.wknd.core.servlets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.guides.wknd.core.diagnostics.FoldedStacks;
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestReport;
+import com.adobe.aem.guides.wknd.core.diagnostics.SlowRequestWatchdog;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+@ExtendWith(AemContextExtension.class)
+class SlowRequestReportServletTest {
+
+    private final AemContext context = new AemContext();
+
+    private SlowRequestReportServlet fixture;
+
+    private MockSlingHttpServletRequest request;
+
+    @BeforeEach
+    void setup() throws Exception {
+        FoldedStacks stacks = new FoldedStacks(10, 10);
+        stacks.add(new StackTraceElement[] { new StackTraceElement("Foo", "bar", "Foo.java", 1) });
+        SlowRequestReport report = new SlowRequestReport("7", "GET", "/content/slow.html", 0, 1500, stacks);
+
+        SlowRequestWatchdog watchdog = mock(SlowRequestWatchdog.class);
+        when(watchdog.getReports()).thenReturn(Collections.singletonList(report));
+        when(watchdog.getReport("7")).thenReturn(report);
+        context.registerService(SlowRequestWatchdog.class, watchdog);
+        fixture = context.registerInjectActivateService(new SlowRequestReportServlet());
+        request = RequestTimingServletTest.request(context, "admin", true, false);
+    }
+
+    @Test
+    void listsReports() throws Exception {
+        fixture.doGet(request, context.response());
+
+        JsonArray reports = JsonParser.parseString(context.response().getOutputAsString()).getAsJsonArray();
+        assertEquals(1, reports.size());
+        assertEquals(1500, reports.get(0).getAsJsonObject().get("duration").getAsLong());
+        assertEquals(SlowRequestReportServlet.PATH + "?id=7",
+                reports.get(0).getAsJsonObject().get("download").getAsString());
+    }
+
+    @Test
+    void downloadsFoldedStacks() throws Exception {
+        request.setParameterMap(Collections.<String, Object>singletonMap("id", "7"));
+
+        fixture.doGet(request, context.response());
+
+        assertEquals("Foo.bar 1\n", context.response().getOutputAsString());
+        assertTrue(context.response().getHeader("Content-Disposition").contains("slow-request-7.folded"));
+    }
+
+    @Test
+    void unknownReport() throws Exception {
+        request.setParameterMap(Collections.<String, Object>singletonMap("id", "8"));
+
+        fixture.doGet(request, context.response());
+
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, context.response().getStatus());
+    }
+
+    @Test
+    void rejectsOtherUsers() throws Exception {
+        fixture.doGet(RequestTimingServletTest.request(context, "jane", false, false), context.response());
+
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, context.response().getStatus());
+        assertEquals("", context.response().getOutputAsString());
+    }
+}
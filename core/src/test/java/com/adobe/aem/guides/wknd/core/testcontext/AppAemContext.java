@@ -18,8 +18,16 @@ package com.adobe.aem.guides.wknd.core.testcontext;
 import static com.adobe.cq.wcm.core.components.testing.mock.ContextPlugins.CORE_COMPONENTS;
 import static org.apache.sling.testing.mock.caconfig.ContextPlugins.CACONFIG;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.sling.api.resource.Resource;
 import org.apache.sling.testing.mock.sling.ResourceResolverType;
 
+import com.adobe.aem.guides.wknd.core.people.PeopleData;
+import com.adobe.aem.guides.wknd.core.people.PersonRecord;
+
 import io.wcm.testing.mock.aem.junit5.AemContext;
 import io.wcm.testing.mock.aem.junit5.AemContextBuilder;
 import io.wcm.testing.mock.aem.junit5.AemContextCallback;
@@ -57,6 +65,59 @@ public final class AppAemContext {
                 .afterSetUp(SETUP_CALLBACK);
     }
 
+    /**
+     * Creates a person record of age 30 with an e-mail address derived from the name and a
+     * mobile phone number.
+     *
+     * @return the person record resource
+     */
+    public static Resource createPerson(AemContext context, String name, String city, String occupation) {
+        return createPerson(context, new PersonRecord(name, 30, name.replace(' ', '.') + "@example.com", null,
+                null, city, null, Collections.singletonMap("mobile", "123"), Collections.singletonList(occupation)));
+    }
+
+    /**
+     * Creates a person record the way the people importer writes it, leaving out empty values.
+     *
+     * @return the person record resource
+     */
+    public static Resource createPerson(AemContext context, PersonRecord person) {
+        final String path = PeopleData.getPersonPath(person.getName());
+        final Resource resource = context.create().resource(path, properties(
+                PersonRecord.PN_NAME, person.getName(),
+                PersonRecord.PN_AGE, person.getAge(),
+                PersonRecord.PN_EMAIL, person.getEmail(),
+                PersonRecord.PN_SUMMARY_BIOGRAPHY, person.getSummaryBiography()));
+        final Map<String, Object> address = properties(
+                PersonRecord.PN_STREET, person.getStreet(),
+                PersonRecord.PN_CITY, person.getCity(),
+                PersonRecord.PN_ZIP, person.getZip());
+        if (!address.isEmpty()) {
+            context.create().resource(path + "/" + PersonRecord.NN_ADDRESS, address);
+        }
+        for (Map.Entry<String, String> phoneNumber : person.getPhoneNumbers().entrySet()) {
+            context.create().resource(path + "/" + PersonRecord.NN_PHONE_NUMBER + "/" + phoneNumber.getKey(),
+                    PersonRecord.PN_TYPE, phoneNumber.getKey(), PersonRecord.PN_NUMBER, phoneNumber.getValue());
+        }
+        for (String occupation : person.getOccupations()) {
+            final String occupationPath = path + "/" + PersonRecord.NN_OCCUPATIONS + "/" + occupation;
+            if (context.resourceResolver().getResource(occupationPath) == null) {
+                context.create().resource(occupationPath, PersonRecord.PN_OCCUPATION, occupation);
+            }
+        }
+        return resource;
+    }
+
+    private static Map<String, Object> properties(Object... namesAndValues) {
+        final Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (namesAndValues[i + 1] != null) {
+                properties.put((String) namesAndValues[i], namesAndValues[i + 1]);
+            }
+        }
+        return properties;
+    }
+
     /**
      * Custom set up rules required in all unit tests.
      */
@@ -0,0 +1,380 @@
+/*
+ *  Copyright 2021 Adobe Systems Incorporated
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.adobe.aem.guides.wknd.core.testcontext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the people API imported by
+ * {@link com.adobe.aem.guides.wknd.core.schedulers.ImportJsonFromAPIImpl}, serving a generated
+ * feed of any size at {@link #FEED_PATH}. Besides the plain feed it can reproduce what a real
+ * API does under load or when failing, so that the importer can be measured and tested
+ * offline:
+ * <ul>
+ * <li>a strong ETag, with <code>304 Not Modified</code> on a matching <code>If-None-Match</code>;
+ * the ETag changes with {@link #setVersion(int)}</li>
+ * <li>pagination with the <code>offset</code> and <code>limit</code> query parameters, the
+ * response then tells the <code>total</code> and the <code>next</code> page</li>
+ * <li>gzip, when requested by <code>Accept-Encoding</code></li>
+ * <li>chunked transfer instead of a <code>Content-Length</code></li>
+ * <li>latency before the response, and a slow drip of the body</li>
+ * <li>bodies truncated after a number of bytes, with the connection closed; these are sent
+ * with their full <code>Content-Length</code> even when chunked transfer is on</li>
+ * <li>5xx responses, for a number of requests or at random with a seeded rate</li>
+ * </ul>
+ * Settings may change while the server runs; they apply to the next request. It can also be
+ * started on its own for benchmarks with {@link #main(String[])}.
+ */
+public final class PeopleApiServer implements AutoCloseable {
+
+    public static final String FEED_PATH = "/content/wknd/people.json";
+
+    private static final String[] OCCUPATIONS = { "Photographer", "Blogger", "YouTuber", "Writer", "Surfer", "Climber" };
+
+    private static final String[] CITIES = { "New York", "San Francisco", "Austin", "Chicago", "Seattle" };
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+
+    private final AtomicInteger failureCount = new AtomicInteger();
+
+    private final AtomicInteger failNext = new AtomicInteger();
+
+    private final Random random = new Random(42);
+
+    private volatile int peopleCount = 3;
+
+    private volatile int version = 1;
+
+    private volatile boolean gzip;
+
+    private volatile boolean chunked;
+
+    private volatile long latencyMillis;
+
+    private volatile int dripBytes;
+
+    private volatile long dripDelayMillis;
+
+    private volatile int truncateAfterBytes = -1;
+
+    private volatile int failureStatus = 503;
+
+    private volatile double failureRate;
+
+    private PeopleApiServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        // responses may drip for a while, they must not hold up other requests
+        executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "wknd-people-api");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(FEED_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * @return a server on a free port of the loopback interface
+     * @throws IOException if the server cannot be started
+     */
+    public static PeopleApiServer start() throws IOException {
+        return new PeopleApiServer(0);
+    }
+
+    /**
+     * Serves a feed until stopped, for benchmarks and manual tests.
+     *
+     * @param args the port, 8080 by default, and the number of people, 1000 by default
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        final PeopleApiServer server = new PeopleApiServer(args.length > 0 ? Integer.parseInt(args[0]) : 8080);
+        server.setPeopleCount(args.length > 1 ? Integer.parseInt(args[1]) : 1000);
+        System.out.println("Serving " + server.peopleCount + " people at " + server.getUrl());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the URL of the feed
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + FEED_PATH;
+    }
+
+    public PeopleApiServer setPeopleCount(int peopleCount) {
+        this.peopleCount = peopleCount;
+        return this;
+    }
+
+    /**
+     * @param version the version of the feed, a different version changes the ETag and the biographies
+     */
+    public PeopleApiServer setVersion(int version) {
+        this.version = version;
+        return this;
+    }
+
+    public PeopleApiServer setGzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    public PeopleApiServer setChunked(boolean chunked) {
+        this.chunked = chunked;
+        return this;
+    }
+
+    /**
+     * @param latencyMillis the time to wait before the response headers are sent
+     */
+    public PeopleApiServer setLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * @param bytes the size of the pieces the body is written in, 0 to write it at once
+     * @param delayMillis the time to wait after each piece
+     */
+    public PeopleApiServer setDrip(int bytes, long delayMillis) {
+        this.dripBytes = bytes;
+        this.dripDelayMillis = delayMillis;
+        return this;
+    }
+
+    /**
+     * @param bytes the number of body bytes after which the connection is closed, -1 for the whole body
+     */
+    public PeopleApiServer setTruncateAfter(int bytes) {
+        this.truncateAfterBytes = bytes;
+        return this;
+    }
+
+    /**
+     * @param status the status of the injected failures
+     */
+    public PeopleApiServer setFailureStatus(int status) {
+        this.failureStatus = status;
+        return this;
+    }
+
+    /**
+     * @param count the number of next requests that fail
+     */
+    public PeopleApiServer failNext(int count) {
+        failNext.set(count);
+        return this;
+    }
+
+    /**
+     * @param rate the share of requests that fail, between 0 and 1
+     */
+    public PeopleApiServer setFailureRate(double rate) {
+        this.failureRate = rate;
+        return this;
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    public int getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return the ETag of the feed, or of one page of it
+     */
+    public String getETag(int offset, int limit) {
+        return "\"people-" + version + "-" + peopleCount + "-" + offset + "-" + limit + "\"";
+    }
+
+    /**
+     * @param offset the index of the first person
+     * @param limit the maximum number of people, 0 or less for all
+     * @return the feed, as the importer expects it
+     */
+    public String getFeed(int offset, int limit) {
+        final int count = peopleCount;
+        final int end = limit > 0 ? Math.min(count, offset + limit) : count;
+        final StringBuilder json = new StringBuilder(256 * Math.max(0, end - offset) + 64).append("{\"people\":[");
+        for (int i = offset; i < end; i++) {
+            if (i > offset) {
+                json.append(',');
+            }
+            appendPerson(json, i);
+        }
+        json.append(']');
+        if (limit > 0) {
+            json.append(",\"total\":").append(count).append(",\"offset\":").append(offset)
+                    .append(",\"limit\":").append(limit);
+            if (end < count) {
+                json.append(",\"next\":\"").append(FEED_PATH).append("?offset=").append(end)
+                        .append("&limit=").append(limit).append('"');
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * @return the name of the person at the index of the feed
+     */
+    public static String getPersonName(int index) {
+        return "person-" + index;
+    }
+
+    private void appendPerson(StringBuilder json, int i) {
+        final String name = getPersonName(i);
+        json.append("{\"peopleId\":").append(1000 + i)
+                .append(",\"name\":\"").append(name)
+                .append("\",\"age\":").append(20 + i % 50)
+                .append(",\"email\":\"").append(name).append("@example.com\"")
+                .append(",\"address\":{\"street\":\"").append(i + 1).append(" Main St\",\"city\":\"")
+                .append(CITIES[i % CITIES.length]).append("\",\"zip\":\"").append(String.format(Locale.ROOT, "%05d", i % 100000))
+                .append("\"},\"phoneNumber\":[{\"type\":\"mobile\",\"number\":\"555-").append(String.format(Locale.ROOT, "%04d", i % 10000))
+                .append("\"},{\"type\":\"home\",\"number\":\"556-").append(String.format(Locale.ROOT, "%04d", i % 10000))
+                .append("\"}],\"Occupations\":[\"").append(OCCUPATIONS[i % OCCUPATIONS.length]).append("\",\"")
+                .append(OCCUPATIONS[(i + 1) % OCCUPATIONS.length])
+                .append("\"],\"summaryBiography\":\"Biography ").append(version).append(" of ").append(name).append(".\"}");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            sleep(latencyMillis);
+            if (shouldFail()) {
+                failureCount.incrementAndGet();
+                final byte[] body = ("{\"error\":" + failureStatus + "}").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(failureStatus, body.length);
+                exchange.getResponseBody().write(body);
+                return;
+            }
+
+            final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            final int offset = Math.max(0, Integer.parseInt(query.getOrDefault("offset", "0")));
+            final int limit = Integer.parseInt(query.getOrDefault("limit", "0"));
+            final String etag = getETag(offset, limit);
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedCount.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            byte[] body = getFeed(offset, limit).getBytes(StandardCharsets.UTF_8);
+            final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (gzip && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                    out.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+
+            final int truncateAfter = truncateAfterBytes;
+            final int length = truncateAfter >= 0 ? Math.min(truncateAfter, body.length) : body.length;
+            // a truncated body always announces its full length, closing it early then drops the
+            // connection, where a chunked body would be ended properly
+            exchange.sendResponseHeaders(200, chunked && length == body.length ? 0 : body.length);
+            write(exchange.getResponseBody(), body, length);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // the client went away, or the body was truncated on purpose
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean shouldFail() {
+        if (failNext.getAndUpdate(remaining -> remaining > 0 ? remaining - 1 : 0) > 0) {
+            return true;
+        }
+        final double rate = failureRate;
+        if (rate <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < rate;
+        }
+    }
+
+    private void write(OutputStream out, byte[] body, int length) throws IOException, InterruptedException {
+        final int piece = dripBytes;
+        if (piece <= 0) {
+            out.write(body, 0, length);
+            return;
+        }
+        for (int written = 0; written < length; written += piece) {
+            out.write(body, written, Math.min(piece, length - written));
+            out.flush();
+            sleep(dripDelayMillis);
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                final int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(pair.substring(0, separator), pair.substring(separator + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+}
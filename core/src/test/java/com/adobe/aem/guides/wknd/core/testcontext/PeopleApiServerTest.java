@@ -0,0 +1,173 @@
+/*
+ *  Copyright 2021 Adobe Systems Incorporated
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.adobe.aem.guides.wknd.core.testcontext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+class PeopleApiServerTest {
+
+    private PeopleApiServer server;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = PeopleApiServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpURLConnection open(String query) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(server.getUrl() + query).openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        for (int read; (read = in.read(buffer)) > 0; ) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void servesGeneratedFeed() throws IOException {
+        server.setPeopleCount(1000);
+        final HttpURLConnection connection = open("");
+
+        assertEquals(200, connection.getResponseCode());
+        final JsonObject feed = JsonParser.parseString(read(connection.getInputStream())).getAsJsonObject();
+        assertEquals(1000, feed.getAsJsonArray("people").size());
+        final JsonObject person = feed.getAsJsonArray("people").get(7).getAsJsonObject();
+        assertEquals(PeopleApiServer.getPersonName(7), person.get("name").getAsString());
+        assertEquals(2, person.getAsJsonArray("phoneNumber").size());
+        assertTrue(person.getAsJsonObject("address").has("zip"));
+        assertFalse(feed.has("total"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void paginates() throws IOException {
+        server.setPeopleCount(25);
+
+        final JsonObject first = JsonParser.parseString(read(open("?offset=0&limit=10").getInputStream())).getAsJsonObject();
+        final JsonObject last = JsonParser.parseString(read(open("?offset=20&limit=10").getInputStream())).getAsJsonObject();
+
+        assertEquals(10, first.getAsJsonArray("people").size());
+        assertEquals(25, first.get("total").getAsInt());
+        assertEquals(PeopleApiServer.FEED_PATH + "?offset=10&limit=10", first.get("next").getAsString());
+        assertEquals(5, last.getAsJsonArray("people").size());
+        assertEquals(PeopleApiServer.getPersonName(20),
+                last.getAsJsonArray("people").get(0).getAsJsonObject().get("name").getAsString());
+        assertFalse(last.has("next"));
+    }
+
+    @Test
+    void answersNotModifiedForCurrentETag() throws IOException {
+        final String etag = open("").getHeaderField("ETag");
+
+        final HttpURLConnection revalidation = open("");
+        revalidation.setRequestProperty("If-None-Match", etag);
+        assertEquals(304, revalidation.getResponseCode());
+        assertEquals(1, server.getNotModifiedCount());
+
+        server.setVersion(2);
+        final HttpURLConnection changed = open("");
+        changed.setRequestProperty("If-None-Match", etag);
+        assertEquals(200, changed.getResponseCode());
+        assertFalse(etag.equals(changed.getHeaderField("ETag")));
+    }
+
+    @Test
+    void compressesWhenAccepted() throws IOException {
+        server.setGzip(true).setPeopleCount(50);
+
+        final HttpURLConnection compressed = open("");
+        compressed.setRequestProperty("Accept-Encoding", "gzip");
+        final HttpURLConnection plain = open("");
+
+        assertEquals("gzip", compressed.getHeaderField("Content-Encoding"));
+        assertEquals(server.getFeed(0, 0), read(new GZIPInputStream(compressed.getInputStream())));
+        assertNull(plain.getHeaderField("Content-Encoding"));
+        assertEquals(server.getFeed(0, 0), read(plain.getInputStream()));
+    }
+
+    @Test
+    void chunksAndDripsBody() throws IOException {
+        server.setChunked(true).setDrip(512, 5).setPeopleCount(20);
+        final HttpURLConnection connection = open("");
+
+        final long start = System.nanoTime();
+        final String body = read(connection.getInputStream());
+
+        assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+        assertEquals(server.getFeed(0, 0), body);
+        assertTrue(System.nanoTime() - start >= 5_000_000L * (body.length() / 512));
+    }
+
+    @Test
+    void truncatesBody() throws IOException {
+        server.setTruncateAfter(100).setPeopleCount(20);
+        final HttpURLConnection connection = open("");
+
+        assertEquals(200, connection.getResponseCode());
+        String body;
+        try {
+            body = read(connection.getInputStream());
+        } catch (IOException e) {
+            body = "";
+        }
+        assertTrue(body.length() <= 100);
+        assertThrows(Exception.class, () -> JsonParser.parseString(read(open("").getInputStream())));
+    }
+
+    @Test
+    void injectsServerErrors() throws IOException {
+        server.setFailureStatus(502).failNext(2);
+
+        assertEquals(502, open("").getResponseCode());
+        assertEquals(502, open("").getResponseCode());
+        assertEquals(200, open("").getResponseCode());
+        assertEquals(2, server.getFailureCount());
+
+        server.setFailureRate(1);
+        assertEquals(502, open("").getResponseCode());
+    }
+}
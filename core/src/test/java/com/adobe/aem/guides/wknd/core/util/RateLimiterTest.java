@@ -0,0 +1,59 @@
+package com.adobe.aem.guides.wknd.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    void allowsBurstThenLimitsRate() {
+        RateLimiter fixture = new RateLimiter(10, 3, now::get);
+
+        assertTrue(fixture.tryAcquire());
+        assertTrue(fixture.tryAcquire());
+        assertTrue(fixture.tryAcquire());
+        assertFalse(fixture.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(fixture.tryAcquire());
+        assertFalse(fixture.tryAcquire());
+    }
+
+    @Test
+    void reservationsQueueUpAtTheRate() {
+        RateLimiter fixture = new RateLimiter(10, 1, now::get);
+
+        assertEquals(0, fixture.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), fixture.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), fixture.reserve());
+    }
+
+    @Test
+    void refillsUpToTheBurstOnly() {
+        RateLimiter fixture = new RateLimiter(10, 2, now::get);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertTrue(fixture.tryAcquire());
+        assertTrue(fixture.tryAcquire());
+        assertFalse(fixture.tryAcquire());
+    }
+
+    @Test
+    void zeroRateIsUnlimited() {
+        RateLimiter fixture = new RateLimiter(0, 1, now::get);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(fixture.tryAcquire());
+        }
+        assertEquals(0, fixture.reserve());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.adobe.aem.guides.wknd.it.tests;
+
+import java.util.Arrays;
+
+/**
+ * Latencies measured for one URL, with the percentiles the performance budgets are expressed in.
+ */
+public class LatencyMeasurement {
+
+    private final String path;
+
+    private final long[] sortedMillis;
+
+    /**
+     * @param path the measured path
+     * @param millis the latency of each request
+     */
+    public LatencyMeasurement(String path, long[] millis) {
+        if (millis.length == 0) {
+            throw new IllegalArgumentException("No latencies measured for " + path);
+        }
+        this.path = path;
+        this.sortedMillis = millis.clone();
+        Arrays.sort(this.sortedMillis);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getCount() {
+        return sortedMillis.length;
+    }
+
+    public long getMin() {
+        return sortedMillis[0];
+    }
+
+    public long getMax() {
+        return sortedMillis[sortedMillis.length - 1];
+    }
+
+    public double getMean() {
+        long sum = 0;
+        for (long millis : sortedMillis) {
+            sum += millis;
+        }
+        return sum / (double) sortedMillis.length;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency at the percentile, by the nearest-rank method
+     */
+    public long getPercentile(double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sortedMillis.length);
+        return sortedMillis[Math.max(0, Math.min(sortedMillis.length - 1, rank - 1))];
+    }
+
+    @Override
+    public String toString() {
+        return path + " p50=" + getPercentile(50) + " ms, p95=" + getPercentile(95) + " ms, p99=" + getPercentile(99)
+                + " ms, max=" + getMax() + " ms (" + getCount() + " requests)";
+    }
+}
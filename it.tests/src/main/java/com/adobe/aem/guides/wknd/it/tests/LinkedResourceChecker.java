@@ -0,0 +1,245 @@
+/*
+ * Copyright 2020 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.adobe.aem.guides.wknd.it.tests;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpStatus;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks linked resources of a page concurrently, over a bounded pool of keep-alive connections.
+ * Resources are requested with <code>HEAD</code>, since only status, size and latency matter;
+ * resources that do not support <code>HEAD</code> are requested with <code>GET</code> instead.
+ */
+public class LinkedResourceChecker implements Closeable {
+
+    /**
+     * Outcome of checking one resource.
+     */
+    public static final class Result {
+
+        private final URI uri;
+        private final int status;
+        private final long contentLength;
+        private final long latencyMillis;
+        private final String error;
+
+        Result(URI uri, int status, long contentLength, long latencyMillis, String error) {
+            this.uri = uri;
+            this.status = status;
+            this.contentLength = contentLength;
+            this.latencyMillis = latencyMillis;
+            this.error = error;
+        }
+
+        public URI getUri() {
+            return uri;
+        }
+
+        /** @return the response status, or 0 if the request failed */
+        public int getStatus() {
+            return status;
+        }
+
+        /** @return the size of the body, or -1 if the response did not tell */
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        /** @return the time until the response was complete */
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        /** @return the error of a failed request, or null */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return uri + " " + (error != null ? error : String.valueOf(status)) + " in " + latencyMillis + " ms";
+        }
+    }
+
+    private final HttpHost target;
+
+    private final CredentialsProvider credentials;
+
+    private final PoolingHttpClientConnectionManager connections;
+
+    private final CloseableHttpClient http;
+
+    private final ExecutorService executor;
+
+    /**
+     * @param baseUri the URL of the instance serving the resources
+     * @param user the user to authenticate as
+     * @param password the password of the user
+     * @param concurrency the number of resources checked at the same time
+     * @param timeoutMillis the connect and read timeout
+     */
+    public LinkedResourceChecker(URI baseUri, String user, String password, int concurrency, int timeoutMillis) {
+        target = new HttpHost(baseUri.getHost(), baseUri.getPort(), baseUri.getScheme());
+        credentials = new BasicCredentialsProvider();
+        credentials.setCredentials(new AuthScope(target), new UsernamePasswordCredentials(user, password));
+        connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(concurrency);
+        connections.setDefaultMaxPerRoute(concurrency);
+        http = HttpClients.custom()
+                .setConnectionManager(connections)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(timeoutMillis)
+                        .setSocketTimeout(timeoutMillis)
+                        .setConnectionRequestTimeout(timeoutMillis)
+                        .build())
+                .build();
+        executor = Executors.newFixedThreadPool(concurrency);
+    }
+
+    /**
+     * Checks the resources, each distinct resource once.
+     *
+     * @param references the resources to check
+     * @return the results in the order of the first reference to each resource
+     * @throws InterruptedException if interrupted while waiting for the checks
+     */
+    public List<Result> check(Collection<URI> references) throws InterruptedException {
+        List<Callable<Result>> checks = new ArrayList<>();
+        for (URI uri : deduplicate(references)) {
+            checks.add(() -> check(uri));
+        }
+        List<Result> results = new ArrayList<>();
+        for (Future<Result> result : executor.invokeAll(checks)) {
+            try {
+                results.add(result.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Check failed unexpectedly", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        try {
+            http.close();
+        } finally {
+            connections.close();
+        }
+    }
+
+    /** Checks if two URIs have the same origin.
+     *
+     * @param uri1 first URI
+     * @param uri2 second URI
+     * @return true if two URI come from the same host, port and use the same scheme
+     */
+    public static boolean isSameOrigin(URI uri1, URI uri2) {
+        if (uri1.getScheme() == null || !uri1.getScheme().equalsIgnoreCase(uri2.getScheme())) {
+            return false;
+        } else return uri1.getAuthority() != null && uri1.getAuthority().equalsIgnoreCase(uri2.getAuthority());
+    }
+
+    /**
+     * @return the references without fragments, each once
+     */
+    static Set<URI> deduplicate(Collection<URI> references) {
+        Set<URI> unique = new LinkedHashSet<>();
+        for (URI reference : references) {
+            try {
+                unique.add(new URI(reference.getScheme(), reference.getRawAuthority() == null ? null : reference.getAuthority(),
+                        reference.getPath(), reference.getQuery(), null));
+            } catch (URISyntaxException e) {
+                unique.add(reference);
+            }
+        }
+        return unique;
+    }
+
+    private Result check(URI uri) {
+        long start = System.nanoTime();
+        try {
+            Result result = execute(new HttpHead(uri), uri, start);
+            if (result.getStatus() == HttpStatus.SC_METHOD_NOT_ALLOWED || result.getStatus() == HttpStatus.SC_NOT_IMPLEMENTED) {
+                result = execute(new HttpGet(uri), uri, System.nanoTime());
+            }
+            return result;
+        } catch (IOException e) {
+            return new Result(uri, 0, -1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.toString());
+        }
+    }
+
+    private Result execute(HttpRequestBase request, URI uri, long start) throws IOException {
+        // preemptive authentication, the contexts must not be shared between threads
+        AuthCache authCache = new BasicAuthCache();
+        authCache.put(target, new BasicScheme());
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider(credentials);
+        context.setAuthCache(authCache);
+        try (CloseableHttpResponse response = http.execute(request, context)) {
+            long contentLength = -1;
+            Header header = response.getFirstHeader("Content-Length");
+            if (header != null) {
+                contentLength = Long.parseLong(header.getValue().trim());
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                byte[] body = EntityUtils.toByteArray(entity);
+                if (contentLength < 0) {
+                    contentLength = body.length;
+                }
+            }
+            return new Result(uri, response.getStatusLine().getStatusCode(), contentLength,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), null);
+        }
+    }
+}
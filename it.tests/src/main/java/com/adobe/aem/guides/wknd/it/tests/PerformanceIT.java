@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.adobe.aem.guides.wknd.it.tests;
+
+import com.adobe.cq.testing.client.CQClient;
+import com.adobe.cq.testing.junit.rules.CQAuthorPublishClassRule;
+import com.adobe.cq.testing.junit.rules.CQRule;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of key URLs on the publish service and fails when a percentile
+ * exceeds its budget by more than the tolerance. The URLs and their budgets are read from
+ * <code>performance-budgets.properties</code>; every URL is requested a number of times to
+ * warm up caches and JIT before it is measured. The measurements are written as JSON, so
+ * they can be tracked across builds.
+ * <p>
+ * Settings, as system properties:
+ * <ul>
+ * <li><code>it.perf.budgets</code>: file with the budgets, instead of the one on the classpath</li>
+ * <li><code>it.perf.warmup</code>: warmup requests per URL, 10 by default</li>
+ * <li><code>it.perf.iterations</code>: measured requests per URL, 50 by default</li>
+ * <li><code>it.perf.tolerance</code>: percentage a budget may be exceeded by, 10 by default</li>
+ * <li><code>it.perf.results</code>: file the results are written to,
+ * <code>target/performance-results.json</code> by default</li>
+ * </ul>
+ */
+public class PerformanceIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PerformanceIT.class);
+
+    private static final String BUDGETS_RESOURCE = "performance-budgets.properties";
+
+    private static final int WARMUP = Integer.getInteger("it.perf.warmup", 10);
+
+    private static final int ITERATIONS = Integer.getInteger("it.perf.iterations", 50);
+
+    private static final int TOLERANCE_PERCENT = Integer.getInteger("it.perf.tolerance", 10);
+
+    private static final String RESULTS = System.getProperty("it.perf.results", "target/performance-results.json");
+
+    @ClassRule
+    public static final CQAuthorPublishClassRule cqBaseClassRule = new CQAuthorPublishClassRule();
+
+    @Rule
+    public CQRule cqBaseRule = new CQRule(cqBaseClassRule.publishRule);
+
+    static CQClient adminPublish;
+
+    @BeforeClass
+    public static void beforeClass() throws ClientException {
+        adminPublish = cqBaseClassRule.publishRule.getAdminClient(CQClient.class);
+    }
+
+    /**
+     * Verifies that no URL is slower than its budgets allow
+     */
+    @Test
+    public void testLatencyBudgets() throws ClientException, IOException {
+        Map<String, Map<Double, Long>> budgets = loadBudgets();
+        assertTrue("No latency budgets configured", !budgets.isEmpty());
+
+        List<LatencyMeasurement> measurements = new ArrayList<>();
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Map<Double, Long>> budget : budgets.entrySet()) {
+            LatencyMeasurement measurement = measure(budget.getKey());
+            LOG.info("measured {}", measurement);
+            measurements.add(measurement);
+            for (Map.Entry<Double, Long> percentile : budget.getValue().entrySet()) {
+                long measured = measurement.getPercentile(percentile.getKey());
+                long allowed = percentile.getValue() + percentile.getValue() * TOLERANCE_PERCENT / 100;
+                if (measured > allowed) {
+                    regressions.add(budget.getKey() + " p" + format(percentile.getKey()) + " is " + measured
+                            + " ms, budget " + percentile.getValue() + " ms + " + TOLERANCE_PERCENT + "%");
+                }
+            }
+        }
+        writeResults(measurements, budgets, regressions);
+        assertTrue(regressions.size() + " latency budgets exceeded:\n" + String.join("\n", regressions),
+                regressions.isEmpty());
+    }
+
+    private static LatencyMeasurement measure(String path) throws ClientException {
+        for (int i = 0; i < WARMUP; i++) {
+            adminPublish.doGet(path, 200);
+        }
+        long[] millis = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            adminPublish.doGet(path, 200);
+            millis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        return new LatencyMeasurement(path, millis);
+    }
+
+    /**
+     * @return the budgets per path and percentile, from keys like <code>/content/page.html.p95</code>
+     */
+    private static Map<String, Map<Double, Long>> loadBudgets() throws IOException {
+        Properties properties = new Properties();
+        String file = System.getProperty("it.perf.budgets");
+        try (InputStream in = file != null ? new FileInputStream(file)
+                : PerformanceIT.class.getClassLoader().getResourceAsStream(BUDGETS_RESOURCE)) {
+            if (in == null) {
+                throw new IOException(BUDGETS_RESOURCE + " not found");
+            }
+            properties.load(in);
+        }
+        Map<String, Map<Double, Long>> budgets = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.lastIndexOf(".p");
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Budget " + key + " does not end with a percentile like .p95");
+            }
+            budgets.computeIfAbsent(key.substring(0, separator), path -> new TreeMap<>())
+                    .put(Double.valueOf(key.substring(separator + 2)), Long.valueOf(properties.getProperty(key).trim()));
+        }
+        return budgets;
+    }
+
+    private static void writeResults(List<LatencyMeasurement> measurements, Map<String, Map<Double, Long>> budgets,
+            List<String> regressions) throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"timestamp\": ").append(System.currentTimeMillis()).append(",\n");
+        json.append("  \"warmup\": ").append(WARMUP).append(",\n");
+        json.append("  \"iterations\": ").append(ITERATIONS).append(",\n");
+        json.append("  \"tolerancePercent\": ").append(TOLERANCE_PERCENT).append(",\n");
+        json.append("  \"passed\": ").append(regressions.isEmpty()).append(",\n");
+        json.append("  \"urls\": [");
+        for (int i = 0; i < measurements.size(); i++) {
+            LatencyMeasurement measurement = measurements.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\"path\": \"").append(escape(measurement.getPath())).append('"')
+                    .append(", \"count\": ").append(measurement.getCount())
+                    .append(", \"min\": ").append(measurement.getMin())
+                    .append(", \"mean\": ").append(String.format(Locale.ROOT, "%.1f", measurement.getMean()))
+                    .append(", \"p50\": ").append(measurement.getPercentile(50))
+                    .append(", \"p95\": ").append(measurement.getPercentile(95))
+                    .append(", \"p99\": ").append(measurement.getPercentile(99))
+                    .append(", \"max\": ").append(measurement.getMax())
+                    .append(", \"budgets\": {");
+            String separator = "";
+            for (Map.Entry<Double, Long> budget : budgets.get(measurement.getPath()).entrySet()) {
+                json.append(separator).append("\"p").append(format(budget.getKey())).append("\": ").append(budget.getValue());
+                separator = ", ";
+            }
+            json.append("}}");
+        }
+        json.append("\n  ],\n  \"regressions\": [");
+        for (int i = 0; i < regressions.size(); i++) {
+            json.append(i == 0 ? "" : ", ").append('"').append(escape(regressions.get(i))).append('"');
+        }
+        json.append("]\n}\n");
+
+        File results = new File(RESULTS);
+        if (results.getParentFile() != null) {
+            results.getParentFile().mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(results.toPath()), StandardCharsets.UTF_8)) {
+            writer.write(json.toString());
+        }
+        LOG.info("performance results written to {}", results.getAbsolutePath());
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
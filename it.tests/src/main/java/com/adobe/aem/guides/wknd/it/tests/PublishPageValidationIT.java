@@ -25,7 +25,6 @@ import com.adobe.cq.testing.junit.rules.Page;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.sling.testing.clients.ClientException;
-import org.apache.sling.testing.clients.SlingHttpResponse;
 import org.eclipse.jetty.client.HttpResponse;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -43,6 +42,7 @@ import static org.apache.commons.io.IOUtils.closeQuietly;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -60,6 +60,14 @@ public class PublishPageValidationIT {
     // list files which do return a zerobyte response body
     private static final List<String> ZEROBYTEFILES = Arrays.asList();
 
+    // linked resources taking longer are reported as failures, override with -Dit.linked.resource.budget.ms
+    private static final long LATENCY_BUDGET_MS = Long.getLong("it.linked.resource.budget.ms", 2000);
+
+    // number of linked resources requested at the same time, override with -Dit.linked.resource.concurrency
+    private static final int CONCURRENCY = Integer.getInteger("it.linked.resource.concurrency", 8);
+
+    private static final int TIMEOUT_MS = Integer.getInteger("it.linked.resource.timeout.ms", 10000);
+
 
 
     private static final org.slf4j.Logger LOG = LoggerFactory.getLogger(PublishPageValidationIT.class);
@@ -87,7 +95,7 @@ public class PublishPageValidationIT {
 
     @Test
     @Ignore
-    public void validateHomepage() throws ClientException, IOException, URISyntaxException {
+    public void validateHomepage() throws ClientException, IOException, URISyntaxException, InterruptedException {
         String path = HOMEPAGE;
         verifyPage(adminPublish, path);
         verifyLinkedResources(adminPublish,path);
@@ -104,40 +112,39 @@ public class PublishPageValidationIT {
                 200, validationResponse.getStatusLine().getStatusCode());
     }
 
-    private static void verifyLinkedResources(HtmlUnitClient client, String path) throws ClientException, IOException, URISyntaxException {
+    private static void verifyLinkedResources(HtmlUnitClient client, String path) throws ClientException, IOException, URISyntaxException, InterruptedException {
 
         List<URI> references = client.getResourceRefs(path);
         assertTrue(path + " does not contain any references!", references.size() > 0);
-        for (URI ref : references ) {
-            if (isSameOrigin(client.getUrl(), ref)) {
-                LOG.info("verifying linked resource {}", ref.toString());
-                SlingHttpResponse response = client.doGet(ref.getRawPath());
-                int statusCode = response.getStatusLine().getStatusCode();
-                int responseSize = response.getContent().length();
-                assertEquals("Unexpected status returned from [" + ref + "]", 200, statusCode);
+        List<URI> sameOrigin = new ArrayList<>();
+        for (URI ref : references) {
+            if (LinkedResourceChecker.isSameOrigin(client.getUrl(), ref)) {
+                sameOrigin.add(ref);
+            } else {
+                LOG.info("skipping linked resource from another domain {}", ref.toString());
+            }
+        }
+
+        List<String> failures = new ArrayList<>();
+        try (LinkedResourceChecker checker = new LinkedResourceChecker(client.getUrl(), client.getUser(), client.getPassword(),
+                CONCURRENCY, TIMEOUT_MS)) {
+            for (LinkedResourceChecker.Result result : checker.check(sameOrigin)) {
+                URI ref = result.getUri();
+                LOG.info("verified linked resource {} in {} ms", ref.toString(), result.getLatencyMillis());
+                if (result.getStatus() != 200) {
+                    failures.add("Unexpected status returned from [" + result + "]");
+                } else if (result.getLatencyMillis() > LATENCY_BUDGET_MS) {
+                    failures.add("Linked resource [" + result + "] is slower than the budget of " + LATENCY_BUDGET_MS + " ms");
+                }
                 if (! ZEROBYTEFILES.stream().anyMatch(s -> ref.getPath().startsWith(s))) {
-                    if (responseSize == 0) {
+                    if (result.getStatus() == 200 && result.getContentLength() == 0) {
                         LOG.warn("Empty response body from [" + ref.getPath() + "], please validate if this is correct");
                     }
                 }
-
-            } else {
-                LOG.info("skipping linked resource from another domain {}", ref.toString());
             }
         }
+        assertTrue(failures.size() + " linked resources of " + path + " failed:\n" + String.join("\n", failures),
+                failures.isEmpty());
     }
 
-    /** Checks if two URIs have the same origin.
-     *
-     * @param uri1 first URI
-     * @param uri2 second URI
-     * @return true if two URI come from the same host, port and use the same scheme
-     */
-    private static boolean isSameOrigin(URI uri1, URI uri2) {
-        if (!uri1.getScheme().equals(uri2.getScheme())) {
-            return false;
-        } else return uri1.getAuthority().equals(uri2.getAuthority());
-    }
-
-
 }
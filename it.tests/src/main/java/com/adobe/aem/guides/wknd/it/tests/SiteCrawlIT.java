@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.adobe.aem.guides.wknd.it.tests;
+
+import com.adobe.cq.testing.client.CQClient;
+import com.adobe.cq.testing.junit.rules.CQAuthorPublishClassRule;
+import com.adobe.cq.testing.junit.rules.CQRule;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Crawls the site on publish from the homepage and validates that no page or linked
+ * resource is broken. A report with status, size, time to first byte and total time of
+ * every URL is written as CSV.
+ * <p>
+ * Settings, as system properties:
+ * <ul>
+ * <li><code>it.crawl.concurrency</code>: URLs fetched at the same time, 8 by default</li>
+ * <li><code>it.crawl.delay.ms</code>: minimum time between two requests to a host, 10 by default</li>
+ * <li><code>it.crawl.max.urls</code>: URLs after which no more links are followed, 5000 by default</li>
+ * <li><code>it.crawl.report</code>: file the report is written to,
+ * <code>target/crawl-report.csv</code> by default</li>
+ * </ul>
+ */
+public class SiteCrawlIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SiteCrawlIT.class);
+
+    // the page to start from
+    private static final String HOMEPAGE = "/";
+
+    private static final int CONCURRENCY = Integer.getInteger("it.crawl.concurrency", 8);
+
+    private static final long DELAY_MS = Long.getLong("it.crawl.delay.ms", 10);
+
+    private static final int MAX_URLS = Integer.getInteger("it.crawl.max.urls", 5000);
+
+    private static final int TIMEOUT_MS = Integer.getInteger("it.crawl.timeout.ms", 30000);
+
+    private static final String REPORT = System.getProperty("it.crawl.report", "target/crawl-report.csv");
+
+    @ClassRule
+    public static final CQAuthorPublishClassRule cqBaseClassRule = new CQAuthorPublishClassRule(true);
+
+    @Rule
+    public CQRule cqBaseRule = new CQRule(cqBaseClassRule.publishRule);
+
+    private static HtmlUnitClient adminPublish;
+
+    @BeforeClass
+    public static void beforeClass() throws ClientException {
+        adminPublish = cqBaseClassRule.publishRule.getAdminClient(CQClient.class).adaptTo(HtmlUnitClient.class);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        closeQuietly(adminPublish);
+    }
+
+    /**
+     * Verifies that no URL reachable from the homepage is broken
+     */
+    @Test
+    public void crawlSite() throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        List<SiteCrawler.Result> results;
+        try (SiteCrawler crawler = new SiteCrawler(adminPublish, CONCURRENCY, DELAY_MS, MAX_URLS, TIMEOUT_MS)) {
+            results = crawler.crawl(HOMEPAGE);
+        }
+        long duration = System.currentTimeMillis() - start;
+        writeReport(results);
+
+        Map<Integer, Integer> statusCounts = new TreeMap<>();
+        List<String> broken = new ArrayList<>();
+        long[] ttfb = new long[results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            SiteCrawler.Result result = results.get(i);
+            statusCounts.merge(result.getStatus(), 1, Integer::sum);
+            ttfb[i] = result.getTtfbMillis();
+            if (result.isBroken()) {
+                broken.add(result.toString());
+            }
+        }
+        LOG.info("crawled {} URLs in {} ms, status codes {}", results.size(), duration, statusCounts);
+        if (!results.isEmpty()) {
+            LatencyMeasurement measurement = new LatencyMeasurement(HOMEPAGE, ttfb);
+            LOG.info("time to first byte p50={} ms, p95={} ms, p99={} ms, max={} ms", measurement.getPercentile(50),
+                    measurement.getPercentile(95), measurement.getPercentile(99), measurement.getMax());
+        }
+        assertTrue(broken.size() + " broken links found:\n" + String.join("\n", broken), broken.isEmpty());
+    }
+
+    private static void writeReport(List<SiteCrawler.Result> results) throws IOException {
+        File report = new File(REPORT);
+        if (report.getParentFile() != null) {
+            report.getParentFile().mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(report.toPath()), StandardCharsets.UTF_8)) {
+            writer.write("url,status,size,ttfb_ms,total_ms,referrer,error\n");
+            for (SiteCrawler.Result result : results) {
+                writer.write(csv(result.getUri()) + "," + result.getStatus() + "," + result.getSize() + ","
+                        + result.getTtfbMillis() + "," + result.getTotalMillis() + "," + csv(result.getReferrer()) + ","
+                        + csv(result.getError()) + "\n");
+            }
+        }
+        LOG.info("crawl report written to {}", report.getAbsolutePath());
+    }
+
+    private static String csv(Object value) {
+        return value == null ? "" : '"' + value.toString().replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2020 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.adobe.aem.guides.wknd.it.tests;
+
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.StringWebResponse;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.DomNode;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Node;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crawls a site from a start page, following same-origin links of the pages with a number
+ * of workers sharing one frontier. Pages are fetched over a pool of keep-alive connections
+ * and parsed with HTMLUnit, with JavaScript and CSS disabled, for their links and linked
+ * resources; other responses are fetched but not parsed. Every URL is normalized before it
+ * is added to the visited set, so it is requested once however it is referenced. Requests
+ * to a host are spaced by a politeness delay, whatever the number of workers.
+ */
+public class SiteCrawler implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SiteCrawler.class);
+
+    private static final long POLL_MILLIS = 50;
+
+    /**
+     * Outcome of fetching one URL.
+     */
+    public static final class Result {
+
+        private final URI uri;
+        private final URI referrer;
+        private final int status;
+        private final long size;
+        private final long ttfbMillis;
+        private final long totalMillis;
+        private final String error;
+
+        Result(URI uri, URI referrer, int status, long size, long ttfbMillis, long totalMillis, String error) {
+            this.uri = uri;
+            this.referrer = referrer;
+            this.status = status;
+            this.size = size;
+            this.ttfbMillis = ttfbMillis;
+            this.totalMillis = totalMillis;
+            this.error = error;
+        }
+
+        public URI getUri() {
+            return uri;
+        }
+
+        /** @return the page the URL was first found on, or null for the start page */
+        public URI getReferrer() {
+            return referrer;
+        }
+
+        /** @return the response status, or 0 if the request failed */
+        public int getStatus() {
+            return status;
+        }
+
+        /** @return the size of the response body */
+        public long getSize() {
+            return size;
+        }
+
+        /** @return the time until the response headers were received */
+        public long getTtfbMillis() {
+            return ttfbMillis;
+        }
+
+        /** @return the time until the response body was received */
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        /** @return the error of a failed request or of an invalid link, or null */
+        public String getError() {
+            return error;
+        }
+
+        /** @return true if the URL failed or answered with an error status */
+        public boolean isBroken() {
+            return error != null || status >= 400 || status == 0;
+        }
+
+        @Override
+        public String toString() {
+            return uri + " " + (error != null ? error : String.valueOf(status))
+                    + (referrer != null ? ", linked from " + referrer : "");
+        }
+    }
+
+    private final URI baseUri;
+
+    private final HttpHost target;
+
+    private final CredentialsProvider credentials;
+
+    private final PoolingHttpClientConnectionManager connections;
+
+    private final CloseableHttpClient http;
+
+    private final int concurrency;
+
+    private final long politenessNanos;
+
+    private final int maxUrls;
+
+    private final Queue<URI[]> frontier = new ConcurrentLinkedQueue<>();
+
+    private final Set<URI> visited = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Map<String, Long> nextRequestNanos = new ConcurrentHashMap<>();
+
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+
+    private final Queue<WebClient> webClients = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<WebClient> webClient = ThreadLocal.withInitial(() -> {
+        WebClient client = new WebClient();
+        client.getOptions().setJavaScriptEnabled(false);
+        client.getOptions().setCssEnabled(false);
+        webClients.add(client);
+        return client;
+    });
+
+    /**
+     * @param client the client of the instance to crawl, providing its URL and credentials
+     * @param concurrency the number of URLs fetched at the same time
+     * @param politenessMillis the minimum time between the starts of two requests to a host
+     * @param maxUrls the number of URLs after which no more links are followed
+     * @param timeoutMillis the connect and read timeout
+     */
+    public SiteCrawler(HtmlUnitClient client, int concurrency, long politenessMillis, int maxUrls, int timeoutMillis) {
+        this.baseUri = client.getUrl();
+        this.concurrency = concurrency;
+        this.politenessNanos = TimeUnit.MILLISECONDS.toNanos(politenessMillis);
+        this.maxUrls = maxUrls;
+        target = new HttpHost(baseUri.getHost(), baseUri.getPort(), baseUri.getScheme());
+        credentials = new BasicCredentialsProvider();
+        credentials.setCredentials(new AuthScope(target), new UsernamePasswordCredentials(client.getUser(), client.getPassword()));
+        connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(concurrency);
+        connections.setDefaultMaxPerRoute(concurrency);
+        http = HttpClients.custom()
+                .setConnectionManager(connections)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(timeoutMillis)
+                        .setSocketTimeout(timeoutMillis)
+                        .setConnectionRequestTimeout(timeoutMillis)
+                        .setRedirectsEnabled(false)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Crawls the site from the start page until no unvisited link is left or the maximum
+     * number of URLs is reached.
+     *
+     * @param startPath the path of the start page
+     * @return the results in the order the URLs were fetched
+     * @throws InterruptedException if interrupted while crawling
+     */
+    public List<Result> crawl(String startPath) throws InterruptedException {
+        enqueue(baseUri.resolve(startPath), null);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                workers.execute(this::work);
+            }
+            workers.shutdown();
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("crawled {} URLs, {} pending", results.size(), pending.get());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new ArrayList<>(results);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (WebClient client : webClients) {
+            client.close();
+        }
+        try {
+            http.close();
+        } finally {
+            connections.close();
+        }
+    }
+
+    /**
+     * Normalizes a URL so that equivalent references are visited once: the scheme and host are
+     * lower cased, a default port, dot segments and the fragment are removed and an empty path
+     * becomes <code>/</code>.
+     *
+     * @param uri an absolute URL
+     * @return the normalized URL
+     * @throws URISyntaxException if the URL cannot be rebuilt
+     */
+    static URI normalize(URI uri) throws URISyntaxException {
+        String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = uri.getHost() == null ? null : uri.getHost().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        if ("http".equals(scheme) && port == 80 || "https".equals(scheme) && port == 443) {
+            port = -1;
+        }
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        return new URI(scheme, uri.getUserInfo(), host, port, path, uri.getQuery(), null).normalize();
+    }
+
+    private void enqueue(URI uri, URI referrer) {
+        URI normalized;
+        try {
+            normalized = normalize(uri);
+        } catch (URISyntaxException e) {
+            results.add(new Result(uri, referrer, 0, 0, 0, 0, "Invalid link: " + e.getMessage()));
+            return;
+        }
+        if (visited.size() < maxUrls && visited.add(normalized)) {
+            pending.incrementAndGet();
+            frontier.add(new URI[] {normalized, referrer});
+        }
+    }
+
+    private void work() {
+        try {
+            while (pending.get() > 0) {
+                URI[] next = frontier.poll();
+                if (next == null) {
+                    // another worker may still add links of the page it is fetching
+                    Thread.sleep(POLL_MILLIS);
+                    continue;
+                }
+                try {
+                    results.add(fetch(next[0], next[1]));
+                } finally {
+                    pending.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Result fetch(URI uri, URI referrer) throws InterruptedException {
+        awaitPoliteness(uri);
+        long start = System.nanoTime();
+        AuthCache authCache = new BasicAuthCache();
+        authCache.put(target, new BasicScheme());
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider(credentials);
+        context.setAuthCache(authCache);
+        try (CloseableHttpResponse response = http.execute(new HttpGet(uri), context)) {
+            long ttfb = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            int status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            byte[] body = entity != null ? EntityUtils.toByteArray(entity) : new byte[0];
+            long total = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (status >= 300 && status < 400 && response.getFirstHeader("Location") != null) {
+                followLink(uri, response.getFirstHeader("Location").getValue());
+            } else if (status == 200 && entity != null && isHtml(entity)) {
+                Charset charset = ContentType.getOrDefault(entity).getCharset();
+                followLinks(uri, new String(body, charset != null ? charset : StandardCharsets.UTF_8));
+            }
+            return new Result(uri, referrer, status, body.length, ttfb, total, null);
+        } catch (IOException | RuntimeException e) {
+            return new Result(uri, referrer, 0, 0, 0, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.toString());
+        }
+    }
+
+    /**
+     * Waits until the next request to the host of the URL is allowed.
+     */
+    private void awaitPoliteness(URI uri) throws InterruptedException {
+        long now = System.nanoTime();
+        long slot = nextRequestNanos.merge(uri.getAuthority(), now + politenessNanos,
+                (next, proposed) -> Math.max(next, System.nanoTime()) + politenessNanos) - politenessNanos;
+        if (slot > now) {
+            TimeUnit.NANOSECONDS.sleep(slot - now);
+        }
+    }
+
+    private static boolean isHtml(HttpEntity entity) {
+        ContentType contentType = ContentType.getOrDefault(entity);
+        return "text/html".equalsIgnoreCase(contentType.getMimeType());
+    }
+
+    private void followLinks(URI pageUri, String html) throws IOException {
+        Page page = webClient.get().loadWebResponseInto(new StringWebResponse(html, pageUri.toURL()),
+                webClient.get().getCurrentWindow());
+        if (!(page instanceof HtmlPage)) {
+            return;
+        }
+        HtmlPage htmlPage = (HtmlPage) page;
+        URI base;
+        try {
+            base = new URI(htmlPage.getBaseURI());
+        } catch (URISyntaxException e) {
+            base = pageUri;
+        }
+        followLinks(base, pageUri, htmlPage, "a", "href");
+        followLinks(base, pageUri, htmlPage, "link", "href");
+        followLinks(base, pageUri, htmlPage, "script", "src");
+        followLinks(base, pageUri, htmlPage, "img", "src");
+    }
+
+    private void followLinks(URI base, URI pageUri, HtmlPage page, String tag, String refAttr) {
+        for (DomNode element : page.getElementsByTagName(tag)) {
+            Node ref = element.getAttributes().getNamedItem(refAttr);
+            if (ref != null && !ref.getNodeValue().trim().isEmpty()) {
+                followLink(base, pageUri, ref.getNodeValue().trim());
+            }
+        }
+    }
+
+    private void followLink(URI pageUri, String ref) {
+        followLink(pageUri, pageUri, ref);
+    }
+
+    private void followLink(URI base, URI pageUri, String ref) {
+        URI uri;
+        try {
+            uri = base.resolve(new URI(ref));
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            results.add(new Result(pageUri, null, 0, 0, 0, 0, "Invalid link [" + ref + "]: " + e.getMessage()));
+            return;
+        }
+        if (LinkedResourceChecker.isSameOrigin(baseUri, uri)) {
+            enqueue(uri, pageUri);
+        }
+    }
+}